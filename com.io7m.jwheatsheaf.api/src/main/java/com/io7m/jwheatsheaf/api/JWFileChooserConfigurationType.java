@@ -25,6 +25,7 @@ import java.net.URL;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
@@ -209,6 +210,14 @@ public interface JWFileChooserConfigurationType
       );
     }
 
+    this.directoryPollingInterval().ifPresent(interval -> {
+      Preconditions.checkPreconditionV(
+        interval.isPositive(),
+        "Polling interval %s must be positive",
+        interval
+      );
+    });
+
     final var filterOpt = this.fileFilterDefault();
     filterOpt.ifPresent(filter -> {
       Preconditions.checkPreconditionV(
@@ -234,6 +243,64 @@ public interface JWFileChooserConfigurationType
     return false;
   }
 
+  /**
+   * If set to {@code true}, the file chooser watches the current directory
+   * using the filesystem's watch service, and entries that are created,
+   * modified, or deleted while the chooser is open are updated in the
+   * directory listing without listing the directory again.
+   *
+   * @return {@code true} if the current directory should be watched
+   *
+   * @since 4.1.0
+   */
+
+  @Value.Default
+  default boolean watchCurrentDirectory()
+  {
+    return false;
+  }
+
+  /**
+   * The interval at which the current directory is polled for changes. The
+   * directory is polled only if it is not being watched using the
+   * filesystem's watch service, either because
+   * {@link #watchCurrentDirectory()} is {@code false} or because the
+   * filesystem does not provide a watch service. Polling examines only the
+   * modification time and file key of the directory, and the directory is
+   * listed again only when these change. The interval is lengthened, up to
+   * a limit, for as long as the directory remains unchanged.
+   *
+   * @return The polling interval, if the current directory should be polled
+   *
+   * @since 4.1.0
+   */
+
+  Optional<Duration> directoryPollingInterval();
+
+  /**
+   * If set to {@code true}, directories are listed by name alone, and the
+   * kind, size, and modification time of each file are fetched in the
+   * background, beginning with the files that are visible in the directory
+   * listing. The attributes of every file in a directory are fetched only
+   * when they are required, such as when the listing is sorted by size or
+   * time. This is intended for directories with very large numbers of
+   * entries, where reading the attributes of every entry before showing
+   * the listing would be too slow. Listings produced in this mode are not
+   * cached. Files whose attributes have not yet been fetched are filtered
+   * using {@link JWFileChooserFilterType#mayBeAllowed(Path)}
+   * alone, and are filtered again once their attributes arrive.
+   *
+   * @return {@code true} if file attributes should be fetched lazily
+   *
+   * @since 4.1.0
+   */
+
+  @Value.Default
+  default boolean fetchFileAttributesLazily()
+  {
+    return false;
+  }
+
   /**
    * @return A provider of UI string overrides
    *
@@ -24,6 +24,28 @@ import java.nio.file.Path;
  * A filter consists of a humanly-readable description which is displayed
  * in the file chooser UI, and a function {@link #isAllowed(Path)} that
  * returns {@code true} if the file should appear in listings.
+ *
+ * The file chooser evaluates filters using
+ * {@link #isAllowed(JWFileInfoType)}, passing in the attributes that were
+ * already read when the directory was listed. By default, this delegates to
+ * {@link #isAllowed(Path)}. Filters that would otherwise need to query the
+ * filesystem (to ask if a file is a directory, for example) should override
+ * it to avoid repeating that I/O for every file, each time the listing is
+ * filtered.
+ *
+ * Filters that can reject some files by path alone may also override
+ * {@link #mayBeAllowed(Path)}, which the file chooser evaluates while a
+ * directory is being listed. Files rejected by that method are never
+ * examined any further.
+ *
+ * When file attributes are fetched lazily, a file is listed before its
+ * attributes have been read. Until they have been read, the file chooser
+ * evaluates only {@link #mayBeAllowed(Path)} for the file, and shows the
+ * file if that method returns {@code true}; it then evaluates
+ * {@link #isAllowed(JWFileInfoType)} once the attributes arrive. Filters
+ * are therefore never passed placeholder attributes.
+ *
+ * @see JWFileChooserConfigurationType#fetchFileAttributesLazily()
  */
 
 public interface JWFileChooserFilterType
@@ -41,4 +63,40 @@ public interface JWFileChooserFilterType
    */
 
   boolean isAllowed(Path path);
+
+  /**
+   * @param file The input file, with its already-resolved attributes; this
+   *             is never called for a file whose attributes have not yet
+   *             been read
+   *
+   * @return {@code true} if the file should appear in listings
+   *
+   * @since 4.1.0
+   */
+
+  default boolean isAllowed(
+    final JWFileInfoType file)
+  {
+    return this.isAllowed(file.path());
+  }
+
+  /**
+   * Determine, without examining the file or its attributes in any way,
+   * whether the file with the given path could appear in listings. A filter
+   * may return {@code false} only if {@link #isAllowed(JWFileInfoType)}
+   * would return {@code false} for the file regardless of its attributes.
+   * By default, every file may be allowed.
+   *
+   * @param path The input file
+   *
+   * @return {@code false} if the file cannot appear in listings
+   *
+   * @since 4.1.0
+   */
+
+  default boolean mayBeAllowed(
+    final Path path)
+  {
+    return true;
+  }
 }
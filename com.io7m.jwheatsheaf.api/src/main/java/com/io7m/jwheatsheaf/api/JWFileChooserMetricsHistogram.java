@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.api;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative values.
+ *
+ * Values are counted in buckets: values below eight each have their own
+ * bucket, and every larger power-of-two range is divided into eight
+ * buckets of equal width. Percentiles are therefore reported with a
+ * relative error of at most 12.5%, in a fixed amount of memory regardless
+ * of the number of values recorded. The minimum, maximum, and mean are
+ * exact. Histograms are thread-safe.
+ *
+ * @since 4.1.0
+ */
+
+public final class JWFileChooserMetricsHistogram
+{
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS =
+    SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final long[] buckets;
+  private long count;
+  private long sum;
+  private long minimum;
+  private long maximum;
+
+  /**
+   * Create an empty histogram.
+   */
+
+  public JWFileChooserMetricsHistogram()
+  {
+    this.buckets = new long[BUCKETS];
+    this.clear();
+  }
+
+  private static int bucketOf(
+    final long value)
+  {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final var shift = exponent - SUB_BUCKET_BITS;
+    final var sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+  }
+
+  private static long bucketUpperBound(
+    final int bucket)
+  {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final var shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    final var sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    final var lower = (long) (SUB_BUCKETS + sub) << shift;
+    return lower + ((1L << shift) - 1L);
+  }
+
+  private void clear()
+  {
+    Arrays.fill(this.buckets, 0L);
+    this.count = 0L;
+    this.sum = 0L;
+    this.minimum = Long.MAX_VALUE;
+    this.maximum = Long.MIN_VALUE;
+  }
+
+  /**
+   * Record a value. Negative values are recorded as zero.
+   *
+   * @param value The value
+   */
+
+  public synchronized void record(
+    final long value)
+  {
+    final var clamped = Math.max(0L, value);
+    this.buckets[bucketOf(clamped)] += 1L;
+    this.count += 1L;
+    this.sum += clamped;
+    this.minimum = Math.min(this.minimum, clamped);
+    this.maximum = Math.max(this.maximum, clamped);
+  }
+
+  /**
+   * @return The number of recorded values
+   */
+
+  public synchronized long count()
+  {
+    return this.count;
+  }
+
+  /**
+   * @return The sum of the recorded values
+   */
+
+  public synchronized long sum()
+  {
+    return this.sum;
+  }
+
+  /**
+   * @return The smallest recorded value, or {@code 0} if there are none
+   */
+
+  public synchronized long minimum()
+  {
+    return this.count == 0L ? 0L : this.minimum;
+  }
+
+  /**
+   * @return The largest recorded value, or {@code 0} if there are none
+   */
+
+  public synchronized long maximum()
+  {
+    return this.count == 0L ? 0L : this.maximum;
+  }
+
+  /**
+   * @return The mean of the recorded values, or {@code 0} if there are none
+   */
+
+  public synchronized double mean()
+  {
+    return this.count == 0L ? 0.0 : (double) this.sum / (double) this.count;
+  }
+
+  /**
+   * Find the value at the given percentile. The result is the upper bound
+   * of the bucket containing the percentile, limited to the largest
+   * recorded value.
+   *
+   * @param percentile The percentile in the range {@code [0, 100]}
+   *
+   * @return The value at the percentile, or {@code 0} if there are no values
+   */
+
+  public synchronized long percentile(
+    final double percentile)
+  {
+    Preconditions.checkPreconditionV(
+      percentile >= 0.0 && percentile <= 100.0,
+      "Percentile %f must be in the range [0, 100]",
+      Double.valueOf(percentile)
+    );
+
+    if (this.count == 0L) {
+      return 0L;
+    }
+
+    final var rank =
+      Math.max(1L, (long) Math.ceil((percentile / 100.0) * this.count));
+
+    var seen = 0L;
+    for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+      seen += this.buckets[bucket];
+      if (seen >= rank) {
+        return Math.max(
+          this.minimum,
+          Math.min(this.maximum, bucketUpperBound(bucket)));
+      }
+    }
+    return this.maximum;
+  }
+
+  /**
+   * Discard all recorded values.
+   */
+
+  public synchronized void reset()
+  {
+    this.clear();
+  }
+
+  @Override
+  public synchronized String toString()
+  {
+    return "[count %d, min %d, p50 %d, p99 %d, max %d]".formatted(
+      Long.valueOf(this.count),
+      Long.valueOf(this.minimum()),
+      Long.valueOf(this.percentile(50.0)),
+      Long.valueOf(this.percentile(99.0)),
+      Long.valueOf(this.maximum())
+    );
+  }
+}
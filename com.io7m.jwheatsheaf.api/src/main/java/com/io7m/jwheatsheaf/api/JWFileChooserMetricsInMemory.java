@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics receiver that accumulates measurements in memory, as
+ * histograms and counters, so that they can be inspected by tests and
+ * diagnostic tools. Durations are recorded in nanoseconds.
+ *
+ * @since 4.1.0
+ */
+
+public final class JWFileChooserMetricsInMemory
+  implements JWFileChooserMetricsType
+{
+  private final JWFileChooserMetricsHistogram listingFirstRows;
+  private final JWFileChooserMetricsHistogram listingCompleted;
+  private final JWFileChooserMetricsHistogram listingEntriesPerSecond;
+  private final JWFileChooserMetricsHistogram filterTime;
+  private final JWFileChooserMetricsHistogram searchTime;
+  private final JWFileChooserMetricsHistogram fxThreadTime;
+  private final LongAdder attributeReads;
+  private final LongAdder cacheHits;
+  private final LongAdder cacheMisses;
+
+  private JWFileChooserMetricsInMemory()
+  {
+    this.listingFirstRows = new JWFileChooserMetricsHistogram();
+    this.listingCompleted = new JWFileChooserMetricsHistogram();
+    this.listingEntriesPerSecond = new JWFileChooserMetricsHistogram();
+    this.filterTime = new JWFileChooserMetricsHistogram();
+    this.searchTime = new JWFileChooserMetricsHistogram();
+    this.fxThreadTime = new JWFileChooserMetricsHistogram();
+    this.attributeReads = new LongAdder();
+    this.cacheHits = new LongAdder();
+    this.cacheMisses = new LongAdder();
+  }
+
+  /**
+   * @return A new metrics receiver with no measurements
+   */
+
+  public static JWFileChooserMetricsInMemory create()
+  {
+    return new JWFileChooserMetricsInMemory();
+  }
+
+  /**
+   * @return The times from the start of listings to their first rows
+   */
+
+  public JWFileChooserMetricsHistogram listingTimeToFirstRows()
+  {
+    return this.listingFirstRows;
+  }
+
+  /**
+   * @return The times taken to complete listings
+   */
+
+  public JWFileChooserMetricsHistogram listingTimeToComplete()
+  {
+    return this.listingCompleted;
+  }
+
+  /**
+   * @return The rates, in entries per second, of completed listings
+   */
+
+  public JWFileChooserMetricsHistogram listingEntriesPerSecond()
+  {
+    return this.listingEntriesPerSecond;
+  }
+
+  /**
+   * @return The times taken to evaluate the file type filter
+   */
+
+  public JWFileChooserMetricsHistogram filterTime()
+  {
+    return this.filterTime;
+  }
+
+  /**
+   * @return The times taken to evaluate searches
+   */
+
+  public JWFileChooserMetricsHistogram searchTime()
+  {
+    return this.searchTime;
+  }
+
+  /**
+   * @return The times spent on the FX application thread per update
+   */
+
+  public JWFileChooserMetricsHistogram fxThreadTime()
+  {
+    return this.fxThreadTime;
+  }
+
+  /**
+   * @return The number of attribute reads
+   */
+
+  public long attributeReads()
+  {
+    return this.attributeReads.sum();
+  }
+
+  /**
+   * @return The number of listing cache lookups that found a listing
+   */
+
+  public long cacheHits()
+  {
+    return this.cacheHits.sum();
+  }
+
+  /**
+   * @return The number of listing cache lookups that found nothing
+   */
+
+  public long cacheMisses()
+  {
+    return this.cacheMisses.sum();
+  }
+
+  /**
+   * @return The fraction of listing cache lookups that found a listing, or
+   * {@code 0} if there have been no lookups
+   */
+
+  public double cacheHitRate()
+  {
+    final var hits = this.cacheHits.sum();
+    final var total = hits + this.cacheMisses.sum();
+    return total == 0L ? 0.0 : (double) hits / (double) total;
+  }
+
+  /**
+   * Discard all measurements.
+   */
+
+  public void reset()
+  {
+    this.listingFirstRows.reset();
+    this.listingCompleted.reset();
+    this.listingEntriesPerSecond.reset();
+    this.filterTime.reset();
+    this.searchTime.reset();
+    this.fxThreadTime.reset();
+    this.attributeReads.reset();
+    this.cacheHits.reset();
+    this.cacheMisses.reset();
+  }
+
+  @Override
+  public void onListingFirstRows(
+    final Path directory,
+    final Duration elapsed)
+  {
+    this.listingFirstRows.record(elapsed.toNanos());
+  }
+
+  @Override
+  public void onListingCompleted(
+    final Path directory,
+    final int entries,
+    final Duration elapsed)
+  {
+    final var nanos = elapsed.toNanos();
+    this.listingCompleted.record(nanos);
+    if (nanos > 0L) {
+      this.listingEntriesPerSecond.record(
+        (long) (entries * 1_000_000_000.0 / nanos));
+    }
+  }
+
+  @Override
+  public void onAttributesRead(
+    final int count)
+  {
+    this.attributeReads.add(count);
+  }
+
+  @Override
+  public void onFilterEvaluated(
+    final int entries,
+    final Duration elapsed)
+  {
+    this.filterTime.record(elapsed.toNanos());
+  }
+
+  @Override
+  public void onSearchEvaluated(
+    final int entries,
+    final Duration elapsed)
+  {
+    this.searchTime.record(elapsed.toNanos());
+  }
+
+  @Override
+  public void onCacheLookup(
+    final Path directory,
+    final boolean hit)
+  {
+    if (hit) {
+      this.cacheHits.increment();
+    } else {
+      this.cacheMisses.increment();
+    }
+  }
+
+  @Override
+  public void onFXThreadUpdate(
+    final Duration elapsed)
+  {
+    this.fxThreadTime.record(elapsed.toNanos());
+  }
+}
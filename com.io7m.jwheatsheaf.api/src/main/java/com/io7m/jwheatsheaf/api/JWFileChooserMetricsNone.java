@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A metrics receiver that discards all measurements.
+ *
+ * @since 4.1.0
+ */
+
+public final class JWFileChooserMetricsNone
+  implements JWFileChooserMetricsType
+{
+  private static final JWFileChooserMetricsType INSTANCE =
+    new JWFileChooserMetricsNone();
+
+  private JWFileChooserMetricsNone()
+  {
+
+  }
+
+  /**
+   * @return The metrics receiver that discards all measurements
+   */
+
+  public static JWFileChooserMetricsType get()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public void onListingFirstRows(
+    final Path directory,
+    final Duration elapsed)
+  {
+
+  }
+
+  @Override
+  public void onListingCompleted(
+    final Path directory,
+    final int entries,
+    final Duration elapsed)
+  {
+
+  }
+
+  @Override
+  public void onAttributesRead(
+    final int count)
+  {
+
+  }
+
+  @Override
+  public void onFilterEvaluated(
+    final int entries,
+    final Duration elapsed)
+  {
+
+  }
+
+  @Override
+  public void onSearchEvaluated(
+    final int entries,
+    final Duration elapsed)
+  {
+
+  }
+
+  @Override
+  public void onCacheLookup(
+    final Path directory,
+    final boolean hit)
+  {
+
+  }
+
+  @Override
+  public void onFXThreadUpdate(
+    final Duration elapsed)
+  {
+
+  }
+}
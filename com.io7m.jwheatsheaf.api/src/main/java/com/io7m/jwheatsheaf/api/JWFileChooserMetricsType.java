@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A receiver of performance measurements from file choosers.
+ *
+ * A metrics receiver is supplied when a file chooser provider is created,
+ * and receives measurements from every file chooser created by the
+ * provider. Methods may be called from any thread, including the FX
+ * application thread, and may be called concurrently. Implementations must
+ * therefore be thread-safe, must return quickly, and must not throw
+ * exceptions.
+ *
+ * @since 4.1.0
+ */
+
+public interface JWFileChooserMetricsType
+{
+  /**
+   * The first entries of a directory listing were delivered to the UI.
+   *
+   * @param directory The directory
+   * @param elapsed   The time since the listing started
+   */
+
+  void onListingFirstRows(
+    Path directory,
+    Duration elapsed);
+
+  /**
+   * A directory listing completed. The listing rate is
+   * {@code entries / elapsed}.
+   *
+   * @param directory The directory
+   * @param entries   The number of entries listed
+   * @param elapsed   The time taken to list the directory
+   */
+
+  void onListingCompleted(
+    Path directory,
+    int entries,
+    Duration elapsed);
+
+  /**
+   * File attributes were read from the filesystem. Each read corresponds to
+   * one {@code stat} (or similar) call, and reads that fail are counted
+   * along with those that succeed.
+   *
+   * @param count The number of attribute reads
+   */
+
+  void onAttributesRead(int count);
+
+  /**
+   * The file type filter was evaluated over a set of entries.
+   *
+   * @param entries The number of entries examined
+   * @param elapsed The time taken
+   */
+
+  void onFilterEvaluated(
+    int entries,
+    Duration elapsed);
+
+  /**
+   * The search was evaluated over a set of entries.
+   *
+   * @param entries The number of entries examined
+   * @param elapsed The time taken
+   */
+
+  void onSearchEvaluated(
+    int entries,
+    Duration elapsed);
+
+  /**
+   * The directory listing cache was consulted.
+   *
+   * @param directory The directory
+   * @param hit       {@code true} if a listing was found in the cache
+   */
+
+  void onCacheLookup(
+    Path directory,
+    boolean hit);
+
+  /**
+   * An update was applied on the FX application thread.
+   *
+   * @param elapsed The time spent on the FX application thread
+   */
+
+  void onFXThreadUpdate(Duration elapsed);
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.api;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * The already-resolved attributes of a file in a directory listing.
+ *
+ * Values of this type are passed to
+ * {@link JWFileChooserFilterType#isAllowed(JWFileInfoType)} so that filters
+ * can make decisions without performing any further filesystem I/O. The
+ * attributes have always been read from the filesystem; files whose
+ * attributes are still being fetched are not passed to filters in this
+ * form.
+ *
+ * @since 4.1.0
+ */
+
+public interface JWFileInfoType
+{
+  /**
+   * @return The file path
+   */
+
+  Path path();
+
+  /**
+   * @return The file kind, without following symbolic links
+   */
+
+  JWFileKind kind();
+
+  /**
+   * @return The file kind after following symbolic links; this is the same
+   * as {@link #kind()} for anything other than a symbolic link
+   */
+
+  JWFileKind targetKind();
+
+  /**
+   * @return The file size
+   */
+
+  long size();
+
+  /**
+   * @return The file modification time
+   */
+
+  FileTime modifiedTime();
+
+  /**
+   * @return {@code true} if the file is a directory, or a symbolic link to
+   * a directory
+   *
+   * @see java.nio.file.Files#isDirectory(Path, java.nio.file.LinkOption...)
+   */
+
+  default boolean isDirectory()
+  {
+    return this.targetKind() == JWFileKind.DIRECTORY;
+  }
+}
@@ -19,7 +19,7 @@
  */
 
 @Export
-@Version("4.0.1")
+@Version("4.1.0")
 package com.io7m.jwheatsheaf.api;
 
 import org.osgi.annotation.bundle.Export;
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point for running benchmarks. Results are written as JMH's
+ * JSON result format, so that the results of different releases can be
+ * compared with standard JMH tooling.
+ *
+ * Usage: {@code JWBenchmarks [include-regex] [output-file]}, where the
+ * regular expression selects benchmarks by name (default: all benchmarks)
+ * and the output file defaults to {@code jmh-result.json}.
+ */
+
+public final class JWBenchmarks
+{
+  private JWBenchmarks()
+  {
+
+  }
+
+  /**
+   * Run benchmarks.
+   *
+   * @param args The command-line arguments
+   *
+   * @throws RunnerException On errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws RunnerException
+  {
+    final var include =
+      args.length > 0 ? args[0] : JWBenchmarks.class.getPackageName() + ".*";
+    final var output =
+      args.length > 1 ? args[1] : "jmh-result.json";
+
+    final var options =
+      new OptionsBuilder()
+        .include(include)
+        .resultFormat(ResultFormatType.JSON)
+        .result(output)
+        .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.benchmarks;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserConfigurationDefaults;
+import com.io7m.jwheatsheaf.api.JWFileSizeFormatterType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.attribute.FileTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the default size and time formatters, which are called
+ * for every visible row each time the directory table is laid out. Times
+ * are formatted in the same way as the time column of the table.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JWFileFormattersBenchmark
+{
+  private static final int VALUES = 1000;
+  private static final ZoneId UTC = ZoneId.of("UTC");
+
+  private JWFileSizeFormatterType sizeFormatter;
+  private DateTimeFormatter timeFormatter;
+  private long[] sizes;
+  private FileTime[] times;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JWFileFormattersBenchmark()
+  {
+
+  }
+
+  /**
+   * Create the formatters and values.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.sizeFormatter = JWFileChooserConfigurationDefaults.fileSizeFormatter();
+    this.timeFormatter = JWFileChooserConfigurationDefaults.fileTimeFormatter();
+
+    this.sizes = new long[VALUES];
+    this.times = new FileTime[VALUES];
+
+    var size = 1L;
+    for (int index = 0; index < VALUES; ++index) {
+      this.sizes[index] = size + index;
+      size = size >= Long.MAX_VALUE / 10L ? 1L : size * 10L;
+      this.times[index] = FileTime.fromMillis(index * 86_400_013L);
+    }
+  }
+
+  /**
+   * Format {@value #VALUES} sizes of varying magnitudes.
+   *
+   * @param blackhole The blackhole
+   */
+
+  @Benchmark
+  public void formatSizes(
+    final Blackhole blackhole)
+  {
+    for (final var size : this.sizes) {
+      blackhole.consume(this.sizeFormatter.formatSize(size));
+    }
+  }
+
+  /**
+   * Format {@value #VALUES} times.
+   *
+   * @param blackhole The blackhole
+   */
+
+  @Benchmark
+  public void formatTimes(
+    final Blackhole blackhole)
+  {
+    for (final var time : this.times) {
+      blackhole.consume(
+        this.timeFormatter.format(
+          OffsetDateTime.ofInstant(time.toInstant(), UTC))
+      );
+    }
+  }
+}
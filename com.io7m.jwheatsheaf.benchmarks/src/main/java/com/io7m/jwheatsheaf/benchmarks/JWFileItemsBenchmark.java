@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.benchmarks;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.testsupport.JWSyntheticTree;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for resolving directory listings into file items.
+ *
+ * The {@code listDirectorySeparateCalls} benchmark reproduces the original
+ * resolution strategy (one filesystem call per attribute) so that it can be
+ * compared against the single bulk attribute read used by
+ * {@link JWFileItems#listDirectory(Path, boolean)}.
+ *
+ * Directories are generated by {@link JWSyntheticTree} either in an
+ * in-memory filesystem, which measures the cost of resolution independently
+ * of the operating system, or in a directory on a real filesystem. The real directory is created in
+ * {@code /dev/shm} (typically a tmpfs) if it exists, and otherwise in the
+ * system temporary directory; the location can be overridden with the
+ * {@code com.io7m.jwheatsheaf.benchmarks.directory} system property.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JWFileItemsBenchmark
+{
+  @Param({"1000", "100000", "1000000"})
+  public int entries;
+
+  @Param({"MEMORY", "REAL"})
+  public String filesystemKind;
+
+  private FileSystem memory;
+  private Path directory;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JWFileItemsBenchmark()
+  {
+
+  }
+
+  /**
+   * Generate a directory containing the configured number of entries.
+   *
+   * @throws IOException On errors
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws IOException
+  {
+    this.directory = switch (this.filesystemKind) {
+      case "MEMORY" -> {
+        this.memory = JWSyntheticTree.createMemoryFilesystem();
+        yield this.memory.getPath("/bench");
+      }
+      case "REAL" -> Files.createTempDirectory(realBase(), "jwheatsheaf-bench");
+      default -> throw new IllegalArgumentException(this.filesystemKind);
+    };
+
+    JWSyntheticTree.wide(0x6a77L, this.entries)
+      .generate(this.directory);
+  }
+
+  private static Path realBase()
+  {
+    final var configured =
+      System.getProperty("com.io7m.jwheatsheaf.benchmarks.directory");
+    if (configured != null) {
+      return Path.of(configured);
+    }
+
+    final var shm = Path.of("/dev/shm");
+    if (Files.isDirectory(shm) && Files.isWritable(shm)) {
+      return shm;
+    }
+    return Path.of(System.getProperty("java.io.tmpdir"));
+  }
+
+  /**
+   * Delete the directory.
+   *
+   * @throws IOException On errors
+   */
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+    throws IOException
+  {
+    if (this.memory != null) {
+      this.memory.close();
+      return;
+    }
+
+    JWSyntheticTree.delete(this.directory);
+  }
+
+  /**
+   * @return The listing
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public List<JWFileItem> listDirectory()
+    throws IOException
+  {
+    return JWFileItems.listDirectory(this.directory, false);
+  }
+
+  /**
+   * @return The listing
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public List<JWFileItem> listDirectorySeparateCalls()
+    throws IOException
+  {
+    final var items = new ArrayList<JWFileItem>(this.entries);
+    try (var stream = Files.list(this.directory)) {
+      stream.sorted().forEach(path -> items.add(resolveSeparately(path)));
+    }
+    return items;
+  }
+
+  private static JWFileItem resolveSeparately(
+    final Path path)
+  {
+    try {
+      final JWFileKind kind;
+      if (Files.isSymbolicLink(path)) {
+        kind = JWFileKind.SYMBOLIC_LINK;
+      } else if (Files.isDirectory(path)) {
+        kind = JWFileKind.DIRECTORY;
+      } else if (Files.isRegularFile(path)) {
+        kind = JWFileKind.REGULAR_FILE;
+      } else {
+        kind = JWFileKind.UNKNOWN;
+      }
+
+      return JWFileItem.builder()
+        .setKind(kind)
+        .setModifiedTime(Files.getLastModifiedTime(path))
+        .setSize(Files.size(path))
+        .setPath(path)
+        .build();
+    } catch (final IOException e) {
+      return JWFileItem.builder()
+        .setKind(JWFileKind.UNKNOWN)
+        .setModifiedTime(FileTime.fromMillis(0L))
+        .setSize(0L)
+        .setPath(path)
+        .build();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.benchmarks;
+
+import com.io7m.jwheatsheaf.testsupport.JWLatencyFileSystem;
+import com.io7m.jwheatsheaf.testsupport.JWLatencyProfile;
+import com.io7m.jwheatsheaf.testsupport.JWSyntheticTree;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for listing directories as the latency of each filesystem
+ * operation increases, as it does on network filesystems. A full listing
+ * pays for one directory entry and one attribute read per entry, whereas a
+ * names-only listing pays only for the directory entries.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class JWFileItemsLatencyBenchmark
+{
+  @Param({"1000"})
+  public int entries;
+
+  @Param({"0", "10", "100", "1000"})
+  public long latencyMicros;
+
+  private JWLatencyFileSystem fileSystem;
+  private Path directory;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JWFileItemsLatencyBenchmark()
+  {
+
+  }
+
+  /**
+   * Generate a directory containing the configured number of entries.
+   *
+   * @throws IOException On errors
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws IOException
+  {
+    final var memory = JWSyntheticTree.createMemoryFilesystem();
+    JWSyntheticTree.wide(0x6a77L, this.entries)
+      .generate(memory.getPath("/bench"));
+
+    this.fileSystem =
+      JWLatencyFileSystem.wrap(
+        memory,
+        JWLatencyProfile.perEntry(Duration.ofNanos(this.latencyMicros * 1000L))
+      );
+    this.directory =
+      this.fileSystem.getPath("/bench");
+  }
+
+  /**
+   * Close the filesystem.
+   *
+   * @throws IOException On errors
+   */
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+    throws IOException
+  {
+    this.fileSystem.close();
+  }
+
+  /**
+   * @return The listing
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public List<JWFileItem> listDirectory()
+    throws IOException
+  {
+    return JWFileItems.listDirectory(this.directory, false);
+  }
+
+  /**
+   * @return The listing
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public List<JWFileItem> listDirectoryNames()
+    throws IOException
+  {
+    return JWFileItems.listDirectoryNamesIncrementally(
+      this.directory,
+      false,
+      JWFileItems.DEFAULT_BATCH_SIZE,
+      JWFileItems.DEFAULT_BATCH_INTERVAL,
+      batch -> {
+
+      }
+    );
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.benchmarks;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobFactory;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterAllFiles;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileList;
+import com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder;
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for updating the file list shown in the directory table: the
+ * search, the type filter, replacing the items with a refreshed listing,
+ * and sorting. The list is exercised without a running JavaFX toolkit, and
+ * so the benchmarks measure the list pipeline without any rendering.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JWFileListBenchmark
+{
+  private static final String[] EXTENSIONS = {
+    "txt", "xml", "png", "jpg", "java", "class", "md", "TXT",
+  };
+
+  @Param({"1000", "100000"})
+  public int entries;
+
+  private JWFileChooserFilterType filterAll;
+  private JWFileChooserFilterType filterText;
+  private List<JWFileItem> items;
+  private List<JWFileItem> refreshed;
+  private JWFileList list;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JWFileListBenchmark()
+  {
+
+  }
+
+  /**
+   * Create the listings and filters.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    this.filterAll =
+      JWFileChooserFilterAllFiles.create(
+        JWStrings.of(JWStrings.getResourceBundle()));
+
+    final var builder = new JWFilterGlobFactory().create("Text");
+    builder.addRule(JWFilterGlobRuleKind.INCLUDE, "**/*.txt");
+    this.filterText = builder.build();
+
+    final var directory = Path.of("/nonexistent/jwheatsheaf-list-bench");
+    final var itemList = new ArrayList<JWFileItem>(this.entries);
+    for (int index = 0; index < this.entries; ++index) {
+      itemList.add(
+        JWFileItem.builder()
+          .setPath(directory.resolve(String.format(
+            "File-%08d.%s",
+            Integer.valueOf(index),
+            EXTENSIONS[index % EXTENSIONS.length])))
+          .setKind(index % 50 == 0 ? JWFileKind.DIRECTORY : JWFileKind.REGULAR_FILE)
+          .setSize((index * 7919L) % 1_000_003L)
+          .setModifiedTime(FileTime.fromMillis(index * 1000L))
+          .build()
+      );
+    }
+    this.items = List.copyOf(itemList);
+
+    /*
+     * A refreshed listing in which one item in a hundred has changed.
+     */
+
+    final var refreshedList = new ArrayList<>(itemList);
+    for (int index = 0; index < refreshedList.size(); index += 100) {
+      final var item = refreshedList.get(index);
+      refreshedList.set(index, item.withSize(item.size() + 1L));
+    }
+    this.refreshed = List.copyOf(refreshedList);
+  }
+
+  /**
+   * Create a populated list.
+   */
+
+  @Setup(Level.Invocation)
+  public void setupList()
+  {
+    this.list = new JWFileList(this.filterAll);
+    this.list.setItems(this.items);
+  }
+
+  /**
+   * @return The number of visible items
+   */
+
+  @Benchmark
+  public int searchNarrowing()
+  {
+    this.list.setSearch("1");
+    this.list.setSearch("12");
+    this.list.setSearch("123");
+    return this.list.items().size();
+  }
+
+  /**
+   * @return The number of visible items
+   */
+
+  @Benchmark
+  public int searchNarrowingThenCleared()
+  {
+    this.list.setSearch("12");
+    this.list.setSearch("");
+    return this.list.items().size();
+  }
+
+  /**
+   * @return The number of visible items
+   */
+
+  @Benchmark
+  public int filterSelected()
+  {
+    this.list.setFilter(this.filterText);
+    return this.list.items().size();
+  }
+
+  /**
+   * @return The number of visible items
+   */
+
+  @Benchmark
+  public int filterSelectedWithSearch()
+  {
+    this.list.setSearch("file-000");
+    this.list.setFilter(this.filterText);
+    return this.list.items().size();
+  }
+
+  /**
+   * @return The number of visible items
+   */
+
+  @Benchmark
+  public int itemsRefreshed()
+  {
+    this.list.setItems(this.refreshed);
+    return this.list.items().size();
+  }
+
+  /**
+   * @return The number of visible items
+   */
+
+  @Benchmark
+  public int sortedBySize()
+  {
+    this.list.setSortOrder(
+      new JWFileSortOrder(List.of(
+        new JWFileSortOrder.Column(JWFileSortOrder.Field.SIZE, false)
+      ))
+    );
+    return this.list.items().size();
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.benchmarks;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobFactory;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind.EXCLUDE;
+import static com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind.INCLUDE;
+import static com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind.INCLUDE_AND_HALT;
+
+/**
+ * Benchmarks for evaluating glob filters over a large set of paths.
+ *
+ * The {@code evaluateUncompiled} benchmark reproduces the original
+ * evaluation strategy (a path matcher is compiled for every rule, for every
+ * path) so that it can be compared against the cached, compiled matchers
+ * used by the glob filter.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JWFilterGlobBenchmark
+{
+  private static final String[] EXTENSIONS = {
+    "txt", "TXT", "xml", "png", "jpg", "java", "class", "md",
+  };
+
+  @Param({"100000"})
+  public int paths;
+
+  @Param({"4", "40"})
+  public int ruleCount;
+
+  private List<Path> pathList;
+  private List<Rule> rules;
+  private JWFileChooserFilterType filter;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public JWFilterGlobBenchmark()
+  {
+
+  }
+
+  /**
+   * Create the set of paths and the filter.
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+  {
+    final var ruleList = new ArrayList<Rule>(this.ruleCount);
+    ruleList.add(new Rule(INCLUDE, "**/*.txt"));
+    ruleList.add(new Rule(INCLUDE, "**/*.[Xx][Mm][Ll]"));
+    ruleList.add(new Rule(EXCLUDE, "**/secret-*"));
+    ruleList.add(new Rule(INCLUDE_AND_HALT, "**/README*"));
+    while (ruleList.size() < this.ruleCount) {
+      ruleList.add(new Rule(
+        INCLUDE,
+        String.format("**/*.raw%d", Integer.valueOf(ruleList.size()))
+      ));
+    }
+    this.rules = List.copyOf(ruleList);
+
+    final var builder =
+      new JWFilterGlobFactory().create("Benchmark");
+    for (final var rule : this.rules) {
+      builder.addRule(rule.kind, rule.pattern);
+    }
+    this.filter = builder.build();
+
+    final var root =
+      Path.of(System.getProperty("java.io.tmpdir"))
+        .resolve("jwheatsheaf-glob-bench-nonexistent");
+
+    this.pathList =
+      IntStream.range(0, this.paths)
+        .mapToObj(index -> {
+          return root.resolve(String.format(
+            "file-%08d.%s",
+            Integer.valueOf(index),
+            EXTENSIONS[index % EXTENSIONS.length]
+          ));
+        })
+        .toList();
+  }
+
+  /**
+   * @return The number of allowed paths
+   */
+
+  @Benchmark
+  public int evaluateCompiled()
+  {
+    var count = 0;
+    for (final var path : this.pathList) {
+      if (this.filter.isAllowed(path)) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return The number of allowed paths
+   */
+
+  @Benchmark
+  public int evaluateUncompiled()
+  {
+    var count = 0;
+    for (final var path : this.pathList) {
+      if (this.isAllowedUncompiled(path)) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  private boolean isAllowedUncompiled(
+    final Path path)
+  {
+    final var filesystem = path.getFileSystem();
+
+    var included = false;
+    for (final var rule : this.rules) {
+      final var matcher =
+        filesystem.getPathMatcher(String.format("glob:%s", rule.pattern));
+
+      if (matcher.matches(path)) {
+        switch (rule.kind) {
+          case INCLUDE:
+            included = true;
+            break;
+          case EXCLUDE:
+            included = false;
+            break;
+          case INCLUDE_AND_HALT:
+            return true;
+          case EXCLUDE_AND_HALT:
+            return Files.isDirectory(path);
+        }
+      }
+    }
+
+    return included || Files.isDirectory(path);
+  }
+
+  private record Rule(
+    JWFilterGlobRuleKind kind,
+    String pattern)
+  {
+
+  }
+}
@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.examples;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileInfoType;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -45,7 +46,17 @@ public final class ExampleFilterXML implements JWFileChooserFilterType
   @Override
   public boolean isAllowed(final Path path)
   {
-    return Files.isDirectory(path) || path.toString().toUpperCase().endsWith(
-      ".XML");
+    return Files.isDirectory(path) || isXML(path);
+  }
+
+  @Override
+  public boolean isAllowed(final JWFileInfoType file)
+  {
+    return file.isDirectory() || isXML(file.path());
+  }
+
+  private static boolean isXML(final Path path)
+  {
+    return path.toString().toUpperCase().endsWith(".XML");
   }
 }
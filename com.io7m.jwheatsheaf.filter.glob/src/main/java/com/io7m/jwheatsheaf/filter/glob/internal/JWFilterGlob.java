@@ -17,20 +17,34 @@
 package com.io7m.jwheatsheaf.filter.glob.internal;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileInfoType;
 
+import java.lang.ref.WeakReference;
+import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
 
 /**
  * A glob-based filter.
+ *
+ * The rules are compiled into a single matcher once per filesystem, on
+ * first use, and the compiled matcher is reused for every subsequent path on
+ * that filesystem.
+ *
+ * @see JWFilterGlobMatchers
  */
 
 public final class JWFilterGlob implements JWFileChooserFilterType
 {
   private final String description;
   private final List<JWFilterGlobRule> rules;
+  private final Map<FileSystem, CompiledRules> compiled;
+  private volatile CompiledRules compiledLast;
 
   /**
    * Construct a glob-based filter.
@@ -46,6 +60,8 @@ public final class JWFilterGlob implements JWFileChooserFilterType
       Objects.requireNonNull(inDescription, "description");
     this.rules =
       Objects.requireNonNull(inRules, "rules");
+    this.compiled =
+      Collections.synchronizedMap(new WeakHashMap<>());
   }
 
   @Override
@@ -58,31 +74,84 @@ public final class JWFilterGlob implements JWFileChooserFilterType
   public boolean isAllowed(
     final Path path)
   {
-    final var filesystem = path.getFileSystem();
-
-    var included = false;
-    for (final var rule : this.rules) {
-      final var matcher =
-        filesystem.getPathMatcher(String.format("glob:%s", rule.pattern()));
-      final var matches =
-        matcher.matches(path);
-
-      if (matches) {
-        switch (rule.kind()) {
-          case INCLUDE:
-            included = true;
-            break;
-          case EXCLUDE:
-            included = false;
-            break;
-          case INCLUDE_AND_HALT:
-            return true;
-          case EXCLUDE_AND_HALT:
-            return Files.isDirectory(path);
-        }
-      }
+    return this.isIncluded(path) || Files.isDirectory(path);
+  }
+
+  @Override
+  public boolean isAllowed(
+    final JWFileInfoType file)
+  {
+    return this.isIncluded(file.path()) || file.isDirectory();
+  }
+
+  /**
+   * @return {@code true} if the rule that decides the outcome for the given
+   * path is an inclusion rule
+   */
+
+  private boolean isIncluded(
+    final Path path)
+  {
+    final var ruleIndex =
+      this.matcherFor(path.getFileSystem())
+        .decidingRule(path);
+
+    if (ruleIndex == -1) {
+      return false;
+    }
+
+    return switch (this.rules.get(ruleIndex).kind()) {
+      case INCLUDE, INCLUDE_AND_HALT -> true;
+      case EXCLUDE, EXCLUDE_AND_HALT -> false;
+    };
+  }
+
+  /**
+   * Retrieve the rules compiled for the given filesystem, compiling them
+   * if this is the first time the filesystem has been seen. The most
+   * recently used filesystem is checked first, as the paths given to a
+   * filter almost always belong to a single filesystem.
+   */
+
+  private JWFilterGlobMatcherType matcherFor(
+    final FileSystem filesystem)
+  {
+    final var last = this.compiledLast;
+    if (last != null && last.filesystem.get() == filesystem) {
+      return last.matcher;
     }
 
-    return included || Files.isDirectory(path);
+    final var result =
+      this.compiled.computeIfAbsent(filesystem, this::compile);
+    this.compiledLast = result;
+    return result.matcher;
+  }
+
+  private CompiledRules compile(
+    final FileSystem filesystem)
+  {
+    return new CompiledRules(
+      filesystem,
+      JWFilterGlobMatchers.compile(filesystem, this.rules)
+    );
+  }
+
+  /**
+   * A set of compiled rules. The filesystem is weakly referenced so that
+   * the cache does not keep closed filesystems alive.
+   */
+
+  private static final class CompiledRules
+  {
+    private final WeakReference<FileSystem> filesystem;
+    private final JWFilterGlobMatcherType matcher;
+
+    CompiledRules(
+      final FileSystem inFilesystem,
+      final JWFilterGlobMatcherType inMatcher)
+    {
+      this.filesystem = new WeakReference<>(inFilesystem);
+      this.matcher = inMatcher;
+    }
   }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.nio.file.FileSystem;
+import java.nio.file.InvalidPathException;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The properties of a filesystem's glob matching that the glob syntax
+ * leaves to the filesystem.
+ *
+ * The dialect of a filesystem is determined by asking the filesystem for
+ * path matchers and observing what they match, rather than by assuming
+ * anything about the filesystem's implementation. The dialect is then
+ * checked by comparing the filesystem's own matchers with the regular
+ * expressions produced by {@link JWFilterGlobRegex} for a set of sample
+ * patterns and paths, and is rejected if any of them disagree.
+ *
+ * @param separator            The name separator
+ * @param flags                The flags with which regular expressions
+ *                             must be compiled
+ * @param starStarCrossesLines {@code true} if {@code **} matches line
+ *                             terminators
+ */
+
+public record JWFilterGlobDialect(
+  char separator,
+  int flags,
+  boolean starStarCrossesLines)
+{
+  /**
+   * The dialect of the Unix-like filesystems provided by the JDK.
+   */
+
+  public static final JWFilterGlobDialect PLAIN =
+    new JWFilterGlobDialect('/', 0, false);
+
+  private static final List<Sample> SAMPLES = List.of(
+    new Sample("*.txt", "x.txt"),
+    new Sample("*.txt", "d", "x.txt"),
+    new Sample("**/*.txt", "d", "x.txt"),
+    new Sample("**.txt", "d", "e", "x.txt"),
+    new Sample("d/*", "d", "x.txt"),
+    new Sample("d/*", "d", "e", "x.txt"),
+    new Sample("?.txt", "x.txt"),
+    new Sample("?.txt", "xy.txt"),
+    new Sample("[a-c]*", "b.txt"),
+    new Sample("[!a-c]*", "b.txt"),
+    new Sample("[!a-c]*", "x.txt"),
+    new Sample("[-x]*", "-.txt"),
+    new Sample("*.{png,jpg}", "x.jpg"),
+    new Sample("*.{png,jpg}", "x.gif"),
+    new Sample("a,b}", "a,b}"),
+    new Sample("a\\{b", "a{b"),
+    new Sample("a+b(c)$^.txt", "a+b(c)$^.txt"),
+    new Sample("*.TXT", "x.txt"),
+    new Sample("X.txt", "x.txt"),
+    new Sample("\u00c9*", "\u00e9.txt"),
+    new Sample("\u00e9*", "e\u0301.txt"),
+    new Sample("*", "a\nb"),
+    new Sample("**", "a\nb")
+  );
+
+  /**
+   * @return {@code true} if this is the {@link #PLAIN} dialect
+   */
+
+  public boolean isPlain()
+  {
+    return this.equals(PLAIN);
+  }
+
+  /**
+   * Determine the dialect of the given filesystem.
+   *
+   * @param filesystem The filesystem
+   *
+   * @return The dialect, or nothing if the filesystem's glob matching
+   * cannot be reproduced by translating globs to regular expressions
+   */
+
+  public static Optional<JWFilterGlobDialect> probe(
+    final FileSystem filesystem)
+  {
+    final var separatorText = filesystem.getSeparator();
+    if (separatorText.length() != 1) {
+      return Optional.empty();
+    }
+
+    try {
+      var flags = 0;
+      if (observe(filesystem, "a", "A")) {
+        flags |= Pattern.CASE_INSENSITIVE;
+        if (observe(filesystem, "\u00e9", "\u00c9")) {
+          flags |= Pattern.UNICODE_CASE;
+        }
+      }
+      if (observe(filesystem, "\u00e9", "e\u0301")) {
+        flags |= Pattern.CANON_EQ;
+      }
+
+      final var dialect =
+        new JWFilterGlobDialect(
+          separatorText.charAt(0),
+          flags,
+          observe(filesystem, "**", "a\nb")
+        );
+
+      for (final var sample : SAMPLES) {
+        if (!dialect.agrees(filesystem, sample)) {
+          return Optional.empty();
+        }
+      }
+      return Optional.of(dialect);
+    } catch (final UnsupportedOperationException
+                   | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Ask the filesystem whether the given glob matches the given path. A
+   * path that the filesystem cannot represent is not matched.
+   */
+
+  private static boolean observe(
+    final FileSystem filesystem,
+    final String glob,
+    final String path)
+  {
+    try {
+      return filesystem.getPathMatcher("glob:" + glob)
+        .matches(filesystem.getPath(path));
+    } catch (final InvalidPathException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Determine whether this dialect agrees with the filesystem on the given
+   * sample. Samples with paths that the filesystem cannot represent are
+   * ignored.
+   */
+
+  private boolean agrees(
+    final FileSystem filesystem,
+    final Sample sample)
+  {
+    final String path;
+    try {
+      path = filesystem.getPath(sample.first(), sample.more()).toString();
+    } catch (final InvalidPathException e) {
+      return true;
+    }
+
+    final boolean expected =
+      filesystem.getPathMatcher("glob:" + sample.glob())
+        .matches(filesystem.getPath(path));
+
+    final Pattern pattern;
+    try {
+      pattern = Pattern.compile(
+        JWFilterGlobRegex.toRegex(sample.glob(), this), this.flags);
+    } catch (final PatternSyntaxException e) {
+      return false;
+    }
+    return expected == pattern.matcher(path).matches();
+  }
+
+  private record Sample(
+    String glob,
+    String first,
+    String... more)
+  {
+
+  }
+}
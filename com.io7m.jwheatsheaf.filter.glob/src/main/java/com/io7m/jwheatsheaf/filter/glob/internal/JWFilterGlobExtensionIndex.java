@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An index of glob rules that match on a file name suffix alone, such as
+ * {@code *.png}, {@code **}{@code /*.png}, {@code **.png}, or
+ * {@code *.[Xx][Mm][Ll]}. Such rules are looked up by the extension of a
+ * path rather than being matched individually, so the cost of evaluating
+ * them is independent of the number of rules.
+ *
+ * The index reproduces the semantics of the same globs in the plain
+ * dialect: a {@code *} never crosses a '/', and a {@code **} never
+ * crosses a line terminator.
+ *
+ * @see JWFilterGlobDialect#PLAIN
+ */
+
+public final class JWFilterGlobExtensionIndex
+{
+  private static final int VARIANT_LIMIT = 64;
+  private static final String SPECIAL = "\\*?[]{},/";
+  private static final Entry[] NO_ENTRIES = new Entry[0];
+
+  private final Map<String, Entry[]> entries;
+
+  private JWFilterGlobExtensionIndex(
+    final Map<String, Entry[]> inEntries)
+  {
+    this.entries = inEntries;
+  }
+
+  /**
+   * Determine whether the given pattern can be placed into an index.
+   *
+   * @param pattern The glob pattern
+   *
+   * @return {@code true} if the pattern is a simple suffix pattern
+   */
+
+  public static boolean isIndexable(
+    final String pattern)
+  {
+    return parse(pattern) != null;
+  }
+
+  /**
+   * Create an index of the given suffix patterns.
+   *
+   * @param patterns  The patterns, each of which must be indexable
+   * @param positions The decision position of each pattern
+   *
+   * @return An index
+   */
+
+  public static JWFilterGlobExtensionIndex create(
+    final List<String> patterns,
+    final int[] positions)
+  {
+    Objects.requireNonNull(patterns, "patterns");
+    Objects.requireNonNull(positions, "positions");
+
+    final var byKey = new HashMap<String, List<Entry>>();
+    for (int index = 0; index < patterns.size(); ++index) {
+      final var pattern = patterns.get(index);
+      final var parsed = parse(pattern);
+      if (parsed == null) {
+        throw new IllegalArgumentException(
+          "Pattern %s cannot be indexed".formatted(pattern));
+      }
+
+      for (final var suffix : parsed.suffixes) {
+        final var key = suffix.substring(suffix.lastIndexOf('.') + 1);
+        byKey.computeIfAbsent(key, k -> new ArrayList<>())
+          .add(new Entry(positions[index], parsed.shape, suffix));
+      }
+    }
+
+    final var result = new HashMap<String, Entry[]>(byKey.size() * 2);
+    for (final var mapEntry : byKey.entrySet()) {
+      final var list = mapEntry.getValue();
+      list.sort(Comparator.comparingInt(Entry::position));
+      result.put(mapEntry.getKey(), list.toArray(NO_ENTRIES));
+    }
+    return new JWFilterGlobExtensionIndex(Map.copyOf(result));
+  }
+
+  /**
+   * Find the first indexed rule, in decision order, that matches the given
+   * path text.
+   *
+   * @param text The path text
+   *
+   * @return The decision position of the rule, or {@code -1} if no indexed
+   * rule matches
+   */
+
+  public int decision(
+    final String text)
+  {
+    final var lastSlash = text.lastIndexOf('/');
+    final var lastDot = text.lastIndexOf('.');
+    if (lastDot <= lastSlash) {
+      return -1;
+    }
+
+    final var candidates = this.entries.get(text.substring(lastDot + 1));
+    if (candidates == null) {
+      return -1;
+    }
+
+    for (final var entry : candidates) {
+      if (entry.matches(text, lastSlash)) {
+        return entry.position;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean hasLineTerminator(
+    final String text,
+    final int end)
+  {
+    for (int index = 0; index < end; ++index) {
+      if (JWFilterGlobRegex.isLineTerminator(text.charAt(index))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Parsed parse(
+    final String pattern)
+  {
+    final Shape shape;
+    final int suffixStart;
+    if (pattern.startsWith("**/*.")) {
+      shape = Shape.ANY_DIRECTORY;
+      suffixStart = 4;
+    } else if (pattern.startsWith("**.")) {
+      shape = Shape.ANY_PREFIX;
+      suffixStart = 2;
+    } else if (pattern.startsWith("*.")) {
+      shape = Shape.NAME_ONLY;
+      suffixStart = 1;
+    } else {
+      return null;
+    }
+
+    var variants = List.of(new StringBuilder());
+    var index = suffixStart;
+    while (index < pattern.length()) {
+      final var c = pattern.charAt(index);
+      final String choices;
+      if (c == '[') {
+        final var close = pattern.indexOf(']', index);
+        if (close == -1) {
+          return null;
+        }
+        choices = pattern.substring(index + 1, close);
+        if (!isSimpleClass(choices)) {
+          return null;
+        }
+        index = close + 1;
+      } else {
+        if (!isPlainCharacter(c)) {
+          return null;
+        }
+        choices = String.valueOf(c);
+        index += 1;
+      }
+
+      if (variants.size() * choices.length() > VARIANT_LIMIT) {
+        return null;
+      }
+      variants = expand(variants, choices);
+    }
+
+    final var suffixes = new ArrayList<String>(variants.size());
+    for (final var variant : variants) {
+      suffixes.add(variant.toString());
+    }
+    return new Parsed(shape, List.copyOf(suffixes));
+  }
+
+  private static List<StringBuilder> expand(
+    final List<StringBuilder> variants,
+    final String choices)
+  {
+    final var result =
+      new ArrayList<StringBuilder>(variants.size() * choices.length());
+    for (final var variant : variants) {
+      for (int index = 0; index < choices.length(); ++index) {
+        result.add(new StringBuilder(variant).append(choices.charAt(index)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * A class is simple if it consists only of letters and digits, with no
+   * negation, ranges, or repeated characters.
+   */
+
+  private static boolean isSimpleClass(
+    final String choices)
+  {
+    if (choices.isEmpty()) {
+      return false;
+    }
+    for (int index = 0; index < choices.length(); ++index) {
+      final var c = choices.charAt(index);
+      if (c >= 0x80 || !Character.isLetterOrDigit(c)) {
+        return false;
+      }
+      if (choices.indexOf(c) != index) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isPlainCharacter(
+    final char c)
+  {
+    return SPECIAL.indexOf(c) == -1
+      && !Character.isISOControl(c)
+      && !Character.isSurrogate(c)
+      && !JWFilterGlobRegex.isLineTerminator(c);
+  }
+
+  private enum Shape
+  {
+    /**
+     * {@code *.ext}: The entire path is a name ending with the suffix.
+     */
+
+    NAME_ONLY,
+
+    /**
+     * {@code **}{@code /*.ext}: The last name of a path containing a
+     * separator ends with the suffix.
+     */
+
+    ANY_DIRECTORY,
+
+    /**
+     * {@code **.ext}: The entire path ends with the suffix.
+     */
+
+    ANY_PREFIX
+  }
+
+  private record Parsed(
+    Shape shape,
+    List<String> suffixes)
+  {
+
+  }
+
+  private record Entry(
+    int position,
+    Shape shape,
+    String suffix)
+  {
+    boolean matches(
+      final String text,
+      final int lastSlash)
+    {
+      if (!text.endsWith(this.suffix)) {
+        return false;
+      }
+
+      return switch (this.shape) {
+        case NAME_ONLY -> lastSlash == -1;
+        case ANY_DIRECTORY ->
+          lastSlash != -1 && !hasLineTerminator(text, lastSlash);
+        case ANY_PREFIX ->
+          !hasLineTerminator(text, text.length() - this.suffix.length());
+      };
+    }
+  }
+}
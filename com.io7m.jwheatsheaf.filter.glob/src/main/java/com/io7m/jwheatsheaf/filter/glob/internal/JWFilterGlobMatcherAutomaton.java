@@ -0,0 +1,468 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * A matcher that evaluates every rule in a single pass over the path.
+ *
+ * Each rule is compiled to a nondeterministic automaton, and the automata
+ * of all rules are joined at a common start state. The joined automaton is
+ * converted to a deterministic automaton lazily, one state at a time, as
+ * paths are matched; each deterministic state records the first rule in
+ * decision order that accepts. Matching a path therefore costs one table
+ * lookup per character, independent of the number of rules.
+ *
+ * The automaton assumes the plain dialect: a '/' name separator, a
+ * {@code **} that does not cross line terminators, and case-sensitive
+ * matching of individual UTF-16 code units. Paths containing surrogate pairs, and rule
+ * sets that the automaton cannot represent, are delegated to a fallback
+ * matcher.
+ */
+
+public final class JWFilterGlobMatcherAutomaton
+  implements JWFilterGlobMatcherType
+{
+  private static final int STATE_LIMIT = 4096;
+  private static final int NO_RULE = Integer.MAX_VALUE;
+
+  private final Nfa nfa;
+  private final int[] ruleIndices;
+  private final JWFilterGlobMatcherType fallback;
+  private final ConcurrentHashMap<StateKey, DState> states;
+  private final DState start;
+
+  private JWFilterGlobMatcherAutomaton(
+    final Nfa inNfa,
+    final int[] inRuleIndices,
+    final JWFilterGlobMatcherType inFallback)
+  {
+    this.nfa = inNfa;
+    this.ruleIndices = inRuleIndices;
+    this.fallback = inFallback;
+    this.states = new ConcurrentHashMap<>();
+
+    final var startSet = new BitSet();
+    this.nfa.closure(this.nfa.start, startSet);
+    this.start = this.intern(startSet);
+  }
+
+  /**
+   * Compile an automaton from the given rule patterns.
+   *
+   * @param patterns    The glob patterns, in decision order
+   * @param ruleIndices The rule index of each pattern
+   * @param fallback    The matcher used for paths the automaton cannot handle
+   *
+   * @return A matcher, or {@code null} if the patterns cannot be represented
+   */
+
+  public static JWFilterGlobMatcherType create(
+    final List<String> patterns,
+    final int[] ruleIndices,
+    final JWFilterGlobMatcherType fallback)
+  {
+    Objects.requireNonNull(patterns, "patterns");
+    Objects.requireNonNull(ruleIndices, "ruleIndices");
+    Objects.requireNonNull(fallback, "fallback");
+
+    final var builder = new NfaBuilder();
+    final var startState = builder.epsilon();
+    for (int index = 0; index < patterns.size(); ++index) {
+      final var pattern = patterns.get(index);
+      if (hasSurrogates(pattern)) {
+        return null;
+      }
+
+      final var tokens = JWFilterGlobRegex.tokenize(pattern, JWFilterGlobDialect.PLAIN);
+      final var end = builder.sequence(startState, tokens);
+      builder.accept(end, index);
+    }
+
+    return new JWFilterGlobMatcherAutomaton(
+      builder.build(startState),
+      ruleIndices,
+      fallback
+    );
+  }
+
+  private static boolean hasSurrogates(
+    final CharSequence text)
+  {
+    for (int index = 0; index < text.length(); ++index) {
+      if (Character.isSurrogate(text.charAt(index))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int decidingRule(
+    final Path path)
+  {
+    final var text = path.toString();
+
+    var state = this.start;
+    for (int index = 0; index < text.length(); ++index) {
+      final var c = text.charAt(index);
+      if (Character.isSurrogate(c)) {
+        return this.fallback.decidingRule(path);
+      }
+
+      state = this.step(state, c);
+      if (state == null) {
+        return this.fallback.decidingRule(path);
+      }
+      if (state.dead) {
+        return -1;
+      }
+    }
+
+    if (state.decision == NO_RULE) {
+      return -1;
+    }
+    return this.ruleIndices[state.decision];
+  }
+
+  private DState step(
+    final DState state,
+    final char c)
+  {
+    if (c < DState.ASCII) {
+      final var cached = state.ascii[c];
+      if (cached != null) {
+        return cached;
+      }
+    } else {
+      final var cached = state.other.get(Character.valueOf(c));
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    final var nextSet = this.nfa.move(state.nfaStates, c);
+    final var next = this.intern(nextSet);
+    if (next == null) {
+      return null;
+    }
+
+    if (c < DState.ASCII) {
+      state.ascii[c] = next;
+    } else {
+      state.other.put(Character.valueOf(c), next);
+    }
+    return next;
+  }
+
+  private DState intern(
+    final BitSet nfaStates)
+  {
+    final var key = new StateKey(nfaStates.stream().toArray());
+    final var existing = this.states.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    if (this.states.size() >= STATE_LIMIT) {
+      return null;
+    }
+    return this.states.computeIfAbsent(key, k -> {
+      return new DState(k.nfaStates, this.nfa.decision(k.nfaStates));
+    });
+  }
+
+  private record StateKey(int[] nfaStates)
+  {
+    @Override
+    public boolean equals(
+      final Object other)
+    {
+      return other instanceof StateKey key
+        && Arrays.equals(this.nfaStates, key.nfaStates);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Arrays.hashCode(this.nfaStates);
+    }
+  }
+
+  /**
+   * A deterministic state: a set of nondeterministic states along with a
+   * lazily populated transition table. Concurrent population of the table is
+   * benign, as every thread computes an identical, interned successor.
+   */
+
+  private static final class DState
+  {
+    private static final int ASCII = 128;
+
+    private final int[] nfaStates;
+    private final int decision;
+    private final boolean dead;
+    private final DState[] ascii;
+    private final ConcurrentHashMap<Character, DState> other;
+
+    DState(
+      final int[] inNfaStates,
+      final int inDecision)
+    {
+      this.nfaStates = inNfaStates;
+      this.decision = inDecision;
+      this.dead = inNfaStates.length == 0;
+      this.ascii = new DState[ASCII];
+      this.other = new ConcurrentHashMap<>();
+    }
+  }
+
+  /**
+   * A nondeterministic automaton. A state either consumes a single character
+   * that satisfies its predicate, or is an epsilon state with zero or more
+   * epsilon successors.
+   */
+
+  private static final class Nfa
+  {
+    private final IntPredicate[] predicates;
+    private final int[] next;
+    private final int[][] epsilons;
+    private final int[] accepts;
+    private final int start;
+
+    Nfa(
+      final IntPredicate[] inPredicates,
+      final int[] inNext,
+      final int[][] inEpsilons,
+      final int[] inAccepts,
+      final int inStart)
+    {
+      this.predicates = inPredicates;
+      this.next = inNext;
+      this.epsilons = inEpsilons;
+      this.accepts = inAccepts;
+      this.start = inStart;
+    }
+
+    void closure(
+      final int state,
+      final BitSet output)
+    {
+      if (output.get(state)) {
+        return;
+      }
+      output.set(state);
+      for (final var target : this.epsilons[state]) {
+        this.closure(target, output);
+      }
+    }
+
+    BitSet move(
+      final int[] states,
+      final char c)
+    {
+      final var output = new BitSet();
+      for (final var state : states) {
+        final var predicate = this.predicates[state];
+        if (predicate != null && predicate.test(c)) {
+          this.closure(this.next[state], output);
+        }
+      }
+      return output;
+    }
+
+    int decision(
+      final int[] states)
+    {
+      var decision = NO_RULE;
+      for (final var state : states) {
+        final var accept = this.accepts[state];
+        if (accept != -1) {
+          decision = Math.min(decision, accept);
+        }
+      }
+      return decision;
+    }
+  }
+
+  private static final class NfaBuilder
+  {
+    private static final IntPredicate NOT_SEPARATOR =
+      c -> c != '/';
+    private static final IntPredicate NOT_LINE_TERMINATOR =
+      c -> !JWFilterGlobRegex.isLineTerminator(c);
+
+    private final List<IntPredicate> predicates;
+    private final List<Integer> next;
+    private final List<List<Integer>> epsilons;
+    private final List<Integer> accepts;
+
+    NfaBuilder()
+    {
+      this.predicates = new ArrayList<>();
+      this.next = new ArrayList<>();
+      this.epsilons = new ArrayList<>();
+      this.accepts = new ArrayList<>();
+    }
+
+    int epsilon()
+    {
+      this.predicates.add(null);
+      this.next.add(Integer.valueOf(-1));
+      this.epsilons.add(new ArrayList<>(2));
+      this.accepts.add(Integer.valueOf(-1));
+      return this.predicates.size() - 1;
+    }
+
+    void link(
+      final int from,
+      final int to)
+    {
+      this.epsilons.get(from).add(Integer.valueOf(to));
+    }
+
+    void accept(
+      final int state,
+      final int decision)
+    {
+      this.accepts.set(state, Integer.valueOf(decision));
+    }
+
+    /**
+     * Add a state that consumes one character satisfying the predicate.
+     *
+     * @return The state reached after consuming the character
+     */
+
+    int consume(
+      final int from,
+      final IntPredicate predicate)
+    {
+      final var state = this.epsilon();
+      final var target = this.epsilon();
+      this.predicates.set(state, predicate);
+      this.next.set(state, Integer.valueOf(target));
+      this.link(from, state);
+      return target;
+    }
+
+    int repeat(
+      final int from,
+      final IntPredicate predicate)
+    {
+      final var loop = this.epsilon();
+      this.link(from, loop);
+      final var after = this.consume(loop, predicate);
+      this.link(after, loop);
+      return loop;
+    }
+
+    /**
+     * Append the given tokens, starting at state {@code from}.
+     *
+     * @return The final state
+     */
+
+    int sequence(
+      final int from,
+      final List<JWFilterGlobRegex.Token> tokens)
+    {
+      var current = this.epsilon();
+      this.link(from, current);
+
+      int groupStart = -1;
+      int groupEnd = -1;
+      for (final var token : tokens) {
+        switch (token.kind()) {
+          case LITERAL -> {
+            final var literal = token.character();
+            current = this.consume(current, c -> c == literal);
+          }
+          case CLASS -> {
+            final var pattern = Pattern.compile(token.regex());
+            current = this.consume(current, c -> {
+              return pattern.matcher(String.valueOf((char) c)).matches();
+            });
+          }
+          case QUESTION -> {
+            current = this.consume(current, NOT_SEPARATOR);
+          }
+          case STAR -> {
+            current = this.repeat(current, NOT_SEPARATOR);
+          }
+          case STAR_STAR -> {
+            current = this.repeat(current, NOT_LINE_TERMINATOR);
+          }
+          case GROUP_OPEN -> {
+            groupStart = current;
+            groupEnd = this.epsilon();
+            current = this.epsilon();
+            this.link(groupStart, current);
+          }
+          case GROUP_ALTERNATIVE -> {
+            this.link(current, groupEnd);
+            current = this.epsilon();
+            this.link(groupStart, current);
+          }
+          case GROUP_CLOSE -> {
+            this.link(current, groupEnd);
+            current = groupEnd;
+          }
+        }
+      }
+      return current;
+    }
+
+    Nfa build(
+      final int start)
+    {
+      final var size = this.predicates.size();
+      final var predicateArray = new IntPredicate[size];
+      final var nextArray = new int[size];
+      final var epsilonArray = new int[size][];
+      final var acceptArray = new int[size];
+
+      for (int index = 0; index < size; ++index) {
+        predicateArray[index] = this.predicates.get(index);
+        nextArray[index] = this.next.get(index).intValue();
+        epsilonArray[index] =
+          this.epsilons.get(index)
+            .stream()
+            .mapToInt(Integer::intValue)
+            .toArray();
+        acceptArray[index] = this.accepts.get(index).intValue();
+      }
+
+      return new Nfa(
+        predicateArray,
+        nextArray,
+        epsilonArray,
+        acceptArray,
+        start
+      );
+    }
+  }
+}
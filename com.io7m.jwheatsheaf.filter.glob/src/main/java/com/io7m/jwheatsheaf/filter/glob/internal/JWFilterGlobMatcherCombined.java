@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * A matcher that evaluates every rule with a single regular expression.
+ *
+ * Each rule becomes one capturing alternative of the expression, with the
+ * alternatives arranged in decision order. Alternatives are tried in order,
+ * so the alternative that participates in a successful match is the first
+ * rule in decision order that matches the path.
+ */
+
+public final class JWFilterGlobMatcherCombined
+  implements JWFilterGlobMatcherType
+{
+  private final Pattern pattern;
+  private final int[] ruleIndices;
+
+  /**
+   * Construct a matcher.
+   *
+   * @param inPattern     The combined pattern, with one capturing group per rule
+   * @param inRuleIndices The rule index of each capturing group
+   */
+
+  public JWFilterGlobMatcherCombined(
+    final Pattern inPattern,
+    final int[] inRuleIndices)
+  {
+    this.pattern =
+      Objects.requireNonNull(inPattern, "pattern");
+    this.ruleIndices =
+      Objects.requireNonNull(inRuleIndices, "ruleIndices");
+  }
+
+  @Override
+  public int decidingRule(
+    final Path path)
+  {
+    final var matcher = this.pattern.matcher(path.toString());
+    if (!matcher.matches()) {
+      return -1;
+    }
+
+    for (int index = 0; index < this.ruleIndices.length; ++index) {
+      if (matcher.start(index + 1) != -1) {
+        return this.ruleIndices[index];
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A matcher that evaluates simple suffix rules with an extension index, and
+ * delegates the remaining rules to a general matcher.
+ */
+
+public final class JWFilterGlobMatcherIndexed
+  implements JWFilterGlobMatcherType
+{
+  private final JWFilterGlobExtensionIndex index;
+  private final JWFilterGlobMatcherType general;
+  private final int[] order;
+  private final int[] positions;
+
+  /**
+   * Construct a matcher.
+   *
+   * @param inIndex   The index of suffix rules, keyed by decision position
+   * @param inGeneral The matcher for the remaining rules, if any
+   * @param inOrder   The rule indices in decision order
+   */
+
+  public JWFilterGlobMatcherIndexed(
+    final JWFilterGlobExtensionIndex inIndex,
+    final JWFilterGlobMatcherType inGeneral,
+    final int[] inOrder)
+  {
+    this.index =
+      Objects.requireNonNull(inIndex, "index");
+    this.general =
+      inGeneral;
+    this.order =
+      Objects.requireNonNull(inOrder, "order");
+
+    this.positions = new int[inOrder.length];
+    for (int position = 0; position < inOrder.length; ++position) {
+      this.positions[inOrder[position]] = position;
+    }
+  }
+
+  @Override
+  public int decidingRule(
+    final Path path)
+  {
+    var position = this.index.decision(path.toString());
+    if (position != 0 && this.general != null) {
+      final var rule = this.general.decidingRule(path);
+      if (rule != -1) {
+        final var generalPosition = this.positions[rule];
+        if (position == -1 || generalPosition < position) {
+          position = generalPosition;
+        }
+      }
+    }
+
+    if (position == -1) {
+      return -1;
+    }
+    return this.order[position];
+  }
+}
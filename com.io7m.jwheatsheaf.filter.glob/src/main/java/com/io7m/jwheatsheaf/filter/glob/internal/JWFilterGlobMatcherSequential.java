@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Objects;
+
+/**
+ * A matcher that evaluates one filesystem-provided path matcher per rule,
+ * in decision order, stopping at the first rule that matches. This is used
+ * for filesystems whose glob semantics are not known in advance.
+ */
+
+public final class JWFilterGlobMatcherSequential
+  implements JWFilterGlobMatcherType
+{
+  private final PathMatcher[] matchers;
+  private final int[] ruleIndices;
+
+  /**
+   * Construct a matcher.
+   *
+   * @param inMatchers    The path matchers, in decision order
+   * @param inRuleIndices The rule index of each matcher
+   */
+
+  public JWFilterGlobMatcherSequential(
+    final PathMatcher[] inMatchers,
+    final int[] inRuleIndices)
+  {
+    this.matchers =
+      Objects.requireNonNull(inMatchers, "matchers");
+    this.ruleIndices =
+      Objects.requireNonNull(inRuleIndices, "ruleIndices");
+  }
+
+  @Override
+  public int decidingRule(
+    final Path path)
+  {
+    for (int index = 0; index < this.matchers.length; ++index) {
+      if (this.matchers[index].matches(path)) {
+        return this.ruleIndices[index];
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.nio.file.FileSystem;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Functions to compile glob rules into matchers.
+ *
+ * The outcome of a rule list is decided by the first matching
+ * {@code *_AND_HALT} rule if there is one, and otherwise by the last
+ * matching rule. Rules are therefore compiled in <i>decision order</i>: the
+ * halting rules in declaration order, followed by the remaining rules in
+ * reverse declaration order. The first rule in decision order that matches a
+ * path is the rule that decides the outcome for that path.
+ */
+
+public final class JWFilterGlobMatchers
+{
+  private static final Map<FileSystem, Optional<JWFilterGlobDialect>> DIALECTS =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
+  private JWFilterGlobMatchers()
+  {
+
+  }
+
+  /**
+   * Compile the given rules for the given filesystem.
+   *
+   * The glob dialect of the filesystem is determined once, by observing
+   * the filesystem's own path matchers. For filesystems with the plain
+   * dialect of Unix-like filesystems, simple suffix rules such as
+   * {@code *.png} are placed into an extension index, and the remaining
+   * rules are compiled into a single automaton. For filesystems with any
+   * other known dialect, the rules are compiled into a single regular
+   * expression. For filesystems whose glob matching could not be
+   * reproduced, and for rules that use forms of the glob syntax that are
+   * not translated, one path matcher is requested from the filesystem per
+   * rule.
+   *
+   * @see JWFilterGlobDialect
+   *
+   * @param filesystem The filesystem
+   * @param rules      The rules
+   *
+   * @return A matcher
+   */
+
+  public static JWFilterGlobMatcherType compile(
+    final FileSystem filesystem,
+    final List<JWFilterGlobRule> rules)
+  {
+    Objects.requireNonNull(filesystem, "filesystem");
+    Objects.requireNonNull(rules, "rules");
+
+    final var order = decisionOrder(rules);
+    final var dialect = dialectOf(filesystem);
+    if (dialect.isPresent() && !rules.isEmpty()) {
+      try {
+        if (dialect.get().isPlain()) {
+          return compileUnix(rules, order);
+        }
+        return compileCombined(rules, order, dialect.get());
+      } catch (final PatternSyntaxException e) {
+        // The filesystem decides whether the pattern is acceptable.
+      }
+    }
+    return compileSequential(filesystem, rules, order);
+  }
+
+  /**
+   * @param rules The rules
+   *
+   * @return The indices of the given rules in decision order
+   */
+
+  public static int[] decisionOrder(
+    final List<JWFilterGlobRule> rules)
+  {
+    final var order = new int[rules.size()];
+    var position = 0;
+
+    for (int index = 0; index < rules.size(); ++index) {
+      if (isHalting(rules.get(index))) {
+        order[position] = index;
+        position += 1;
+      }
+    }
+    for (int index = rules.size() - 1; index >= 0; --index) {
+      if (!isHalting(rules.get(index))) {
+        order[position] = index;
+        position += 1;
+      }
+    }
+    return order;
+  }
+
+  private static boolean isHalting(
+    final JWFilterGlobRule rule)
+  {
+    return switch (rule.kind()) {
+      case INCLUDE_AND_HALT, EXCLUDE_AND_HALT -> true;
+      case INCLUDE, EXCLUDE -> false;
+    };
+  }
+
+  private static JWFilterGlobMatcherType compileSequential(
+    final FileSystem filesystem,
+    final List<JWFilterGlobRule> rules,
+    final int[] order)
+  {
+    final var matchers = new PathMatcher[order.length];
+    for (int index = 0; index < order.length; ++index) {
+      final var rule = rules.get(order[index]);
+      matchers[index] =
+        filesystem.getPathMatcher(String.format("glob:%s", rule.pattern()));
+    }
+    return new JWFilterGlobMatcherSequential(matchers, order);
+  }
+
+  /**
+   * Compile rules for a filesystem with the plain dialect. Simple suffix
+   * rules are placed into an extension index, and the remaining rules are
+   * compiled into a single automaton.
+   */
+
+  private static JWFilterGlobMatcherType compileUnix(
+    final List<JWFilterGlobRule> rules,
+    final int[] order)
+  {
+    final var indexedPatterns = new ArrayList<String>();
+    final var indexedPositions = new ArrayList<Integer>();
+    final var generalOrder = new ArrayList<Integer>();
+
+    for (int position = 0; position < order.length; ++position) {
+      final var pattern = rules.get(order[position]).pattern();
+      if (JWFilterGlobExtensionIndex.isIndexable(pattern)) {
+        indexedPatterns.add(pattern);
+        indexedPositions.add(Integer.valueOf(position));
+      } else {
+        generalOrder.add(Integer.valueOf(order[position]));
+      }
+    }
+
+    final var general =
+      compileAutomaton(rules, toArray(generalOrder));
+    if (indexedPatterns.isEmpty()) {
+      return general;
+    }
+
+    return new JWFilterGlobMatcherIndexed(
+      JWFilterGlobExtensionIndex.create(
+        indexedPatterns,
+        toArray(indexedPositions)),
+      general,
+      order
+    );
+  }
+
+  private static JWFilterGlobMatcherType compileAutomaton(
+    final List<JWFilterGlobRule> rules,
+    final int[] order)
+  {
+    if (order.length == 0) {
+      return null;
+    }
+
+    final var combined =
+      compileCombined(rules, order, JWFilterGlobDialect.PLAIN);
+    final var patterns = new ArrayList<String>(order.length);
+    for (final var index : order) {
+      patterns.add(rules.get(index).pattern());
+    }
+
+    final var automaton =
+      JWFilterGlobMatcherAutomaton.create(patterns, order, combined);
+    if (automaton != null) {
+      return automaton;
+    }
+    return combined;
+  }
+
+  private static int[] toArray(
+    final List<Integer> values)
+  {
+    return values.stream()
+      .mapToInt(Integer::intValue)
+      .toArray();
+  }
+
+  private static JWFilterGlobMatcherType compileCombined(
+    final List<JWFilterGlobRule> rules,
+    final int[] order,
+    final JWFilterGlobDialect dialect)
+  {
+    final var regex = new StringBuilder(rules.size() * 32);
+    for (int index = 0; index < order.length; ++index) {
+      if (index > 0) {
+        regex.append('|');
+      }
+      regex.append('(');
+      regex.append(JWFilterGlobRegex.toRegex(
+        rules.get(order[index]).pattern(),
+        dialect
+      ));
+      regex.append(')');
+    }
+
+    return new JWFilterGlobMatcherCombined(
+      Pattern.compile(regex.toString(), dialect.flags()),
+      order
+    );
+  }
+
+  /**
+   * Determine the glob dialect of the given filesystem, probing the
+   * filesystem the first time that it is seen.
+   */
+
+  private static Optional<JWFilterGlobDialect> dialectOf(
+    final FileSystem filesystem)
+  {
+    return DIALECTS.computeIfAbsent(filesystem, JWFilterGlobDialect::probe);
+  }
+}
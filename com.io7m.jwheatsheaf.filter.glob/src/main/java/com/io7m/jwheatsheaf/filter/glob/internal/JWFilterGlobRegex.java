@@ -0,0 +1,430 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.filter.glob.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A translator from glob patterns to regular expressions.
+ *
+ * The translation follows the glob syntax described by
+ * {@link java.nio.file.FileSystem#getPathMatcher(String)}:
+ *
+ * <ul>
+ *   <li>{@code *} matches any number of characters within a name.</li>
+ *   <li>{@code **} matches any number of characters, across names.</li>
+ *   <li>{@code ?} matches exactly one character within a name.</li>
+ *   <li>{@code \} matches the character that follows it literally.</li>
+ *   <li>{@code [...]} matches one character within a name from a set of
+ *   characters and ranges; the set is negated by a leading {@code !}, a
+ *   {@code -} is literal at the start of the set, and other characters,
+ *   including {@code \}, match themselves.</li>
+ *   <li>{@code {...}} matches any of a comma-separated list of
+ *   subpatterns. Groups cannot be nested. A comma or a closing brace
+ *   outside of a group is literal.</li>
+ *   <li>{@code /} matches the name separator of the filesystem.</li>
+ * </ul>
+ *
+ * Everything else matches itself. The properties of the syntax that the
+ * description leaves to the filesystem, such as whether letters match
+ * regardless of case, are described by a {@link JWFilterGlobDialect}.
+ */
+
+public final class JWFilterGlobRegex
+{
+  private final String glob;
+  private final JWFilterGlobDialect dialect;
+  private final String separator;
+  private final String notSeparator;
+  private final List<Token> tokens;
+  private int next;
+  private boolean inGroup;
+
+  private JWFilterGlobRegex(
+    final String inGlob,
+    final JWFilterGlobDialect inDialect)
+  {
+    this.glob = inGlob;
+    this.dialect = inDialect;
+    this.separator = quote(inDialect.separator());
+    this.notSeparator = "[^" + this.separator + "]";
+    this.tokens = new ArrayList<>(inGlob.length());
+  }
+
+  /**
+   * Translate the given glob pattern to a regular expression. The resulting
+   * expression contains no capturing groups, and is not anchored; it is
+   * intended to be matched against the entire string form of a path, using
+   * the flags of the dialect.
+   *
+   * @param glob    The glob pattern
+   * @param dialect The dialect
+   *
+   * @return A regular expression
+   *
+   * @throws PatternSyntaxException If the glob pattern is malformed
+   *
+   * @see JWFilterGlobDialect#flags()
+   */
+
+  public static String toRegex(
+    final String glob,
+    final JWFilterGlobDialect dialect)
+    throws PatternSyntaxException
+  {
+    final var text = new StringBuilder(glob.length() * 2);
+    for (final var token : tokenize(glob, dialect)) {
+      text.append(token.regex());
+    }
+    return text.toString();
+  }
+
+  /**
+   * Split the given glob pattern into tokens. Concatenating the regular
+   * expressions of the tokens yields the result of
+   * {@link #toRegex(String, JWFilterGlobDialect)}.
+   *
+   * @param glob    The glob pattern
+   * @param dialect The dialect
+   *
+   * @return The tokens of the pattern
+   *
+   * @throws PatternSyntaxException If the glob pattern is malformed
+   */
+
+  public static List<Token> tokenize(
+    final String glob,
+    final JWFilterGlobDialect dialect)
+    throws PatternSyntaxException
+  {
+    Objects.requireNonNull(glob, "glob");
+    Objects.requireNonNull(dialect, "dialect");
+    return new JWFilterGlobRegex(glob, dialect).translate();
+  }
+
+  /**
+   * Determine whether a character is a line terminator. A {@code .} in a
+   * regular expression compiled without {@link java.util.regex.Pattern#DOTALL}
+   * does not match line terminators.
+   *
+   * @param c The character
+   *
+   * @return {@code true} if the character is a line terminator
+   */
+
+  public static boolean isLineTerminator(
+    final int c)
+  {
+    return switch (c) {
+      case '\n', '\r', 0x85, 0x2028, 0x2029 -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * A character that is not an ASCII letter or digit is escaped, which
+   * always denotes the character itself, both inside and outside of a
+   * character class.
+   */
+
+  private static String quote(
+    final char c)
+  {
+    if (c < 0x80 && !Character.isLetterOrDigit(c)) {
+      return "\\" + c;
+    }
+    return String.valueOf(c);
+  }
+
+  private PatternSyntaxException error(
+    final String message,
+    final int index)
+  {
+    return new PatternSyntaxException(message, this.glob, index);
+  }
+
+  private boolean more()
+  {
+    return this.next < this.glob.length();
+  }
+
+  private boolean lookingAt(
+    final char c)
+  {
+    return this.more() && this.glob.charAt(this.next) == c;
+  }
+
+  private boolean isSeparator(
+    final char c)
+  {
+    return c == '/' || c == this.dialect.separator();
+  }
+
+  private void add(
+    final TokenKind kind,
+    final char c,
+    final String regex)
+  {
+    this.tokens.add(new Token(kind, c, regex));
+  }
+
+  private void addLiteral(
+    final char c)
+  {
+    this.add(TokenKind.LITERAL, c, quote(c));
+  }
+
+  private List<Token> translate()
+  {
+    while (this.more()) {
+      final var start = this.next;
+      final var c = this.glob.charAt(start);
+      this.next += 1;
+
+      switch (c) {
+        case '*' -> this.star();
+        case '?' -> this.add(TokenKind.QUESTION, c, this.notSeparator);
+        case '[' -> this.bracket(start);
+        case '{' -> this.groupOpen(start);
+        case ',' -> this.groupAlternative();
+        case '}' -> this.groupClose();
+        case '\\' -> this.escape(start);
+        case '/' -> this.add(
+          TokenKind.LITERAL, this.dialect.separator(), this.separator);
+        default -> this.addLiteral(c);
+      }
+    }
+
+    if (this.inGroup) {
+      throw this.error("Unclosed group", this.glob.length());
+    }
+    return List.copyOf(this.tokens);
+  }
+
+  private void star()
+  {
+    if (!this.lookingAt('*')) {
+      this.add(TokenKind.STAR, '*', this.notSeparator + "*");
+      return;
+    }
+
+    this.next += 1;
+    if (this.dialect.starStarCrossesLines()) {
+      this.add(TokenKind.STAR_STAR, '*', "(?s:.*)");
+    } else {
+      this.add(TokenKind.STAR_STAR, '*', ".*");
+    }
+  }
+
+  private void escape(
+    final int start)
+  {
+    if (!this.more()) {
+      throw this.error("Escape at end of pattern", start);
+    }
+    this.addLiteral(this.glob.charAt(this.next));
+    this.next += 1;
+  }
+
+  private void groupOpen(
+    final int start)
+  {
+    if (this.inGroup) {
+      throw this.error("Nested group", start);
+    }
+    this.inGroup = true;
+    this.add(TokenKind.GROUP_OPEN, '{', "(?:(?:");
+  }
+
+  private void groupAlternative()
+  {
+    if (this.inGroup) {
+      this.add(TokenKind.GROUP_ALTERNATIVE, ',', ")|(?:");
+    } else {
+      this.addLiteral(',');
+    }
+  }
+
+  private void groupClose()
+  {
+    if (this.inGroup) {
+      this.inGroup = false;
+      this.add(TokenKind.GROUP_CLOSE, '}', "))");
+    } else {
+      this.addLiteral('}');
+    }
+  }
+
+  /**
+   * Translate a bracket expression. The members of the set are collected
+   * as single characters and ranges, and the name separator is then
+   * excluded from the set, including from any range that spans it. Forms
+   * that the glob syntax does not describe, such as an empty set or a
+   * {@code -} at the end of a set, are rejected rather than guessed at.
+   */
+
+  private void bracket(
+    final int start)
+  {
+    final var negated = this.lookingAt('!');
+    if (negated) {
+      this.next += 1;
+    }
+
+    final var members = new StringBuilder(16);
+    var first = true;
+    while (true) {
+      if (!this.more()) {
+        throw this.error("Unclosed bracket expression", start);
+      }
+
+      final var position = this.next;
+      final var c = this.glob.charAt(position);
+      this.next += 1;
+
+      if (c == ']') {
+        if (first) {
+          throw this.error("Empty bracket expression", position);
+        }
+        break;
+      }
+      if (this.isSeparator(c)) {
+        throw this.error("Name separator in bracket expression", position);
+      }
+      if (c == '-' && !first) {
+        throw this.error("Range without a start", position);
+      }
+
+      members.append(quote(c));
+      first = false;
+      this.bracketRange(members, c);
+    }
+
+    final String regex;
+    if (negated) {
+      regex = "[^" + members + this.separator + "]";
+    } else {
+      regex = "[" + members + "&&" + this.notSeparator + "]";
+    }
+    this.add(TokenKind.CLASS, '[', regex);
+  }
+
+  /**
+   * Translate the end of a range if the bracket member {@code start} is
+   * followed by one. A {@code -} directly before the closing bracket is
+   * not a range, and is rejected by the caller.
+   */
+
+  private void bracketRange(
+    final StringBuilder members,
+    final char start)
+  {
+    if (!this.lookingAt('-')) {
+      return;
+    }
+
+    final var position = this.next + 1;
+    if (position >= this.glob.length() || this.glob.charAt(position) == ']') {
+      return;
+    }
+
+    final var end = this.glob.charAt(position);
+    if (end < start) {
+      throw this.error("Range out of order", position);
+    }
+    if (this.isSeparator(end)) {
+      throw this.error("Name separator in bracket expression", position);
+    }
+    members.append('-');
+    members.append(quote(end));
+    this.next += 2;
+  }
+
+  /**
+   * The kind of glob tokens.
+   */
+
+  public enum TokenKind
+  {
+    /**
+     * A literal character.
+     */
+
+    LITERAL,
+
+    /**
+     * A bracket expression.
+     */
+
+    CLASS,
+
+    /**
+     * {@code *}: Any number of characters other than the name separator.
+     */
+
+    STAR,
+
+    /**
+     * {@code **}: Any number of characters.
+     */
+
+    STAR_STAR,
+
+    /**
+     * {@code ?}: Any single character other than the name separator.
+     */
+
+    QUESTION,
+
+    /**
+     * An opening brace: The start of a group.
+     */
+
+    GROUP_OPEN,
+
+    /**
+     * {@code ,}: The start of the next alternative in a group.
+     */
+
+    GROUP_ALTERNATIVE,
+
+    /**
+     * A closing brace: The end of a group.
+     */
+
+    GROUP_CLOSE
+  }
+
+  /**
+   * A single glob token.
+   *
+   * @param kind      The token kind
+   * @param character The character, for literal tokens
+   * @param regex     The regular expression equivalent to the token
+   */
+
+  public record Token(
+    TokenKind kind,
+    char character,
+    String regex)
+  {
+
+  }
+}
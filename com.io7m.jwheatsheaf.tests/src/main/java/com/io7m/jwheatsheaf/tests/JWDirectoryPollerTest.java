@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.ui.internal.JWDirectoryPoller;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public final class JWDirectoryPollerTest
+{
+  private LinkedBlockingQueue<Path> received;
+  private JWDirectoryPoller poller;
+
+  private static FileTime hoursAgo(
+    final long hours)
+  {
+    return FileTime.from(Instant.now().minus(Duration.ofHours(hours)));
+  }
+
+  @BeforeEach
+  public void testSetup()
+  {
+    this.received = new LinkedBlockingQueue<>();
+    this.poller =
+      JWDirectoryPoller.create(
+        Duration.ofMillis(10L),
+        JWFileChooserMetricsNone.get(),
+        this.received::add
+      );
+  }
+
+  @AfterEach
+  public void testTearDown()
+  {
+    this.poller.close();
+  }
+
+  /**
+   * Adding an entry to a polled directory is observed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCreateObserved()
+    throws Exception
+  {
+    final var directory = JWTestDirectories.createTempDirectory();
+    Files.setLastModifiedTime(directory, hoursAgo(1L));
+
+    this.poller.watch(Optional.of(directory));
+    Assertions.assertNull(this.received.poll(200L, TimeUnit.MILLISECONDS));
+
+    Files.writeString(directory.resolve("created.txt"), "x");
+    Assertions.assertEquals(
+      directory,
+      this.received.poll(10L, TimeUnit.SECONDS)
+    );
+  }
+
+  /**
+   * Directories on filesystems without a watch service can be polled.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCustomFilesystemObserved()
+    throws Exception
+  {
+    final var filesystem =
+      JWTestFilesystems.create()
+        .filesystems()
+        .get("ExampleDOS");
+
+    final var directory = filesystem.getPath("DOC");
+    Files.setLastModifiedTime(directory, hoursAgo(2L));
+
+    this.poller.watch(Optional.of(directory));
+    Assertions.assertNull(this.received.poll(200L, TimeUnit.MILLISECONDS));
+
+    Files.setLastModifiedTime(directory, hoursAgo(1L));
+    Assertions.assertEquals(
+      directory,
+      this.received.poll(10L, TimeUnit.SECONDS)
+    );
+  }
+
+  /**
+   * Changes to a directory that is no longer polled, or to a directory
+   * polled by a closed poller, are not observed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUnpolledIgnored()
+    throws Exception
+  {
+    final var directory = JWTestDirectories.createTempDirectory();
+    Files.setLastModifiedTime(directory, hoursAgo(1L));
+
+    this.poller.watch(Optional.of(directory));
+    this.poller.watch(Optional.empty());
+    Files.setLastModifiedTime(directory, hoursAgo(2L));
+    Assertions.assertNull(this.received.poll(200L, TimeUnit.MILLISECONDS));
+
+    this.poller.watch(Optional.of(directory));
+    Thread.sleep(100L);
+    this.poller.close();
+    Files.setLastModifiedTime(directory, hoursAgo(3L));
+    Assertions.assertNull(this.received.poll(200L, TimeUnit.MILLISECONDS));
+    Assertions.assertEquals(Optional.of(directory), this.poller.directory());
+
+    this.poller.watch(this.poller.directory());
+    Thread.sleep(100L);
+    Files.setLastModifiedTime(directory, hoursAgo(4L));
+    Assertions.assertEquals(
+      directory,
+      this.received.poll(10L, TimeUnit.SECONDS)
+    );
+  }
+
+  /**
+   * A directory that was modified recently is reported once per change,
+   * rather than on every poll until its modification time is old enough to
+   * be trusted.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRecentChangeReportedOnce()
+    throws Exception
+  {
+    final var directory = JWTestDirectories.createTempDirectory();
+    Files.setLastModifiedTime(directory, FileTime.from(Instant.now()));
+
+    this.poller.watch(Optional.of(directory));
+    Assertions.assertNull(this.received.poll(200L, TimeUnit.MILLISECONDS));
+
+    Files.setLastModifiedTime(
+      directory, FileTime.from(Instant.now().plusSeconds(1L)));
+    Assertions.assertEquals(
+      directory,
+      this.received.poll(10L, TimeUnit.SECONDS)
+    );
+    Assertions.assertNull(this.received.poll(300L, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Non-positive intervals are rejected.
+   */
+
+  @Test
+  public void testIntervalInvalid()
+  {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      JWDirectoryPoller.create(
+        Duration.ZERO,
+        JWFileChooserMetricsNone.get(),
+        this.received::add
+      );
+    });
+  }
+}
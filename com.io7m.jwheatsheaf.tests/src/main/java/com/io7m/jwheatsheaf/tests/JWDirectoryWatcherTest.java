@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.ui.internal.JWDirectoryChanges;
+import com.io7m.jwheatsheaf.ui.internal.JWDirectoryWatcher;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public final class JWDirectoryWatcherTest
+{
+  private Path directory;
+  private ExecutorService executor;
+  private LinkedBlockingQueue<JWDirectoryChanges> received;
+  private JWDirectoryWatcher watcher;
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    this.directory = JWTestDirectories.createTempDirectory();
+    this.executor = Executors.newSingleThreadExecutor();
+    this.received = new LinkedBlockingQueue<>();
+    this.watcher =
+      JWDirectoryWatcher.create(
+        this.directory.getFileSystem(),
+        this.executor,
+        JWDirectoryWatcher.DEFAULT_COALESCE_INTERVAL,
+        JWFileChooserMetricsNone.get(),
+        this.received::add
+      );
+  }
+
+  @AfterEach
+  public void testTearDown()
+  {
+    this.watcher.close();
+    this.executor.shutdown();
+  }
+
+  private void awaitRegistration()
+    throws Exception
+  {
+    this.executor.submit(() -> { }).get(10L, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Created, modified, and deleted entries are delivered as changes, and
+   * only the affected entries are resolved.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testChangesDelivered()
+    throws Exception
+  {
+    final var existing = this.directory.resolve("existing.txt");
+    Files.writeString(existing, "x");
+
+    this.watcher.watch(Optional.of(this.directory));
+    this.awaitRegistration();
+    Assertions.assertEquals(Optional.of(this.directory), this.watcher.directory());
+
+    final var created = this.directory.resolve("created.txt");
+    Files.writeString(created, "hello");
+    Files.delete(existing);
+
+    final var changed = new HashMap<Path, JWFileItem>();
+    final var removed = new HashSet<Path>();
+    final var deadline = System.nanoTime() + Duration.ofSeconds(10L).toNanos();
+    while (!(isSize(changed.get(created), 5L) && removed.contains(existing))) {
+      final var changes =
+        this.received.poll(
+          deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      Assertions.assertNotNull(changes, "Changes must arrive in time");
+      Assertions.assertEquals(this.directory, changes.directory());
+      Assertions.assertTrue(changes.complete());
+
+      for (final var item : changes.changed()) {
+        changed.put(item.path(), item);
+        removed.remove(item.path());
+      }
+      for (final var path : changes.removed()) {
+        removed.add(path);
+        changed.remove(path);
+      }
+    }
+
+    Assertions.assertEquals(Set.of(created), changed.keySet());
+    Assertions.assertEquals(Set.of(existing), removed);
+  }
+
+  private static boolean isSize(
+    final JWFileItem item,
+    final long size)
+  {
+    return item != null && item.size() == size;
+  }
+
+  /**
+   * Changes in a directory that is no longer watched are not delivered.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUnwatchedIgnored()
+    throws Exception
+  {
+    this.watcher.watch(Optional.of(this.directory));
+    this.awaitRegistration();
+    this.watcher.watch(Optional.empty());
+    this.awaitRegistration();
+
+    Files.writeString(this.directory.resolve("ignored.txt"), "x");
+    Assertions.assertNull(this.received.poll(500L, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * A closed watcher delivers nothing, but resumes when asked to watch
+   * again.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCloseAndResume()
+    throws Exception
+  {
+    this.watcher.watch(Optional.of(this.directory));
+    this.awaitRegistration();
+    this.watcher.close();
+
+    Files.writeString(this.directory.resolve("ignored.txt"), "x");
+    Assertions.assertNull(this.received.poll(500L, TimeUnit.MILLISECONDS));
+    Assertions.assertEquals(Optional.of(this.directory), this.watcher.directory());
+
+    this.watcher.watch(this.watcher.directory());
+    this.awaitRegistration();
+
+    final var created = this.directory.resolve("created.txt");
+    Files.writeString(created, "x");
+
+    final var changes = this.received.poll(10L, TimeUnit.SECONDS);
+    Assertions.assertNotNull(changes, "Changes must arrive in time");
+    Assertions.assertTrue(
+      changes.changed()
+        .stream()
+        .anyMatch(i -> i.path().equals(created))
+    );
+  }
+}
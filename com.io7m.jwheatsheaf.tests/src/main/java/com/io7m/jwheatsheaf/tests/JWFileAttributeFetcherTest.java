@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.ui.internal.JWFileAttributeFetcher;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JWFileAttributeFetcherTest
+{
+  private Path directory;
+  private List<Runnable> tasks;
+  private List<List<JWFileItem>> batches;
+  private JWFileAttributeFetcher fetcher;
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    this.directory = JWTestDirectories.createTempDirectory();
+    this.tasks = new ArrayList<>();
+    this.batches = new ArrayList<>();
+    this.fetcher =
+      JWFileAttributeFetcher.create(
+        this.tasks::add,
+        1,
+        Duration.ofDays(1L),
+        JWFileChooserMetricsNone.get(),
+        this.batches::add
+      );
+  }
+
+  private Path file(
+    final String name)
+    throws IOException
+  {
+    return Files.writeString(this.directory.resolve(name), name);
+  }
+
+  private void runTasks()
+  {
+    while (!this.tasks.isEmpty()) {
+      this.tasks.remove(0).run();
+    }
+  }
+
+  private List<Path> fetchedPaths()
+  {
+    return this.batches.stream()
+      .flatMap(List::stream)
+      .map(JWFileItem::path)
+      .toList();
+  }
+
+  /**
+   * Explicitly requested paths are fetched before paths queued in the
+   * background, and each path is fetched once.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testRequestedFirst()
+    throws IOException
+  {
+    final var a = this.file("a");
+    final var b = this.file("b");
+    final var c = this.file("c");
+    final var d = this.file("d");
+
+    this.fetcher.requestAll(List.of(a, b, c));
+    this.fetcher.request(c);
+    this.fetcher.request(d);
+    this.fetcher.request(d);
+    Assertions.assertEquals(1, this.tasks.size());
+    Assertions.assertEquals(5, this.fetcher.queued());
+
+    this.runTasks();
+    Assertions.assertEquals(List.of(c, d, a, b), this.fetchedPaths());
+    Assertions.assertEquals(0, this.fetcher.queued());
+
+    for (final var batch : this.batches) {
+      Assertions.assertEquals(1, batch.size());
+      Assertions.assertFalse(batch.get(0).attributesPending());
+      Assertions.assertEquals(1L, batch.get(0).size());
+    }
+
+    this.fetcher.request(a);
+    Assertions.assertEquals(List.of(), this.tasks);
+  }
+
+  /**
+   * Resetting the fetcher discards queued paths, and paths may be fetched
+   * again after a reset.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testReset()
+    throws IOException
+  {
+    final var a = this.file("a");
+    final var b = this.file("b");
+
+    this.fetcher.request(a);
+    this.runTasks();
+    this.fetcher.requestAll(List.of(b));
+    this.fetcher.reset();
+    this.runTasks();
+    Assertions.assertEquals(List.of(a), this.fetchedPaths());
+
+    this.fetcher.request(a);
+    this.runTasks();
+    Assertions.assertEquals(List.of(a, a), this.fetchedPaths());
+  }
+
+  /**
+   * Non-positive batch sizes are rejected.
+   */
+
+  @Test
+  public void testBatchSizeInvalid()
+  {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      JWFileAttributeFetcher.create(
+        this.tasks::add,
+        0,
+        Duration.ofDays(1L),
+        JWFileChooserMetricsNone.get(),
+        this.batches::add
+      );
+    });
+  }
+}
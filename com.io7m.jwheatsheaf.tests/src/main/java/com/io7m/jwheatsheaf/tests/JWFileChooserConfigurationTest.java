@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.time.Duration;
 
 public final class JWFileChooserConfigurationTest
 {
@@ -43,6 +44,21 @@ public final class JWFileChooserConfigurationTest
     });
   }
 
+  /**
+   * Trying to specify a non-positive polling interval fails.
+   */
+
+  @Test
+  public void testPollingIntervalNotPositive()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      JWFileChooserConfiguration.builder()
+        .setFileSystem(FileSystems.getDefault())
+        .setDirectoryPollingInterval(Duration.ofSeconds(-1L))
+        .build();
+    });
+  }
+
   private static final class EmptyFilter
     implements JWFileChooserFilterType
   {
@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsHistogram;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsInMemory;
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.testsupport.JWSyntheticTree;
+import com.io7m.jwheatsheaf.ui.JWFileChoosersConfiguration;
+import com.io7m.jwheatsheaf.ui.internal.JWDirectoryStamp;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterAllFiles;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterOnlyDirectories;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import com.io7m.jwheatsheaf.ui.internal.JWFileList;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCache;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingDirectory;
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public final class JWFileChooserMetricsTest
+{
+  /**
+   * Percentiles are reported within the precision of the histogram.
+   */
+
+  @Test
+  public void testHistogramPercentiles()
+  {
+    final var histogram = new JWFileChooserMetricsHistogram();
+    Assertions.assertEquals(0L, histogram.percentile(50.0));
+
+    for (long value = 1L; value <= 1000L; ++value) {
+      histogram.record(value * 1_000_000L);
+    }
+
+    Assertions.assertEquals(1000L, histogram.count());
+    Assertions.assertEquals(1_000_000L, histogram.minimum());
+    Assertions.assertEquals(1_000_000_000L, histogram.maximum());
+    Assertions.assertEquals(500_500_000.0, histogram.mean(), 0.001);
+
+    for (final var percentile : List.of(1.0, 50.0, 90.0, 99.0)) {
+      final var expected = percentile * 10_000_000.0;
+      final var actual = (double) histogram.percentile(percentile);
+      Assertions.assertTrue(
+        actual >= expected && actual <= expected * 1.125,
+        () -> "%s: %s".formatted(percentile, Double.valueOf(actual)));
+    }
+
+    Assertions.assertEquals(1_000_000_000L, histogram.percentile(100.0));
+    Assertions.assertTrue(histogram.percentile(0.0) <= 1_125_000L);
+    Assertions.assertThrows(
+      PreconditionViolationException.class,
+      () -> histogram.percentile(101.0));
+
+    histogram.reset();
+    Assertions.assertEquals(0L, histogram.count());
+    Assertions.assertEquals(0L, histogram.maximum());
+  }
+
+  /**
+   * Small values are recorded exactly, and extreme values are accepted.
+   */
+
+  @Test
+  public void testHistogramExtremes()
+  {
+    final var histogram = new JWFileChooserMetricsHistogram();
+    histogram.record(-1L);
+    histogram.record(3L);
+    histogram.record(Long.MAX_VALUE);
+
+    Assertions.assertEquals(0L, histogram.minimum());
+    Assertions.assertEquals(3L, histogram.percentile(50.0));
+    Assertions.assertEquals(Long.MAX_VALUE, histogram.percentile(100.0));
+  }
+
+  /**
+   * Measurements are accumulated by the in-memory receiver.
+   */
+
+  @Test
+  public void testInMemory()
+  {
+    final var metrics = JWFileChooserMetricsInMemory.create();
+    final var directory = Path.of("/x");
+
+    metrics.onListingFirstRows(directory, Duration.ofMillis(10L));
+    metrics.onListingCompleted(directory, 1000, Duration.ofMillis(500L));
+    metrics.onAttributesRead(1000);
+    metrics.onAttributesRead(2);
+    metrics.onCacheLookup(directory, true);
+    metrics.onCacheLookup(directory, true);
+    metrics.onCacheLookup(directory, true);
+    metrics.onCacheLookup(directory, false);
+    metrics.onFilterEvaluated(1000, Duration.ofMillis(1L));
+    metrics.onSearchEvaluated(1000, Duration.ofMillis(2L));
+    metrics.onFXThreadUpdate(Duration.ofMillis(3L));
+
+    Assertions.assertEquals(
+      10_000_000L, metrics.listingTimeToFirstRows().maximum());
+    Assertions.assertEquals(
+      500_000_000L, metrics.listingTimeToComplete().maximum());
+    Assertions.assertEquals(
+      2000L, metrics.listingEntriesPerSecond().maximum());
+    Assertions.assertEquals(1002L, metrics.attributeReads());
+    Assertions.assertEquals(0.75, metrics.cacheHitRate(), 0.0001);
+    Assertions.assertEquals(1_000_000L, metrics.filterTime().maximum());
+    Assertions.assertEquals(2_000_000L, metrics.searchTime().maximum());
+    Assertions.assertEquals(3_000_000L, metrics.fxThreadTime().maximum());
+
+    metrics.reset();
+    Assertions.assertEquals(0L, metrics.attributeReads());
+    Assertions.assertEquals(0.0, metrics.cacheHitRate());
+    Assertions.assertEquals(0L, metrics.fxThreadTime().count());
+  }
+
+  /**
+   * Listing a directory reports the time to the first rows, the time to
+   * complete, and the number of attribute reads.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testListingMeasured()
+    throws Exception
+  {
+    final var metrics = JWFileChooserMetricsInMemory.create();
+
+    try (var fileSystem = JWSyntheticTree.createMemoryFilesystem()) {
+      final var directory = fileSystem.getPath("/tree");
+      JWSyntheticTree.builder(1L)
+        .setEntriesPerDirectory(100)
+        .setSymbolicLinkFraction(0.1)
+        .build()
+        .generate(directory);
+
+      final var retriever =
+        new JWFileListingDirectory(
+          directory,
+          false,
+          JWFileListingCache.create(1000),
+          false,
+          path -> true,
+          metrics
+        );
+
+      final var items =
+        retriever.onFileItemsRequestedIncrementally(batch -> {
+
+        });
+
+      Assertions.assertEquals(1L, metrics.listingTimeToFirstRows().count());
+      Assertions.assertEquals(1L, metrics.listingTimeToComplete().count());
+      Assertions.assertEquals(1L, metrics.listingEntriesPerSecond().count());
+
+      /*
+       * The directory is stamped once, every entry is read once, and
+       * symbolic links are read a second time to examine their targets.
+       */
+
+      var expected = 1L;
+      for (final var item : items) {
+        expected += Files.isSymbolicLink(item.path()) ? 2L : 1L;
+      }
+      Assertions.assertEquals(expected, metrics.attributeReads());
+      Assertions.assertTrue(metrics.attributeReads() > items.size());
+    }
+  }
+
+  /**
+   * Attribute reads that fail are counted.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testAttributeReadsFailedCounted()
+    throws Exception
+  {
+    final var metrics = JWFileChooserMetricsInMemory.create();
+
+    try (var fileSystem = JWSyntheticTree.createMemoryFilesystem()) {
+      final var missing = fileSystem.getPath("/missing");
+
+      JWFileItems.resolveFileItem(missing, metrics);
+      Assertions.assertEquals(1L, metrics.attributeReads());
+
+      Assertions.assertEquals(
+        Optional.empty(),
+        JWFileItems.resolveExistingFileItem(missing, metrics)
+      );
+      Assertions.assertEquals(3L, metrics.attributeReads());
+
+      Assertions.assertThrows(IOException.class, () -> {
+        JWDirectoryStamp.of(missing, metrics);
+      });
+      Assertions.assertEquals(4L, metrics.attributeReads());
+    }
+  }
+
+  /**
+   * Changing the filter or search of a file list reports the time taken.
+   */
+
+  @Test
+  public void testFilterSearchMeasured()
+  {
+    final var metrics = JWFileChooserMetricsInMemory.create();
+    final var strings = JWStrings.of(JWStrings.getResourceBundle());
+    final var list =
+      new JWFileList(JWFileChooserFilterAllFiles.create(strings), metrics);
+
+    final var items = new ArrayList<JWFileItem>();
+    for (int index = 0; index < 100; ++index) {
+      items.add(
+        JWFileItem.builder()
+          .setPath(Path.of("/x", "file" + index))
+          .setKind(JWFileKind.REGULAR_FILE)
+          .setSize(0L)
+          .setModifiedTime(FileTime.fromMillis(0L))
+          .build()
+      );
+    }
+    list.setItems(items);
+
+    list.setSearch("file1");
+    list.setSearch("file12");
+    list.setFilter(JWFileChooserFilterOnlyDirectories.create(strings));
+
+    Assertions.assertEquals(2L, metrics.searchTime().count());
+    Assertions.assertEquals(1L, metrics.filterTime().count());
+    Assertions.assertEquals(0, list.items().size());
+  }
+
+  /**
+   * The metrics receiver is discarded by default.
+   */
+
+  @Test
+  public void testConfigurationDefault()
+  {
+    final var metrics = JWFileChooserMetricsInMemory.create();
+    Assertions.assertNotNull(
+      JWFileChoosersConfiguration.builder().build().metrics());
+    Assertions.assertSame(
+      metrics,
+      JWFileChoosersConfiguration.builder()
+        .setMetrics(metrics)
+        .build()
+        .metrics()
+    );
+  }
+}
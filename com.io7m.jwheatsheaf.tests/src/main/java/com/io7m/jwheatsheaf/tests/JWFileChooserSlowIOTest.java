@@ -20,8 +20,9 @@ import com.io7m.jwheatsheaf.api.JWFileChooserAction;
 import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
 import com.io7m.jwheatsheaf.api.JWFileChooserEventType;
 import com.io7m.jwheatsheaf.api.JWFileChoosersType;
+import com.io7m.jwheatsheaf.testsupport.JWLatencyFileSystem;
+import com.io7m.jwheatsheaf.testsupport.JWLatencyProfile;
 import com.io7m.jwheatsheaf.ui.JWFileChoosers;
-import com.io7m.jwheatsheaf.ui.internal.JWFileChoosersTesting;
 import com.io7m.percentpass.extension.MinimumPassing;
 import com.io7m.xoanon.commander.api.XCCommanderType;
 import com.io7m.xoanon.commander.api.XCRobotType;
@@ -35,19 +36,25 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.FileSystem;
-import java.time.Duration;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.Executors;
 
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyDistributionType.constant;
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyDistributionType.exponential;
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyDistributionType.uniform;
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyOperation.DIRECTORY_ENTRY;
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyOperation.DIRECTORY_OPEN;
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyOperation.READ_ATTRIBUTES;
+import static com.io7m.jwheatsheaf.testsupport.JWLatencyOperation.TEST_FILE;
 import static com.io7m.jwheatsheaf.tests.JWTestUtilities.TIMEOUT;
 import static com.io7m.jwheatsheaf.tests.JWTestUtilities.assertIsSelected;
 import static com.io7m.jwheatsheaf.tests.JWTestUtilities.createChooser;
 import static com.io7m.jwheatsheaf.tests.JWTestUtilities.findDirectoryTable;
 import static com.io7m.jwheatsheaf.tests.JWTestUtilities.findOKButton;
+import static java.time.Duration.ofMillis;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @ExtendWith(XoExtension.class)
@@ -71,7 +78,16 @@ public final class JWFileChooserSlowIOTest
 
     this.filesystems = JWTestFilesystems.create();
     final var systems = this.filesystems.filesystems();
-    this.dosFilesystem = systems.get("ExampleDOS");
+    this.dosFilesystem =
+      JWLatencyFileSystem.wrap(
+        systems.get("ExampleDOS"),
+        JWLatencyProfile.builder()
+          .set(DIRECTORY_OPEN, constant(ofMillis(200L)))
+          .set(DIRECTORY_ENTRY, uniform(ofMillis(20L), ofMillis(100L)))
+          .set(READ_ATTRIBUTES, exponential(ofMillis(10L), ofMillis(40L)))
+          .set(TEST_FILE, constant(ofMillis(20L)))
+          .build()
+      );
 
     this.configuration =
       JWFileChooserConfiguration.builder()
@@ -81,11 +97,8 @@ public final class JWFileChooserSlowIOTest
         .build();
 
     this.choosers =
-      JWFileChoosers.createWithTesting(
+      JWFileChoosers.createWith(
         Executors.newSingleThreadExecutor(),
-        JWFileChoosersTesting.builder()
-          .setIoDelay(Duration.of(1L, ChronoUnit.SECONDS))
-          .build(),
         Locale.getDefault()
       );
   }
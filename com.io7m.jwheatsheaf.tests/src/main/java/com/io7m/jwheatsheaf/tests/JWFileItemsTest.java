@@ -16,14 +16,29 @@
 
 package com.io7m.jwheatsheaf.tests;
 
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
 import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
 import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.spi.FileSystemProvider;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public final class JWFileItemsTest
 {
@@ -69,6 +84,115 @@ public final class JWFileItemsTest
     Assertions.assertEquals(JWFileKind.REGULAR_FILE, items.get(4).kind());
   }
 
+  @Test
+  public void testListDOSIncrementally()
+    throws IOException
+  {
+    final var batches =
+      new ArrayList<List<JWFileItem>>();
+
+    final var items =
+      JWFileItems.listDirectoryIncrementally(
+        this.dosFilesystem.getPath(""),
+        false,
+        2,
+        Duration.ofDays(1L),
+        batches::add
+      );
+
+    Assertions.assertEquals(3, batches.size());
+    for (final var batch : batches) {
+      Assertions.assertTrue(batch.size() <= 2);
+    }
+
+    final var delivered =
+      batches.stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toSet());
+
+    Assertions.assertEquals(Set.copyOf(items), delivered);
+    Assertions.assertEquals(
+      JWFileItems.listDirectory(this.dosFilesystem.getPath(""), false),
+      items
+    );
+  }
+
+  @Test
+  public void testListDOSNamesOnly()
+    throws IOException
+  {
+    final var directory =
+      this.dosFilesystem.getPath("");
+    final var names =
+      JWFileItems.listDirectoryNamesIncrementally(
+        directory,
+        false,
+        JWFileItems.DEFAULT_BATCH_SIZE,
+        JWFileItems.DEFAULT_BATCH_INTERVAL,
+        batch -> {
+
+        }
+      );
+    final var items =
+      JWFileItems.listDirectory(directory, false);
+
+    Assertions.assertEquals(
+      items.stream().map(JWFileItem::path).toList(),
+      names.stream().map(JWFileItem::path).toList()
+    );
+
+    Assertions.assertFalse(names.get(0).attributesPending());
+    Assertions.assertEquals(JWFileKind.DIRECTORY, names.get(0).kind());
+    for (final var item : names.subList(1, names.size())) {
+      Assertions.assertTrue(item.attributesPending());
+      Assertions.assertNull(item.sizeIfKnown());
+      Assertions.assertNull(item.modifiedTimeIfKnown());
+    }
+  }
+
+  @Test
+  public void testListDOSCandidates()
+    throws IOException
+  {
+    final var examined =
+      new ArrayList<Path>();
+
+    final var items =
+      JWFileItems.listDirectoryCandidatesIncrementally(
+        this.dosFilesystem.getPath(""),
+        false,
+        JWFileItems.DEFAULT_BATCH_SIZE,
+        JWFileItems.DEFAULT_BATCH_INTERVAL,
+        path -> path.getFileName().toString().endsWith(".TXT"),
+        path -> {
+          examined.add(path);
+          return JWFileItems.pendingFileItem(path);
+        },
+        JWFileChooserMetricsNone.get(),
+        batch -> {
+
+        }
+      );
+
+    Assertions.assertEquals(2, items.size());
+    Assertions.assertEquals(".", items.get(0).name());
+    Assertions.assertEquals("README.TXT", items.get(1).name());
+    Assertions.assertEquals(1, examined.size());
+  }
+
+  @Test
+  public void testListInterrupted()
+  {
+    Thread.currentThread().interrupt();
+    try {
+      Assertions.assertThrows(InterruptedIOException.class, () -> {
+        JWFileItems.listDirectory(this.dosFilesystem.getPath(""), false);
+      });
+    } finally {
+      Assertions.assertTrue(Thread.interrupted());
+    }
+  }
+
   @Test
   public void testListBroken()
     throws IOException
@@ -91,4 +215,114 @@ public final class JWFileItemsTest
     Assertions.assertEquals(JWFileKind.UNKNOWN, items.get(0).kind());
     Assertions.assertEquals(JWFileKind.UNKNOWN, items.get(1).kind());
   }
+
+  /**
+   * Each entry in a listing is resolved with exactly one attribute read,
+   * and only symbolic links incur a second (link-following) read.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testListReadsAttributesOncePerEntry()
+    throws IOException
+  {
+    final var provider =
+      Mockito.mock(FileSystemProvider.class);
+    final var filesystem =
+      Mockito.mock(FileSystem.class);
+    final var directoryStream =
+      Mockito.mock(DirectoryStream.class);
+
+    Mockito.when(filesystem.provider())
+      .thenReturn(provider);
+
+    final var directory =
+      mockPath(filesystem);
+    final var file =
+      mockPath(filesystem);
+    final var link =
+      mockPath(filesystem);
+
+    final var directoryAttributes =
+      mockAttributes(false, true, false);
+    final var fileAttributes =
+      mockAttributes(false, false, true);
+    final var linkAttributes =
+      mockAttributes(true, false, false);
+
+    Mockito.when(provider.readAttributes(
+        directory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))
+      .thenReturn(directoryAttributes);
+    Mockito.when(provider.readAttributes(
+        file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))
+      .thenReturn(fileAttributes);
+    Mockito.when(provider.readAttributes(
+        link, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))
+      .thenReturn(linkAttributes);
+    Mockito.when(provider.readAttributes(link, BasicFileAttributes.class))
+      .thenReturn(fileAttributes);
+
+    Mockito.when(directoryStream.iterator())
+      .thenReturn(List.of(file, link).iterator());
+    Mockito.when(provider.newDirectoryStream(Mockito.any(), Mockito.any()))
+      .thenReturn(directoryStream);
+
+    final var items =
+      JWFileItems.listDirectory(directory, false);
+
+    Assertions.assertEquals(3, items.size());
+    Assertions.assertEquals(JWFileKind.DIRECTORY, items.get(0).kind());
+    Assertions.assertEquals(JWFileKind.REGULAR_FILE, items.get(1).kind());
+    Assertions.assertEquals(JWFileKind.SYMBOLIC_LINK, items.get(2).kind());
+    Assertions.assertEquals(23L, items.get(2).size());
+    Assertions.assertEquals(JWFileKind.DIRECTORY, items.get(0).targetKind());
+    Assertions.assertEquals(JWFileKind.REGULAR_FILE, items.get(1).targetKind());
+    Assertions.assertEquals(JWFileKind.REGULAR_FILE, items.get(2).targetKind());
+    Assertions.assertTrue(items.get(0).isDirectory());
+    Assertions.assertFalse(items.get(2).isDirectory());
+
+    for (final var path : List.of(directory, file, link)) {
+      Mockito.verify(provider, Mockito.times(1))
+        .readAttributes(
+          path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    Mockito.verify(provider, Mockito.never())
+      .readAttributes(directory, BasicFileAttributes.class);
+    Mockito.verify(provider, Mockito.never())
+      .readAttributes(file, BasicFileAttributes.class);
+    Mockito.verify(provider, Mockito.times(1))
+      .readAttributes(link, BasicFileAttributes.class);
+    Mockito.verify(provider, Mockito.never())
+      .checkAccess(Mockito.any(), Mockito.any());
+  }
+
+  private static Path mockPath(
+    final FileSystem filesystem)
+  {
+    final var path = Mockito.mock(Path.class);
+    Mockito.when(path.getFileSystem())
+      .thenReturn(filesystem);
+    return path;
+  }
+
+  private static BasicFileAttributes mockAttributes(
+    final boolean link,
+    final boolean directory,
+    final boolean regular)
+  {
+    final var attributes = Mockito.mock(BasicFileAttributes.class);
+    Mockito.when(attributes.isSymbolicLink())
+      .thenReturn(Boolean.valueOf(link));
+    Mockito.when(attributes.isDirectory())
+      .thenReturn(Boolean.valueOf(directory));
+    Mockito.when(attributes.isRegularFile())
+      .thenReturn(Boolean.valueOf(regular));
+    Mockito.when(attributes.lastModifiedTime())
+      .thenReturn(FileTime.fromMillis(0L));
+    Mockito.when(attributes.size())
+      .thenReturn(Long.valueOf(23L));
+    return attributes;
+  }
 }
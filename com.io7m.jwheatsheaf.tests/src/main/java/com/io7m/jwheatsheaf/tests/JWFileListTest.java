@@ -0,0 +1,384 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileChoosersType;
+import com.io7m.jwheatsheaf.api.JWFileInfoType;
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.ui.JWFileChoosers;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterOnlyDirectories;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import com.io7m.jwheatsheaf.ui.internal.JWFileList;
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class JWFileListTest
+{
+  private JWFileItem item0;
+  private JWFileItem item1;
+  private JWFileItem item2;
+  private List<JWFileItem> baseItems;
+  private JWStrings strings;
+  private JWFileChoosersType choosers;
+
+  @BeforeEach
+  public void testSetup()
+  {
+    this.strings =
+      JWStrings.of(JWStrings.getResourceBundle());
+    this.choosers =
+      JWFileChoosers.create();
+
+    this.item0 =
+      JWFileItem.builder()
+        .setPath(Paths.get("/x"))
+        .setModifiedTime(FileTime.fromMillis(0L))
+        .setKind(JWFileKind.REGULAR_FILE)
+        .setSize(0L)
+        .build();
+    this.item1 =
+      JWFileItem.builder()
+        .setPath(Paths.get("/y"))
+        .setModifiedTime(FileTime.fromMillis(0L))
+        .setKind(JWFileKind.REGULAR_FILE)
+        .setSize(0L)
+        .build();
+    this.item2 =
+      JWFileItem.builder()
+        .setPath(Paths.get("/z"))
+        .setModifiedTime(FileTime.fromMillis(0L))
+        .setKind(JWFileKind.REGULAR_FILE)
+        .setSize(0L)
+        .build();
+
+    this.baseItems =
+      List.of(this.item0, this.item1, this.item2);
+  }
+
+  @AfterEach
+  public void testShutdown()
+    throws IOException
+  {
+    this.choosers.close();
+  }
+
+  @Test
+  public void testListBase()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(this.baseItems);
+    assertEquals(this.baseItems, items.items());
+  }
+
+  @Test
+  public void testListSearch()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(this.baseItems);
+    items.setSearch("x");
+    assertEquals(List.of(this.item0), items.items());
+    items.setSearch("");
+    assertEquals(this.baseItems, items.items());
+  }
+
+  @Test
+  public void testListSearchNarrowing()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(this.baseItems);
+    items.setSearch("x");
+    assertEquals(List.of(this.item0), items.items());
+    items.setSearch("xz");
+    assertEquals(List.of(), items.items());
+    items.setSearch("x");
+    assertEquals(List.of(this.item0), items.items());
+    items.setSearch("X");
+    assertEquals(List.of(this.item0), items.items());
+  }
+
+  @Test
+  public void testListSearchNormalized()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    final var ligature =
+      this.item0.withDisplayName("\uFB01le.txt");
+    final var sharp =
+      this.item1.withDisplayName("stra\u00DFe.txt");
+    final var root =
+      this.item2.withPath(Paths.get("/"));
+
+    items.setItems(List.of(ligature, sharp, root));
+    items.setSearch("FILE");
+    assertEquals(List.of(ligature), items.items());
+    items.setSearch("STRASSE");
+    assertEquals(List.of(sharp), items.items());
+    items.setSearch("/");
+    assertEquals(List.of(root), items.items());
+  }
+
+  @Test
+  public void testListSearchAppended()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setSearch("y");
+    items.setItems(List.of(this.item0));
+    assertEquals(List.of(), items.items());
+    items.addItems(List.of(this.item1, this.item2));
+    assertEquals(List.of(this.item1), items.items());
+    items.setSearch("");
+    assertEquals(this.baseItems, items.items());
+  }
+
+  @Test
+  public void testListAddItemsIfAbsent()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(List.of(this.item0, this.item1));
+    items.addItemsIfAbsent(List.of(this.item1.withSize(100L), this.item2));
+    assertEquals(this.baseItems, items.items());
+  }
+
+  @Test
+  public void testListSetItemsMinimal()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+    items.setItems(List.of(this.item0, this.item2));
+
+    final var changes = new ArrayList<String>();
+    items.items().addListener((ListChangeListener<JWFileItem>) change -> {
+      while (change.next()) {
+        changes.add("%s-%s+%s".formatted(
+          Integer.valueOf(change.getFrom()),
+          Integer.valueOf(change.getRemovedSize()),
+          Integer.valueOf(change.getAddedSize())
+        ));
+      }
+    });
+
+    items.setItems(this.baseItems);
+    assertEquals(this.baseItems, items.items());
+    assertEquals(List.of("1-0+1"), changes);
+
+    final var item1Larger = this.item1.withSize(100L);
+    changes.clear();
+    items.setItems(List.of(this.item0, item1Larger, this.item2));
+    assertEquals(List.of(this.item0, item1Larger, this.item2), items.items());
+    assertEquals(List.of("1-1+1"), changes);
+  }
+
+  @Test
+  public void testListApplyChanges()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+    items.setItems(List.of(this.item0, this.item1));
+    items.setSearch("y");
+
+    final var item1Larger = this.item1.withSize(100L);
+    items.applyChanges(
+      List.of(this.item2, item1Larger),
+      Set.of(this.item0.path())
+    );
+    assertEquals(List.of(item1Larger), items.items());
+
+    items.setSearch("");
+    assertEquals(List.of(item1Larger, this.item2), items.items());
+  }
+
+  @Test
+  public void testListReplaceItemsInPlace()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+    final var pending =
+      List.of(
+        JWFileItems.pendingFileItem(this.item0.path()),
+        JWFileItems.pendingFileItem(this.item1.path()),
+        JWFileItems.pendingFileItem(this.item2.path())
+      );
+    items.setItems(pending);
+    assertEquals(
+      List.of(this.item0.path(), this.item1.path(), this.item2.path()),
+      items.pendingPaths()
+    );
+
+    final var changes = new ArrayList<String>();
+    items.items().addListener((ListChangeListener<JWFileItem>) change -> {
+      while (change.next()) {
+        changes.add("%s-%s+%s".formatted(
+          Integer.valueOf(change.getFrom()),
+          Integer.valueOf(change.getRemovedSize()),
+          Integer.valueOf(change.getAddedSize())
+        ));
+      }
+    });
+
+    final var unknown = JWFileItems.pendingFileItem(Paths.get("/unknown"));
+    items.replaceItems(List.of(this.item1, unknown));
+    assertEquals(List.of(pending.get(0), this.item1, pending.get(2)), items.items());
+    assertEquals(List.of("1-1+1"), changes);
+    assertEquals(List.of(this.item0.path(), this.item2.path()), items.pendingPaths());
+  }
+
+  @Test
+  public void testListReplaceItemsFiltered()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+    items.setItems(List.of(
+      JWFileItems.pendingFileItem(this.item0.path()),
+      JWFileItems.pendingFileItem(this.item1.path())
+    ));
+    items.setFilter(JWFileChooserFilterOnlyDirectories.create(this.strings));
+    assertEquals(2, items.items().size());
+
+    final var directory =
+      this.item1.withKind(JWFileKind.DIRECTORY)
+        .withTargetKind(JWFileKind.DIRECTORY);
+    items.replaceItems(List.of(this.item0, directory));
+    assertEquals(List.of(directory), items.items());
+
+    items.setFilter(this.choosers.filterForAllFiles());
+    assertEquals(List.of(this.item0, directory), items.items());
+  }
+
+  @Test
+  public void testListFilterPendingByPath()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+    final var examined = new ArrayList<JWFileInfoType>();
+
+    items.setFilter(new JWFileChooserFilterType()
+    {
+      @Override
+      public String description()
+      {
+        return "not x, and only directories";
+      }
+
+      @Override
+      public boolean isAllowed(final Path path)
+      {
+        throw new IllegalStateException();
+      }
+
+      @Override
+      public boolean isAllowed(final JWFileInfoType file)
+      {
+        examined.add(file);
+        return file.isDirectory();
+      }
+
+      @Override
+      public boolean mayBeAllowed(final Path path)
+      {
+        return !Objects.equals(path.toString(), "/x");
+      }
+    });
+
+    items.setItems(List.of(
+      JWFileItems.pendingFileItem(this.item0.path()),
+      JWFileItems.pendingFileItem(this.item1.path()),
+      JWFileItems.pendingFileItem(this.item2.path())
+    ));
+    assertEquals(
+      List.of(this.item1.path(), this.item2.path()),
+      items.items().stream().map(JWFileItem::path).toList()
+    );
+    assertEquals(List.of(), examined);
+
+    final var directory =
+      this.item2.withKind(JWFileKind.DIRECTORY)
+        .withTargetKind(JWFileKind.DIRECTORY);
+    items.replaceItems(List.of(this.item1, directory));
+    assertEquals(List.of(directory), items.items());
+    assertEquals(
+      Set.of(this.item1, directory),
+      Set.copyOf(examined)
+    );
+  }
+
+  @Test
+  public void testListSearchAndFilter()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(this.baseItems);
+    items.setSearch("y");
+    items.setFilter(JWFileChooserFilterOnlyDirectories.create(this.strings));
+    assertEquals(List.of(), items.items());
+    items.setFilter(this.choosers.filterForAllFiles());
+    assertEquals(List.of(this.item1), items.items());
+  }
+
+  @Test
+  public void testListFilter()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(this.baseItems);
+    items.setFilter(new JWFileChooserFilterType()
+    {
+      @Override
+      public String description()
+      {
+        return "y";
+      }
+
+      @Override
+      public boolean isAllowed(final Path path)
+      {
+        return Objects.equals(path.toString(), "/y");
+      }
+    });
+
+    assertEquals(List.of(this.item1), items.items());
+    items.setFilter(this.choosers.filterForAllFiles());
+    assertEquals(this.baseItems, items.items());
+  }
+
+  @Test
+  public void testListFilterDirectories()
+  {
+    final var items = new JWFileList(this.choosers.filterForAllFiles());
+
+    items.setItems(this.baseItems);
+    items.setFilter(JWFileChooserFilterOnlyDirectories.create(this.strings));
+    assertEquals(List.of(), items.items());
+    items.setFilter(this.choosers.filterForAllFiles());
+    assertEquals(this.baseItems, items.items());
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.ui.internal.JWDirectoryStamp;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCache;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingDirectory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JWFileListingCacheTest
+{
+  private Path directory;
+
+  private static JWDirectoryStamp oldStamp()
+  {
+    final var time = Instant.now().minus(Duration.ofHours(1L));
+    return new JWDirectoryStamp(FileTime.from(time), null, Instant.now());
+  }
+
+  private static List<JWFileItem> itemsOf(
+    final Path directory,
+    final int count)
+  {
+    final var items = new ArrayList<JWFileItem>(count);
+    for (int index = 0; index < count; ++index) {
+      items.add(
+        JWFileItem.builder()
+          .setPath(directory.resolve("file" + index))
+          .setKind(JWFileKind.REGULAR_FILE)
+          .setSize(0L)
+          .setModifiedTime(FileTime.fromMillis(0L))
+          .build()
+      );
+    }
+    return items;
+  }
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    this.directory = JWTestDirectories.createTempDirectory();
+  }
+
+  /**
+   * The least recently used listings are evicted when the cache holds too
+   * many items.
+   */
+
+  @Test
+  public void testEvictionLeastRecentlyUsed()
+  {
+    final var cache = JWFileListingCache.create(5);
+    final var a = this.directory.resolve("a");
+    final var b = this.directory.resolve("b");
+    final var c = this.directory.resolve("c");
+
+    cache.put(a, false, oldStamp(), itemsOf(a, 2));
+    cache.put(b, false, oldStamp(), itemsOf(b, 2));
+    Assertions.assertTrue(cache.find(a, false).isPresent());
+
+    cache.put(c, false, oldStamp(), itemsOf(c, 2));
+    Assertions.assertTrue(cache.find(a, false).isPresent());
+    Assertions.assertTrue(cache.find(b, false).isEmpty());
+    Assertions.assertTrue(cache.find(c, false).isPresent());
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(4, cache.itemCount());
+  }
+
+  /**
+   * Replacing and invalidating listings keeps the item count accurate, and
+   * listings larger than the cache are not stored.
+   */
+
+  @Test
+  public void testReplaceInvalidateOversized()
+  {
+    final var cache = JWFileListingCache.create(5);
+    final var a = this.directory.resolve("a");
+
+    cache.put(a, false, oldStamp(), itemsOf(a, 2));
+    cache.put(a, true, oldStamp(), itemsOf(a, 3));
+    cache.put(a, false, oldStamp(), itemsOf(a, 1));
+    Assertions.assertEquals(4, cache.itemCount());
+
+    cache.invalidate(a);
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(0, cache.itemCount());
+
+    cache.put(a, false, oldStamp(), itemsOf(a, 6));
+    Assertions.assertTrue(cache.find(a, false).isEmpty());
+    Assertions.assertEquals(0, cache.itemCount());
+  }
+
+  /**
+   * A directory modified very recently is never considered unchanged, as
+   * the granularity of modification times may hide further changes.
+   */
+
+  @Test
+  public void testStampRacy()
+  {
+    final var now = Instant.now();
+    final var stamp = new JWDirectoryStamp(FileTime.from(now), null, now);
+    Assertions.assertFalse(stamp.isUnchangedAt(stamp));
+
+    final var old = oldStamp();
+    Assertions.assertTrue(old.isUnchangedAt(old));
+  }
+
+  /**
+   * A cached listing is reused until the directory changes.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRevalidate()
+    throws Exception
+  {
+    final var cache =
+      JWFileListingCache.create(100);
+    final var retriever =
+      new JWFileListingDirectory(this.directory, false, cache);
+
+    Files.writeString(this.directory.resolve("a.txt"), "A");
+    Files.setLastModifiedTime(
+      this.directory,
+      FileTime.from(Instant.now().minus(Duration.ofHours(1L)))
+    );
+
+    final var items = retriever.onFileItemsRequested();
+    Assertions.assertEquals(2, items.size());
+
+    final var cached = cache.find(this.directory, false).orElseThrow();
+    Assertions.assertEquals(items, cached.items());
+    Assertions.assertEquals(
+      Boolean.FALSE,
+      Boolean.valueOf(retriever.onFileItemsRevalidate(cached).isPresent())
+    );
+
+    Files.writeString(this.directory.resolve("b.txt"), "B");
+    Files.setLastModifiedTime(
+      this.directory,
+      FileTime.from(Instant.now().minus(Duration.ofMinutes(30L)))
+    );
+
+    final var changed = retriever.onFileItemsRevalidate(cached);
+    Assertions.assertEquals(3, changed.orElseThrow().size());
+    Assertions.assertEquals(
+      changed.get(),
+      cache.find(this.directory, false).orElseThrow().items()
+    );
+  }
+
+  /**
+   * A listing that skipped entries is not cached.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPartialNotCached()
+    throws Exception
+  {
+    final var cache =
+      JWFileListingCache.create(100);
+
+    Files.writeString(this.directory.resolve("a.txt"), "A");
+    Files.writeString(this.directory.resolve("b.txt"), "B");
+
+    final var partial =
+      new JWFileListingDirectory(
+        this.directory,
+        false,
+        cache,
+        false,
+        path -> path.getFileName().toString().startsWith("a")
+      );
+
+    final var items = partial.onFileItemsRequested();
+    Assertions.assertEquals(2, items.size());
+    Assertions.assertTrue(partial.isPartial());
+    Assertions.assertTrue(cache.find(this.directory, false).isEmpty());
+
+    final var complete =
+      new JWFileListingDirectory(
+        this.directory,
+        false,
+        cache,
+        false,
+        path -> path.getFileName().toString().endsWith(".txt")
+      );
+
+    Assertions.assertEquals(3, complete.onFileItemsRequested().size());
+    Assertions.assertFalse(complete.isPartial());
+    Assertions.assertTrue(cache.find(this.directory, false).isPresent());
+  }
+
+  /**
+   * A listing that skipped entries keeps their paths, and items for them
+   * can be produced later without listing the directory again.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSkippedEntriesProducedLater()
+    throws Exception
+  {
+    final var cache =
+      JWFileListingCache.create(100);
+
+    final var a = this.directory.resolve("a.txt");
+    final var b = this.directory.resolve("b.txt");
+    final var c = this.directory.resolve("c.txt");
+    Files.writeString(a, "A");
+    Files.writeString(b, "BB");
+    Files.writeString(c, "CCC");
+
+    final var partial =
+      new JWFileListingDirectory(
+        this.directory,
+        false,
+        cache,
+        false,
+        path -> path.getFileName().toString().startsWith("a")
+      );
+
+    partial.onFileItemsRequested();
+    Assertions.assertEquals(
+      List.of(b, c),
+      partial.skippedPaths().stream().sorted().toList()
+    );
+
+    Files.delete(c);
+    final var items = partial.onSkippedItemsRequested(List.of(b, c));
+    Assertions.assertEquals(1, items.size());
+    Assertions.assertEquals(b, items.get(0).path());
+    Assertions.assertEquals(2L, items.get(0).size());
+    Assertions.assertFalse(items.get(0).attributesPending());
+
+    final var namesOnly =
+      new JWFileListingDirectory(
+        this.directory,
+        false,
+        cache,
+        true,
+        path -> false
+      );
+
+    final var pending = namesOnly.onSkippedItemsRequested(List.of(b));
+    Assertions.assertEquals(1, pending.size());
+    Assertions.assertTrue(pending.get(0).attributesPending());
+  }
+}
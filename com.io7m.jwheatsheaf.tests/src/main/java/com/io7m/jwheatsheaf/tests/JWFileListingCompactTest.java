@@ -0,0 +1,276 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterAllFiles;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import com.io7m.jwheatsheaf.ui.internal.JWFileList;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCompact;
+import com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder;
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JWFileListingCompactTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWFileListingCompactTest.class);
+
+  static {
+    /*
+     * Field offsets cannot be read directly from record classes, such as
+     * the sort orders held by file lists.
+     */
+
+    System.setProperty("jol.magicFieldOffset", "true");
+  }
+
+  private Path directory;
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    this.directory = JWTestDirectories.createTempDirectory();
+  }
+
+  private static List<JWFileItem> syntheticItems(
+    final Path directory,
+    final int count)
+  {
+    final var base = Instant.parse("2026-01-01T00:00:00Z");
+    final var items = new ArrayList<JWFileItem>(count);
+    for (int index = 0; index < count; ++index) {
+      items.add(
+        JWFileItem.builder()
+          .setPath(directory.resolve("IMG_%08d.jpg".formatted(index)))
+          .setKind(JWFileKind.REGULAR_FILE)
+          .setSize(index * 1021L)
+          .setModifiedTime(FileTime.from(base.plusNanos(index * 1_000_001L)))
+          .build()
+      );
+    }
+    return items;
+  }
+
+  /**
+   * A compact listing of a real directory contains items equal to those of
+   * the original listing.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testEqualItems()
+    throws IOException
+  {
+    Files.writeString(this.directory.resolve("a.txt"), "A");
+    Files.writeString(this.directory.resolve("b.txt"), "BB");
+    Files.createDirectory(this.directory.resolve("c"));
+    Files.createSymbolicLink(
+      this.directory.resolve("d"), this.directory.resolve("a.txt"));
+
+    final var items =
+      JWFileItems.listDirectory(this.directory, true);
+    final var compact =
+      JWFileListingCompact.of(this.directory, items).orElseThrow();
+
+    Assertions.assertEquals(6, compact.size());
+    Assertions.assertEquals(items, compact);
+    Assertions.assertEquals(items.hashCode(), compact.hashCode());
+    for (int index = 0; index < items.size(); ++index) {
+      final var item = items.get(index);
+      Assertions.assertEquals(item, compact.get(index));
+      Assertions.assertEquals(item.name(), compact.name(index));
+      Assertions.assertEquals(item.size(), compact.fileSize(index));
+      Assertions.assertEquals(item.targetKind(), compact.get(index).targetKind());
+    }
+
+    Assertions.assertSame(
+      compact,
+      JWFileListingCompact.of(this.directory, compact).orElseThrow()
+    );
+  }
+
+  /**
+   * Listings that do not consist of the children of a single directory, or
+   * that contain items with pending attributes, are not compacted.
+   */
+
+  @Test
+  public void testNotRepresentable()
+  {
+    final var other =
+      this.directory.resolve("other");
+    final var items =
+      syntheticItems(this.directory, 3);
+
+    final var mixed = new ArrayList<>(items);
+    mixed.addAll(syntheticItems(other, 1));
+    Assertions.assertTrue(
+      JWFileListingCompact.of(this.directory, mixed).isEmpty());
+
+    final var pending = new ArrayList<>(items);
+    pending.add(JWFileItems.pendingFileItem(this.directory.resolve("x")));
+    Assertions.assertTrue(
+      JWFileListingCompact.of(this.directory, pending).isEmpty());
+
+    final var renamed = new ArrayList<>(items);
+    renamed.set(0, items.get(0).withDisplayName("..."));
+    Assertions.assertTrue(
+      JWFileListingCompact.of(this.directory, renamed).isEmpty());
+
+    Assertions.assertEquals(
+      mixed,
+      JWFileListingCompact.compactOrCopy(this.directory, mixed)
+    );
+  }
+
+  /**
+   * A compact listing occupies a fraction of the memory of the equivalent
+   * list of items.
+   */
+
+  @Test
+  public void testFootprint()
+  {
+    final var items =
+      List.copyOf(syntheticItems(this.directory, 10_000));
+    final var compact =
+      JWFileListingCompact.of(this.directory, items).orElseThrow();
+
+    final var itemsSize =
+      GraphLayout.parseInstance(items).totalSize();
+    final var compactSize =
+      GraphLayout.parseInstance(compact).totalSize();
+
+    LOG.debug("items:   {} bytes", Long.valueOf(itemsSize));
+    LOG.debug("compact: {} bytes", Long.valueOf(compactSize));
+    Assertions.assertTrue(
+      compactSize * 4L < itemsSize,
+      "Compact size %d must be under a quarter of %d"
+        .formatted(Long.valueOf(compactSize), Long.valueOf(itemsSize))
+    );
+  }
+
+  private static JWFileList newList()
+  {
+    return new JWFileList(
+      JWFileChooserFilterAllFiles.create(
+        JWStrings.of(JWStrings.getResourceBundle()))
+    );
+  }
+
+  /**
+   * A file list shows the items of a compact listing, and continues to show
+   * the correct items when they are replaced, and when items from another
+   * directory are added.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testFileListFromCompact()
+    throws IOException
+  {
+    final var items =
+      syntheticItems(this.directory, 100);
+    final var compact =
+      JWFileListingCompact.of(this.directory, items).orElseThrow();
+
+    final var list = newList();
+    list.setItems(compact);
+    Assertions.assertEquals(items, list.items());
+
+    final var expected = new ArrayList<>(items);
+    final var larger = items.get(10).withSize(1L << 40);
+    expected.set(10, larger);
+    list.replaceItems(List.of(larger));
+    Assertions.assertEquals(expected, list.items());
+
+    final var other = JWTestDirectories.createTempDirectory();
+    final var foreign = syntheticItems(other, 1);
+    expected.addAll(foreign);
+    list.addItems(foreign);
+    Assertions.assertEquals(expected, list.items());
+
+    list.setSortOrder(
+      new JWFileSortOrder(
+        List.of(new JWFileSortOrder.Column(JWFileSortOrder.Field.SIZE, false))
+      )
+    );
+    Assertions.assertEquals(larger, list.items().get(0));
+  }
+
+  /**
+   * A file list holds a listing in compact form: the visible items occupy
+   * a fraction of the memory of the equivalent list of items, and none of
+   * the items are retained, even after the list is searched and sorted.
+   */
+
+  @Test
+  public void testFileListFootprint()
+  {
+    final var items =
+      List.copyOf(syntheticItems(this.directory, 10_000));
+
+    final var list = newList();
+    list.setItems(items);
+    list.setSearch("img_0000");
+    list.setSearch("");
+    list.setSortOrder(
+      new JWFileSortOrder(
+        List.of(new JWFileSortOrder.Column(JWFileSortOrder.Field.NAME, false))
+      )
+    );
+    Assertions.assertEquals(items.size(), list.items().size());
+
+    final var itemsSize =
+      GraphLayout.parseInstance(items).totalSize();
+    final var layout =
+      GraphLayout.parseInstance(list.items());
+    final var listSize =
+      layout.totalSize();
+
+    LOG.debug("items: {} bytes", Long.valueOf(itemsSize));
+    LOG.debug("list:  {} bytes", Long.valueOf(listSize));
+    Assertions.assertTrue(
+      listSize * 3L < itemsSize,
+      "List size %d must be under a third of %d"
+        .formatted(Long.valueOf(listSize), Long.valueOf(itemsSize))
+    );
+    Assertions.assertFalse(
+      layout.getClasses().contains(JWFileItem.class),
+      "The list must not retain items"
+    );
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+public final class JWFileListingQueryTest
+{
+  private static final JWFileChooserFilterType ALL = new JWFileChooserFilterType()
+  {
+    @Override
+    public String description()
+    {
+      return "All";
+    }
+
+    @Override
+    public boolean isAllowed(
+      final Path path)
+    {
+      return true;
+    }
+  };
+
+  private static final JWFileChooserFilterType TEXT = new JWFileChooserFilterType()
+  {
+    @Override
+    public String description()
+    {
+      return "Text";
+    }
+
+    @Override
+    public boolean isAllowed(
+      final Path path)
+    {
+      return this.mayBeAllowed(path);
+    }
+
+    @Override
+    public boolean mayBeAllowed(
+      final Path path)
+    {
+      return path.getFileName().toString().endsWith(".txt");
+    }
+  };
+
+  /**
+   * Entries are admitted only if both the filter and the search admit them.
+   */
+
+  @Test
+  public void testMayContain()
+  {
+    final var query = JWFileListingQuery.of(TEXT, "READ");
+
+    Assertions.assertTrue(query.mayContain(Path.of("/x/readme.txt")));
+    Assertions.assertFalse(query.mayContain(Path.of("/x/readme.md")));
+    Assertions.assertFalse(query.mayContain(Path.of("/x/notes.txt")));
+    Assertions.assertFalse(query.mayContain(Path.of("/read/notes.txt")));
+    Assertions.assertTrue(
+      JWFileListingQuery.of(ALL, "").mayContain(Path.of("/x/anything")));
+  }
+
+  /**
+   * Extending the search text narrows a query; shortening it, or changing
+   * the filter, does not.
+   */
+
+  @Test
+  public void testNarrowing()
+  {
+    final var query = JWFileListingQuery.of(ALL, "rea");
+
+    Assertions.assertTrue(
+      JWFileListingQuery.of(ALL, "read").isNarrowingOf(query));
+    Assertions.assertTrue(query.isNarrowingOf(query));
+    Assertions.assertTrue(
+      query.isNarrowingOf(JWFileListingQuery.of(ALL, "")));
+    Assertions.assertFalse(
+      JWFileListingQuery.of(ALL, "re").isNarrowingOf(query));
+    Assertions.assertFalse(
+      JWFileListingQuery.of(TEXT, "read").isNarrowingOf(query));
+  }
+}
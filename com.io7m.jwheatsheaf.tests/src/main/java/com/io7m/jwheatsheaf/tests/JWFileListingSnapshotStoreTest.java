@@ -0,0 +1,283 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.ui.internal.JWDirectoryStamp;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCache;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingDirectory;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingSnapshotStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public final class JWFileListingSnapshotStoreTest
+{
+  private Path directory;
+  private Path listed;
+  private Path snapshots;
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    this.directory = JWTestDirectories.createTempDirectory();
+    this.listed = this.directory.resolve("listed");
+    this.snapshots = this.directory.resolve("snapshots");
+
+    Files.createDirectories(this.listed.resolve("sub"));
+    Files.writeString(this.listed.resolve("a.txt"), "Hello.");
+    Files.createSymbolicLink(
+      this.listed.resolve("link"),
+      this.listed.resolve("a.txt"));
+    Files.setLastModifiedTime(
+      this.listed,
+      FileTime.from(Instant.now().minus(Duration.ofHours(1L))));
+  }
+
+  /**
+   * Snapshots are read back exactly as they were written.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testRoundTrip()
+    throws IOException
+  {
+    final var store =
+      JWFileListingSnapshotStore.open(this.snapshots, 4);
+
+    for (final var withParent : List.of(Boolean.FALSE, Boolean.TRUE)) {
+      final var parent = withParent.booleanValue();
+      final var stamp = JWDirectoryStamp.of(this.listed);
+      final var items = JWFileItems.listDirectory(this.listed, parent);
+      store.save(this.listed, parent, stamp, items);
+
+      final var loaded = store.load(this.listed, parent).orElseThrow();
+      Assertions.assertEquals(items, loaded.items());
+      Assertions.assertEquals(stamp.modified(), loaded.stamp().modified());
+      Assertions.assertEquals(stamp.observed(), loaded.stamp().observed());
+      Assertions.assertTrue(
+        loaded.stamp().isUnchangedAt(JWDirectoryStamp.of(this.listed)));
+    }
+
+    Assertions.assertEquals(
+      Optional.empty(),
+      store.load(this.listed.resolve("sub"), false)
+    );
+  }
+
+  /**
+   * Unreadable snapshots are treated as absent, and are deleted.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testCorrupted()
+    throws IOException
+  {
+    final var store =
+      JWFileListingSnapshotStore.open(this.snapshots, 4);
+
+    store.save(
+      this.listed,
+      false,
+      JWDirectoryStamp.of(this.listed),
+      JWFileItems.listDirectory(this.listed, false)
+    );
+
+    final List<Path> files;
+    try (var stream = Files.list(this.snapshots)) {
+      files = stream.toList();
+    }
+    Assertions.assertEquals(1, files.size());
+
+    final var file = files.get(0);
+    final var bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+    Assertions.assertEquals(Optional.empty(), store.load(this.listed, false));
+    Assertions.assertFalse(Files.exists(file));
+  }
+
+  /**
+   * Only the most recently used snapshots are retained.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testPruned()
+    throws IOException
+  {
+    final var store =
+      JWFileListingSnapshotStore.open(this.snapshots, 2);
+
+    final var names = List.of("d0", "d1", "d2");
+    var time = Instant.now().minus(Duration.ofHours(1L));
+    for (final var name : names) {
+      final var target = this.directory.resolve(name);
+      Files.createDirectories(target);
+      store.save(
+        target,
+        false,
+        JWDirectoryStamp.of(target),
+        JWFileItems.listDirectory(target, false)
+      );
+
+      try (var stream = Files.list(this.snapshots)) {
+        for (final var file : stream.toList()) {
+          if (Files.getLastModifiedTime(file).toInstant().isAfter(time)) {
+            Files.setLastModifiedTime(file, FileTime.from(time));
+          }
+        }
+      }
+      time = time.plusSeconds(60L);
+    }
+
+    Assertions.assertTrue(
+      store.load(this.directory.resolve("d0"), false).isEmpty());
+    Assertions.assertTrue(
+      store.load(this.directory.resolve("d1"), false).isPresent());
+    Assertions.assertTrue(
+      store.load(this.directory.resolve("d2"), false).isPresent());
+  }
+
+  /**
+   * A listing cache backed by a snapshot store saves listings as snapshots,
+   * and a new cache can revalidate a snapshot without listing again.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCacheSnapshots()
+    throws Exception
+  {
+    final var store =
+      JWFileListingSnapshotStore.open(this.snapshots, 4);
+
+    final var cache0 =
+      JWFileListingCache.createWithSnapshots(
+        100, Optional.of(store), Runnable::run);
+    final var items =
+      new JWFileListingDirectory(this.listed, true, cache0)
+        .onFileItemsRequested();
+
+    final var cache1 =
+      JWFileListingCache.createWithSnapshots(
+        100, Optional.of(store), Runnable::run);
+    final var retriever1 =
+      new JWFileListingDirectory(this.listed, true, cache1);
+
+    Assertions.assertTrue(cache1.find(this.listed, true).isEmpty());
+    final var snapshot = retriever1.onSnapshotRequested().orElseThrow();
+    Assertions.assertEquals(items, snapshot.items());
+    Assertions.assertTrue(
+      retriever1.onFileItemsRevalidate(snapshot).isEmpty());
+
+    Files.writeString(this.listed.resolve("b.txt"), "B");
+    Assertions.assertEquals(
+      items.size() + 1,
+      retriever1.onFileItemsRevalidate(snapshot).orElseThrow().size()
+    );
+  }
+
+  /**
+   * Snapshots are saved in the background, and a listing that has not yet
+   * been saved is found by the cache that stored it.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCacheSnapshotsSavedLater()
+    throws Exception
+  {
+    final var store =
+      JWFileListingSnapshotStore.open(this.snapshots, 4);
+    final var tasks =
+      new ArrayList<Runnable>();
+
+    final var cache =
+      JWFileListingCache.createWithSnapshots(100, Optional.of(store), tasks::add);
+    final var retriever =
+      new JWFileListingDirectory(this.listed, true, cache);
+
+    final var items0 = retriever.onFileItemsRequested();
+    Files.writeString(this.listed.resolve("b.txt"), "B");
+    final var items1 = retriever.onFileItemsRequested();
+
+    Assertions.assertEquals(1, tasks.size());
+    Assertions.assertEquals(Optional.empty(), store.load(this.listed, true));
+    Assertions.assertEquals(
+      items1,
+      cache.findSnapshot(this.listed, true).orElseThrow().items()
+    );
+
+    tasks.remove(0).run();
+    Assertions.assertNotEquals(items0, items1);
+    Assertions.assertEquals(
+      items1,
+      store.load(this.listed, true).orElseThrow().items()
+    );
+
+    retriever.onFileItemsRequested();
+    Assertions.assertEquals(1, tasks.size());
+  }
+
+  /**
+   * Snapshots are saved by caches that hold nothing in memory.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCacheSnapshotsWithoutMemory()
+    throws Exception
+  {
+    final var store =
+      JWFileListingSnapshotStore.open(this.snapshots, 4);
+    final var cache =
+      JWFileListingCache.createWithSnapshots(
+        0, Optional.of(store), Runnable::run);
+
+    final var items =
+      new JWFileListingDirectory(this.listed, false, cache)
+        .onFileItemsRequested();
+
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(
+      items,
+      store.load(this.listed, false).orElseThrow().items()
+    );
+  }
+}
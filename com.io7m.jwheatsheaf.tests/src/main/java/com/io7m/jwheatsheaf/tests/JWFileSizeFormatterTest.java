@@ -16,26 +16,10 @@
 
 package com.io7m.jwheatsheaf.tests;
 
-import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
-import com.io7m.jwheatsheaf.api.JWFileChoosersType;
-import com.io7m.jwheatsheaf.api.JWFileKind;
-import com.io7m.jwheatsheaf.ui.JWFileChoosers;
-import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterOnlyDirectories;
-import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
-import com.io7m.jwheatsheaf.ui.internal.JWFileList;
-import com.io7m.jwheatsheaf.ui.internal.JWStrings;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
-import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.attribute.FileTime;
-import java.util.List;
-import java.util.Objects;
 import java.util.stream.Stream;
 
 import static com.io7m.jwheatsheaf.api.JWFileChooserConfigurationDefaults.fileSizeFormatter;
@@ -91,114 +75,4 @@ public final class JWFileSizeFormatterTest
       testOf(1000_000_000_000_000L, "1000.00TB")
     );
   }
-
-  public static final class JWFileListTest
-  {
-    private JWFileItem item0;
-    private JWFileItem item1;
-    private JWFileItem item2;
-    private List<JWFileItem> baseItems;
-    private JWStrings strings;
-    private JWFileChoosersType choosers;
-
-    @BeforeEach
-    public void testSetup()
-    {
-      this.strings =
-        JWStrings.of(JWStrings.getResourceBundle());
-      this.choosers =
-        JWFileChoosers.create();
-
-      this.item0 =
-        JWFileItem.builder()
-          .setPath(Paths.get("/x"))
-          .setModifiedTime(FileTime.fromMillis(0L))
-          .setKind(JWFileKind.REGULAR_FILE)
-          .setSize(0L)
-          .build();
-      this.item1 =
-        JWFileItem.builder()
-          .setPath(Paths.get("/y"))
-          .setModifiedTime(FileTime.fromMillis(0L))
-          .setKind(JWFileKind.REGULAR_FILE)
-          .setSize(0L)
-          .build();
-      this.item2 =
-        JWFileItem.builder()
-          .setPath(Paths.get("/z"))
-          .setModifiedTime(FileTime.fromMillis(0L))
-          .setKind(JWFileKind.REGULAR_FILE)
-          .setSize(0L)
-          .build();
-
-      this.baseItems =
-        List.of(this.item0, this.item1, this.item2);
-    }
-
-    @AfterEach
-    public void testShutdown()
-      throws IOException
-    {
-      this.choosers.close();
-    }
-
-    @Test
-    public void testListBase()
-    {
-      final var items = new JWFileList(this.choosers.filterForAllFiles());
-
-      items.setItems(this.baseItems);
-      assertEquals(this.baseItems, items.items());
-    }
-
-    @Test
-    public void testListSearch()
-    {
-      final var items = new JWFileList(this.choosers.filterForAllFiles());
-
-      items.setItems(this.baseItems);
-      items.setSearch("x");
-      assertEquals(List.of(this.item0), items.items());
-      items.setSearch("");
-      assertEquals(this.baseItems, items.items());
-    }
-
-    @Test
-    public void testListFilter()
-    {
-      final var items = new JWFileList(this.choosers.filterForAllFiles());
-
-      items.setItems(this.baseItems);
-      items.setFilter(new JWFileChooserFilterType()
-      {
-        @Override
-        public String description()
-        {
-          return "y";
-        }
-
-        @Override
-        public boolean isAllowed(final Path path)
-        {
-          return Objects.equals(path.toString(), "/y");
-        }
-      });
-
-      assertEquals(List.of(this.item1), items.items());
-      items.setFilter(this.choosers.filterForAllFiles());
-      assertEquals(this.baseItems, items.items());
-    }
-
-    @Test
-    public void testListFilterDirectories()
-    {
-      final var items = new JWFileList(this.choosers.filterForAllFiles());
-
-      items.setItems(this.baseItems);
-      items.setFilter(JWFileChooserFilterOnlyDirectories.create(this.strings));
-      assertEquals(List.of(), items.items());
-      items.setFilter(this.choosers.filterForAllFiles());
-      assertEquals(this.baseItems, items.items());
-    }
-  }
 }
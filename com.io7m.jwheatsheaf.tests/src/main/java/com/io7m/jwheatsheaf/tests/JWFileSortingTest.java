@@ -0,0 +1,618 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterAllFiles;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterOnlyDirectories;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileList;
+import com.io7m.jwheatsheaf.ui.internal.JWFileSortKeys;
+import com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder;
+import com.io7m.jwheatsheaf.ui.internal.JWSearchKeys;
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder.Field.NAME;
+import static com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder.Field.SIZE;
+import static com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder.Field.TIME;
+import static com.io7m.jwheatsheaf.ui.internal.JWFileSortOrder.Field.TYPE;
+
+public final class JWFileSortingTest
+{
+  private static final JWFileKind[] KINDS = JWFileKind.values();
+
+  private static List<JWFileItem> randomItems(
+    final Random random,
+    final String prefix,
+    final int count)
+  {
+    return randomItems(random, prefix, count, false);
+  }
+
+  /**
+   * Generate random items. Flat items are all entries of the same
+   * directory, and so are held by a file list in compact form.
+   */
+
+  private static List<JWFileItem> randomItems(
+    final Random random,
+    final String prefix,
+    final int count,
+    final boolean flat)
+  {
+    final var base = Instant.parse("2026-01-01T00:00:00Z");
+    final var items = new ArrayList<JWFileItem>(count);
+    for (int index = 0; index < count; ++index) {
+      final var name =
+        (random.nextBoolean() ? "File" : "file") + random.nextInt(50);
+      final var path =
+        flat
+          ? Path.of("/x", name + "." + prefix + index)
+          : Path.of("/x", prefix + index, name);
+      items.add(
+        JWFileItem.builder()
+          .setPath(path)
+          .setKind(KINDS[random.nextInt(KINDS.length)])
+          .setSize(random.nextInt(10))
+          .setModifiedTime(
+            FileTime.from(base.plusNanos(random.nextInt(5) * 1_000L)))
+          .setAttributesPending(random.nextInt(10) == 0)
+          .build()
+      );
+    }
+    return items;
+  }
+
+  private static JWFileList newList()
+  {
+    return new JWFileList(
+      JWFileChooserFilterAllFiles.create(
+        JWStrings.of(JWStrings.getResourceBundle()))
+    );
+  }
+
+  private static List<JWFileSortOrder> orders()
+  {
+    return List.of(
+      JWFileSortOrder.unsorted(),
+      order(new JWFileSortOrder.Column(NAME, true)),
+      order(new JWFileSortOrder.Column(NAME, false)),
+      order(new JWFileSortOrder.Column(SIZE, true)),
+      order(new JWFileSortOrder.Column(SIZE, false)),
+      order(new JWFileSortOrder.Column(TIME, false)),
+      order(
+        new JWFileSortOrder.Column(TYPE, true),
+        new JWFileSortOrder.Column(TIME, true),
+        new JWFileSortOrder.Column(NAME, false)
+      )
+    );
+  }
+
+  private static JWFileSortOrder order(
+    final JWFileSortOrder.Column... columns)
+  {
+    return new JWFileSortOrder(List.of(columns));
+  }
+
+  private static List<JWFileItem> sortedByComparator(
+    final List<JWFileItem> items,
+    final JWFileSortOrder order)
+  {
+    final var result = new ArrayList<>(items);
+    result.sort(order.comparator());
+    return result;
+  }
+
+  /**
+   * Check that the given view contains exactly the given items, in an order
+   * consistent with the comparator. Items that compare as equal may appear
+   * in any order.
+   */
+
+  private static void assertSortedPermutation(
+    final List<JWFileItem> items,
+    final JWFileSortOrder order,
+    final List<JWFileItem> view)
+  {
+    Assertions.assertEquals(
+      new HashSet<>(items), new HashSet<>(view), order.toString());
+    Assertions.assertEquals(items.size(), view.size(), order.toString());
+
+    final var comparator = order.comparator();
+    for (int index = 1; index < view.size(); ++index) {
+      Assertions.assertTrue(
+        comparator.compare(view.get(index - 1), view.get(index)) <= 0,
+        order.toString());
+    }
+  }
+
+  /**
+   * The permutations produced from primitive sort keys agree with a stable
+   * sort using the comparator of each order.
+   */
+
+  @Test
+  public void testPermutationMatchesComparator()
+  {
+    final var random = new Random(0x4A57L);
+    final var items = randomItems(random, "a", 1000);
+
+    for (final var order : orders()) {
+      final var permutation =
+        JWFileSortKeys.of(items, order).permutation();
+
+      final var permuted = new ArrayList<JWFileItem>(items.size());
+      for (final var index : permutation) {
+        permuted.add(items.get(index));
+      }
+      Assertions.assertEquals(
+        sortedByComparator(items, order), permuted, order.toString());
+    }
+  }
+
+  /**
+   * Applying a sort order publishes a single permutation, and the order is
+   * maintained as items are added, replaced, and removed.
+   */
+
+  @Test
+  public void testListMaintainsOrder()
+  {
+    final var random = new Random(0x4A58L);
+    final var listing = newList();
+    final var first = randomItems(random, "a", 200);
+    listing.setItems(first);
+
+    for (final var order : orders()) {
+      final var changes = new ArrayList<String>();
+      final ListChangeListener<JWFileItem> listener = change -> {
+        while (change.next()) {
+          changes.add(change.wasPermutated() ? "permutation" : "other");
+        }
+      };
+
+      listing.items().addListener(listener);
+      listing.setSortOrder(order);
+      listing.items().removeListener(listener);
+
+      Assertions.assertEquals(order, listing.sortOrder());
+      Assertions.assertEquals(List.of("permutation"), changes);
+      Assertions.assertEquals(
+        sortedByComparator(first, order), listing.items());
+    }
+
+    final var order = order(
+      new JWFileSortOrder.Column(SIZE, false),
+      new JWFileSortOrder.Column(NAME, true)
+    );
+    listing.setSortOrder(order);
+
+    final var expected = new ArrayList<>(first.subList(50, 200));
+    expected.addAll(randomItems(random, "b", 100));
+    expected.set(0, expected.get(0).withSize(100L));
+    listing.setItems(expected);
+    Assertions.assertEquals(sortedByComparator(expected, order), listing.items());
+
+    final var appended = randomItems(random, "c", 5);
+    listing.addItems(appended);
+    expected.addAll(appended);
+    Assertions.assertEquals(sortedByComparator(expected, order), listing.items());
+
+    listing.setSearch("file1");
+    final var searched =
+      expected.stream()
+        .filter(item -> item.searchKey().contains("file1"))
+        .toList();
+    Assertions.assertEquals(sortedByComparator(searched, order), listing.items());
+
+    listing.setSortOrder(JWFileSortOrder.unsorted());
+    Assertions.assertEquals(searched, listing.items());
+  }
+
+  /**
+   * Replacing items in place moves each replaced item to its new position
+   * in the sorted view, and leaves the other items where they were. Small
+   * batches move items one at a time, and large batches merge them.
+   */
+
+  @Test
+  public void testReplacementsMaintainOrder()
+  {
+    final var random = new Random(0x4A5AL);
+    final var listing = newList();
+    final var expected = new ArrayList<>(randomItems(random, "a", 2000));
+    listing.setItems(expected);
+
+    for (final var order : orders()) {
+      listing.setSortOrder(order);
+
+      for (int round = 0; round < 10; ++round) {
+        final var replacements = new ArrayList<JWFileItem>();
+        final var count = round % 2 == 0 ? 5 : 50;
+        for (int index = 0; index < count; ++index) {
+          final var position = random.nextInt(expected.size());
+          final var replacement =
+            expected.get(position)
+              .withSize(random.nextInt(10))
+              .withAttributesPending(false);
+          expected.set(position, replacement);
+          replacements.add(replacement);
+        }
+
+        listing.replaceItems(replacements);
+        assertSortedPermutation(expected, order, listing.items());
+      }
+    }
+  }
+
+  /**
+   * A sort computed for items that have since changed is not applied.
+   */
+
+  @Test
+  public void testStaleSortRejected()
+  {
+    final var random = new Random(0x4A59L);
+    final var listing = newList();
+    final var items = randomItems(random, "a", 10);
+    listing.setItems(items);
+
+    final var request =
+      listing.sortRequest(order(new JWFileSortOrder.Column(SIZE, true)));
+    final var permutation = request.sort();
+
+    listing.addItems(randomItems(random, "b", 1));
+    Assertions.assertFalse(listing.applySort(request, permutation));
+    Assertions.assertTrue(listing.sortOrder().isUnsorted());
+
+    final var retry = listing.sortRequest(request.order());
+    Assertions.assertTrue(listing.applySort(retry, retry.sort()));
+    Assertions.assertEquals(request.order(), listing.sortOrder());
+  }
+
+  /**
+   * A batch of replacements is published as a single change to the sorted
+   * view.
+   */
+
+  @Test
+  public void testReplacementBatchSingleChange()
+  {
+    final var random = new Random(0x4A5BL);
+    final var listing = newList();
+    final var items = randomItems(random, "a", 5000);
+    listing.setItems(items);
+    listing.setSortOrder(order(new JWFileSortOrder.Column(SIZE, true)));
+
+    final var replacements = new ArrayList<JWFileItem>();
+    for (int index = 0; index < 256; ++index) {
+      replacements.add(items.get(index * 19).withSize(random.nextInt(10)));
+    }
+
+    final var changes = new ArrayList<ListChangeListener.Change<?>>();
+    listing.items()
+      .addListener((ListChangeListener<JWFileItem>) changes::add);
+    listing.replaceItems(replacements);
+
+    Assertions.assertEquals(1, changes.size());
+  }
+
+  /**
+   * A sort computed for items that have since been replaced in place is
+   * still applied, and the replaced items are moved to their positions.
+   */
+
+  @Test
+  public void testSortAppliedAfterReplacements()
+  {
+    final var random = new Random(0x4A5CL);
+    final var listing = newList();
+    final var expected = new ArrayList<>(randomItems(random, "a", 1000));
+    listing.setItems(expected);
+
+    final var order = order(new JWFileSortOrder.Column(SIZE, true));
+    final var request = listing.sortRequest(order);
+    final var permutation = request.sort();
+
+    final var replacements = new ArrayList<JWFileItem>();
+    for (int index = 0; index < expected.size(); index += 7) {
+      final var replacement =
+        expected.get(index).withSize(random.nextInt(100));
+      expected.set(index, replacement);
+      replacements.add(replacement);
+    }
+    listing.replaceItems(replacements);
+
+    Assertions.assertTrue(listing.applySort(request, permutation));
+    Assertions.assertEquals(order, listing.sortOrder());
+    assertSortedPermutation(expected, order, listing.items());
+  }
+
+  /**
+   * Replay a change to a list onto a copy of the list, checking that the
+   * removed items reported by the change are the items in the copy.
+   */
+
+  private static void replay(
+    final ListChangeListener.Change<? extends JWFileItem> change,
+    final List<JWFileItem> copy)
+  {
+    while (change.next()) {
+      final var from = change.getFrom();
+      if (change.wasPermutated()) {
+        final var moved = new ArrayList<>(copy.subList(from, change.getTo()));
+        for (int index = from; index < change.getTo(); ++index) {
+          copy.set(change.getPermutation(index), moved.get(index - from));
+        }
+        continue;
+      }
+
+      final var removed = copy.subList(from, from + change.getRemovedSize());
+      Assertions.assertEquals(change.getRemoved(), removed);
+      removed.clear();
+      copy.addAll(from, change.getAddedSubList());
+    }
+  }
+
+  /**
+   * The items expected to be visible, in unsorted order.
+   */
+
+  private static List<JWFileItem> visibleItems(
+    final LinkedHashMap<Path, JWFileItem> items,
+    final JWFileChooserFilterType filter,
+    final String search)
+  {
+    final var searchKey = JWSearchKeys.searchKeyOf(search);
+    return items.values()
+      .stream()
+      .filter(item -> {
+        if (item.attributesPending()) {
+          return filter.mayBeAllowed(item.path());
+        }
+        return filter.isAllowed(item);
+      })
+      .filter(item -> item.searchKey().contains(searchKey))
+      .toList();
+  }
+
+  private static JWFileItem namedItem(
+    final Path path,
+    final String displayName)
+  {
+    return JWFileItem.builder()
+      .setPath(path)
+      .setDisplayName(displayName)
+      .setKind(JWFileKind.DIRECTORY)
+      .setSize(0L)
+      .setModifiedTime(FileTime.fromMillis(0L))
+      .build();
+  }
+
+  private static JWFileItem randomlyChanged(
+    final Random random,
+    final JWFileItem item)
+  {
+    return item.withKind(KINDS[random.nextInt(KINDS.length)])
+      .withSize(random.nextInt(10))
+      .withAttributesPending(random.nextInt(10) == 0);
+  }
+
+  /**
+   * A list rebuilt from the change events published by the visible items
+   * is equal to the visible items after any sequence of updates, searches,
+   * filters, and sorts, including sorts computed on another thread while
+   * the items continue to change.
+   */
+
+  @Test
+  public void testChangeEventsReplay()
+    throws Exception
+  {
+    checkChangeEventsReplay(false);
+  }
+
+  /**
+   * As {@link #testChangeEventsReplay()}, with the entries of a single
+   * directory (including its "." and ".." entries), which the list holds
+   * in compact form.
+   */
+
+  @Test
+  public void testChangeEventsReplayCompact()
+    throws Exception
+  {
+    checkChangeEventsReplay(true);
+  }
+
+  private static void checkChangeEventsReplay(
+    final boolean flat)
+    throws Exception
+  {
+    final var strings =
+      JWStrings.of(JWStrings.getResourceBundle());
+    final var filters =
+      List.of(
+        JWFileChooserFilterAllFiles.create(strings),
+        JWFileChooserFilterOnlyDirectories.create(strings)
+      );
+    final var searches =
+      List.of("", "f", "fi", "file", "file1", "file12", "2", "x");
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      for (long seed = 0L; seed < 8L; ++seed) {
+        final var random = new Random(0x4A60L + seed);
+        final var pool = new ArrayList<JWFileItem>();
+        if (flat) {
+          pool.add(namedItem(Path.of("/x"), "."));
+          pool.add(namedItem(Path.of("/"), ".."));
+        }
+        pool.addAll(randomItems(random, "a", 400, flat));
+        final var listing = newList();
+        final var expected = new LinkedHashMap<Path, JWFileItem>();
+        final var copy = new ArrayList<JWFileItem>();
+        listing.items()
+          .addListener((ListChangeListener<JWFileItem>) c -> replay(c, copy));
+
+        var filter = filters.get(0);
+        var search = "";
+        JWFileList.SortRequest request = null;
+        Future<int[]> sorting = null;
+
+        for (int step = 0; step < 300; ++step) {
+          switch (random.nextInt(9)) {
+            case 0 -> {
+              final var items = new ArrayList<JWFileItem>();
+              for (final var item : pool) {
+                if (random.nextInt(3) != 0) {
+                  items.add(
+                    random.nextBoolean() ? item : randomlyChanged(random, item));
+                }
+              }
+              Collections.shuffle(items, random);
+              listing.setItems(items);
+              expected.clear();
+              for (final var item : items) {
+                expected.put(item.path(), item);
+              }
+            }
+            case 1 -> {
+              final var items = new ArrayList<JWFileItem>();
+              for (final var item : pool) {
+                if (!expected.containsKey(item.path())
+                  && random.nextInt(4) == 0) {
+                  items.add(item);
+                  expected.put(item.path(), item);
+                }
+              }
+              listing.addItems(items);
+            }
+            case 2 -> {
+              final var changed = new ArrayList<JWFileItem>();
+              final var removed = new HashSet<Path>();
+              final var added = new HashMap<Path, JWFileItem>();
+              for (final var item : pool) {
+                final var present = expected.containsKey(item.path());
+                final var roll = random.nextInt(10);
+                if (present && roll == 0) {
+                  removed.add(item.path());
+                } else if (roll == 1) {
+                  final var change = randomlyChanged(random, item);
+                  changed.add(change);
+                  if (present) {
+                    expected.put(item.path(), change);
+                  } else {
+                    added.put(item.path(), change);
+                  }
+                }
+              }
+              listing.applyChanges(changed, Set.copyOf(removed));
+              for (final var path : removed) {
+                expected.remove(path);
+              }
+              added.keySet()
+                .stream()
+                .sorted()
+                .forEach(path -> expected.put(path, added.get(path)));
+            }
+            case 3 -> {
+              final var present = new ArrayList<>(expected.values());
+              final var replacements = new ArrayList<JWFileItem>();
+              final var count =
+                present.isEmpty() ? 0 : random.nextInt(1 + present.size() / 2);
+              for (int index = 0; index < count; ++index) {
+                final var item =
+                  present.get(random.nextInt(present.size()));
+                final var replacement = randomlyChanged(random, item);
+                replacements.add(replacement);
+                expected.put(item.path(), replacement);
+              }
+              listing.replaceItems(replacements);
+            }
+            case 4 -> {
+              search = searches.get(random.nextInt(searches.size()));
+              listing.setSearch(search);
+            }
+            case 5 -> {
+              filter = filters.get(random.nextInt(filters.size()));
+              listing.setFilter(filter);
+            }
+            case 6 -> {
+              final var orders = orders();
+              listing.setSortOrder(orders.get(random.nextInt(orders.size())));
+            }
+            case 7 -> {
+              if (sorting != null) {
+                sorting.cancel(true);
+              }
+              final var orders = orders();
+              final var newRequest =
+                listing.sortRequest(orders.get(random.nextInt(orders.size())));
+              request = newRequest;
+              sorting = executor.submit(newRequest::sort);
+            }
+            case 8 -> {
+              if (sorting != null) {
+                final var applied =
+                  listing.applySort(request, sorting.get());
+                if (applied) {
+                  Assertions.assertEquals(request.order(), listing.sortOrder());
+                }
+                request = null;
+                sorting = null;
+              }
+            }
+            default -> throw new IllegalStateException();
+          }
+
+          Assertions.assertEquals(listing.items(), copy, "step " + step);
+
+          final var visible = visibleItems(expected, filter, search);
+          final var order = listing.sortOrder();
+          if (order.isUnsorted()) {
+            Assertions.assertEquals(visible, listing.items(), "step " + step);
+          } else {
+            assertSortedPermutation(visible, order, listing.items());
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.tests;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
 import com.io7m.jwheatsheaf.ui.internal.JWFileSourceEntryRecentItems;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,7 +49,7 @@ public final class JWFileSourceEntryRecentItemsTest
         .setFileSystem(this.dosFilesystem)
         .build();
 
-    final var source = new JWFileSourceEntryRecentItems(config);
+    final var source = new JWFileSourceEntryRecentItems(config, JWFileChooserMetricsNone.get());
     final var items = source.onFileItemsRequested();
     Assertions.assertEquals(Optional.empty(), source.path());
     Assertions.assertEquals(0, items.size());
@@ -65,7 +66,7 @@ public final class JWFileSourceEntryRecentItemsTest
         .addRecentFiles(this.dosFilesystem.getPath("Y:\\z"))
         .build();
 
-    final var source = new JWFileSourceEntryRecentItems(config);
+    final var source = new JWFileSourceEntryRecentItems(config, JWFileChooserMetricsNone.get());
     final var items = source.onFileItemsRequested();
     Assertions.assertEquals(3, items.size());
     Assertions.assertEquals(
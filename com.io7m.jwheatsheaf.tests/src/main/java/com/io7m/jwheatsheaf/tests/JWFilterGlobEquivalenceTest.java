@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobFactory;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind;
+import com.io7m.jwheatsheaf.filter.glob.internal.JWFilterGlobRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quicktheories.core.Gen;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.quicktheories.QuickTheory.qt;
+import static org.quicktheories.generators.SourceDSL.arbitrary;
+import static org.quicktheories.generators.SourceDSL.lists;
+
+/**
+ * Property tests checking that the compiled glob filter agrees with a
+ * straightforward evaluation of each rule in turn using the filesystem's
+ * own path matchers.
+ */
+
+public final class JWFilterGlobEquivalenceTest
+{
+  private static final List<String> PATTERNS = List.of(
+    "*.txt",
+    "**/*.txt",
+    "**.txt",
+    "**/*.[Xx][Mm][Ll]",
+    "*.[Xx][Mm][Ll]",
+    "**/*.tar.gz",
+    "**/*.gz",
+    "**.[Pp][Nn][Gg]",
+    "**/*.png",
+    "**/*.",
+    "**/*.[Tt]xt",
+    "**/README*",
+    "**/secret-*",
+    "**/*",
+    "*",
+    "/tmp/*",
+    "**/*.{png,jpg}",
+    "**/[!a-c]*.txt",
+    "**/*.png?"
+  );
+
+  private static final List<String> DIRECTORIES = List.of(
+    "",
+    "/",
+    "/tmp/",
+    "/tmp/sub/",
+    "rel/dir/",
+    "/line\nbreak/",
+    "/dotted.dir/"
+  );
+
+  private static final List<String> NAMES = List.of(
+    "file",
+    "README",
+    "secret-x",
+    "a",
+    "",
+    "archive.tar"
+  );
+
+  private static final List<String> SUFFIXES = List.of(
+    "",
+    ".",
+    ".txt",
+    ".TXT",
+    ".Txt",
+    ".xml",
+    ".XmL",
+    ".gz",
+    ".tar.gz",
+    ".png",
+    ".PNG",
+    ".png1",
+    ".jpg",
+    "\n.txt"
+  );
+
+  private JWFilterGlobFactory filters;
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.filters = new JWFilterGlobFactory();
+    this.directory = JWTestDirectories.createTempDirectory();
+  }
+
+  /**
+   * The compiled filter accepts exactly the paths accepted by the original
+   * rule-by-rule evaluation.
+   */
+
+  @Test
+  public void testEquivalentToSequentialEvaluation()
+  {
+    final Gen<JWFilterGlobRule> rules =
+      arbitrary()
+        .enumValues(JWFilterGlobRuleKind.class)
+        .zip(arbitrary().pick(PATTERNS), JWFilterGlobRule::of);
+
+    final Gen<String> paths =
+      arbitrary()
+        .pick(DIRECTORIES)
+        .zip(
+          arbitrary().pick(NAMES),
+          arbitrary().pick(SUFFIXES),
+          (d, n, s) -> d + n + s);
+
+    qt()
+      .withExamples(2000)
+      .forAll(lists().of(rules).ofSizeBetween(0, 12), paths)
+      .checkAssert((ruleList, pathText) -> {
+        final var filter = this.filterOf(ruleList);
+        final var path = Path.of(pathText);
+        assertEquals(
+          isAllowedSequentially(ruleList, path),
+          filter.isAllowed(path),
+          String.format("Rules %s, path %s", ruleList, pathText)
+        );
+        assertEquals(
+          isAllowedSequentially(ruleList, this.directory),
+          filter.isAllowed(this.directory)
+        );
+      });
+  }
+
+  private JWFileChooserFilterType filterOf(
+    final List<JWFilterGlobRule> rules)
+  {
+    final var builder = this.filters.create("Example");
+    for (final var rule : rules) {
+      builder.addRule(rule.kind(), rule.pattern());
+    }
+    return builder.build();
+  }
+
+  /**
+   * The original glob filter evaluation.
+   */
+
+  private static boolean isAllowedSequentially(
+    final List<JWFilterGlobRule> rules,
+    final Path path)
+  {
+    final var filesystem = path.getFileSystem();
+
+    var included = false;
+    for (final var rule : rules) {
+      final var matcher =
+        filesystem.getPathMatcher(String.format("glob:%s", rule.pattern()));
+      final var matches =
+        matcher.matches(path);
+
+      if (matches) {
+        switch (rule.kind()) {
+          case INCLUDE:
+            included = true;
+            break;
+          case EXCLUDE:
+            included = false;
+            break;
+          case INCLUDE_AND_HALT:
+            return true;
+          case EXCLUDE_AND_HALT:
+            return Files.isDirectory(path);
+        }
+      }
+    }
+
+    return included || Files.isDirectory(path);
+  }
+}
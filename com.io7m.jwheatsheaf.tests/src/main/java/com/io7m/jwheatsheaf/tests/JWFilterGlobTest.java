@@ -16,13 +16,31 @@
 
 package com.io7m.jwheatsheaf.tests;
 
+import com.github.marschall.memoryfilesystem.MemoryFileSystemBuilder;
+import com.io7m.jwheatsheaf.api.JWFileKind;
 import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobFactory;
+import com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind;
+import com.io7m.jwheatsheaf.filter.glob.internal.JWFilterGlobDialect;
+import com.io7m.jwheatsheaf.filter.glob.internal.JWFilterGlobMatchers;
+import com.io7m.jwheatsheaf.filter.glob.internal.JWFilterGlobRegex;
+import com.io7m.jwheatsheaf.filter.glob.internal.JWFilterGlobRule;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind.EXCLUDE;
 import static com.io7m.jwheatsheaf.filter.glob.JWFilterGlobRuleKind.EXCLUDE_AND_HALT;
@@ -172,4 +190,326 @@ public final class JWFilterGlobTest
     assertFalse(filter.isAllowed(file0));
     assertTrue(filter.isAllowed(file1));
   }
+
+  /**
+   * A single filter evaluates paths on different filesystems correctly,
+   * and repeatedly.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testMultipleFilesystems()
+    throws Exception
+  {
+    final var file0 = this.directory.resolve("file.txt");
+    Files.writeString(file0, "Hello!");
+    final var file1 = this.directory.resolve("file.png");
+    Files.writeString(file1, "Hello!");
+
+    final var filter =
+      this.filters.create("Example")
+        .addRule(INCLUDE, "**/*.txt")
+        .build();
+
+    try (var memory = MemoryFileSystemBuilder.newEmpty().build()) {
+      final var memoryDirectory = memory.getPath("/data");
+      Files.createDirectories(memoryDirectory);
+      final var memoryFile0 = memoryDirectory.resolve("other.txt");
+      Files.writeString(memoryFile0, "Hello!");
+      final var memoryFile1 = memoryDirectory.resolve("other.png");
+      Files.writeString(memoryFile1, "Hello!");
+
+      for (int index = 0; index < 3; ++index) {
+        assertTrue(filter.isAllowed(file0));
+        assertFalse(filter.isAllowed(file1));
+        assertTrue(filter.isAllowed(memoryFile0));
+        assertFalse(filter.isAllowed(memoryFile1));
+        assertTrue(filter.isAllowed(memoryDirectory));
+      }
+    }
+  }
+
+  /**
+   * The first matching halting rule decides, regardless of any earlier
+   * non-halting rules. Otherwise, the last matching rule decides.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDecidingRuleOrder()
+    throws Exception
+  {
+    final var file0 = this.directory.resolve("file.txt");
+    Files.writeString(file0, "Hello!");
+    final var file1 = this.directory.resolve("file.png");
+    Files.writeString(file1, "Hello!");
+    final var file2 = this.directory.resolve("other.txt");
+    Files.writeString(file2, "Hello!");
+    final var file3 = this.directory.resolve("other.png");
+    Files.writeString(file3, "Hello!");
+
+    final var filterHalt =
+      this.filters.create("Example")
+        .addRule(INCLUDE, "**/*")
+        .addRule(EXCLUDE_AND_HALT, "**/*.txt")
+        .addRule(INCLUDE_AND_HALT, "**/file.*")
+        .addRule(EXCLUDE, "**/*.png")
+        .build();
+
+    assertFalse(filterHalt.isAllowed(file0));
+    assertTrue(filterHalt.isAllowed(file1));
+    assertFalse(filterHalt.isAllowed(file2));
+    assertFalse(filterHalt.isAllowed(file3));
+    assertTrue(filterHalt.isAllowed(this.directory));
+
+    final var filterLast =
+      this.filters.create("Example")
+        .addRule(INCLUDE, "**/*.txt")
+        .addRule(EXCLUDE, "**/file*")
+        .addRule(INCLUDE, "**/*.png")
+        .build();
+
+    assertFalse(filterLast.isAllowed(file0));
+    assertTrue(filterLast.isAllowed(file1));
+    assertTrue(filterLast.isAllowed(file2));
+    assertTrue(filterLast.isAllowed(file3));
+  }
+
+  /**
+   * Glob patterns translated to regular expressions match exactly the same
+   * paths as the matchers produced by the default filesystem. Every
+   * pattern that the filesystem rejects is also rejected by the
+   * translation, and patterns that the translation rejects are left to
+   * the filesystem.
+   */
+
+  @Test
+  public void testRegexTranslationMatchesFilesystem()
+  {
+    final var filesystem = FileSystems.getDefault();
+    final var dialect = JWFilterGlobDialect.probe(filesystem).orElseThrow();
+
+    final var patterns = List.of(
+      "*.txt",
+      "**/*.txt",
+      "**.txt",
+      "*.[Xx][Mm][Ll]",
+      "**/*.{png,jpg,JPEG}",
+      "**/file?.*",
+      "**/[!a-c]*",
+      "**/[^a]*",
+      "**/[-a]*",
+      "**/a\\*b",
+      "**/a+b(c)|d$e^.txt",
+      "**/{a,b}}",
+      "**/x,y",
+      "[a-",
+      "[z-a]",
+      "{a,{b}}",
+      "{a",
+      "a\\",
+      "[a/b]",
+      "**/[a&&b]*",
+      "**/[a-]*",
+      "**/[]a]*",
+      "**/[+-0]*",
+      "**/{}x",
+      "**/a\\\\b"
+    );
+
+    final var paths = List.of(
+      "file.txt",
+      "/tmp/file.txt",
+      "/tmp/file.TXT",
+      "/tmp/data.xml",
+      "/tmp/data.XmL",
+      "/tmp/image.png",
+      "/tmp/image.JPEG",
+      "/tmp/file1.txt",
+      "/tmp/b/file.txt",
+      "/tmp/a*b",
+      "/tmp/a+b(c)|d$e^.txt",
+      "/tmp/a}",
+      "/tmp/x,y",
+      "/tmp/^x",
+      "/tmp/-x",
+      "/tmp/&x",
+      "/tmp/]a",
+      "/tmp/+x",
+      "/tmp/a\\b",
+      "/tmp/x"
+    );
+
+    for (final var pattern : patterns) {
+      final String regex;
+      try {
+        regex = JWFilterGlobRegex.toRegex(pattern, dialect);
+      } catch (final PatternSyntaxException e) {
+        continue;
+      }
+
+      final PathMatcher expected =
+        filesystem.getPathMatcher("glob:" + pattern);
+      final var received =
+        Pattern.compile(regex, dialect.flags());
+
+      for (final var pathText : paths) {
+        final var path = filesystem.getPath(pathText);
+        assertEquals(
+          expected.matches(path),
+          received.matcher(path.toString()).matches(),
+          String.format("Pattern %s, path %s", pattern, path)
+        );
+      }
+    }
+  }
+
+  /**
+   * Rule sets compiled into a single matcher decide on the same rule as a
+   * sequential evaluation of the filesystem's own matchers, including on
+   * filesystems whose matchers fold case.
+   */
+
+  @Test
+  public void testCompiledMatcherAgreesWithSequential()
+    throws IOException
+  {
+    checkCompiledMatcherAgreesWithSequential(FileSystems.getDefault());
+
+    try (var memory = MemoryFileSystemBuilder.newLinux().build()) {
+      checkCompiledMatcherAgreesWithSequential(memory);
+    }
+    try (var memory = MemoryFileSystemBuilder.newMacOs().build()) {
+      checkCompiledMatcherAgreesWithSequential(memory);
+    }
+  }
+
+  private static void checkCompiledMatcherAgreesWithSequential(
+    final FileSystem filesystem)
+  {
+    final var patterns = List.of(
+      "**/*.txt",
+      "**.txt",
+      "*.txt",
+      "**/*.[Xx][Mm][Ll]",
+      "**/*.{png,jpg,JPEG}",
+      "**/file?.*",
+      "**/[!a-c]*",
+      "**/{a,b}}",
+      "**/a+b(c)|d$e^.txt",
+      "/tmp/*/*",
+      "**",
+      "*",
+      "**/é*"
+    );
+
+    final var paths = List.of(
+      "file.txt",
+      "/tmp/file.txt",
+      "/tmp/file.TXT",
+      "/tmp/data.xml",
+      "/tmp/data.XmL",
+      "/tmp/image.png",
+      "/tmp/image.JPEG",
+      "/tmp/file1.txt",
+      "/tmp/b/file.txt",
+      "/tmp/a}",
+      "/tmp/a+b(c)|d$e^.txt",
+      "/tmp/line\nbreak.txt",
+      "/tmp/été.png",
+      "/tmp/\uD83D\uDE00.txt"
+    );
+
+    final var kinds = JWFilterGlobRuleKind.values();
+    final var random = new Random(0x5eedL);
+
+    for (int trial = 0; trial < 200; ++trial) {
+      final var ruleCount = 1 + random.nextInt(8);
+      final var rules = new ArrayList<JWFilterGlobRule>(ruleCount);
+      for (int index = 0; index < ruleCount; ++index) {
+        rules.add(JWFilterGlobRule.of(
+          kinds[random.nextInt(kinds.length)],
+          patterns.get(random.nextInt(patterns.size()))
+        ));
+      }
+
+      final var matcher =
+        JWFilterGlobMatchers.compile(filesystem, rules);
+
+      for (final var pathText : paths) {
+        final Path path;
+        try {
+          path = filesystem.getPath(pathText);
+        } catch (final InvalidPathException e) {
+          // Not representable in the platform's filename encoding.
+          continue;
+        }
+
+        assertEquals(
+          decidingRuleSequentially(rules, path),
+          matcher.decidingRule(path),
+          String.format("Rules %s, path %s", rules, path)
+        );
+      }
+    }
+  }
+
+  private static int decidingRuleSequentially(
+    final List<JWFilterGlobRule> rules,
+    final Path path)
+  {
+    final var filesystem = path.getFileSystem();
+
+    var decision = -1;
+    for (int index = 0; index < rules.size(); ++index) {
+      final var rule = rules.get(index);
+      final var matcher =
+        filesystem.getPathMatcher("glob:" + rule.pattern());
+      if (matcher.matches(path)) {
+        switch (rule.kind()) {
+          case INCLUDE, EXCLUDE -> decision = index;
+          case INCLUDE_AND_HALT, EXCLUDE_AND_HALT -> {
+            return index;
+          }
+        }
+      }
+    }
+    return decision;
+  }
+
+  /**
+   * A filter evaluated on already-resolved file attributes uses the given
+   * file kind rather than consulting the filesystem.
+   */
+
+  @Test
+  public void testAttributesUsedWithoutIO()
+  {
+    final var filter =
+      this.filters.create("Example")
+        .addRule(INCLUDE, "**/*.txt")
+        .build();
+
+    final var missing =
+      this.directory.resolve("nonexistent");
+
+    final var asDirectory =
+      JWFileItem.builder()
+        .setPath(missing)
+        .setKind(JWFileKind.SYMBOLIC_LINK)
+        .setTargetKind(JWFileKind.DIRECTORY)
+        .setSize(0L)
+        .setModifiedTime(FileTime.fromMillis(0L))
+        .build();
+
+    final var asFile =
+      asDirectory.withTargetKind(JWFileKind.REGULAR_FILE);
+
+    assertTrue(filter.isAllowed(asDirectory));
+    assertFalse(filter.isAllowed(asFile));
+    assertFalse(filter.isAllowed(missing));
+    assertTrue(filter.isAllowed(asFile.withPath(missing.resolve("x.txt"))));
+  }
 }
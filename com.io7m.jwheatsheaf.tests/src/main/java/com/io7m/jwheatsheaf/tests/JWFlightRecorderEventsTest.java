@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterAllFiles;
+import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterOnlyDirectories;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileList;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCache;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingDirectory;
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JWFlightRecorderEventsTest
+{
+  private static final String LISTING =
+    "com.io7m.jwheatsheaf.DirectoryListing";
+  private static final String FILTER =
+    "com.io7m.jwheatsheaf.FileListFilter";
+
+  private FileSystem dosFilesystem;
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    this.dosFilesystem =
+      JWTestFilesystems.create()
+        .filesystems()
+        .get("ExampleDOS");
+  }
+
+  private static List<RecordedEvent> record(
+    final Path directory,
+    final String eventName,
+    final Runnable action)
+    throws IOException
+  {
+    final var file = directory.resolve("events.jfr");
+    try (var recording = new Recording()) {
+      recording.enable(eventName).withThreshold(Duration.ZERO);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    return RecordingFile.readAllEvents(file)
+      .stream()
+      .filter(e -> e.getEventType().getName().equals(eventName))
+      .toList();
+  }
+
+  private JWFileListingDirectory retriever()
+  {
+    return new JWFileListingDirectory(
+      this.dosFilesystem.getPath(""),
+      false,
+      JWFileListingCache.create(5)
+    );
+  }
+
+  /**
+   * A completed directory listing is recorded.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testListingRecorded(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var events =
+      record(directory, LISTING, () -> {
+        try {
+          this.retriever().onFileItemsRequested();
+        } catch (final Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+
+    Assertions.assertEquals(1, events.size());
+    final var event = events.get(0);
+    Assertions.assertEquals(
+      this.dosFilesystem.getPath("").toString(),
+      event.getString("directory"));
+    Assertions.assertEquals(5, event.getInt("entries"));
+    Assertions.assertFalse(event.getBoolean("cancelled"));
+    Assertions.assertFalse(event.getBoolean("failed"));
+  }
+
+  /**
+   * An interrupted directory listing is recorded as cancelled.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testListingCancelledRecorded(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var events =
+      record(directory, LISTING, () -> {
+        Thread.currentThread().interrupt();
+        try {
+          Assertions.assertThrows(
+            InterruptedIOException.class,
+            () -> this.retriever().onFileItemsRequested());
+        } finally {
+          Assertions.assertTrue(Thread.interrupted());
+        }
+      });
+
+    Assertions.assertEquals(1, events.size());
+    final var event = events.get(0);
+    Assertions.assertEquals(0, event.getInt("entries"));
+    Assertions.assertTrue(event.getBoolean("cancelled"));
+    Assertions.assertFalse(event.getBoolean("failed"));
+  }
+
+  /**
+   * Filter and search passes over a file list are recorded.
+   *
+   * @param directory A temporary directory
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testFilterSearchRecorded(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var strings = JWStrings.of(JWStrings.getResourceBundle());
+    final var list =
+      new JWFileList(JWFileChooserFilterAllFiles.create(strings));
+
+    final var items = new ArrayList<JWFileItem>();
+    for (int index = 0; index < 20; ++index) {
+      items.add(
+        JWFileItem.builder()
+          .setPath(Path.of("/x", "file" + index))
+          .setKind(JWFileKind.REGULAR_FILE)
+          .setSize(0L)
+          .setModifiedTime(FileTime.fromMillis(0L))
+          .build()
+      );
+    }
+    list.setItems(items);
+
+    final var events =
+      record(directory, FILTER, () -> {
+        list.setSearch("file1");
+        list.setFilter(JWFileChooserFilterOnlyDirectories.create(strings));
+      });
+
+    Assertions.assertEquals(2, events.size());
+
+    final var search = events.get(0);
+    Assertions.assertEquals("search", search.getString("operation"));
+    Assertions.assertEquals(20, search.getInt("examined"));
+    Assertions.assertEquals(11, search.getInt("matched"));
+
+    final var filter = events.get(1);
+    Assertions.assertEquals("filter", filter.getString("operation"));
+    Assertions.assertEquals(20, filter.getInt("examined"));
+    Assertions.assertEquals(0, filter.getInt("matched"));
+  }
+}
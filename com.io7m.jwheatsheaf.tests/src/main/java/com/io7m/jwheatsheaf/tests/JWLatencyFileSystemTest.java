@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.testsupport.JWLatencyDistributionType;
+import com.io7m.jwheatsheaf.testsupport.JWLatencyFileSystem;
+import com.io7m.jwheatsheaf.testsupport.JWLatencyOperation;
+import com.io7m.jwheatsheaf.testsupport.JWLatencyProfile;
+import com.io7m.jwheatsheaf.testsupport.JWSyntheticTree;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItem;
+import com.io7m.jwheatsheaf.ui.internal.JWFileItems;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public final class JWLatencyFileSystemTest
+{
+  private static final int ENTRIES = 20;
+
+  private JWLatencyFileSystem fileSystem;
+  private Path directory;
+
+  @BeforeEach
+  public void testSetup()
+    throws IOException
+  {
+    final var memory = JWSyntheticTree.createMemoryFilesystem();
+    JWSyntheticTree.builder(1L)
+      .setEntriesPerDirectory(ENTRIES)
+      .setSymbolicLinkFraction(0.0)
+      .setUnreadableFraction(0.0)
+      .build()
+      .generate(memory.getPath("/tree"));
+
+    this.fileSystem =
+      JWLatencyFileSystem.wrap(memory, JWLatencyProfile.none());
+    this.directory =
+      this.fileSystem.getPath("/tree");
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    this.fileSystem.close();
+  }
+
+  /**
+   * Listing a directory costs one iteration step and one attribute read per
+   * entry, and yields the same items as the delegate filesystem.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testListingOperationCounts()
+    throws IOException
+  {
+    final var items =
+      JWFileItems.listDirectory(this.directory, false);
+    final var expected =
+      JWFileItems.listDirectory(
+        this.fileSystem.delegate().getPath("/tree"), false);
+
+    Assertions.assertEquals(
+      expected.stream().map(JWFileItem::name).toList(),
+      items.stream().map(JWFileItem::name).toList()
+    );
+    for (final var item : items) {
+      Assertions.assertSame(this.fileSystem, item.path().getFileSystem());
+    }
+
+    Assertions.assertEquals(
+      1L, this.fileSystem.operationCount(JWLatencyOperation.DIRECTORY_OPEN));
+    Assertions.assertEquals(
+      ENTRIES,
+      this.fileSystem.operationCount(JWLatencyOperation.DIRECTORY_ENTRY));
+    Assertions.assertEquals(
+      ENTRIES + 1,
+      this.fileSystem.operationCount(JWLatencyOperation.READ_ATTRIBUTES));
+  }
+
+  /**
+   * Listing names only does not read the attributes of entries.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testNamesOnlyOperationCounts()
+    throws IOException
+  {
+    final var items =
+      JWFileItems.listDirectoryNamesIncrementally(
+        this.directory,
+        false,
+        JWFileItems.DEFAULT_BATCH_SIZE,
+        JWFileItems.DEFAULT_BATCH_INTERVAL,
+        batch -> {
+
+        }
+      );
+
+    Assertions.assertEquals(ENTRIES + 1, items.size());
+    Assertions.assertEquals(
+      ENTRIES,
+      this.fileSystem.operationCount(JWLatencyOperation.DIRECTORY_ENTRY));
+    Assertions.assertTrue(
+      this.fileSystem.operationCount(JWLatencyOperation.READ_ATTRIBUTES) <= 1L);
+  }
+
+  /**
+   * Latency is added to every entry.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testLatencyPerEntry()
+    throws IOException
+  {
+    this.fileSystem.setProfile(
+      JWLatencyProfile.perEntry(Duration.ofMillis(2L)));
+
+    final var timeThen = System.nanoTime();
+    JWFileItems.listDirectory(this.directory, false);
+    final var elapsed = Duration.ofNanos(System.nanoTime() - timeThen);
+
+    Assertions.assertTrue(
+      elapsed.compareTo(Duration.ofMillis(2L * ENTRIES * 2L)) >= 0,
+      elapsed::toString
+    );
+  }
+
+  /**
+   * Creating directories is counted separately.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testCreateDirectory()
+    throws IOException
+  {
+    final var created = this.directory.resolve("created");
+    Files.createDirectory(created);
+
+    Assertions.assertEquals(
+      1L, this.fileSystem.operationCount(JWLatencyOperation.CREATE_DIRECTORY));
+    Assertions.assertTrue(Files.isDirectory(created));
+    Assertions.assertEquals(
+      1L, this.fileSystem.operationCount(JWLatencyOperation.TEST_FILE));
+
+    this.fileSystem.resetOperationCounts();
+    Assertions.assertEquals(
+      0L, this.fileSystem.operationCount(JWLatencyOperation.CREATE_DIRECTORY));
+  }
+
+  /**
+   * Paths behave like the paths of the delegate, and cannot be mixed with
+   * the paths of other filesystems.
+   */
+
+  @Test
+  public void testPaths()
+  {
+    final var file = this.directory.resolve("x.txt");
+    Assertions.assertEquals(this.directory, file.getParent());
+    Assertions.assertEquals(
+      this.fileSystem.getPath("x.txt"), this.directory.relativize(file));
+    Assertions.assertTrue(file.startsWith(this.directory));
+    Assertions.assertEquals("/tree/x.txt", file.toString());
+
+    final var foreign = this.fileSystem.delegate().getPath("/tree");
+    Assertions.assertNotEquals(foreign, this.directory);
+    Assertions.assertFalse(file.startsWith(foreign));
+    Assertions.assertThrows(
+      ProviderMismatchException.class, () -> this.directory.resolve(foreign));
+  }
+
+  /**
+   * Distributions yield latencies within their bounds.
+   */
+
+  @Test
+  public void testDistributions()
+  {
+    final var random = new SplittableRandom(1L);
+    final var uniform =
+      JWLatencyDistributionType.uniform(
+        Duration.ofNanos(10L), Duration.ofNanos(20L));
+    final var exponential =
+      JWLatencyDistributionType.exponential(
+        Duration.ofNanos(10L), Duration.ofNanos(100L));
+
+    for (int index = 0; index < 1000; ++index) {
+      final var u = uniform.sampleNanos(random);
+      Assertions.assertTrue(u >= 10L && u <= 20L);
+      Assertions.assertTrue(exponential.sampleNanos(random) >= 10L);
+    }
+
+    Assertions.assertEquals(
+      5L,
+      JWLatencyDistributionType.constant(Duration.ofNanos(5L))
+        .sampleNanos(random));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      JWLatencyDistributionType.uniform(
+        Duration.ofNanos(20L), Duration.ofNanos(10L));
+    });
+  }
+
+  /**
+   * Path URIs use the scheme of the provider, and resolve back to paths of
+   * the same filesystem rather than to paths of the delegate.
+   */
+
+  @Test
+  public void testURIRoundTrip()
+  {
+    final var provider = this.fileSystem.provider();
+    final var path = this.directory.resolve("a");
+    final var uri = path.toUri();
+
+    Assertions.assertEquals(provider.getScheme(), uri.getScheme());
+    Assertions.assertEquals(path, provider.getPath(uri));
+    Assertions.assertSame(this.fileSystem, provider.getFileSystem(uri));
+    Assertions.assertThrows(FileSystemNotFoundException.class, () -> {
+      Path.of(uri);
+    });
+    Assertions.assertThrows(FileSystemAlreadyExistsException.class, () -> {
+      provider.newFileSystem(uri, Map.of());
+    });
+  }
+
+  /**
+   * URIs of other filesystems are rejected.
+   */
+
+  @Test
+  public void testURIForeign()
+  {
+    final var provider = this.fileSystem.provider();
+    final var delegateUri =
+      this.fileSystem.delegate().getPath("/tree").toUri();
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      provider.getPath(delegateUri);
+    });
+    Assertions.assertThrows(FileSystemNotFoundException.class, () -> {
+      provider.getPath(URI.create("jwlatency:" + Path.of("/").toUri()));
+    });
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.ui.internal.JWListDiffs;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.quicktheories.QuickTheory.qt;
+import static org.quicktheories.generators.SourceDSL.integers;
+import static org.quicktheories.generators.SourceDSL.lists;
+
+public final class JWListDiffsTest
+{
+  private static String keyOf(
+    final String element)
+  {
+    return element.substring(0, element.indexOf(':'));
+  }
+
+  /**
+   * Convert a list of numbers to elements with unique keys; each number
+   * {@code n} becomes an element with key {@code n / 2} and version
+   * {@code n % 2}.
+   */
+
+  private static List<String> elementsOf(
+    final List<Integer> numbers)
+  {
+    final var byKey = new LinkedHashMap<String, String>();
+    for (final var number : numbers) {
+      final var n = number.intValue();
+      byKey.putIfAbsent(
+        Integer.toString(n / 2),
+        "%d:%d".formatted(Integer.valueOf(n / 2), Integer.valueOf(n % 2))
+      );
+    }
+    return List.copyOf(byKey.values());
+  }
+
+  /**
+   * Updating a list always produces the desired contents, and the published
+   * changes, replayed against a copy of the original list, produce the same
+   * contents.
+   */
+
+  @Test
+  public void testUpdateProducesDesired()
+  {
+    final var numbers =
+      lists().of(integers().between(0, 60)).ofSizeBetween(0, 40);
+
+    qt()
+      .withExamples(2000)
+      .forAll(numbers, numbers)
+      .checkAssert((before, after) -> {
+        final var original = elementsOf(before);
+        final var desired = elementsOf(after);
+
+        final var target = FXCollections.observableArrayList(original);
+        final var replay = new ArrayList<>(original);
+        target.addListener((ListChangeListener<String>) change -> {
+          while (change.next()) {
+            final var from = change.getFrom();
+            replay.subList(from, from + change.getRemovedSize()).clear();
+            replay.addAll(from, change.getAddedSubList());
+          }
+        });
+
+        JWListDiffs.update(target, desired, JWListDiffsTest::keyOf);
+        assertEquals(desired, target);
+        assertEquals(desired, replay);
+      });
+  }
+
+  /**
+   * Small changes to a list are published as small changes, and elements
+   * whose contents changed are updated in place.
+   */
+
+  @Test
+  public void testUpdateMinimal()
+  {
+    final var target =
+      FXCollections.observableArrayList("0:0", "1:0", "2:0", "3:0", "4:0");
+    final var changes =
+      new ArrayList<String>();
+
+    target.addListener((ListChangeListener<String>) change -> {
+      while (change.next()) {
+        changes.add("%s-%s+%s".formatted(
+          Integer.valueOf(change.getFrom()),
+          change.getRemoved(),
+          change.getAddedSubList()
+        ));
+      }
+    });
+
+    JWListDiffs.update(
+      target,
+      List.of("0:0", "1:1", "2:0", "4:0", "5:0"),
+      JWListDiffsTest::keyOf
+    );
+
+    assertEquals(
+      List.of("0:0", "1:1", "2:0", "4:0", "5:0"),
+      target
+    );
+    assertEquals(
+      List.of(
+        "3-[3:0]+[]",
+        "4-[]+[5:0]",
+        "1-[1:0]+[1:1]"
+      ),
+      changes
+    );
+  }
+
+  /**
+   * Lists with nothing in common, or whose common elements are reordered,
+   * are replaced outright.
+   */
+
+  @Test
+  public void testUpdateReplaced()
+  {
+    final var target =
+      FXCollections.observableArrayList("0:0", "1:0", "2:0");
+    final var replaced =
+      new ArrayList<Boolean>();
+
+    target.addListener((ListChangeListener<String>) change -> {
+      while (change.next()) {
+        replaced.add(Boolean.valueOf(
+          change.wasRemoved() && change.getRemovedSize() == 3));
+      }
+    });
+
+    JWListDiffs.update(target, List.of("2:0", "1:0", "0:0"), s -> s);
+    assertEquals(List.of("2:0", "1:0", "0:0"), target);
+    assertEquals(1, replaced.size());
+    assertTrue(replaced.get(0).booleanValue());
+
+    replaced.clear();
+    JWListDiffs.update(target, List.of("2:0", "1:0", "0:0"), s -> s);
+    assertFalse(replaced.contains(Boolean.TRUE));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.ui.internal.JWStrings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+public final class JWStringsTest
+{
+  private static JWStrings strings()
+  {
+    return JWStrings.of(JWStrings.getResourceBundle(Locale.ROOT));
+  }
+
+  /**
+   * Repeated formatting of the same message produces the same results as
+   * formatting each message once.
+   */
+
+  @Test
+  public void testFormatRepeated()
+  {
+    final var strings = strings();
+    final var path = Paths.get("x").toAbsolutePath();
+
+    for (int index = 0; index < 3; ++index) {
+      Assertions.assertEquals(
+        "Click to select this file (%s)".formatted(path),
+        strings.tooltipFile(path)
+      );
+      Assertions.assertEquals(
+        "Double-click to navigate into this directory (%s)".formatted(path),
+        strings.tooltipDirectory(path)
+      );
+    }
+  }
+
+  /**
+   * Cached message formats can be used from many threads at once.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFormatConcurrent()
+    throws Exception
+  {
+    final var strings = strings();
+
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      final var tasks = new ArrayList<Callable<Boolean>>();
+      for (int index = 0; index < 8; ++index) {
+        final var path = Paths.get("file" + index).toAbsolutePath();
+        final var expected = "Click to select this file (%s)".formatted(path);
+        tasks.add(() -> {
+          for (int count = 0; count < 1000; ++count) {
+            if (!expected.equals(strings.tooltipFile(path))) {
+              return Boolean.FALSE;
+            }
+          }
+          return Boolean.TRUE;
+        });
+      }
+
+      for (final var result : executor.invokeAll(tasks)) {
+        Assertions.assertEquals(Boolean.TRUE, result.get());
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.tests;
+
+import com.io7m.jwheatsheaf.testsupport.JWSyntheticTree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JWSyntheticTreeTest
+{
+  private static JWSyntheticTree tree(
+    final long seed)
+  {
+    return JWSyntheticTree.builder(seed)
+      .setDepth(2)
+      .setDirectoriesPerDirectory(3)
+      .setEntriesPerDirectory(40)
+      .setSymbolicLinkFraction(0.1)
+      .setUnreadableFraction(0.05)
+      .setMaximumSize(100_000L)
+      .build();
+  }
+
+  /**
+   * Describe every entry in a tree. The modification times of links and
+   * of the root directory are not generated, and so are not described.
+   */
+
+  private static List<String> describe(
+    final Path root)
+    throws IOException
+  {
+    final var lines = new ArrayList<String>();
+    try (var stream = Files.walk(root)) {
+      for (final var path : stream.sorted().toList()) {
+        final var attributes =
+          Files.readAttributes(
+            path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        final var line = new StringBuilder(64);
+        line.append(root.relativize(path));
+        if (attributes.isSymbolicLink()) {
+          line.append(" -> ");
+          line.append(Files.readSymbolicLink(path));
+        } else if (!path.equals(root)) {
+          line.append(' ');
+          line.append(attributes.lastModifiedTime().toMillis());
+          line.append(' ');
+          line.append(attributes.size());
+        }
+        line.append(' ');
+        line.append(Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS));
+        lines.add(line.toString());
+      }
+    }
+    return lines;
+  }
+
+  private static JWSyntheticTree.Statistics count(
+    final Path root)
+    throws IOException
+  {
+    long directories = 0L;
+    long files = 0L;
+    long links = 0L;
+    long unreadable = 0L;
+
+    try (var stream = Files.walk(root)) {
+      for (final var path : stream.toList()) {
+        if (path.equals(root)) {
+          continue;
+        }
+        final var attributes =
+          Files.readAttributes(
+            path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (attributes.isSymbolicLink()) {
+          ++links;
+          continue;
+        }
+        if (attributes.isDirectory()) {
+          ++directories;
+        } else {
+          ++files;
+        }
+        if (Files.getPosixFilePermissions(path).isEmpty()) {
+          ++unreadable;
+        }
+      }
+    }
+    return new JWSyntheticTree.Statistics(directories, files, links, unreadable);
+  }
+
+  /**
+   * The same seed produces the same tree in distinct filesystems, and a
+   * different seed produces a different tree.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testDeterministic()
+    throws IOException
+  {
+    try (var fs0 = JWSyntheticTree.createMemoryFilesystem();
+         var fs1 = JWSyntheticTree.createMemoryFilesystem();
+         var fs2 = JWSyntheticTree.createMemoryFilesystem()) {
+      final var root0 = fs0.getPath("/tree");
+      final var root1 = fs1.getPath("/tree");
+      final var root2 = fs2.getPath("/tree");
+
+      final var statistics0 = tree(23L).generate(root0);
+      final var statistics1 = tree(23L).generate(root1);
+      tree(24L).generate(root2);
+
+      Assertions.assertEquals(statistics0, statistics1);
+      Assertions.assertEquals(describe(root0), describe(root1));
+      Assertions.assertNotEquals(describe(root0), describe(root2));
+    }
+  }
+
+  /**
+   * The reported statistics match the contents of the tree.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testStatistics()
+    throws IOException
+  {
+    try (var fs = JWSyntheticTree.createMemoryFilesystem()) {
+      final var root = fs.getPath("/tree");
+      final var statistics = tree(23L).generate(root);
+
+      Assertions.assertEquals(3L + 9L, statistics.directories());
+      Assertions.assertEquals(40L * 13L, statistics.files() + statistics.links());
+      Assertions.assertTrue(statistics.links() > 0L);
+      Assertions.assertTrue(statistics.unreadable() > 0L);
+      Assertions.assertEquals(statistics, count(root));
+    }
+  }
+
+  /**
+   * A single wide directory contains exactly the requested number of
+   * uniquely named entries.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testWide()
+    throws IOException
+  {
+    try (var fs = JWSyntheticTree.createMemoryFilesystem()) {
+      final var root = fs.getPath("/wide");
+      final var statistics =
+        JWSyntheticTree.wide(1L, 5000).generate(root);
+
+      Assertions.assertEquals(5000L, statistics.entries());
+      try (var stream = Files.list(root)) {
+        Assertions.assertEquals(5000L, stream.count());
+      }
+    }
+  }
+
+  /**
+   * Trees can be generated on disk, and deleted even when they contain
+   * unreadable entries.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testDiskGenerateDelete()
+    throws IOException
+  {
+    final var directory = JWTestDirectories.createTempDirectory();
+    final var root = directory.resolve("tree");
+    tree(23L).generate(root);
+
+    try (var stream = Files.list(root)) {
+      Assertions.assertEquals(43L, stream.count());
+    }
+
+    JWSyntheticTree.delete(root);
+    Assertions.assertFalse(Files.exists(root));
+  }
+}
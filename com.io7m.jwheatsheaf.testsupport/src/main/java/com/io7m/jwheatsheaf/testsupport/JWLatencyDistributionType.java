@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.testsupport;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * A distribution of latencies.
+ */
+
+@FunctionalInterface
+public interface JWLatencyDistributionType
+{
+  /**
+   * @return A distribution that always yields zero latency
+   */
+
+  static JWLatencyDistributionType none()
+  {
+    return random -> 0L;
+  }
+
+  /**
+   * @param latency The latency
+   *
+   * @return A distribution that always yields the given latency
+   */
+
+  static JWLatencyDistributionType constant(
+    final Duration latency)
+  {
+    final var nanos = requireNonNegative(latency);
+    return random -> nanos;
+  }
+
+  /**
+   * @param minimum The minimum latency
+   * @param maximum The maximum latency
+   *
+   * @return A distribution that yields latencies uniformly in the given range
+   */
+
+  static JWLatencyDistributionType uniform(
+    final Duration minimum,
+    final Duration maximum)
+  {
+    final var low = requireNonNegative(minimum);
+    final var high = requireNonNegative(maximum);
+    if (high < low) {
+      throw new IllegalArgumentException("Maximum must be >= minimum");
+    }
+    return random -> low + random.nextLong(high - low + 1L);
+  }
+
+  /**
+   * A distribution with the given minimum, and an exponentially distributed
+   * excess with the given mean. Such a distribution models a network
+   * filesystem that is usually fast but occasionally stalls.
+   *
+   * @param minimum    The minimum latency
+   * @param meanExcess The mean latency in excess of the minimum
+   *
+   * @return A distribution
+   */
+
+  static JWLatencyDistributionType exponential(
+    final Duration minimum,
+    final Duration meanExcess)
+  {
+    final var low = requireNonNegative(minimum);
+    final var mean = requireNonNegative(meanExcess);
+    return random -> low + (long) (random.nextExponential() * mean);
+  }
+
+  private static long requireNonNegative(
+    final Duration duration)
+  {
+    Objects.requireNonNull(duration, "duration");
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("Latency must be non-negative");
+    }
+    return duration.toNanos();
+  }
+
+  /**
+   * @param random A source of randomness
+   *
+   * @return A latency in nanoseconds
+   */
+
+  long sampleNanos(RandomGenerator random);
+}
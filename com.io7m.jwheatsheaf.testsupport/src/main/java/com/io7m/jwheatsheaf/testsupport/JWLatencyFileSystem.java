@@ -0,0 +1,276 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.testsupport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A filesystem that delegates to another filesystem, adding latency to
+ * each operation according to a {@link JWLatencyProfile}. Unlike a single
+ * delay added after a whole directory listing, per-operation latency models
+ * the cost of individual metadata requests on network filesystems such as
+ * NFS and SMB, so that the degradation of listing as per-entry latency
+ * increases can be observed.
+ *
+ * The profile can be changed at any time. The number of operations of each
+ * kind is counted. Paths are wrapped, and are only usable with this
+ * filesystem. Watch services are not supported, as is often the case for
+ * network filesystems.
+ */
+
+public final class JWLatencyFileSystem extends FileSystem
+{
+  private final FileSystem delegate;
+  private final JWLatencyFileSystemProvider provider;
+  private final EnumMap<JWLatencyOperation, LongAdder> counts;
+  private volatile JWLatencyProfile profile;
+
+  private JWLatencyFileSystem(
+    final FileSystem inDelegate,
+    final JWLatencyProfile inProfile)
+  {
+    this.delegate = inDelegate;
+    this.profile = inProfile;
+    this.provider = new JWLatencyFileSystemProvider(this);
+    this.counts = new EnumMap<>(JWLatencyOperation.class);
+    for (final var operation : JWLatencyOperation.values()) {
+      this.counts.put(operation, new LongAdder());
+    }
+  }
+
+  /**
+   * Wrap a filesystem. Closing the returned filesystem closes the
+   * delegate.
+   *
+   * @param delegate The delegate filesystem
+   * @param profile  The latency profile
+   *
+   * @return A filesystem
+   */
+
+  public static JWLatencyFileSystem wrap(
+    final FileSystem delegate,
+    final JWLatencyProfile profile)
+  {
+    return new JWLatencyFileSystem(
+      Objects.requireNonNull(delegate, "delegate"),
+      Objects.requireNonNull(profile, "profile")
+    );
+  }
+
+  /**
+   * @return The delegate filesystem
+   */
+
+  public FileSystem delegate()
+  {
+    return this.delegate;
+  }
+
+  /**
+   * @return The current latency profile
+   */
+
+  public JWLatencyProfile profile()
+  {
+    return this.profile;
+  }
+
+  /**
+   * Set the latency profile. The profile applies to operations that start
+   * after this method returns.
+   *
+   * @param newProfile The profile
+   */
+
+  public void setProfile(
+    final JWLatencyProfile newProfile)
+  {
+    this.profile = Objects.requireNonNull(newProfile, "profile");
+  }
+
+  /**
+   * @param operation The operation
+   *
+   * @return The number of operations of the given kind performed so far
+   */
+
+  public long operationCount(
+    final JWLatencyOperation operation)
+  {
+    return this.counts.get(operation).sum();
+  }
+
+  /**
+   * Reset all operation counts to zero.
+   */
+
+  public void resetOperationCounts()
+  {
+    for (final var count : this.counts.values()) {
+      count.reset();
+    }
+  }
+
+  /**
+   * Wrap a path of the delegate filesystem.
+   *
+   * @param path The delegate path
+   *
+   * @return A path of this filesystem
+   */
+
+  public Path wrapPath(
+    final Path path)
+  {
+    if (path == null) {
+      return null;
+    }
+    return new JWLatencyPath(this, path);
+  }
+
+  /**
+   * Count an operation, and wait for a latency sampled from the current
+   * profile.
+   *
+   * @param operation The operation
+   *
+   * @throws InterruptedIOException If the thread is interrupted while waiting
+   */
+
+  void delay(
+    final JWLatencyOperation operation)
+    throws InterruptedIOException
+  {
+    this.counts.get(operation).increment();
+
+    final var nanos =
+      this.profile.distribution(operation)
+        .sampleNanos(ThreadLocalRandom.current());
+
+    if (nanos > 0L) {
+      try {
+        Thread.sleep(Duration.ofNanos(nanos));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(
+          "Interrupted during %s".formatted(operation));
+      }
+    }
+  }
+
+  @Override
+  public FileSystemProvider provider()
+  {
+    return this.provider;
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.delegate.close();
+  }
+
+  @Override
+  public boolean isOpen()
+  {
+    return this.delegate.isOpen();
+  }
+
+  @Override
+  public boolean isReadOnly()
+  {
+    return this.delegate.isReadOnly();
+  }
+
+  @Override
+  public String getSeparator()
+  {
+    return this.delegate.getSeparator();
+  }
+
+  @Override
+  public Iterable<Path> getRootDirectories()
+  {
+    final var roots = new ArrayList<Path>();
+    for (final var root : this.delegate.getRootDirectories()) {
+      roots.add(this.wrapPath(root));
+    }
+    return roots;
+  }
+
+  @Override
+  public Iterable<FileStore> getFileStores()
+  {
+    return this.delegate.getFileStores();
+  }
+
+  @Override
+  public Set<String> supportedFileAttributeViews()
+  {
+    return this.delegate.supportedFileAttributeViews();
+  }
+
+  @Override
+  public Path getPath(
+    final String first,
+    final String... more)
+  {
+    return this.wrapPath(this.delegate.getPath(first, more));
+  }
+
+  @Override
+  public PathMatcher getPathMatcher(
+    final String syntaxAndPattern)
+  {
+    final var matcher = this.delegate.getPathMatcher(syntaxAndPattern);
+    return path -> matcher.matches(this.provider.unwrap(path));
+  }
+
+  @Override
+  public UserPrincipalLookupService getUserPrincipalLookupService()
+  {
+    return this.delegate.getUserPrincipalLookupService();
+  }
+
+  @Override
+  public WatchService newWatchService()
+  {
+    throw new UnsupportedOperationException("Watch services are not supported");
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[JWLatencyFileSystem %s]".formatted(this.delegate);
+  }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.testsupport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The provider of a {@link JWLatencyFileSystem}. Each operation is counted
+ * and delayed according to the filesystem's profile, and then delegated to
+ * the provider of the delegate filesystem.
+ *
+ * Each provider serves exactly one filesystem, and is not installed. The
+ * URI of a path is the URI of the delegate path prefixed with the
+ * {@code jwlatency:} scheme, and can only be turned back into a path by the
+ * provider of the filesystem that produced it; such URIs cannot be used to
+ * reach the delegate filesystem directly.
+ */
+
+final class JWLatencyFileSystemProvider extends FileSystemProvider
+{
+  static final String SCHEME = "jwlatency";
+
+  private final JWLatencyFileSystem fileSystem;
+
+  JWLatencyFileSystemProvider(
+    final JWLatencyFileSystem inFileSystem)
+  {
+    this.fileSystem = inFileSystem;
+  }
+
+  private FileSystemProvider delegateProvider()
+  {
+    return this.fileSystem.delegate().provider();
+  }
+
+  Path unwrap(
+    final Path path)
+  {
+    if (path instanceof final JWLatencyPath latencyPath
+      && latencyPath.getFileSystem() == this.fileSystem) {
+      return latencyPath.delegate();
+    }
+    throw new ProviderMismatchException();
+  }
+
+  /**
+   * @param path A path of the delegate filesystem
+   *
+   * @return The URI of the wrapped path
+   */
+
+  static URI uriOf(
+    final Path path)
+  {
+    return URI.create(SCHEME + ":" + path.toUri());
+  }
+
+  private URI delegateUriOf(
+    final URI uri)
+  {
+    if (!SCHEME.equalsIgnoreCase(uri.getScheme())) {
+      throw new IllegalArgumentException(
+        "URI scheme must be %s: %s".formatted(SCHEME, uri));
+    }
+
+    final var text = uri.toString();
+    return URI.create(text.substring(text.indexOf(':') + 1));
+  }
+
+  @Override
+  public String getScheme()
+  {
+    return SCHEME;
+  }
+
+  /**
+   * Latency filesystems are created with
+   * {@link JWLatencyFileSystem#wrap(FileSystem, JWLatencyProfile)}, and the
+   * filesystem served by this provider always exists.
+   */
+
+  @Override
+  public FileSystem newFileSystem(
+    final URI uri,
+    final Map<String, ?> env)
+  {
+    this.getFileSystem(uri);
+    throw new FileSystemAlreadyExistsException(uri.toString());
+  }
+
+  @Override
+  public FileSystem getFileSystem(
+    final URI uri)
+  {
+    this.getPath(uri);
+    return this.fileSystem;
+  }
+
+  @Override
+  public Path getPath(
+    final URI uri)
+  {
+    final var delegateUri =
+      this.delegateUriOf(uri);
+    final var delegateFileSystem =
+      this.fileSystem.delegate();
+
+    if (!delegateFileSystem.provider()
+      .getScheme()
+      .equalsIgnoreCase(delegateUri.getScheme())) {
+      throw new FileSystemNotFoundException(uri.toString());
+    }
+
+    final var path = delegateFileSystem.provider().getPath(delegateUri);
+    if (path.getFileSystem() != delegateFileSystem) {
+      throw new FileSystemNotFoundException(uri.toString());
+    }
+    return this.fileSystem.wrapPath(path);
+  }
+
+  @Override
+  public SeekableByteChannel newByteChannel(
+    final Path path,
+    final Set<? extends OpenOption> options,
+    final FileAttribute<?>... attrs)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    return this.delegateProvider()
+      .newByteChannel(this.unwrap(path), options, attrs);
+  }
+
+  @Override
+  public FileChannel newFileChannel(
+    final Path path,
+    final Set<? extends OpenOption> options,
+    final FileAttribute<?>... attrs)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    return this.delegateProvider()
+      .newFileChannel(this.unwrap(path), options, attrs);
+  }
+
+  @Override
+  public DirectoryStream<Path> newDirectoryStream(
+    final Path dir,
+    final DirectoryStream.Filter<? super Path> filter)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.DIRECTORY_OPEN);
+
+    final var stream =
+      this.delegateProvider()
+        .newDirectoryStream(
+          this.unwrap(dir),
+          path -> filter.accept(this.fileSystem.wrapPath(path)));
+
+    return new LatencyDirectoryStream(this.fileSystem, stream);
+  }
+
+  @Override
+  public void createDirectory(
+    final Path dir,
+    final FileAttribute<?>... attrs)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.CREATE_DIRECTORY);
+    this.delegateProvider().createDirectory(this.unwrap(dir), attrs);
+  }
+
+  @Override
+  public void createSymbolicLink(
+    final Path link,
+    final Path target,
+    final FileAttribute<?>... attrs)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    this.delegateProvider()
+      .createSymbolicLink(this.unwrap(link), this.unwrap(target), attrs);
+  }
+
+  @Override
+  public void createLink(
+    final Path link,
+    final Path existing)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    this.delegateProvider()
+      .createLink(this.unwrap(link), this.unwrap(existing));
+  }
+
+  @Override
+  public Path readSymbolicLink(
+    final Path link)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    return this.fileSystem.wrapPath(
+      this.delegateProvider().readSymbolicLink(this.unwrap(link)));
+  }
+
+  @Override
+  public void delete(
+    final Path path)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    this.delegateProvider().delete(this.unwrap(path));
+  }
+
+  @Override
+  public void copy(
+    final Path source,
+    final Path target,
+    final CopyOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    this.delegateProvider()
+      .copy(this.unwrap(source), this.unwrap(target), options);
+  }
+
+  @Override
+  public void move(
+    final Path source,
+    final Path target,
+    final CopyOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    this.delegateProvider()
+      .move(this.unwrap(source), this.unwrap(target), options);
+  }
+
+  @Override
+  public boolean isSameFile(
+    final Path path,
+    final Path path2)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.TEST_FILE);
+    return this.delegateProvider()
+      .isSameFile(this.unwrap(path), this.unwrap(path2));
+  }
+
+  @Override
+  public boolean isHidden(
+    final Path path)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.TEST_FILE);
+    return this.delegateProvider().isHidden(this.unwrap(path));
+  }
+
+  @Override
+  public FileStore getFileStore(
+    final Path path)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    return this.delegateProvider().getFileStore(this.unwrap(path));
+  }
+
+  @Override
+  public void checkAccess(
+    final Path path,
+    final AccessMode... modes)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.TEST_FILE);
+    this.delegateProvider().checkAccess(this.unwrap(path), modes);
+  }
+
+  @Override
+  public boolean exists(
+    final Path path,
+    final LinkOption... options)
+  {
+    try {
+      this.fileSystem.delay(JWLatencyOperation.TEST_FILE);
+    } catch (final InterruptedIOException e) {
+      return false;
+    }
+    return this.delegateProvider().exists(this.unwrap(path), options);
+  }
+
+  @Override
+  public <A extends BasicFileAttributes> A readAttributesIfExists(
+    final Path path,
+    final Class<A> type,
+    final LinkOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.TEST_FILE);
+    return this.delegateProvider()
+      .readAttributesIfExists(this.unwrap(path), type, options);
+  }
+
+  @Override
+  public <V extends FileAttributeView> V getFileAttributeView(
+    final Path path,
+    final Class<V> type,
+    final LinkOption... options)
+  {
+    return this.delegateProvider()
+      .getFileAttributeView(this.unwrap(path), type, options);
+  }
+
+  @Override
+  public <A extends BasicFileAttributes> A readAttributes(
+    final Path path,
+    final Class<A> type,
+    final LinkOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.READ_ATTRIBUTES);
+    return this.delegateProvider()
+      .readAttributes(this.unwrap(path), type, options);
+  }
+
+  @Override
+  public Map<String, Object> readAttributes(
+    final Path path,
+    final String attributes,
+    final LinkOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.READ_ATTRIBUTES);
+    return this.delegateProvider()
+      .readAttributes(this.unwrap(path), attributes, options);
+  }
+
+  @Override
+  public void setAttribute(
+    final Path path,
+    final String attribute,
+    final Object value,
+    final LinkOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    this.delegateProvider()
+      .setAttribute(this.unwrap(path), attribute, value, options);
+  }
+
+  private static final class LatencyDirectoryStream
+    implements DirectoryStream<Path>
+  {
+    private final JWLatencyFileSystem fileSystem;
+    private final DirectoryStream<Path> stream;
+
+    LatencyDirectoryStream(
+      final JWLatencyFileSystem inFileSystem,
+      final DirectoryStream<Path> inStream)
+    {
+      this.fileSystem = inFileSystem;
+      this.stream = inStream;
+    }
+
+    @Override
+    public Iterator<Path> iterator()
+    {
+      final var iterator = this.stream.iterator();
+      return new Iterator<>()
+      {
+        @Override
+        public boolean hasNext()
+        {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Path next()
+        {
+          final var next = iterator.next();
+          try {
+            LatencyDirectoryStream.this.fileSystem.delay(
+              JWLatencyOperation.DIRECTORY_ENTRY);
+          } catch (final InterruptedIOException e) {
+            throw new DirectoryIteratorException(e);
+          }
+          return LatencyDirectoryStream.this.fileSystem.wrapPath(next);
+        }
+      };
+    }
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      this.stream.close();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.testsupport;
+
+/**
+ * The kinds of filesystem operation to which latency can be added.
+ */
+
+public enum JWLatencyOperation
+{
+  /**
+   * Opening a directory for iteration.
+   */
+
+  DIRECTORY_OPEN,
+
+  /**
+   * Retrieving each entry during directory iteration.
+   */
+
+  DIRECTORY_ENTRY,
+
+  /**
+   * Reading attributes, either as an attribute class or by name.
+   */
+
+  READ_ATTRIBUTES,
+
+  /**
+   * Testing a file, as done by {@code Files.isDirectory()},
+   * {@code Files.exists()}, {@code Files.isReadable()}, and similar.
+   */
+
+  TEST_FILE,
+
+  /**
+   * Creating a directory.
+   */
+
+  CREATE_DIRECTORY,
+
+  /**
+   * Any other operation, such as opening files, deleting, or moving.
+   */
+
+  OTHER
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.testsupport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Objects;
+
+/**
+ * A path of a {@link JWLatencyFileSystem}, wrapping a path of the delegate
+ * filesystem. Purely syntactic operations do not incur latency.
+ */
+
+final class JWLatencyPath implements Path
+{
+  private final JWLatencyFileSystem fileSystem;
+  private final Path delegate;
+
+  JWLatencyPath(
+    final JWLatencyFileSystem inFileSystem,
+    final Path inDelegate)
+  {
+    this.fileSystem = Objects.requireNonNull(inFileSystem, "fileSystem");
+    this.delegate = Objects.requireNonNull(inDelegate, "delegate");
+  }
+
+  Path delegate()
+  {
+    return this.delegate;
+  }
+
+  private Path unwrap(
+    final Path other)
+  {
+    if (other instanceof final JWLatencyPath path
+      && path.fileSystem == this.fileSystem) {
+      return path.delegate;
+    }
+    throw new ProviderMismatchException();
+  }
+
+  private Path wrap(
+    final Path path)
+  {
+    return this.fileSystem.wrapPath(path);
+  }
+
+  @Override
+  public FileSystem getFileSystem()
+  {
+    return this.fileSystem;
+  }
+
+  @Override
+  public boolean isAbsolute()
+  {
+    return this.delegate.isAbsolute();
+  }
+
+  @Override
+  public Path getRoot()
+  {
+    return this.wrap(this.delegate.getRoot());
+  }
+
+  @Override
+  public Path getFileName()
+  {
+    return this.wrap(this.delegate.getFileName());
+  }
+
+  @Override
+  public Path getParent()
+  {
+    return this.wrap(this.delegate.getParent());
+  }
+
+  @Override
+  public int getNameCount()
+  {
+    return this.delegate.getNameCount();
+  }
+
+  @Override
+  public Path getName(
+    final int index)
+  {
+    return this.wrap(this.delegate.getName(index));
+  }
+
+  @Override
+  public Path subpath(
+    final int beginIndex,
+    final int endIndex)
+  {
+    return this.wrap(this.delegate.subpath(beginIndex, endIndex));
+  }
+
+  @Override
+  public boolean startsWith(
+    final Path other)
+  {
+    return other instanceof final JWLatencyPath path
+      && path.fileSystem == this.fileSystem
+      && this.delegate.startsWith(path.delegate);
+  }
+
+  @Override
+  public boolean endsWith(
+    final Path other)
+  {
+    return other instanceof final JWLatencyPath path
+      && path.fileSystem == this.fileSystem
+      && this.delegate.endsWith(path.delegate);
+  }
+
+  @Override
+  public Path normalize()
+  {
+    return this.wrap(this.delegate.normalize());
+  }
+
+  @Override
+  public Path resolve(
+    final Path other)
+  {
+    return this.wrap(this.delegate.resolve(this.unwrap(other)));
+  }
+
+  @Override
+  public Path resolve(
+    final String other)
+  {
+    return this.wrap(this.delegate.resolve(other));
+  }
+
+  @Override
+  public Path relativize(
+    final Path other)
+  {
+    return this.wrap(this.delegate.relativize(this.unwrap(other)));
+  }
+
+  @Override
+  public URI toUri()
+  {
+    return JWLatencyFileSystemProvider.uriOf(this.delegate);
+  }
+
+  @Override
+  public Path toAbsolutePath()
+  {
+    return this.wrap(this.delegate.toAbsolutePath());
+  }
+
+  @Override
+  public Path toRealPath(
+    final LinkOption... options)
+    throws IOException
+  {
+    this.fileSystem.delay(JWLatencyOperation.OTHER);
+    return this.wrap(this.delegate.toRealPath(options));
+  }
+
+  @Override
+  public WatchKey register(
+    final WatchService watcher,
+    final WatchEvent.Kind<?>[] events,
+    final WatchEvent.Modifier... modifiers)
+  {
+    throw new UnsupportedOperationException("Watch services are not supported");
+  }
+
+  @Override
+  public int compareTo(
+    final Path other)
+  {
+    return this.delegate.compareTo(this.unwrap(other));
+  }
+
+  @Override
+  public boolean equals(
+    final Object other)
+  {
+    if (this == other) {
+      return true;
+    }
+    return other instanceof final JWLatencyPath path
+      && path.fileSystem == this.fileSystem
+      && this.delegate.equals(path.delegate);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return this.delegate.hashCode();
+  }
+
+  @Override
+  public String toString()
+  {
+    return this.delegate.toString();
+  }
+}
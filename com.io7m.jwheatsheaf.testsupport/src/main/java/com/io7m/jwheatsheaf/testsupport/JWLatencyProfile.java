@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.testsupport;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A set of latency distributions, one per kind of operation. Operations
+ * without a distribution have no added latency.
+ *
+ * @param distributions The distributions
+ */
+
+public record JWLatencyProfile(
+  Map<JWLatencyOperation, JWLatencyDistributionType> distributions)
+{
+  /**
+   * A set of latency distributions, one per kind of operation.
+   */
+
+  public JWLatencyProfile
+  {
+    distributions = Map.copyOf(distributions);
+  }
+
+  /**
+   * @return A profile that adds no latency
+   */
+
+  public static JWLatencyProfile none()
+  {
+    return new JWLatencyProfile(Map.of());
+  }
+
+  /**
+   * A profile that models per-entry latency on a remote filesystem: every
+   * directory entry, attribute read, and file test costs the given latency.
+   *
+   * @param latency The latency per operation
+   *
+   * @return A profile
+   */
+
+  public static JWLatencyProfile perEntry(
+    final Duration latency)
+  {
+    final var distribution = JWLatencyDistributionType.constant(latency);
+    return builder()
+      .set(JWLatencyOperation.DIRECTORY_ENTRY, distribution)
+      .set(JWLatencyOperation.READ_ATTRIBUTES, distribution)
+      .set(JWLatencyOperation.TEST_FILE, distribution)
+      .build();
+  }
+
+  /**
+   * @return A new builder
+   */
+
+  public static Builder builder()
+  {
+    return new Builder();
+  }
+
+  /**
+   * @param operation The operation
+   *
+   * @return The distribution for the given operation
+   */
+
+  public JWLatencyDistributionType distribution(
+    final JWLatencyOperation operation)
+  {
+    return this.distributions.getOrDefault(
+      operation, JWLatencyDistributionType.none());
+  }
+
+  /**
+   * A builder of profiles.
+   */
+
+  public static final class Builder
+  {
+    private final EnumMap<JWLatencyOperation, JWLatencyDistributionType> values;
+
+    private Builder()
+    {
+      this.values = new EnumMap<>(JWLatencyOperation.class);
+    }
+
+    /**
+     * @param operation    The operation
+     * @param distribution The latency distribution for the operation
+     *
+     * @return this
+     */
+
+    public Builder set(
+      final JWLatencyOperation operation,
+      final JWLatencyDistributionType distribution)
+    {
+      this.values.put(
+        Objects.requireNonNull(operation, "operation"),
+        Objects.requireNonNull(distribution, "distribution")
+      );
+      return this;
+    }
+
+    /**
+     * @param distribution The latency distribution for every operation
+     *
+     * @return this
+     */
+
+    public Builder setAll(
+      final JWLatencyDistributionType distribution)
+    {
+      for (final var operation : JWLatencyOperation.values()) {
+        this.set(operation, distribution);
+      }
+      return this;
+    }
+
+    /**
+     * @return A profile
+     */
+
+    public JWLatencyProfile build()
+    {
+      return new JWLatencyProfile(this.values);
+    }
+  }
+}
@@ -0,0 +1,629 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.testsupport;
+
+import com.github.marschall.memoryfilesystem.MemoryFileSystemBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * A generator of large, synthetic directory trees.
+ *
+ * A tree is described by a seed and a shape: the depth of the tree, the
+ * number of subdirectories in each directory, and the number of other
+ * entries in each directory. Generating a tree with the same description
+ * always produces the same names, kinds, sizes, modification times, link
+ * targets, and permissions, whether the tree is generated in an in-memory
+ * filesystem or on disk, so that listing, sorting, and search can be
+ * measured and regression-tested at scale.
+ *
+ * Names are drawn from a mix of styles (camera-style numbered names,
+ * words, mixed case, names with spaces, and non-ASCII names) with a
+ * weighted distribution of extensions. Non-ASCII names are replaced with
+ * ASCII names of the same shape on filesystems that cannot represent them
+ * (such as a default filesystem running in a POSIX locale). A fraction of entries are symbolic
+ * links, half of which are dangling, and a fraction of entries are made
+ * unreadable on filesystems that support POSIX permissions. Note that
+ * processes with elevated privileges may still be able to read unreadable
+ * entries on disk.
+ */
+
+public final class JWSyntheticTree
+{
+  private static final String[] WORDS = {
+    "report", "draft", "final", "notes", "photo", "backup", "invoice",
+    "budget", "scan", "summary", "archive", "data", "export", "README",
+    "caf\u00e9", "\u00fcbersicht", "\u65e5\u8a18", "r\u00e9sum\u00e9",
+  };
+
+  private static final String[] WORDS_ASCII = {
+    "report", "draft", "final", "notes", "photo", "backup", "invoice",
+    "budget", "scan", "summary", "archive", "data", "export", "README",
+    "cafe", "ubersicht", "nikki", "resume",
+  };
+
+  private static final String[] EXTENSIONS = {
+    "txt", "txt", "txt", "jpg", "jpg", "png", "xml", "pdf", "java",
+    "class", "md", "TXT", "JPG", "tar.gz", "",
+  };
+
+  private static final Set<PosixFilePermission> UNREADABLE =
+    EnumSet.noneOf(PosixFilePermission.class);
+
+  private static final Set<PosixFilePermission> RESTORED =
+    PosixFilePermissions.fromString("rwx------");
+
+  private final long seed;
+  private final int depth;
+  private final int directoriesPerDirectory;
+  private final int entriesPerDirectory;
+  private final double symbolicLinkFraction;
+  private final double unreadableFraction;
+  private final long maximumSize;
+  private final Instant earliestTime;
+  private final Instant latestTime;
+
+  private JWSyntheticTree(
+    final Builder builder)
+  {
+    this.seed = builder.seed;
+    this.depth = builder.depth;
+    this.directoriesPerDirectory = builder.directoriesPerDirectory;
+    this.entriesPerDirectory = builder.entriesPerDirectory;
+    this.symbolicLinkFraction = builder.symbolicLinkFraction;
+    this.unreadableFraction = builder.unreadableFraction;
+    this.maximumSize = builder.maximumSize;
+    this.earliestTime = builder.earliestTime;
+    this.latestTime = builder.latestTime;
+  }
+
+  /**
+   * Create a builder for a tree.
+   *
+   * @param seed The seed from which the tree is generated
+   *
+   * @return A builder
+   */
+
+  public static Builder builder(
+    final long seed)
+  {
+    return new Builder(seed);
+  }
+
+  /**
+   * Create a tree consisting of a single directory of the given number of
+   * entries.
+   *
+   * @param seed    The seed
+   * @param entries The number of entries
+   *
+   * @return A tree
+   */
+
+  public static JWSyntheticTree wide(
+    final long seed,
+    final int entries)
+  {
+    return builder(seed)
+      .setEntriesPerDirectory(entries)
+      .build();
+  }
+
+  /**
+   * Create a new, empty, in-memory filesystem with Linux semantics
+   * (including POSIX permissions) in which trees can be generated.
+   *
+   * @return A filesystem
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static FileSystem createMemoryFilesystem()
+    throws IOException
+  {
+    return MemoryFileSystemBuilder.newLinux().build();
+  }
+
+  /**
+   * Delete a generated tree, restoring the permissions of any unreadable
+   * entries first.
+   *
+   * @param root The root of the tree
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void delete(
+    final Path root)
+    throws IOException
+  {
+    Objects.requireNonNull(root, "root");
+    restorePermissions(root);
+
+    try (var stream = Files.walk(root)) {
+      final var paths =
+        stream.sorted(Comparator.reverseOrder()).toList();
+      for (final var path : paths) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  private static void restorePermissions(
+    final Path directory)
+    throws IOException
+  {
+    if (!supportsPermissions(directory)) {
+      return;
+    }
+
+    Files.setPosixFilePermissions(directory, RESTORED);
+    try (var stream = Files.newDirectoryStream(directory)) {
+      for (final var path : stream) {
+        if (Files.isSymbolicLink(path)) {
+          continue;
+        }
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+          restorePermissions(path);
+        } else {
+          Files.setPosixFilePermissions(path, RESTORED);
+        }
+      }
+    }
+  }
+
+  private static boolean supportsPermissions(
+    final Path path)
+  {
+    return path.getFileSystem()
+      .supportedFileAttributeViews()
+      .contains("posix");
+  }
+
+  private static boolean supportsUnicode(
+    final Path path)
+  {
+    try {
+      for (final var word : WORDS) {
+        path.resolve(word);
+      }
+      return true;
+    } catch (final InvalidPathException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Generate the tree in the given directory, which will be created if it
+   * does not exist.
+   *
+   * @param root The root directory
+   *
+   * @return The statistics of the generated tree
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public Statistics generate(
+    final Path root)
+    throws IOException
+  {
+    Objects.requireNonNull(root, "root");
+
+    Files.createDirectories(root);
+    final var generation =
+      new Generation(
+        new SplittableRandom(this.seed),
+        supportsPermissions(root),
+        supportsUnicode(root) ? WORDS : WORDS_ASCII
+      );
+    generation.populate(root, 0);
+    return generation.statistics();
+  }
+
+  private final class Generation
+  {
+    private final SplittableRandom random;
+    private final boolean permissions;
+    private final String[] words;
+    private long directories;
+    private long files;
+    private long links;
+    private long unreadable;
+
+    Generation(
+      final SplittableRandom inRandom,
+      final boolean inPermissions,
+      final String[] inWords)
+    {
+      this.random = inRandom;
+      this.permissions = inPermissions;
+      this.words = inWords;
+    }
+
+    Statistics statistics()
+    {
+      return new Statistics(
+        this.directories,
+        this.files,
+        this.links,
+        this.unreadable
+      );
+    }
+
+    void populate(
+      final Path directory,
+      final int level)
+      throws IOException
+    {
+      final var names = new HashSet<String>();
+      final var created = new ArrayList<Path>();
+
+      for (int index = 0; index < JWSyntheticTree.this.entriesPerDirectory; ++index) {
+        final var roll = this.random.nextDouble();
+        if (roll < JWSyntheticTree.this.symbolicLinkFraction) {
+          final var link = directory.resolve(this.uniqueName(names, index, false));
+          this.createLink(link, created);
+          ++this.links;
+        } else {
+          final var file = directory.resolve(this.uniqueName(names, index, true));
+          this.createFile(file);
+          created.add(file);
+          ++this.files;
+        }
+      }
+
+      if (level < JWSyntheticTree.this.depth) {
+        for (int index = 0; index < JWSyntheticTree.this.directoriesPerDirectory; ++index) {
+          final var subdirectory =
+            directory.resolve(this.uniqueName(names, index, false));
+          Files.createDirectory(subdirectory);
+          ++this.directories;
+          this.populate(subdirectory, level + 1);
+          this.setTime(subdirectory);
+          created.add(subdirectory);
+        }
+      }
+
+      /*
+       * Permissions are removed only once everything beneath an entry has
+       * been created.
+       */
+
+      if (this.permissions) {
+        for (final var path : created) {
+          if (this.random.nextDouble() < JWSyntheticTree.this.unreadableFraction) {
+            Files.getFileAttributeView(
+              path, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+              .setPermissions(UNREADABLE);
+            ++this.unreadable;
+          }
+        }
+      }
+    }
+
+    private void createLink(
+      final Path link,
+      final List<Path> created)
+      throws IOException
+    {
+      final Path target;
+      if (created.isEmpty() || this.random.nextBoolean()) {
+        target = link.getFileSystem()
+          .getPath("missing-" + this.random.nextInt(1_000_000));
+      } else {
+        target = created.get(this.random.nextInt(created.size())).getFileName();
+      }
+      Files.createSymbolicLink(link, target);
+    }
+
+    private void createFile(
+      final Path file)
+      throws IOException
+    {
+      final var size = this.nextSize();
+      if (size == 0L) {
+        Files.createFile(file);
+      } else {
+        try (var channel = FileChannel.open(
+          file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+          channel.write(ByteBuffer.wrap(new byte[]{0x78}), size - 1L);
+        }
+      }
+      this.setTime(file);
+    }
+
+    /**
+     * Sizes are distributed roughly log-uniformly up to the maximum size,
+     * as they are in typical directories.
+     */
+
+    private long nextSize()
+    {
+      final var maximum = JWSyntheticTree.this.maximumSize;
+      if (maximum == 0L) {
+        return 0L;
+      }
+      final var exponent = this.random.nextDouble() * Math.log(maximum + 1.0);
+      return Math.min(maximum, (long) Math.exp(exponent));
+    }
+
+    private void setTime(
+      final Path path)
+      throws IOException
+    {
+      final var earliest = JWSyntheticTree.this.earliestTime.getEpochSecond();
+      final var latest = JWSyntheticTree.this.latestTime.getEpochSecond();
+      final var seconds = earliest + this.random.nextLong(latest - earliest + 1L);
+      Files.setLastModifiedTime(
+        path, FileTime.from(Instant.ofEpochSecond(seconds)));
+    }
+
+    private String uniqueName(
+      final Set<String> names,
+      final int index,
+      final boolean withExtension)
+    {
+      final var base = this.nextBaseName(index);
+      final String extension;
+      if (withExtension) {
+        final var chosen = EXTENSIONS[this.random.nextInt(EXTENSIONS.length)];
+        extension = chosen.isEmpty() ? "" : "." + chosen;
+      } else {
+        extension = "";
+      }
+
+      var name = base + extension;
+      for (int suffix = 1; !names.add(name); ++suffix) {
+        name = "%s (%d)%s".formatted(base, Integer.valueOf(suffix), extension);
+      }
+      return name;
+    }
+
+    private String nextBaseName(
+      final int index)
+    {
+      final var word = this.words[this.random.nextInt(this.words.length)];
+      return switch (this.random.nextInt(6)) {
+        case 0, 1 -> "IMG_%05d".formatted(Integer.valueOf(index));
+        case 2 -> "%s-%d".formatted(word, Integer.valueOf(this.random.nextInt(10_000)));
+        case 3 -> word.toUpperCase() + "_" + this.random.nextInt(100);
+        case 4 -> "%s %s %d".formatted(
+          word,
+          this.words[this.random.nextInt(this.words.length)],
+          Integer.valueOf(this.random.nextInt(1000)));
+        default -> word + this.random.nextInt(1_000_000);
+      };
+    }
+  }
+
+  /**
+   * The statistics of a generated tree. The root directory is not counted.
+   *
+   * @param directories The number of directories created
+   * @param files       The number of regular files created
+   * @param links       The number of symbolic links created
+   * @param unreadable  The number of entries made unreadable
+   */
+
+  public record Statistics(
+    long directories,
+    long files,
+    long links,
+    long unreadable)
+  {
+    /**
+     * @return The total number of entries created
+     */
+
+    public long entries()
+    {
+      return this.directories + this.files + this.links;
+    }
+  }
+
+  /**
+   * A builder of trees.
+   */
+
+  public static final class Builder
+  {
+    private final long seed;
+    private int depth;
+    private int directoriesPerDirectory;
+    private int entriesPerDirectory;
+    private double symbolicLinkFraction;
+    private double unreadableFraction;
+    private long maximumSize;
+    private Instant earliestTime;
+    private Instant latestTime;
+
+    private Builder(
+      final long inSeed)
+    {
+      this.seed = inSeed;
+      this.depth = 0;
+      this.directoriesPerDirectory = 0;
+      this.entriesPerDirectory = 1000;
+      this.symbolicLinkFraction = 0.01;
+      this.unreadableFraction = 0.001;
+      this.maximumSize = 0L;
+      this.earliestTime = Instant.parse("2000-01-01T00:00:00Z");
+      this.latestTime = Instant.parse("2026-01-01T00:00:00Z");
+    }
+
+    /**
+     * @param newDepth The number of levels of subdirectories beneath the root
+     *
+     * @return this
+     */
+
+    public Builder setDepth(
+      final int newDepth)
+    {
+      this.depth = requireNonNegative(newDepth, "depth");
+      return this;
+    }
+
+    /**
+     * @param count The number of subdirectories in each directory above
+     *              the deepest level
+     *
+     * @return this
+     */
+
+    public Builder setDirectoriesPerDirectory(
+      final int count)
+    {
+      this.directoriesPerDirectory = requireNonNegative(count, "count");
+      return this;
+    }
+
+    /**
+     * @param count The number of files and links in each directory
+     *
+     * @return this
+     */
+
+    public Builder setEntriesPerDirectory(
+      final int count)
+    {
+      this.entriesPerDirectory = requireNonNegative(count, "count");
+      return this;
+    }
+
+    /**
+     * @param fraction The fraction of entries that are symbolic links
+     *
+     * @return this
+     */
+
+    public Builder setSymbolicLinkFraction(
+      final double fraction)
+    {
+      this.symbolicLinkFraction = requireFraction(fraction);
+      return this;
+    }
+
+    /**
+     * @param fraction The fraction of entries that are made unreadable
+     *
+     * @return this
+     */
+
+    public Builder setUnreadableFraction(
+      final double fraction)
+    {
+      this.unreadableFraction = requireFraction(fraction);
+      return this;
+    }
+
+    /**
+     * Set the maximum size of files. Files are created sparse where the
+     * filesystem allows it. A maximum of zero creates empty files, which
+     * is considerably faster in an in-memory filesystem.
+     *
+     * @param size The maximum file size
+     *
+     * @return this
+     */
+
+    public Builder setMaximumSize(
+      final long size)
+    {
+      if (size < 0L) {
+        throw new IllegalArgumentException("Size must be non-negative");
+      }
+      this.maximumSize = size;
+      return this;
+    }
+
+    /**
+     * @param earliest The earliest modification time
+     * @param latest   The latest modification time
+     *
+     * @return this
+     */
+
+    public Builder setTimeRange(
+      final Instant earliest,
+      final Instant latest)
+    {
+      Objects.requireNonNull(earliest, "earliest");
+      Objects.requireNonNull(latest, "latest");
+      if (latest.isBefore(earliest)) {
+        throw new IllegalArgumentException("Time range is empty");
+      }
+      this.earliestTime = earliest;
+      this.latestTime = latest;
+      return this;
+    }
+
+    /**
+     * @return A tree
+     */
+
+    public JWSyntheticTree build()
+    {
+      return new JWSyntheticTree(this);
+    }
+
+    private static int requireNonNegative(
+      final int value,
+      final String name)
+    {
+      if (value < 0) {
+        throw new IllegalArgumentException(
+          "%s must be non-negative".formatted(name));
+      }
+      return value;
+    }
+
+    private static double requireFraction(
+      final double fraction)
+    {
+      if (!(fraction >= 0.0 && fraction <= 1.0)) {
+        throw new IllegalArgumentException(
+          "Fraction must be in the range [0, 1]");
+      }
+      return fraction;
+    }
+  }
+}
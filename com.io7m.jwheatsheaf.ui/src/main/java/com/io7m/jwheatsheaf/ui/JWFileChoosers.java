@@ -18,6 +18,7 @@ package com.io7m.jwheatsheaf.ui;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
 import com.io7m.jwheatsheaf.api.JWFileChooserType;
 import com.io7m.jwheatsheaf.api.JWFileChoosersType;
 import com.io7m.jwheatsheaf.api.JWFileImageSetType;
@@ -26,6 +27,9 @@ import com.io7m.jwheatsheaf.ui.internal.JWFileChooserFilterOnlyDirectories;
 import com.io7m.jwheatsheaf.ui.internal.JWFileChooserViewController;
 import com.io7m.jwheatsheaf.ui.internal.JWFileChoosersTesting;
 import com.io7m.jwheatsheaf.ui.internal.JWFileImageDefaultSet;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCache;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingSnapshotStore;
+import com.io7m.jwheatsheaf.ui.internal.JWImages;
 import com.io7m.jwheatsheaf.ui.internal.JWStrings;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -33,11 +37,16 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -55,13 +64,18 @@ public final class JWFileChoosers implements JWFileChoosersType
   private final JWStrings strings;
   private final JWFileChooserFilterType filterAllFiles;
   private final JWFileChooserFilterType filterOnlyDirectories;
+  private final Map<JWFileImageSetType, JWImages> imageCaches;
+  private final JWFileListingCache listingCache;
+  private final JWFileChooserMetricsType metrics;
 
   private JWFileChoosers(
     final JWStrings inStrings,
     final JWFileChoosersTesting inTesting,
     final ExecutorService inIoExecutor,
+    final JWFileListingCache inListingCache,
     final JWFileChooserFilterType inFilterAllFiles,
-    final JWFileChooserFilterType inFilterOnlyDirectories)
+    final JWFileChooserFilterType inFilterOnlyDirectories,
+    final JWFileChooserMetricsType inMetrics)
   {
     this.strings =
       Objects.requireNonNull(inStrings, "inStrings");
@@ -75,6 +89,12 @@ public final class JWFileChoosers implements JWFileChoosersType
       Objects.requireNonNull(inFilterOnlyDirectories, "filterOnlyDirectories");
     this.imageSet =
       new JWFileImageDefaultSet();
+    this.imageCaches =
+      Collections.synchronizedMap(new WeakHashMap<>());
+    this.listingCache =
+      Objects.requireNonNull(inListingCache, "listingCache");
+    this.metrics =
+      Objects.requireNonNull(inMetrics, "metrics");
   }
 
   /**
@@ -119,15 +139,12 @@ public final class JWFileChoosers implements JWFileChoosersType
     final JWFileChoosersTesting testing,
     final Locale locale)
   {
-    final var strings =
-      JWStrings.of(JWStrings.getResourceBundle(locale));
-
-    return new JWFileChoosers(
-      strings,
-      testing,
+    return createWithConfigurationAndTesting(
       executor,
-      JWFileChooserFilterAllFiles.create(strings),
-      JWFileChooserFilterOnlyDirectories.create(strings)
+      JWFileChoosersConfiguration.builder()
+        .setLocale(locale)
+        .build(),
+      testing
     );
   }
 
@@ -144,18 +161,75 @@ public final class JWFileChoosers implements JWFileChoosersType
     final ExecutorService executor,
     final Locale locale)
   {
-    final var strings =
-      JWStrings.of(JWStrings.getResourceBundle(locale));
-    final var testing =
+    return createWithConfiguration(
+      executor,
+      JWFileChoosersConfiguration.builder()
+        .setLocale(locale)
+        .build()
+    );
+  }
+
+  /**
+   * Create a new file chooser provider.
+   *
+   * @param executor      An executor used for background I/O operations
+   * @param configuration The provider configuration
+   *
+   * @return A file chooser provider
+   *
+   * @throws UncheckedIOException If the snapshot directory cannot be created
+   * @since 4.1.0
+   */
+
+  public static JWFileChoosersType createWithConfiguration(
+    final ExecutorService executor,
+    final JWFileChoosersConfiguration configuration)
+  {
+    return createWithConfigurationAndTesting(
+      executor,
+      configuration,
       JWFileChoosersTesting.builder()
-        .build();
+        .build()
+    );
+  }
+
+  private static JWFileChoosersType createWithConfigurationAndTesting(
+    final ExecutorService executor,
+    final JWFileChoosersConfiguration configuration,
+    final JWFileChoosersTesting testing)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+
+    final var strings =
+      JWStrings.of(JWStrings.getResourceBundle(configuration.locale()));
+
+    final Optional<JWFileListingSnapshotStore> snapshots;
+    try {
+      final var directory = configuration.snapshotDirectory();
+      if (directory.isPresent()) {
+        snapshots = Optional.of(JWFileListingSnapshotStore.open(
+          directory.get(),
+          configuration.snapshotMaximumCount()
+        ));
+      } else {
+        snapshots = Optional.empty();
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
 
     return new JWFileChoosers(
       strings,
       testing,
       executor,
+      JWFileListingCache.createWithSnapshots(
+        configuration.listingCacheMaximumItems(),
+        snapshots,
+        executor
+      ),
       JWFileChooserFilterAllFiles.create(strings),
-      JWFileChooserFilterOnlyDirectories.create(strings)
+      JWFileChooserFilterOnlyDirectories.create(strings),
+      configuration.metrics()
     );
   }
 
@@ -178,6 +252,10 @@ public final class JWFileChoosers implements JWFileChoosersType
       configuration.cssStylesheet()
         .ifPresent(url -> pane.getStylesheets().add(url.toString()));
 
+      final var images =
+        configuration.fileImageSet()
+          .orElse(this.imageSet);
+
       final var viewController =
         (JWFileChooserViewController) loader.getController();
       viewController.setConfiguration(
@@ -185,7 +263,10 @@ public final class JWFileChoosers implements JWFileChoosersType
         this.ioExecutor,
         this.testing,
         this.strings,
-        this.imageSet,
+        images,
+        this.imageCacheFor(images),
+        this.listingCache,
+        this.metrics,
         configuration
       );
 
@@ -215,6 +296,15 @@ public final class JWFileChoosers implements JWFileChoosersType
           }
         );
 
+      dialog.addEventHandler(
+        WindowEvent.WINDOW_SHOWN,
+        event -> viewController.onWindowShown()
+      );
+      dialog.addEventHandler(
+        WindowEvent.WINDOW_HIDDEN,
+        event -> viewController.onWindowHidden()
+      );
+
       /*
        * Close the dialog when escape is pressed.
        */
@@ -231,6 +321,18 @@ public final class JWFileChoosers implements JWFileChoosersType
     }
   }
 
+  /**
+   * Image caches are held weakly by image set, so that a cache is shared by
+   * every chooser that uses a given image set and is discarded along with
+   * the image set.
+   */
+
+  private JWImages imageCacheFor(
+    final JWFileImageSetType images)
+  {
+    return this.imageCaches.computeIfAbsent(images, i -> JWImages.create());
+  }
+
   @Override
   public JWFileChooserFilterType filterForAllFiles()
   {
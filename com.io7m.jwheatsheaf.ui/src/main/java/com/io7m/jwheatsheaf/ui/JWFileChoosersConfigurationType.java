@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingCache;
+import com.io7m.jwheatsheaf.ui.internal.JWFileListingSnapshotStore;
+import org.immutables.value.Value;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The configuration information used to instantiate file chooser providers.
+ * The configuration applies to every file chooser created by a provider.
+ *
+ * @since 4.1.0
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface JWFileChoosersConfigurationType
+{
+  /**
+   * @return The locale used for internal string resources
+   */
+
+  @Value.Default
+  default Locale locale()
+  {
+    return Locale.getDefault();
+  }
+
+  /**
+   * The maximum number of file items held in memory by the directory
+   * listing cache shared by the provider's file choosers. A value of zero
+   * disables caching in memory, but does not prevent snapshots from being
+   * stored.
+   *
+   * @see #snapshotDirectory()
+   *
+   * @return The maximum number of cached file items
+   */
+
+  @Value.Default
+  default int listingCacheMaximumItems()
+  {
+    return JWFileListingCache.DEFAULT_MAXIMUM_ITEMS;
+  }
+
+  /**
+   * A directory in which snapshots of recently listed directories are
+   * stored. If a snapshot of a directory exists when a file chooser opens
+   * the directory, the snapshot is shown immediately while the directory is
+   * listed again in the background. If no directory is specified, snapshots
+   * are not stored.
+   *
+   * @return The snapshot directory
+   */
+
+  Optional<Path> snapshotDirectory();
+
+  /**
+   * @return The maximum number of directory snapshots retained
+   */
+
+  @Value.Default
+  default int snapshotMaximumCount()
+  {
+    return JWFileListingSnapshotStore.DEFAULT_MAXIMUM_SNAPSHOTS;
+  }
+
+  /**
+   * The receiver of performance measurements from the provider's file
+   * choosers. By default, measurements are discarded.
+   *
+   * @return The metrics receiver
+   */
+
+  @Value.Default
+  default JWFileChooserMetricsType metrics()
+  {
+    return JWFileChooserMetricsNone.get();
+  }
+
+  /**
+   * Check preconditions for the type.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    Preconditions.checkPreconditionV(
+      this.listingCacheMaximumItems() >= 0,
+      "Listing cache maximum items %d must be non-negative",
+      Integer.valueOf(this.listingCacheMaximumItems())
+    );
+    Preconditions.checkPreconditionV(
+      this.snapshotMaximumCount() > 0,
+      "Snapshot maximum count %d must be positive",
+      Integer.valueOf(this.snapshotMaximumCount())
+    );
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A set of changes observed in a directory.
+ *
+ * @param directory The directory
+ * @param changed   The entries that were created or modified, re-resolved
+ * @param removed   The entries that were removed
+ * @param complete  {@code false} if some changes may have been missed, and
+ *                  the directory must be listed again
+ */
+
+public record JWDirectoryChanges(
+  Path directory,
+  List<JWFileItem> changed,
+  Set<Path> removed,
+  boolean complete)
+{
+  /**
+   * A set of changes observed in a directory.
+   */
+
+  public JWDirectoryChanges
+  {
+    Objects.requireNonNull(directory, "directory");
+    changed = List.copyOf(changed);
+    removed = Set.copyOf(removed);
+  }
+
+  /**
+   * @return {@code true} if there are no changes
+   */
+
+  public boolean isEmpty()
+  {
+    return this.complete && this.changed.isEmpty() && this.removed.isEmpty();
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event recording a single listing of a directory.
+ */
+
+@Name("com.io7m.jwheatsheaf.DirectoryListing")
+@Label("Directory Listing")
+@Category("jwheatsheaf")
+@Description("The listing of a directory by a file chooser")
+@StackTrace(false)
+final class JWDirectoryListingEvent extends Event
+{
+  @Label("Directory")
+  @Description("The directory being listed")
+  private String directory;
+
+  @Label("Entries")
+  @Description("The number of entries listed")
+  private int entries;
+
+  @Label("Names Only")
+  @Description("True if entries were listed without their attributes")
+  private boolean namesOnly;
+
+  @Label("Cancelled")
+  @Description("True if the listing was interrupted before it completed")
+  private boolean cancelled;
+
+  @Label("Failed")
+  @Description("True if the listing failed with an error")
+  private boolean failed;
+
+  JWDirectoryListingEvent()
+  {
+
+  }
+
+  void setDirectory(
+    final String inDirectory)
+  {
+    this.directory = inDirectory;
+  }
+
+  void setEntries(
+    final int inEntries)
+  {
+    this.entries = inEntries;
+  }
+
+  void setNamesOnly(
+    final boolean inNamesOnly)
+  {
+    this.namesOnly = inNamesOnly;
+  }
+
+  void setCancelled(
+    final boolean inCancelled)
+  {
+    this.cancelled = inCancelled;
+  }
+
+  void setFailed(
+    final boolean inFailed)
+  {
+    this.failed = inFailed;
+  }
+}
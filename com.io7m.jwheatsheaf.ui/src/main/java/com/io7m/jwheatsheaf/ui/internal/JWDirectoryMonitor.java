@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * The means by which a file chooser observes changes to its current
+ * directory. Depending on the configuration and on the capabilities of the
+ * filesystem, the directory is watched using a watch service, polled, or
+ * not observed at all.
+ */
+
+public final class JWDirectoryMonitor
+{
+  private final Optional<JWDirectoryWatcher> watcher;
+  private final Optional<JWDirectoryPoller> poller;
+
+  private JWDirectoryMonitor(
+    final Optional<JWDirectoryWatcher> inWatcher,
+    final Optional<JWDirectoryPoller> inPoller)
+  {
+    this.watcher = inWatcher;
+    this.poller = inPoller;
+  }
+
+  /**
+   * Create a monitor for the given configuration.
+   *
+   * @param configuration The file chooser configuration
+   * @param executor      The I/O executor
+   * @param metrics       The receiver of attribute reads
+   * @param onChanges     A receiver of changes observed by a watch service
+   * @param onChanged     A receiver of directories that were observed to
+   *                      have changed by polling
+   *
+   * @return A new monitor
+   */
+
+  public static JWDirectoryMonitor create(
+    final JWFileChooserConfiguration configuration,
+    final ExecutorService executor,
+    final JWFileChooserMetricsType metrics,
+    final Consumer<JWDirectoryChanges> onChanges,
+    final Consumer<Path> onChanged)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(metrics, "metrics");
+    Objects.requireNonNull(onChanges, "onChanges");
+    Objects.requireNonNull(onChanged, "onChanged");
+
+    final var fileSystem = configuration.fileSystem();
+    if (configuration.watchCurrentDirectory()
+      && JWDirectoryWatcher.isSupportedBy(fileSystem)) {
+      return new JWDirectoryMonitor(
+        Optional.of(
+          JWDirectoryWatcher.create(
+            fileSystem,
+            executor,
+            JWDirectoryWatcher.DEFAULT_COALESCE_INTERVAL,
+            metrics,
+            onChanges
+          )),
+        Optional.empty()
+      );
+    }
+
+    return new JWDirectoryMonitor(
+      Optional.empty(),
+      configuration.directoryPollingInterval()
+        .map(interval -> JWDirectoryPoller.create(interval, metrics, onChanged))
+    );
+  }
+
+  /**
+   * Start observing the given directory, or stop observing if no directory
+   * is given.
+   *
+   * @param directory The directory
+   */
+
+  public void monitor(
+    final Optional<Path> directory)
+  {
+    this.watcher.ifPresent(w -> w.watch(directory));
+    this.poller.ifPresent(p -> p.watch(directory));
+  }
+
+  /**
+   * @param directory The directory
+   *
+   * @return {@code true} if the given directory is currently being observed
+   */
+
+  public boolean isMonitoring(
+    final Path directory)
+  {
+    final var current =
+      this.watcher.flatMap(JWDirectoryWatcher::directory)
+        .or(() -> this.poller.flatMap(JWDirectoryPoller::directory));
+
+    return current.equals(Optional.of(directory));
+  }
+
+  /**
+   * Stop observing the current directory, releasing any resources, until
+   * {@link #resume()} is called.
+   */
+
+  public void suspend()
+  {
+    this.watcher.ifPresent(JWDirectoryWatcher::close);
+    this.poller.ifPresent(JWDirectoryPoller::close);
+  }
+
+  /**
+   * Resume observing the most recently requested directory.
+   */
+
+  public void resume()
+  {
+    this.watcher.ifPresent(w -> w.watch(w.directory()));
+    this.poller.ifPresent(p -> p.watch(p.directory()));
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A poller that observes a single directory on filesystems that do not
+ * provide a watch service.
+ *
+ * The poller examines only the modification time and file key of the
+ * directory, which change when entries are added, removed, or renamed (but
+ * not when the contents of existing files change). Successive observations
+ * are compared directly: the rule that treats recently modified directories
+ * as changed applies only to validating cached listings, and would
+ * otherwise cause the directory to be listed again on every poll for a
+ * short time after each change. When the directory is
+ * observed to have changed, the receiver is notified so that it can list
+ * the directory again. Each poll that observes no change doubles the
+ * interval before the next poll, up to a limit; a change restores the
+ * original interval.
+ */
+
+public final class JWDirectoryPoller implements AutoCloseable
+{
+  /**
+   * The maximum factor by which the polling interval is lengthened.
+   */
+
+  public static final int MAXIMUM_BACKOFF_FACTOR = 16;
+
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWDirectoryPoller.class);
+
+  private final Consumer<Path> receiver;
+  private final JWFileChooserMetricsType metrics;
+  private final long intervalNanos;
+  private final long maximumNanos;
+  private Optional<Path> desired;
+  private long generation;
+  private boolean closed;
+  private Thread thread;
+
+  private JWDirectoryPoller(
+    final Duration inInterval,
+    final JWFileChooserMetricsType inMetrics,
+    final Consumer<Path> inReceiver)
+  {
+    this.intervalNanos = inInterval.toNanos();
+    this.maximumNanos = this.intervalNanos * MAXIMUM_BACKOFF_FACTOR;
+    this.metrics = inMetrics;
+    this.receiver = inReceiver;
+    this.desired = Optional.empty();
+  }
+
+  /**
+   * Create a new poller. The poller does nothing until it is asked to poll a
+   * directory.
+   *
+   * @param interval The initial polling interval
+   * @param metrics  The receiver of attribute reads
+   * @param receiver The receiver of changed directories, called on a
+   *                 background thread
+   *
+   * @return A new poller
+   */
+
+  public static JWDirectoryPoller create(
+    final Duration interval,
+    final JWFileChooserMetricsType metrics,
+    final Consumer<Path> receiver)
+  {
+    Objects.requireNonNull(interval, "interval");
+    Objects.requireNonNull(metrics, "metrics");
+    Objects.requireNonNull(receiver, "receiver");
+
+    if (!interval.isPositive()) {
+      throw new IllegalArgumentException(
+        "Polling interval %s must be positive".formatted(interval));
+    }
+    return new JWDirectoryPoller(interval, metrics, receiver);
+  }
+
+  /**
+   * Start polling the given directory, or stop polling if no directory is
+   * given. Any previously polled directory is no longer polled.
+   *
+   * @param directory The directory
+   */
+
+  public synchronized void watch(
+    final Optional<Path> directory)
+  {
+    Objects.requireNonNull(directory, "directory");
+
+    this.desired = directory;
+    this.closed = false;
+    this.generation += 1L;
+    this.notifyAll();
+
+    if (this.thread == null && directory.isPresent()) {
+      this.thread =
+        Thread.ofVirtual()
+          .name("com.io7m.jwheatsheaf.poller")
+          .start(this::run);
+    }
+  }
+
+  /**
+   * @return The directory most recently requested with
+   * {@link #watch(Optional)}
+   */
+
+  public synchronized Optional<Path> directory()
+  {
+    return this.desired;
+  }
+
+  private void run()
+  {
+    var seen = -1L;
+    var delay = this.intervalNanos;
+    JWDirectoryStamp previous = null;
+
+    try {
+      while (true) {
+        final Path target;
+        synchronized (this) {
+          if (this.closed || this.desired.isEmpty()) {
+            this.thread = null;
+            return;
+          }
+
+          if (this.generation != seen) {
+            seen = this.generation;
+            previous = null;
+            delay = this.intervalNanos;
+          } else if (!this.awaitPoll(seen, delay)) {
+            continue;
+          }
+          target = this.desired.get();
+        }
+
+        final var current = this.observe(target);
+        if (previous != null && current != null
+          && !previous.isSameStateAs(current)) {
+          delay = this.intervalNanos;
+          this.deliver(seen, target);
+        } else {
+          delay = Math.min(delay * 2L, this.maximumNanos);
+        }
+        previous = current;
+      }
+    } catch (final InterruptedException e) {
+      synchronized (this) {
+        this.thread = null;
+      }
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Wait for the given delay to elapse.
+   *
+   * @return {@code false} if the poller was asked to poll a different
+   * directory, or was closed, before the delay elapsed
+   */
+
+  private boolean awaitPoll(
+    final long seen,
+    final long delay)
+    throws InterruptedException
+  {
+    final var deadline = System.nanoTime() + delay;
+    var remaining = delay;
+    while (remaining > 0L) {
+      if (this.generation != seen || this.closed) {
+        return false;
+      }
+      this.wait(
+        Math.max(1L, remaining / 1_000_000L),
+        (int) (remaining % 1_000_000L)
+      );
+      remaining = deadline - System.nanoTime();
+    }
+    return this.generation == seen && !this.closed;
+  }
+
+  private JWDirectoryStamp observe(
+    final Path target)
+  {
+    try {
+      return JWDirectoryStamp.of(target, this.metrics);
+    } catch (final IOException e) {
+      LOG.debug("unable to poll {}: ", target, e);
+      return null;
+    }
+  }
+
+  private void deliver(
+    final long seen,
+    final Path target)
+  {
+    synchronized (this) {
+      if (this.generation != seen || this.closed) {
+        return;
+      }
+    }
+
+    try {
+      this.receiver.accept(target);
+    } catch (final Exception e) {
+      LOG.error("exception raised by change receiver: ", e);
+    }
+  }
+
+  /**
+   * Stop polling. The poller may be used again after closing; the most
+   * recently requested directory is retained.
+   */
+
+  @Override
+  public synchronized void close()
+  {
+    this.closed = true;
+    this.notifyAll();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The observed state of a directory, used to decide whether a previously
+ * produced listing of the directory is still current. Adding, removing, or
+ * renaming an entry updates the modification time of a directory, and
+ * replacing a directory changes its file key (on filesystems that provide
+ * file keys). File keys cannot be persisted, and so are only compared when
+ * both stamps have one.
+ *
+ * @param modified The modification time of the directory
+ * @param fileKey  The file key of the directory, or {@code null} if the
+ *                 filesystem does not provide file keys
+ * @param observed The time at which the directory was observed
+ */
+
+public record JWDirectoryStamp(
+  FileTime modified,
+  Object fileKey,
+  Instant observed)
+{
+  /**
+   * Modification times may have a coarse granularity, so a directory that
+   * was modified shortly before it was observed may be modified again
+   * without its modification time changing. Stamps observed within this
+   * interval of the modification time are never considered current.
+   */
+
+  private static final Duration RACY_INTERVAL = Duration.ofSeconds(2L);
+
+  /**
+   * The observed state of a directory.
+   */
+
+  public JWDirectoryStamp
+  {
+    Objects.requireNonNull(modified, "modified");
+    Objects.requireNonNull(observed, "observed");
+  }
+
+  /**
+   * Observe the given directory.
+   *
+   * @param directory The directory
+   *
+   * @return The observed state of the directory
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JWDirectoryStamp of(
+    final Path directory)
+    throws IOException
+  {
+    return of(directory, JWFileChooserMetricsNone.get());
+  }
+
+  /**
+   * Observe the given directory, reporting the attribute read (whether or
+   * not it succeeds) to the given metrics receiver.
+   *
+   * @param directory The directory
+   * @param metrics   The receiver of attribute reads
+   *
+   * @return The observed state of the directory
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JWDirectoryStamp of(
+    final Path directory,
+    final JWFileChooserMetricsType metrics)
+    throws IOException
+  {
+    Objects.requireNonNull(directory, "directory");
+    Objects.requireNonNull(metrics, "metrics");
+
+    final var observed =
+      Instant.now();
+
+    metrics.onAttributesRead(1);
+    final var attributes =
+      Files.readAttributes(directory, BasicFileAttributes.class);
+
+    return new JWDirectoryStamp(
+      attributes.lastModifiedTime(),
+      attributes.fileKey(),
+      observed
+    );
+  }
+
+  /**
+   * Determine whether a later observation of the same directory observed
+   * the same modification time and file key. Unlike
+   * {@link #isUnchangedAt(JWDirectoryStamp)}, a recent modification time is
+   * not treated as a change.
+   *
+   * @param later The later observation
+   *
+   * @return {@code true} if both observations are the same
+   */
+
+  public boolean isSameStateAs(
+    final JWDirectoryStamp later)
+  {
+    Objects.requireNonNull(later, "later");
+
+    return Objects.equals(this.fileKey, later.fileKey)
+      && Objects.equals(this.modified, later.modified);
+  }
+
+  /**
+   * Determine whether a listing produced after observing this stamp is still
+   * current, given a later observation of the same directory.
+   *
+   * @param later The later observation
+   *
+   * @return {@code true} if the directory has not changed
+   */
+
+  public boolean isUnchangedAt(
+    final JWDirectoryStamp later)
+  {
+    Objects.requireNonNull(later, "later");
+
+    final var racy =
+      !this.modified.toInstant()
+        .isBefore(this.observed.minus(RACY_INTERVAL));
+
+    final var sameKey =
+      this.fileKey == null
+        || later.fileKey == null
+        || Objects.equals(this.fileKey, later.fileKey);
+
+    return !racy && sameKey && Objects.equals(this.modified, later.modified);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The fetching of attributes for a directory table populated by name-only
+ * listings.
+ *
+ * The attributes of the items in visible rows are fetched as the rows are
+ * shown. The attributes of every item are fetched only when the table
+ * cannot be presented correctly without them: when the table is sorted by
+ * any column other than the name column, or when the selected filter may
+ * examine file attributes.
+ */
+
+public final class JWDirectoryTableAttributes
+{
+  private final JWFileAttributeFetcher fetcher;
+  private final TableView<JWFileItem> table;
+  private final TableColumn<JWFileItem, ?> nameColumn;
+  private final JWFileList fileListing;
+  private boolean filterRequiresAttributes;
+
+  private JWDirectoryTableAttributes(
+    final ExecutorService ioExecutor,
+    final TableView<JWFileItem> inTable,
+    final TableColumn<JWFileItem, ?> inNameColumn,
+    final JWFileList inFileListing)
+  {
+    this.table = inTable;
+    this.nameColumn = inNameColumn;
+    this.fileListing = inFileListing;
+    this.fetcher =
+      JWFileAttributeFetcher.create(
+        ioExecutor,
+        JWFileItems.DEFAULT_BATCH_SIZE,
+        JWFileItems.DEFAULT_BATCH_INTERVAL,
+        inFileListing.metrics(),
+        this::onAttributesFetched
+      );
+  }
+
+  private void onAttributesFetched(
+    final List<JWFileItem> items)
+  {
+    JWFXUpdates.runLater(
+      this.fileListing.metrics(),
+      "attributesFetched",
+      () -> this.fileListing.replaceItems(items)
+    );
+  }
+
+  /**
+   * Install lazy attribute fetching into the given table, if the
+   * configuration calls for it.
+   *
+   * @param configuration The file chooser configuration
+   * @param ioExecutor    The I/O executor
+   * @param table         The directory table
+   * @param nameColumn    The column of file names
+   * @param fileListing   The file listing shown in the table
+   *
+   * @return The attribute fetching for the table, if enabled
+   *
+   * @see JWFileChooserConfiguration#fetchFileAttributesLazily()
+   */
+
+  public static Optional<JWDirectoryTableAttributes> installIfEnabled(
+    final JWFileChooserConfiguration configuration,
+    final ExecutorService ioExecutor,
+    final TableView<JWFileItem> table,
+    final TableColumn<JWFileItem, ?> nameColumn,
+    final JWFileList fileListing)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(ioExecutor, "ioExecutor");
+    Objects.requireNonNull(table, "table");
+    Objects.requireNonNull(nameColumn, "nameColumn");
+    Objects.requireNonNull(fileListing, "fileListing");
+
+    if (!configuration.fetchFileAttributesLazily()) {
+      return Optional.empty();
+    }
+
+    final var attributes =
+      new JWDirectoryTableAttributes(
+        ioExecutor, table, nameColumn, fileListing);
+
+    table.setRowFactory(
+      t -> new JWFileItemTableRow(attributes.fetcher::request));
+    table.getSortOrder()
+      .addListener((ListChangeListener<TableColumn<JWFileItem, ?>>) c -> {
+        attributes.fetchAllIfRequired(fileListing.pendingPaths());
+      });
+    return Optional.of(attributes);
+  }
+
+  private boolean requiresAllAttributes()
+  {
+    if (this.filterRequiresAttributes) {
+      return true;
+    }
+    for (final var column : this.table.getSortOrder()) {
+      if (column != this.nameColumn) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void fetchAllIfRequired(
+    final List<Path> pending)
+  {
+    Preconditions.checkPreconditionV(
+      Platform.isFxApplicationThread(),
+      "Must be the FX application thread");
+
+    if (!pending.isEmpty() && this.requiresAllAttributes()) {
+      this.fetcher.requestAll(pending);
+    }
+  }
+
+  /**
+   * Discard any outstanding fetches. This is called when a new listing is
+   * started.
+   */
+
+  public void reset()
+  {
+    this.fetcher.reset();
+  }
+
+  /**
+   * Items were added to the listing. If the attributes of every item are
+   * required, the pending attributes of the given items are fetched.
+   *
+   * @param items The listed items
+   */
+
+  public void onItemsListed(
+    final List<JWFileItem> items)
+  {
+    Objects.requireNonNull(items, "items");
+
+    final var pending = new ArrayList<Path>(items.size());
+    for (final var item : items) {
+      if (item.attributesPending()) {
+        pending.add(item.path());
+      }
+    }
+    this.fetchAllIfRequired(pending);
+  }
+
+  /**
+   * The selected filter changed.
+   *
+   * @param requiresAttributes {@code true} if the filter may examine file
+   *                           attributes
+   */
+
+  public void onFilterChanged(
+    final boolean requiresAttributes)
+  {
+    this.filterRequiresAttributes = requiresAttributes;
+    this.fetchAllIfRequired(this.fileListing.pendingPaths());
+  }
+}
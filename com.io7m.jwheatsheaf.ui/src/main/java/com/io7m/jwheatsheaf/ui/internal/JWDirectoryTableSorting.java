@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+import javafx.application.Platform;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The sorting of a directory table.
+ *
+ * The table's default sort policy sorts the items on the FX application
+ * thread, comparing the boxed cell values of each pair of rows. Instead,
+ * the sort columns of the table are translated into a {@link JWFileSortOrder},
+ * and small tables are sorted immediately using primitive sort keys. Large
+ * tables are sorted on the chooser's I/O executor, and the resulting order
+ * is applied in a single update; if the visible items changed while the sort
+ * was running, the sort is repeated. Starting a sort cancels any background
+ * sort that is still running.
+ */
+
+public final class JWDirectoryTableSorting
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWDirectoryTableSorting.class);
+
+  /**
+   * Tables with at most this many visible items are sorted immediately.
+   */
+
+  public static final int SYNCHRONOUS_LIMIT = 10_000;
+
+  private final TableView<JWFileItem> table;
+  private final Map<TableColumn<JWFileItem, ?>, JWFileSortOrder.Field> fields;
+  private final JWFileList fileListing;
+  private final ExecutorService ioExecutor;
+  private JWFileList.SortRequest latest;
+  private Future<?> sortTask;
+
+  private JWDirectoryTableSorting(
+    final TableView<JWFileItem> inTable,
+    final Map<TableColumn<JWFileItem, ?>, JWFileSortOrder.Field> inFields,
+    final JWFileList inFileListing,
+    final ExecutorService inIoExecutor)
+  {
+    this.table = inTable;
+    this.fields = inFields;
+    this.fileListing = inFileListing;
+    this.ioExecutor = inIoExecutor;
+  }
+
+  /**
+   * Install sorting into the given table.
+   *
+   * @param table        The directory table
+   * @param typeColumn   The column of file types
+   * @param nameColumn   The column of file names
+   * @param sizeColumn   The column of file sizes
+   * @param timeColumn   The column of file modification times
+   * @param fileListing  The file listing shown in the table
+   * @param ioExecutor   The executor on which large tables are sorted
+   *
+   * @return The sorting for the table
+   */
+
+  public static JWDirectoryTableSorting install(
+    final TableView<JWFileItem> table,
+    final TableColumn<JWFileItem, ?> typeColumn,
+    final TableColumn<JWFileItem, ?> nameColumn,
+    final TableColumn<JWFileItem, ?> sizeColumn,
+    final TableColumn<JWFileItem, ?> timeColumn,
+    final JWFileList fileListing,
+    final ExecutorService ioExecutor)
+  {
+    Objects.requireNonNull(table, "table");
+    Objects.requireNonNull(fileListing, "fileListing");
+    Objects.requireNonNull(ioExecutor, "ioExecutor");
+
+    final var sorting =
+      new JWDirectoryTableSorting(
+        table,
+        Map.of(
+          typeColumn, JWFileSortOrder.Field.TYPE,
+          nameColumn, JWFileSortOrder.Field.NAME,
+          sizeColumn, JWFileSortOrder.Field.SIZE,
+          timeColumn, JWFileSortOrder.Field.TIME
+        ),
+        fileListing,
+        ioExecutor
+      );
+
+    table.setSortPolicy(t -> {
+      sorting.sort();
+      return Boolean.TRUE;
+    });
+    return sorting;
+  }
+
+  /**
+   * @return The sort order described by the table's sort columns
+   */
+
+  public JWFileSortOrder order()
+  {
+    final var columns = new ArrayList<JWFileSortOrder.Column>();
+    for (final var column : this.table.getSortOrder()) {
+      final var field = this.fields.get(column);
+      if (field != null) {
+        columns.add(
+          new JWFileSortOrder.Column(
+            field,
+            column.getSortType() == TableColumn.SortType.ASCENDING
+          )
+        );
+      }
+    }
+    return new JWFileSortOrder(columns);
+  }
+
+  private void sort()
+  {
+    Preconditions.checkPreconditionV(
+      Platform.isFxApplicationThread(),
+      "Must be the FX application thread");
+
+    this.cancelRunningSort();
+
+    final var request = this.fileListing.sortRequest(this.order());
+    this.latest = request;
+
+    if (request.items().size() <= SYNCHRONOUS_LIMIT) {
+      this.fileListing.applySort(request, request.sort());
+      return;
+    }
+
+    this.sortTask = this.ioExecutor.submit(() -> {
+      this.runSort(request);
+    });
+  }
+
+  /**
+   * Interrupt the most recently started background sort, if any. A sort
+   * that has not yet started will not run, and the result of a sort that
+   * is already running is discarded.
+   */
+
+  private void cancelRunningSort()
+  {
+    final var task = this.sortTask;
+    if (task != null) {
+      task.cancel(true);
+      this.sortTask = null;
+    }
+  }
+
+  private void runSort(
+    final JWFileList.SortRequest request)
+  {
+    try {
+      final var permutation = request.sort();
+      if (Thread.currentThread().isInterrupted()) {
+        LOG.debug("superseded sort discarded");
+        return;
+      }
+      JWFXUpdates.runLater(
+        this.fileListing.metrics(),
+        "sorted",
+        () -> this.onSorted(request, permutation)
+      );
+    } catch (final RuntimeException e) {
+      LOG.error("exception during sort: ", e);
+    }
+  }
+
+  private void onSorted(
+    final JWFileList.SortRequest request,
+    final int[] permutation)
+  {
+    if (request != this.latest) {
+      return;
+    }
+    this.sortTask = null;
+    if (!this.fileListing.applySort(request, permutation)) {
+      this.sort();
+    }
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * A watcher that observes a single directory using the filesystem's
+ * {@link WatchService}.
+ *
+ * Events are coalesced: after a change is observed, the watcher continues
+ * to collect events until at least one coalescing interval has passed since
+ * the previous set of changes was delivered. Only the entries named by the
+ * collected events are resolved again, and the changes are delivered as a
+ * single batch. If the watch service reports that events were lost, the
+ * batch is marked as incomplete so that the receiver can list the directory
+ * again.
+ *
+ * Waiting for events occupies a thread for as long as a directory is
+ * watched, so the watcher waits on a dedicated virtual thread rather than
+ * on the (possibly single-threaded) I/O executor.
+ */
+
+public final class JWDirectoryWatcher implements AutoCloseable
+{
+  /**
+   * The default coalescing interval, roughly one frame at 60Hz.
+   */
+
+  public static final Duration DEFAULT_COALESCE_INTERVAL =
+    Duration.ofMillis(16L);
+
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWDirectoryWatcher.class);
+
+  private final FileSystem fileSystem;
+  private final ExecutorService executor;
+  private final Consumer<JWDirectoryChanges> receiver;
+  private final JWFileChooserMetricsType metrics;
+  private final long intervalNanos;
+  private Optional<Path> desired;
+  private boolean closed;
+  private WatchService service;
+  private WatchKey key;
+  private Path watched;
+
+  private JWDirectoryWatcher(
+    final FileSystem inFileSystem,
+    final ExecutorService inExecutor,
+    final Duration inInterval,
+    final JWFileChooserMetricsType inMetrics,
+    final Consumer<JWDirectoryChanges> inReceiver)
+  {
+    this.fileSystem = inFileSystem;
+    this.executor = inExecutor;
+    this.intervalNanos = inInterval.toNanos();
+    this.metrics = inMetrics;
+    this.receiver = inReceiver;
+    this.desired = Optional.empty();
+  }
+
+  /**
+   * Create a new watcher. The watcher does nothing until it is asked to
+   * watch a directory.
+   *
+   * @param fileSystem The filesystem containing the watched directories
+   * @param executor   The executor used to register watches
+   * @param interval   The coalescing interval
+   * @param metrics    The receiver of attribute reads
+   * @param receiver   The receiver of changes, called on a background thread
+   *
+   * @return A new watcher
+   */
+
+  public static JWDirectoryWatcher create(
+    final FileSystem fileSystem,
+    final ExecutorService executor,
+    final Duration interval,
+    final JWFileChooserMetricsType metrics,
+    final Consumer<JWDirectoryChanges> receiver)
+  {
+    return new JWDirectoryWatcher(
+      Objects.requireNonNull(fileSystem, "fileSystem"),
+      Objects.requireNonNull(executor, "executor"),
+      Objects.requireNonNull(interval, "interval"),
+      Objects.requireNonNull(metrics, "metrics"),
+      Objects.requireNonNull(receiver, "receiver")
+    );
+  }
+
+  /**
+   * Determine whether the given filesystem provides a watch service.
+   *
+   * @param fileSystem The filesystem
+   *
+   * @return {@code true} if directories on the filesystem can be watched
+   */
+
+  public static boolean isSupportedBy(
+    final FileSystem fileSystem)
+  {
+    Objects.requireNonNull(fileSystem, "fileSystem");
+
+    try (var service = fileSystem.newWatchService()) {
+      return service != null;
+    } catch (final IOException | UnsupportedOperationException e) {
+      LOG.debug("watch service unavailable: ", e);
+      return false;
+    }
+  }
+
+  /**
+   * Start watching the given directory, or stop watching if no directory is
+   * given. Any previously watched directory is no longer watched. The watch
+   * is registered asynchronously.
+   *
+   * @param directory The directory
+   */
+
+  public void watch(
+    final Optional<Path> directory)
+  {
+    Objects.requireNonNull(directory, "directory");
+
+    synchronized (this) {
+      this.desired = directory;
+      this.closed = false;
+    }
+    this.executor.execute(this::register);
+  }
+
+  /**
+   * @return The directory most recently requested with
+   * {@link #watch(Optional)}
+   */
+
+  public synchronized Optional<Path> directory()
+  {
+    return this.desired;
+  }
+
+  /**
+   * Bring the registered watch in line with the desired directory.
+   */
+
+  private synchronized void register()
+  {
+    if (this.closed) {
+      return;
+    }
+
+    final var target = this.desired.orElse(null);
+    if (Objects.equals(target, this.watched)
+      && this.key != null
+      && this.key.isValid()) {
+      return;
+    }
+
+    this.cancelKey();
+    if (target == null) {
+      return;
+    }
+
+    try {
+      if (this.service == null) {
+        this.service = this.fileSystem.newWatchService();
+        final var newService = this.service;
+        Thread.ofVirtual()
+          .name("com.io7m.jwheatsheaf.watcher")
+          .start(() -> this.run(newService));
+      }
+      this.key =
+        target.register(this.service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+      this.watched = target;
+    } catch (final IOException | UnsupportedOperationException e) {
+      LOG.debug("unable to watch {}: ", target, e);
+    }
+  }
+
+  private void cancelKey()
+  {
+    if (this.key != null) {
+      this.key.cancel();
+      this.key = null;
+    }
+    this.watched = null;
+  }
+
+  private synchronized Path watchedDirectory()
+  {
+    return this.watched;
+  }
+
+  private void run(
+    final WatchService watchService)
+  {
+    var lastDelivery = System.nanoTime() - this.intervalNanos;
+    try {
+      while (true) {
+        final var batch = new Batch();
+        this.collect(watchService.take(), batch);
+
+        final var deadline = lastDelivery + this.intervalNanos;
+        var remaining = deadline - System.nanoTime();
+        while (remaining > 0L) {
+          final var next =
+            watchService.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next != null) {
+            this.collect(next, batch);
+          }
+          remaining = deadline - System.nanoTime();
+        }
+
+        var pending = watchService.poll();
+        while (pending != null) {
+          this.collect(pending, batch);
+          pending = watchService.poll();
+        }
+
+        this.deliver(batch);
+        lastDelivery = System.nanoTime();
+      }
+    } catch (final ClosedWatchServiceException | InterruptedException e) {
+      LOG.debug("watch service closed");
+    }
+  }
+
+  private void collect(
+    final WatchKey watchKey,
+    final Batch batch)
+  {
+    final var directory = (Path) watchKey.watchable();
+    final var events = watchKey.pollEvents();
+    watchKey.reset();
+
+    if (!Objects.equals(directory, this.watchedDirectory())) {
+      return;
+    }
+
+    if (batch.directory == null) {
+      batch.directory = directory;
+    } else if (!Objects.equals(batch.directory, directory)) {
+      batch.paths.clear();
+      batch.directory = directory;
+      batch.complete = true;
+    }
+
+    for (final var event : events) {
+      if (event.kind() == OVERFLOW) {
+        batch.complete = false;
+      } else if (event.context() instanceof final Path name) {
+        batch.paths.add(directory.resolve(name));
+      }
+    }
+  }
+
+  private void deliver(
+    final Batch batch)
+  {
+    if (batch.directory == null) {
+      return;
+    }
+
+    final var changed = new ArrayList<JWFileItem>(batch.paths.size());
+    final var removed = new HashSet<Path>();
+    if (batch.complete) {
+      for (final var path : batch.paths) {
+        JWFileItems.resolveExistingFileItem(path, this.metrics)
+          .ifPresentOrElse(changed::add, () -> removed.add(path));
+      }
+    }
+
+    final var changes =
+      new JWDirectoryChanges(batch.directory, changed, removed, batch.complete);
+
+    if (!changes.isEmpty()) {
+      try {
+        this.receiver.accept(changes);
+      } catch (final Exception e) {
+        LOG.error("exception raised by change receiver: ", e);
+      }
+    }
+  }
+
+  /**
+   * Stop watching, and release the watch service. The watcher may be used
+   * again after closing; the most recently requested directory is retained.
+   */
+
+  @Override
+  public void close()
+  {
+    synchronized (this) {
+      this.closed = true;
+      this.cancelKey();
+
+      if (this.service != null) {
+        try {
+          this.service.close();
+        } catch (final IOException e) {
+          LOG.debug("unable to close watch service: ", e);
+        }
+        this.service = null;
+      }
+    }
+  }
+
+  private static final class Batch
+  {
+    private final Set<Path> paths;
+    private Path directory;
+    private boolean complete;
+
+    Batch()
+    {
+      this.paths = new HashSet<>();
+      this.complete = true;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+import javafx.application.Platform;
+
+import java.time.Duration;
+
+/**
+ * Functions to apply updates on the FX application thread, reporting the
+ * time spent on the thread by each update. Each update is also recorded as
+ * a {@link JWFXUpdateEvent} when flight recording is enabled.
+ */
+
+final class JWFXUpdates
+{
+  private JWFXUpdates()
+  {
+
+  }
+
+  /**
+   * Apply the given update on the FX application thread at some point in
+   * the future.
+   *
+   * @param metrics   The metrics receiver
+   * @param operation The name of the update, used in flight recordings
+   * @param update    The update
+   */
+
+  static void runLater(
+    final JWFileChooserMetricsType metrics,
+    final String operation,
+    final Runnable update)
+  {
+    Platform.runLater(() -> {
+      final var event = new JWFXUpdateEvent();
+      event.begin();
+      final var timeStarted = System.nanoTime();
+      try {
+        update.run();
+      } finally {
+        metrics.onFXThreadUpdate(
+          Duration.ofNanos(System.nanoTime() - timeStarted));
+        if (event.shouldCommit()) {
+          event.setOperation(operation);
+          event.commit();
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A background fetcher of file attributes for items produced by a
+ * name-only listing.
+ *
+ * Paths are fetched in two tiers. Paths that are explicitly requested (such
+ * as those of the rows currently visible in a table) are fetched first, in
+ * the order in which they were requested. Paths queued with
+ * {@link #requestAll(Collection)} are fetched only when there are no
+ * explicitly requested paths remaining. Each path is fetched at most once
+ * until the fetcher is reset. Resolved items are delivered in batches, in
+ * the same manner as directory listings.
+ */
+
+public final class JWFileAttributeFetcher
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWFileAttributeFetcher.class);
+
+  private final Executor executor;
+  private final Consumer<List<JWFileItem>> receiver;
+  private final JWFileChooserMetricsType metrics;
+  private final int batchSizeMaximum;
+  private final long intervalNanos;
+  private final LinkedHashSet<Path> requested;
+  private final ArrayDeque<Path> background;
+  private final Set<Path> fetched;
+  private long generation;
+  private boolean running;
+
+  private JWFileAttributeFetcher(
+    final Executor inExecutor,
+    final int inBatchSizeMaximum,
+    final Duration inBatchInterval,
+    final JWFileChooserMetricsType inMetrics,
+    final Consumer<List<JWFileItem>> inReceiver)
+  {
+    this.executor = inExecutor;
+    this.batchSizeMaximum = inBatchSizeMaximum;
+    this.intervalNanos = inBatchInterval.toNanos();
+    this.metrics = inMetrics;
+    this.receiver = inReceiver;
+    this.requested = new LinkedHashSet<>();
+    this.background = new ArrayDeque<>();
+    this.fetched = new HashSet<>();
+  }
+
+  /**
+   * Create a new fetcher.
+   *
+   * @param executor         The executor on which attributes are fetched
+   * @param batchSizeMaximum The maximum number of items in a batch
+   * @param batchInterval    The maximum time between batches
+   * @param metrics          The receiver of attribute reads
+   * @param receiver         The receiver of resolved items, called on a
+   *                         background thread
+   *
+   * @return A new fetcher
+   */
+
+  public static JWFileAttributeFetcher create(
+    final Executor executor,
+    final int batchSizeMaximum,
+    final Duration batchInterval,
+    final JWFileChooserMetricsType metrics,
+    final Consumer<List<JWFileItem>> receiver)
+  {
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(batchInterval, "batchInterval");
+    Objects.requireNonNull(metrics, "metrics");
+    Objects.requireNonNull(receiver, "receiver");
+
+    if (batchSizeMaximum <= 0) {
+      throw new IllegalArgumentException(
+        "Batch size %d must be positive".formatted(
+          Integer.valueOf(batchSizeMaximum)));
+    }
+
+    return new JWFileAttributeFetcher(
+      executor,
+      batchSizeMaximum,
+      batchInterval,
+      metrics,
+      receiver
+    );
+  }
+
+  /**
+   * Discard all queued paths. Items resolved for paths queued before the
+   * reset are not delivered.
+   */
+
+  public synchronized void reset()
+  {
+    this.generation += 1L;
+    this.requested.clear();
+    this.background.clear();
+    this.fetched.clear();
+  }
+
+  /**
+   * Request that the attributes of the given path be fetched ahead of any
+   * paths queued with {@link #requestAll(Collection)}.
+   *
+   * @param path The path
+   */
+
+  public synchronized void request(
+    final Path path)
+  {
+    Objects.requireNonNull(path, "path");
+
+    if (!this.fetched.contains(path) && this.requested.add(path)) {
+      this.schedule();
+    }
+  }
+
+  /**
+   * Request that the attributes of all the given paths be fetched, after any
+   * explicitly requested paths.
+   *
+   * @param paths The paths
+   */
+
+  public synchronized void requestAll(
+    final Collection<Path> paths)
+  {
+    Objects.requireNonNull(paths, "paths");
+
+    for (final var path : paths) {
+      if (!this.fetched.contains(path)) {
+        this.background.add(path);
+      }
+    }
+    if (!this.background.isEmpty()) {
+      this.schedule();
+    }
+  }
+
+  /**
+   * @return The number of paths waiting to be fetched
+   */
+
+  public synchronized int queued()
+  {
+    return this.requested.size() + this.background.size();
+  }
+
+  private void schedule()
+  {
+    if (!this.running) {
+      this.running = true;
+      this.executor.execute(this::run);
+    }
+  }
+
+  private synchronized Queued next()
+  {
+    while (true) {
+      final Path path;
+      if (!this.requested.isEmpty()) {
+        path = this.requested.removeFirst();
+      } else if (!this.background.isEmpty()) {
+        path = this.background.removeFirst();
+      } else {
+        this.running = false;
+        return null;
+      }
+
+      if (this.fetched.add(path)) {
+        return new Queued(path, this.generation);
+      }
+    }
+  }
+
+  private synchronized long currentGeneration()
+  {
+    return this.generation;
+  }
+
+  private void run()
+  {
+    final var batch = new ArrayList<JWFileItem>();
+    var batchGeneration = this.currentGeneration();
+    var batchStarted = System.nanoTime();
+
+    try {
+      while (true) {
+        final var queued = this.next();
+        if (queued == null) {
+          break;
+        }
+
+        if (queued.generation != batchGeneration) {
+          batch.clear();
+          batchGeneration = queued.generation;
+        }
+        batch.add(JWFileItems.resolveFileItem(queued.path, this.metrics));
+
+        final var now = System.nanoTime();
+        if (batch.size() >= this.batchSizeMaximum
+          || now - batchStarted >= this.intervalNanos) {
+          this.deliver(batchGeneration, batch);
+          batchStarted = now;
+        }
+      }
+      this.deliver(batchGeneration, batch);
+    } catch (final RuntimeException e) {
+      LOG.error("exception raised fetching attributes: ", e);
+      synchronized (this) {
+        this.running = false;
+      }
+    }
+  }
+
+  private void deliver(
+    final long batchGeneration,
+    final List<JWFileItem> batch)
+  {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    final var items = List.copyOf(batch);
+    batch.clear();
+
+    if (batchGeneration != this.currentGeneration()) {
+      return;
+    }
+
+    try {
+      this.receiver.accept(items);
+    } catch (final Exception e) {
+      LOG.error("exception raised by attribute receiver: ", e);
+    }
+  }
+
+  private record Queued(
+    Path path,
+    long generation)
+  {
+
+  }
+}
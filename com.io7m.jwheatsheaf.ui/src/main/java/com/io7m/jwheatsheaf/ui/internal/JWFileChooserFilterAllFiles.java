@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileInfoType;
 
 import java.nio.file.Path;
 import java.util.Objects;
@@ -63,4 +64,10 @@ public final class JWFileChooserFilterAllFiles implements
   {
     return true;
   }
+
+  @Override
+  public boolean isAllowed(final JWFileInfoType file)
+  {
+    return true;
+  }
 }
@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileInfoType;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -64,4 +65,10 @@ public final class JWFileChooserFilterOnlyDirectories
   {
     return Files.isDirectory(path);
   }
+
+  @Override
+  public boolean isAllowed(final JWFileInfoType file)
+  {
+    return file.isDirectory();
+  }
 }
@@ -21,6 +21,7 @@ import com.io7m.jwheatsheaf.api.JWDirectoryCreationFailed;
 import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
 import com.io7m.jwheatsheaf.api.JWFileChooserEventType;
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
 import com.io7m.jwheatsheaf.api.JWFileImageSetType;
 import com.io7m.jwheatsheaf.api.JWFileListingFailed;
 import com.io7m.jwheatsheaf.ui.JWFileChoosers;
@@ -64,10 +65,15 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static javafx.scene.control.Alert.AlertType.CONFIRMATION;
@@ -90,8 +96,10 @@ public final class JWFileChooserViewController
   };
 
   private final AtomicReference<Consumer<JWFileChooserEventType>> eventReceiver;
+  private final AtomicLong listingGeneration;
   private final BlockingDeque<String> initialFilename;
   private final ChangeListener<Path> listener;
+  private final JWFileListingRestriction restriction;
   @FXML private Button homeDirectoryButton;
   @FXML private Button newDirectoryButton;
   @FXML private Button okButton;
@@ -112,10 +120,16 @@ public final class JWFileChooserViewController
   private JWFileChoosers choosers;
   private JWFileChoosersTesting testing;
   private JWFileImageSetType imageSet;
+  private JWImages imageCache;
   private JWFileList fileListing;
+  private JWFileListingCache listingCache;
+  private JWFileChooserMetricsType metrics;
+  private JWDirectoryMonitor directoryMonitor;
+  private Optional<JWDirectoryTableAttributes> lazyAttributes;
   private JWStrings strings;
   private JWToolTips toolTips;
   private List<Node> lockableViews;
+  private Future<?> listingTask;
   private volatile List<Path> result;
   private TableView.TableViewSelectionModel<JWFileItem> directoryTableSelectionModel;
   private volatile Path currentDirectory;
@@ -129,6 +143,8 @@ public final class JWFileChooserViewController
     this.listener = this::onPathMenuItemSelected;
     this.result = List.of();
     this.initialFilename = new LinkedBlockingDeque<>();
+    this.listingGeneration = new AtomicLong(0L);
+    this.restriction = new JWFileListingRestriction();
     this.eventReceiver = new AtomicReference<>(event -> {
     });
   }
@@ -173,7 +189,10 @@ public final class JWFileChooserViewController
    * @param inIoExecutor      An executor for background I/O operations
    * @param inTesting         An internal testing interface
    * @param inStrings         UI strings
-   * @param inDefaultImageSet The default image set
+   * @param inImageSet        The image set
+   * @param inImageCache      The cache of decoded images for the image set
+   * @param inListingCache    The cache of directory listings
+   * @param inMetrics         The receiver of performance measurements
    * @param inConfiguration   The configuration
    */
 
@@ -182,7 +201,10 @@ public final class JWFileChooserViewController
     final ExecutorService inIoExecutor,
     final JWFileChoosersTesting inTesting,
     final JWStrings inStrings,
-    final JWFileImageSetType inDefaultImageSet,
+    final JWFileImageSetType inImageSet,
+    final JWImages inImageCache,
+    final JWFileListingCache inListingCache,
+    final JWFileChooserMetricsType inMetrics,
     final JWFileChooserConfiguration inConfiguration)
   {
     this.choosers =
@@ -195,8 +217,14 @@ public final class JWFileChooserViewController
       Objects.requireNonNull(inStrings, "inStrings");
     this.ioExecutor =
       Objects.requireNonNull(inIoExecutor, "inIoExecutor");
-
-    Objects.requireNonNull(inDefaultImageSet, "inDefaultImageSet");
+    this.imageSet =
+      Objects.requireNonNull(inImageSet, "inImageSet");
+    this.imageCache =
+      Objects.requireNonNull(inImageCache, "inImageCache");
+    this.listingCache =
+      Objects.requireNonNull(inListingCache, "inListingCache");
+    this.metrics =
+      Objects.requireNonNull(inMetrics, "inMetrics");
 
     this.directoryTableSelectionModel =
       this.directoryTable.getSelectionModel();
@@ -208,23 +236,19 @@ public final class JWFileChooserViewController
     this.filterOnlyDirectories =
       JWFileChooserFilterOnlyDirectories.create(this.strings);
     this.fileListing =
-      new JWFileList(this.filterAll);
-
-    this.imageSet =
-      this.configuration.fileImageSet()
-        .orElse(inDefaultImageSet);
+      new JWFileList(this.filterAll, this.metrics);
 
     this.newDirectoryButton.setGraphic(
-      JWImages.imageView16x16Of(this.imageSet.forDirectoryCreate())
+      this.imageCache.imageView16x16Of(this.imageSet.forDirectoryCreate())
     );
     this.upDirectoryButton.setGraphic(
-      JWImages.imageView16x16Of(this.imageSet.forDirectoryUp())
+      this.imageCache.imageView16x16Of(this.imageSet.forDirectoryUp())
     );
     this.selectDirectButton.setGraphic(
-      JWImages.imageView16x16Of(this.imageSet.forSelectDirect())
+      this.imageCache.imageView16x16Of(this.imageSet.forSelectDirect())
     );
     this.homeDirectoryButton.setGraphic(
-      JWImages.imageView16x16Of(this.imageSet.forHome())
+      this.imageCache.imageView16x16Of(this.imageSet.forHome())
     );
 
     final var fileSystem =
@@ -258,9 +282,69 @@ public final class JWFileChooserViewController
       this.upDirectoryButton
     );
 
+    this.directoryMonitor =
+      JWDirectoryMonitor.create(
+        this.configuration,
+        this.ioExecutor,
+        this.metrics,
+        changes -> JWFXUpdates.runLater(
+          this.metrics, "directoryChanged", () -> this.onDirectoryChanged(changes)),
+        path -> JWFXUpdates.runLater(
+          this.metrics, "directoryPolled", () -> this.onDirectoryPolled(path))
+      );
     this.setCurrentDirectory(startDirectory, AND_THEN_DO_NOTHING);
   }
 
+  /**
+   * The window containing the chooser was shown.
+   */
+
+  public void onWindowShown()
+  {
+    this.directoryMonitor.resume();
+  }
+
+  /**
+   * The window containing the chooser was hidden.
+   */
+
+  public void onWindowHidden()
+  {
+    this.directoryMonitor.suspend();
+  }
+
+  /**
+   * A polled directory was observed to have changed. The directory is listed
+   * again if it is still being polled.
+   */
+
+  private void onDirectoryPolled(
+    final Path directory)
+  {
+    if (this.directoryMonitor.isMonitoring(directory)) {
+      this.refreshDirectoryTable(directory);
+    }
+  }
+
+  /**
+   * Changes were observed in a watched directory. Changes are discarded if
+   * the directory is no longer being watched.
+   */
+
+  private void onDirectoryChanged(
+    final JWDirectoryChanges changes)
+  {
+    if (!this.directoryMonitor.isMonitoring(changes.directory())) {
+      return;
+    }
+
+    if (changes.complete()) {
+      this.fileListing.applyChanges(changes.changed(), changes.removed());
+    } else {
+      this.refreshDirectoryTable(changes.directory());
+    }
+  }
+
   private void configureSearch()
   {
     this.searchField.textProperty()
@@ -285,7 +369,7 @@ public final class JWFileChooserViewController
      */
 
     final var sources = new ArrayList<JWFileSourceEntryType>();
-    sources.add(new JWFileSourceEntryRecentItems(this.configuration));
+    sources.add(new JWFileSourceEntryRecentItems(this.configuration, this.metrics));
     for (final var root : fileSystem.getRootDirectories()) {
       sources.add(new JWFileSourceEntryFilesystemRoot(
         this.configuration.showParentDirectory(), root)
@@ -361,6 +445,7 @@ public final class JWFileChooserViewController
     final Runnable andThen)
   {
     this.currentDirectory = Objects.requireNonNull(path, "path");
+    this.directoryMonitor.monitor(Optional.of(path));
     this.rebuildPathMenu(path);
     this.populateDirectoryTable(path, andThen);
   }
@@ -380,55 +465,336 @@ public final class JWFileChooserViewController
     final Path directory,
     final Runnable andThen)
   {
-    this.populateDirectoryTableWith(
-      () -> JWFileItems.listDirectory(
-        directory,
-        this.configuration.showParentDirectory()),
-      andThen
+    final var cached =
+      this.listingCache.find(directory, this.configuration.showParentDirectory());
+    this.metrics.onCacheLookup(directory, cached.isPresent());
+
+    if (this.lazyAttributes.isEmpty() && cached.isPresent()) {
+      final var retriever =
+        this.retrieverFor(directory, this.restriction.unrestricted());
+      this.revalidateDirectoryTableWith(retriever, cached.get(), andThen);
+    } else if (this.lazyAttributes.isEmpty() && this.listingCache.hasSnapshots()) {
+      final var retriever =
+        this.retrieverFor(directory, this.restriction.unrestricted());
+      this.populateDirectoryTableFromSnapshot(retriever, andThen);
+    } else {
+      final var retriever =
+        this.retrieverFor(directory, this.restriction.restrictTo(this.currentQuery()));
+      this.populateDirectoryTableWith(
+        retriever, this.restriction.afterListing(retriever, andThen));
+    }
+  }
+
+  private JWFileListingQuery currentQuery()
+  {
+    return JWFileListingQuery.of(
+      this.fileTypeMenu.getValue(),
+      this.searchField.getText().trim()
+    );
+  }
+
+  private JWFileListingDirectory retrieverFor(
+    final Path directory,
+    final Predicate<Path> candidates)
+  {
+    return new JWFileListingDirectory(
+      directory,
+      this.configuration.showParentDirectory(),
+      this.listingCache,
+      this.lazyAttributes.isPresent(),
+      candidates,
+      this.metrics
     );
   }
 
+  /**
+   * The filter or search changed. Entries skipped by the current listing
+   * that the new query may show are added to the listing; if the skipped
+   * entries are not known, the directory is listed again.
+   */
+
+  private void onQueryChanged()
+  {
+    final Supplier<JWFileListingDirectory> retriever =
+      () -> this.retrieverFor(this.currentDirectory, path -> true);
+    final var receiver = JWFileListingBatchReceiver.skippedEntries(
+      this.listingGeneration.get(), this::isCurrentListing, this.fileListing, this::onItemsListed);
+    if (!this.restriction.relax(this.currentQuery(), retriever, this.ioExecutor, receiver)) {
+      this.refreshDirectoryTable(this.currentDirectory);
+    }
+  }
+
+  private void onItemsListed(
+    final List<JWFileItem> items)
+  {
+    this.lazyAttributes.ifPresent(a -> a.onItemsListed(items));
+  }
+
+  /**
+   * Populate the directory table using the given retriever. Items are
+   * appended to the table in batches as the retriever produces them, so that
+   * the first rows of a large directory appear without waiting for the
+   * entire listing. When the listing completes, the table is populated with
+   * the complete (sorted) listing.
+   *
+   * Each listing is stamped with a generation number. Starting a new listing
+   * interrupts any listing that is still running, and any results produced
+   * by a listing that has since been superseded are discarded rather than
+   * being published to the table.
+   */
+
   private void populateDirectoryTableWith(
     final JWFileListingRetrieverType itemRetriever,
     final Runnable andThen)
   {
-    this.directoryTable.setItems(this.fileListing.items());
+    final var generation = this.startListing();
     this.ioLockUI();
 
-    this.ioExecutor.execute(() -> {
-      try {
-        final var items = itemRetriever.onFileItemsRequested();
-        this.applyTestingIODelayIfRequested();
-        Platform.runLater(() -> {
-          this.ioUnlockUI();
-          this.fileListing.setItems(items);
+    this.listingTask = this.ioExecutor.submit(() -> {
+      this.runListing(generation, itemRetriever, andThen);
+    });
+  }
 
-          try {
-            final var name = this.initialFilename.pop();
-            this.trySelectDirectoryItem(items, name);
-            this.fileName.setText(name);
-          } catch (final NoSuchElementException e) {
-            // Most of the time, there's no initial filename.
-          }
+  /**
+   * Populate the directory table immediately from a cached listing, and
+   * then check in the background whether the directory has changed since
+   * the listing was produced. If it has, the directory is listed again and
+   * the table is updated with the new listing.
+   */
 
-          andThen.run();
-        });
-      } catch (final Exception e) {
-        LOG.error("exception during directory listing: ", e);
-        Platform.runLater(() -> {
-          this.ioUnlockUI();
-          this.fileListing.setItems(List.of());
-          try {
-            this.eventReceiver.get()
-              .accept(JWFileListingFailed.of(this.currentDirectory, e));
-          } catch (final Exception ex) {
-            LOG.error("exception raised by event receiver: ", ex);
-          }
+  private void revalidateDirectoryTableWith(
+    final JWFileListingDirectory itemRetriever,
+    final JWFileListingCache.Entry cached,
+    final Runnable andThen)
+  {
+    final var generation = this.startListing();
+    this.showStaleListing(cached);
+
+    this.listingTask = this.ioExecutor.submit(() -> {
+      this.runRevalidation(
+        generation,
+        () -> itemRetriever.onFileItemsRevalidate(cached),
+        andThen
+      );
+    });
+  }
+
+  /**
+   * List the given directory again in the background, leaving the current
+   * listing usable until the new listing is applied.
+   */
+
+  private void refreshDirectoryTable(
+    final Path directory)
+  {
+    final var retriever =
+      this.retrieverFor(directory, this.restriction.restrictTo(this.currentQuery()));
+    final var generation = this.startListing();
+    this.ioRefreshingUI();
+
+    this.listingTask = this.ioExecutor.submit(() -> {
+      this.runRevalidation(
+        generation,
+        () -> Optional.of(retriever.onFileItemsRequested()),
+        this.restriction.afterListing(retriever, AND_THEN_DO_NOTHING)
+      );
+    });
+  }
+
+  /**
+   * Populate the directory table from a stored snapshot of the directory,
+   * if there is one, and then revalidate the snapshot as with a cached
+   * listing. If there is no snapshot, the directory is listed as usual.
+   */
+
+  private void populateDirectoryTableFromSnapshot(
+    final JWFileListingDirectory itemRetriever,
+    final Runnable andThen)
+  {
+    final var generation = this.startListing();
+    this.ioLockUI();
+
+    this.listingTask = this.ioExecutor.submit(() -> {
+      final var snapshot = itemRetriever.onSnapshotRequested();
+      if (snapshot.isEmpty()) {
+        this.runListing(generation, itemRetriever, andThen);
+        return;
+      }
+
+      final var cached = snapshot.get();
+      JWFXUpdates.runLater(this.metrics, "staleListing", () -> {
+        if (this.isCurrentListing(generation)) {
+          this.showStaleListing(cached);
+        }
+      });
+      this.runRevalidation(
+        generation,
+        () -> itemRetriever.onFileItemsRevalidate(cached),
+        andThen
+      );
+    });
+  }
+
+  /**
+   * Start a new listing, superseding any existing listing.
+   *
+   * @return The generation of the new listing
+   */
+
+  private long startListing()
+  {
+    Preconditions.checkPreconditionV(
+      Platform.isFxApplicationThread(),
+      "Must be the FX application thread");
+
+    final var generation = this.listingGeneration.incrementAndGet();
+    this.cancelListingTask();
+    this.lazyAttributes.ifPresent(JWDirectoryTableAttributes::reset);
+    this.directoryTable.setItems(this.fileListing.items());
+    return generation;
+  }
+
+  /**
+   * Show a listing that may be out of date. The UI is usable while the
+   * listing is refreshed.
+   */
+
+  private void showStaleListing(
+    final JWFileListingCache.Entry cached)
+  {
+    final var items = cached.items();
+    this.fileListing.setItems(items);
+    this.ioRefreshingUI();
+    this.trySelectInitialFilename(items);
+  }
+
+  private void runListing(
+    final long generation,
+    final JWFileListingRetrieverType itemRetriever,
+    final Runnable andThen)
+  {
+    try {
+      final var items =
+        itemRetriever.onFileItemsRequestedIncrementally(
+          new JWFileListingBatchReceiver(
+            generation,
+            this::isCurrentListing,
+            this.fileListing,
+            this::onItemsListed
+          ));
+
+      this.testing.applyIODelay();
+      if (!this.isCurrentListing(generation)) {
+        return;
+      }
+
+      JWFXUpdates.runLater(this.metrics, "listingCompleted", () -> {
+        if (!this.isCurrentListing(generation)) {
+          return;
+        }
+
+        this.ioUnlockUI();
+        this.fileListing.setItems(items);
+        this.trySelectInitialFilename(items);
+        andThen.run();
+      });
+    } catch (final Exception e) {
+      this.onListingFailed(generation, e);
+    }
+  }
+
+  private void runRevalidation(
+    final long generation,
+    final Callable<Optional<List<JWFileItem>>> revalidation,
+    final Runnable andThen)
+  {
+    try {
+      final var changed = revalidation.call();
+
+      this.testing.applyIODelay();
+      if (!this.isCurrentListing(generation)) {
+        return;
+      }
+
+      JWFXUpdates.runLater(this.metrics, "listingRevalidated", () -> {
+        if (!this.isCurrentListing(generation)) {
+          return;
+        }
+
+        this.ioUnlockUI();
+        changed.ifPresent(items -> {
+          this.fileListing.setItems(items);
+          this.onItemsListed(items);
         });
+        andThen.run();
+      });
+    } catch (final Exception e) {
+      this.onListingFailed(generation, e);
+    }
+  }
+
+  private void trySelectInitialFilename(
+    final List<JWFileItem> items)
+  {
+    try {
+      final var name = this.initialFilename.pop();
+      this.trySelectDirectoryItem(items, name);
+      this.fileName.setText(name);
+    } catch (final NoSuchElementException e) {
+      // Most of the time, there's no initial filename.
+    }
+  }
+
+  private void onListingFailed(
+    final long generation,
+    final Exception e)
+  {
+    if (!this.isCurrentListing(generation)) {
+      LOG.debug("superseded directory listing stopped: ", e);
+      return;
+    }
+
+    LOG.error("exception during directory listing: ", e);
+    JWFXUpdates.runLater(this.metrics, "listingFailed", () -> {
+      if (!this.isCurrentListing(generation)) {
+        return;
+      }
+
+      this.ioUnlockUI();
+      this.fileListing.setItems(List.of());
+      try {
+        this.eventReceiver.get()
+          .accept(JWFileListingFailed.of(this.currentDirectory, e));
+      } catch (final Exception ex) {
+        LOG.error("exception raised by event receiver: ", ex);
       }
     });
   }
 
+  /**
+   * Interrupt the most recently started listing task, if any.
+   */
+
+  private void cancelListingTask()
+  {
+    final var task = this.listingTask;
+    if (task != null) {
+      task.cancel(true);
+      this.listingTask = null;
+    }
+  }
+
+  /**
+   * @return {@code true} if the listing with the given generation has not
+   * been superseded by a newer listing
+   */
+
+  private boolean isCurrentListing(
+    final long generation)
+  {
+    return this.listingGeneration.get() == generation;
+  }
+
   /**
    * Select the item in the list of file items that has the given name and
    * return it. If none of them have the given name, do nothing and return
@@ -505,30 +871,35 @@ public final class JWFileChooserViewController
     this.reconfigureOKButton();
   }
 
-  private void ioLockUI()
+  /**
+   * Enable the UI while showing the progress indicator, to indicate that the
+   * directory table is usable but is being refreshed.
+   */
+
+  private void ioRefreshingUI()
   {
     Preconditions.checkPreconditionV(
       Platform.isFxApplicationThread(),
       "Must be the FX application thread");
 
     for (final var view : this.lockableViews) {
-      view.setDisable(true);
+      view.setDisable(false);
     }
-
     this.progressIndicator.setVisible(true);
+    this.reconfigureOKButton();
   }
 
-  private void applyTestingIODelayIfRequested()
+  private void ioLockUI()
   {
-    this.testing
-      .ioDelay()
-      .ifPresent(duration -> {
-        try {
-          Thread.sleep(duration.toMillis());
-        } catch (final InterruptedException e) {
-          Thread.currentThread().interrupt();
-        }
-      });
+    Preconditions.checkPreconditionV(
+      Platform.isFxApplicationThread(),
+      "Must be the FX application thread");
+
+    for (final var view : this.lockableViews) {
+      view.setDisable(true);
+    }
+
+    this.progressIndicator.setVisible(true);
   }
 
   private void onPathMenuItemSelected(
@@ -542,13 +913,17 @@ public final class JWFileChooserViewController
   @FXML
   private void onFileFilterSelected()
   {
-    this.fileListing.setFilter(this.fileTypeMenu.getValue());
+    final var filter = this.fileTypeMenu.getValue();
+    this.fileListing.setFilter(filter);
+    this.lazyAttributes.ifPresent(a -> a.onFilterChanged(filter != this.filterAll));
+    this.onQueryChanged();
   }
 
   @FXML
   private void onSearchFieldChanged()
   {
     this.fileListing.setSearch(this.searchField.getText().trim());
+    this.onQueryChanged();
   }
 
   @FXML
@@ -895,7 +1270,11 @@ public final class JWFileChooserViewController
     tableTypeColumn.setReorderable(false);
     tableTypeColumn.setCellFactory(column -> {
       final TableCell<JWFileItem, JWFileItem> cell =
-        new JWFileItemTableTypeCell(this.imageSet, this.toolTips);
+        new JWFileItemTableTypeCell(
+          this.imageSet,
+          this.imageCache,
+          this.toolTips
+        );
       cell.setOnMouseClicked(this::onTableRowClicked);
       return cell;
     });
@@ -932,12 +1311,28 @@ public final class JWFileChooserViewController
     tableNameColumn.setCellValueFactory(
       param -> new ReadOnlyObjectWrapper<>(param.getValue()));
     tableSizeColumn.setCellValueFactory(
-      param -> new ReadOnlyObjectWrapper<>(Long.valueOf(param.getValue().size())));
+      param -> new ReadOnlyObjectWrapper<>(param.getValue().sizeIfKnown()));
     tableTimeColumn.setCellValueFactory(
-      param -> new ReadOnlyObjectWrapper<>(param.getValue().modifiedTime()));
+      param -> new ReadOnlyObjectWrapper<>(param.getValue().modifiedTimeIfKnown()));
+
+    JWDirectoryTableSorting.install(
+      this.directoryTable,
+      tableTypeColumn,
+      tableNameColumn,
+      tableSizeColumn,
+      tableTimeColumn,
+      this.fileListing,
+      this.ioExecutor
+    );
 
-    this.fileListing.comparator()
-      .bind(this.directoryTable.comparatorProperty());
+    this.lazyAttributes =
+      JWDirectoryTableAttributes.installIfEnabled(
+        this.configuration,
+        this.ioExecutor,
+        this.directoryTable,
+        tableNameColumn,
+        this.fileListing
+      );
   }
 
   private void reconfigureOKButton()
@@ -1023,7 +1418,10 @@ public final class JWFileChooserViewController
       final var item =
         this.sourcesList.getSelectionModel().getSelectedItem();
       item.path()
-        .ifPresent(path -> this.setCurrentDirectory(path, AND_THEN_DO_NOTHING));
+        .ifPresentOrElse(
+          path -> this.setCurrentDirectory(path, AND_THEN_DO_NOTHING),
+          () -> this.directoryMonitor.monitor(Optional.empty())
+        );
       this.populateDirectoryTableWith(item, AND_THEN_DO_NOTHING);
     }
   }
@@ -1092,6 +1490,7 @@ public final class JWFileChooserViewController
 
       item.onListCell(
         JWFileChooserViewController.this.imageSet,
+        JWFileChooserViewController.this.imageCache,
         JWFileChooserViewController.this.strings,
         this
       );
@@ -31,8 +31,30 @@ import java.util.Optional;
 public interface JWFileChoosersTestingType
 {
   /**
+   * A single delay added after each directory listing completes. To model
+   * the latency of individual operations (such as each attribute read on a
+   * network filesystem), wrap the configured filesystem instead.
+   *
    * @return A delay added to I/O operations to test how the UI responds to slow I/O.
    */
 
   Optional<Duration> ioDelay();
+
+  /**
+   * Wait for the I/O delay, if one is specified. If the current thread is
+   * interrupted, the wait ends early and the thread's interrupted status is
+   * set.
+   */
+
+  default void applyIODelay()
+  {
+    this.ioDelay()
+      .ifPresent(duration -> {
+        try {
+          Thread.sleep(duration.toMillis());
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+  }
 }
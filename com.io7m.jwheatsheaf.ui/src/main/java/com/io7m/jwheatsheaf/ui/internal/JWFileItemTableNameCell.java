@@ -17,17 +17,20 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import javafx.scene.control.TableCell;
+import javafx.scene.control.Tooltip;
 
 import java.util.Objects;
 
 final class JWFileItemTableNameCell extends TableCell<JWFileItem, JWFileItem>
 {
-  private final JWToolTips toolTips;
+  private final Tooltip tooltip;
 
   JWFileItemTableNameCell(
     final JWToolTips inToolTips)
   {
-    this.toolTips = Objects.requireNonNull(inToolTips, "inToolTips");
+    this.tooltip =
+      Objects.requireNonNull(inToolTips, "inToolTips")
+        .tooltipFor(this);
   }
 
   @Override
@@ -46,6 +49,6 @@ final class JWFileItemTableNameCell extends TableCell<JWFileItem, JWFileItem>
 
     this.setGraphic(null);
     this.setText(item.name());
-    this.setTooltip(this.toolTips.tooltipOf(item));
+    this.setTooltip(this.tooltip);
   }
 }
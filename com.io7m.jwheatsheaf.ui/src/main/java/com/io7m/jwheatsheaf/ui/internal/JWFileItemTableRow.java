@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jwheatsheaf.ui.internal;
+
+import javafx.scene.control.TableRow;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A table row that reports items with pending attributes as they are shown.
+ * Rows are only created and updated for the visible part of a table, and so
+ * the reported items are those that the user can see.
+ */
+
+final class JWFileItemTableRow extends TableRow<JWFileItem>
+{
+  private final Consumer<Path> onPending;
+
+  JWFileItemTableRow(
+    final Consumer<Path> inOnPending)
+  {
+    this.onPending =
+      Objects.requireNonNull(inOnPending, "inOnPending");
+  }
+
+  @Override
+  protected void updateItem(
+    final JWFileItem item,
+    final boolean empty)
+  {
+    super.updateItem(item, empty);
+
+    if (!empty && item != null && item.attributesPending()) {
+      this.onPending.accept(item.path());
+    }
+  }
+}
@@ -18,22 +18,28 @@ package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.jwheatsheaf.api.JWFileImageSetType;
 import javafx.scene.control.TableCell;
+import javafx.scene.control.Tooltip;
 
 import java.util.Objects;
 
 final class JWFileItemTableTypeCell extends TableCell<JWFileItem, JWFileItem>
 {
-  private final JWToolTips toolTips;
+  private final Tooltip tooltip;
   private final JWFileImageSetType images;
+  private final JWImages imageCache;
 
   JWFileItemTableTypeCell(
     final JWFileImageSetType inImages,
+    final JWImages inImageCache,
     final JWToolTips inToolTips)
   {
     this.images =
       Objects.requireNonNull(inImages, "inImages");
-    this.toolTips =
-      Objects.requireNonNull(inToolTips, "inToolTips");
+    this.imageCache =
+      Objects.requireNonNull(inImageCache, "inImageCache");
+    this.tooltip =
+      Objects.requireNonNull(inToolTips, "inToolTips")
+        .tooltipFor(this);
   }
 
   @Override
@@ -50,8 +56,8 @@ final class JWFileItemTableTypeCell extends TableCell<JWFileItem, JWFileItem>
       return;
     }
 
-    this.setGraphic(JWImages.imageOfKind(this.images, item.kind()));
+    this.imageCache.showImageOfKind(this, this.images, item.kind());
     this.setText(null);
-    this.setTooltip(this.toolTips.tooltipOf(item));
+    this.setTooltip(this.tooltip);
   }
 }
@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jwheatsheaf.api.JWFileInfoType;
 import com.io7m.jwheatsheaf.api.JWFileKind;
 import org.immutables.value.Value;
 
@@ -30,32 +31,78 @@ import java.util.Optional;
 
 @ImmutablesStyleType
 @Value.Immutable
-public interface JWFileItemType
+public interface JWFileItemType extends JWFileInfoType
 {
   /**
    * @return The file kind
    */
 
+  @Override
   JWFileKind kind();
 
+  /**
+   * @return The file kind after following symbolic links
+   */
+
+  @Override
+  @Value.Default
+  default JWFileKind targetKind()
+  {
+    return this.kind();
+  }
+
   /**
    * @return The file path
    */
 
+  @Override
   Path path();
 
   /**
    * @return The file size
    */
 
+  @Override
   long size();
 
   /**
    * @return The file modification time
    */
 
+  @Override
   FileTime modifiedTime();
 
+  /**
+   * @return {@code true} if the attributes of the file have not yet been
+   * read, in which case the kind, size, and modification time of the item
+   * are placeholders
+   */
+
+  @Value.Default
+  default boolean attributesPending()
+  {
+    return false;
+  }
+
+  /**
+   * @return The file size, or {@code null} if the attributes are pending
+   */
+
+  default Long sizeIfKnown()
+  {
+    return this.attributesPending() ? null : Long.valueOf(this.size());
+  }
+
+  /**
+   * @return The file modification time, or {@code null} if the attributes
+   * are pending
+   */
+
+  default FileTime modifiedTimeIfKnown()
+  {
+    return this.attributesPending() ? null : this.modifiedTime();
+  }
+
   /**
    * @return The file display name override, if any
    */
@@ -69,6 +116,30 @@ public interface JWFileItemType
   default String name()
   {
     final var displayNameOpt = this.displayName();
-    return displayNameOpt.orElseGet(() -> this.path().getFileName().toString());
+    if (displayNameOpt.isPresent()) {
+      return displayNameOpt.get();
+    }
+
+    final var fileName = this.path().getFileName();
+    if (fileName == null) {
+      return this.path().toString();
+    }
+    return fileName.toString();
+  }
+
+  /**
+   * The search key is computed when it is first requested, so that items
+   * materialized from compact storage do not pay for it unless they are
+   * searched or sorted by name.
+   *
+   * @return The key used to match the name of the item against searches
+   *
+   * @see JWSearchKeys#searchKeyOf(String)
+   */
+
+  @Value.Lazy
+  default String searchKey()
+  {
+    return JWSearchKeys.searchKeyOf(this.name());
   }
 }
@@ -16,17 +16,32 @@
 
 package com.io7m.jwheatsheaf.ui.internal;
 
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
 import com.io7m.jwheatsheaf.api.JWFileKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 
 /**
  * Functions over file items.
@@ -42,6 +57,21 @@ public final class JWFileItems
 
   }
 
+  /**
+   * The default maximum number of items delivered in a single batch by
+   * {@link #listDirectoryIncrementally(Path, boolean, int, Duration, Consumer)}.
+   */
+
+  public static final int DEFAULT_BATCH_SIZE = 256;
+
+  /**
+   * The default maximum time that resolved items are held back before being
+   * delivered as a batch by
+   * {@link #listDirectoryIncrementally(Path, boolean, int, Duration, Consumer)}.
+   */
+
+  public static final Duration DEFAULT_BATCH_INTERVAL = Duration.ofMillis(50L);
+
   /**
    * List the given directory, resolving each entry into a file item.
    *
@@ -58,19 +88,200 @@ public final class JWFileItems
     final boolean withParent)
     throws IOException
   {
-    final var items = new ArrayList<JWFileItem>(32);
-    items.add(resolveFileItem(directory).withDisplayName("."));
+    return listDirectoryIncrementally(
+      directory,
+      withParent,
+      Integer.MAX_VALUE,
+      Duration.ofNanos(Long.MAX_VALUE),
+      batch -> {
+
+      }
+    );
+  }
+
+  /**
+   * List the given directory, resolving each entry into a file item. Items
+   * are delivered to {@code receiver} in batches, in directory iteration
+   * order, as they are resolved. A batch is delivered as soon as it contains
+   * {@code batchSizeMaximum} items, or when {@code batchInterval} has elapsed
+   * since the previous batch was delivered, whichever happens first. The
+   * returned list contains every item, sorted by path, with the "." and ".."
+   * entries first. If the calling thread is interrupted, the listing stops
+   * and an {@link InterruptedIOException} is raised.
+   *
+   * @param directory        The directory
+   * @param withParent       {@code true} if the parent directory entry should be included
+   * @param batchSizeMaximum The maximum number of items in a batch
+   * @param batchInterval    The maximum time between batches
+   * @param receiver         The batch receiver
+   *
+   * @return A list of items
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static List<JWFileItem> listDirectoryIncrementally(
+    final Path directory,
+    final boolean withParent,
+    final int batchSizeMaximum,
+    final Duration batchInterval,
+    final Consumer<List<JWFileItem>> receiver)
+    throws IOException
+  {
+    return listDirectoryCandidatesIncrementally(
+      directory,
+      withParent,
+      batchSizeMaximum,
+      batchInterval,
+      path -> true,
+      JWFileItems::resolveFileItem,
+      JWFileChooserMetricsNone.get(),
+      receiver
+    );
+  }
+
+  /**
+   * List the given directory as with
+   * {@link #listDirectoryIncrementally(Path, boolean, int, Duration, Consumer)},
+   * but without reading the attributes of any entry other than the "." and
+   * ".." entries. Each entry is produced as a placeholder item, for which
+   * {@link JWFileItem#attributesPending()} is {@code true}.
+   *
+   * @param directory        The directory
+   * @param withParent       {@code true} if the parent directory entry should be included
+   * @param batchSizeMaximum The maximum number of items in a batch
+   * @param batchInterval    The maximum time between batches
+   * @param receiver         The batch receiver
+   *
+   * @return A list of items
+   *
+   * @throws IOException On I/O errors
+   *
+   * @see #pendingFileItem(Path)
+   */
+
+  public static List<JWFileItem> listDirectoryNamesIncrementally(
+    final Path directory,
+    final boolean withParent,
+    final int batchSizeMaximum,
+    final Duration batchInterval,
+    final Consumer<List<JWFileItem>> receiver)
+    throws IOException
+  {
+    return listDirectoryCandidatesIncrementally(
+      directory,
+      withParent,
+      batchSizeMaximum,
+      batchInterval,
+      path -> true,
+      JWFileItems::pendingFileItem,
+      JWFileChooserMetricsNone.get(),
+      receiver
+    );
+  }
+
+  /**
+   * List the given directory as with
+   * {@link #listDirectoryIncrementally(Path, boolean, int, Duration, Consumer)},
+   * skipping any entries that are not accepted by {@code candidates}. The
+   * predicate is evaluated against the path of each entry before anything
+   * else is done with the entry, so skipped entries cost nothing beyond
+   * directory iteration. Accepted entries are turned into items using
+   * {@code resolver}. The "." and ".." entries are always included.
+   *
+   * @param directory        The directory
+   * @param withParent       {@code true} if the parent directory entry should be included
+   * @param batchSizeMaximum The maximum number of items in a batch
+   * @param batchInterval    The maximum time between batches
+   * @param candidates       The predicate that selects entries
+   * @param resolver         The function that produces an item for an entry
+   * @param metrics          The receiver of attribute reads made for the
+   *                         "." and ".." entries
+   * @param receiver         The batch receiver
+   *
+   * @return A list of items
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static List<JWFileItem> listDirectoryCandidatesIncrementally(
+    final Path directory,
+    final boolean withParent,
+    final int batchSizeMaximum,
+    final Duration batchInterval,
+    final Predicate<Path> candidates,
+    final Function<Path, JWFileItem> resolver,
+    final JWFileChooserMetricsType metrics,
+    final Consumer<List<JWFileItem>> receiver)
+    throws IOException
+  {
+    Objects.requireNonNull(directory, "directory");
+    Objects.requireNonNull(candidates, "candidates");
+    Objects.requireNonNull(resolver, "resolver");
+    Objects.requireNonNull(metrics, "metrics");
+    Objects.requireNonNull(batchInterval, "batchInterval");
+    Objects.requireNonNull(receiver, "receiver");
+
+    Preconditions.checkPreconditionV(
+      batchSizeMaximum > 0,
+      "Batch size %d must be positive",
+      Integer.valueOf(batchSizeMaximum)
+    );
+
+    final var intervalNanos =
+      batchInterval.toNanos();
+    final var items =
+      new ArrayList<JWFileItem>(32);
+    final var batch =
+      new ArrayList<JWFileItem>(Math.min(batchSizeMaximum, 1024));
+
+    items.add(resolveFileItem(directory, metrics).withDisplayName("."));
 
     if (withParent) {
       final var directoryParent = directory.getParent();
       if (directoryParent != null) {
-        items.add(resolveFileItem(directoryParent).withDisplayName(".."));
+        items.add(
+          resolveFileItem(directoryParent, metrics).withDisplayName(".."));
       }
     }
 
-    try (var stream = Files.list(directory)) {
-      stream.sorted().forEach(path -> items.add(resolveFileItem(path)));
+    final var fixedItems = items.size();
+    batch.addAll(items);
+
+    var batchStarted = System.nanoTime();
+    try (var stream = Files.newDirectoryStream(directory)) {
+      for (final var path : stream) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedIOException(
+            "Listing of %s was interrupted".formatted(directory));
+        }
+
+        if (!candidates.test(path)) {
+          continue;
+        }
+
+        final var item = resolver.apply(path);
+        items.add(item);
+        batch.add(item);
+
+        final var now = System.nanoTime();
+        if (batch.size() >= batchSizeMaximum
+          || now - batchStarted >= intervalNanos) {
+          receiver.accept(List.copyOf(batch));
+          batch.clear();
+          batchStarted = now;
+        }
+      }
+    } catch (final DirectoryIteratorException e) {
+      throw e.getCause();
+    }
+
+    if (!batch.isEmpty()) {
+      receiver.accept(List.copyOf(batch));
     }
+
+    items.subList(fixedItems, items.size())
+      .sort(Comparator.comparing(JWFileItem::path));
     return items;
   }
 
@@ -80,6 +291,10 @@ public final class JWFileItems
    * is returned with identity values in each field (such as 0 for the file
    * size).
    *
+   * The attributes of the file are read with a single call that does not
+   * follow symbolic links. Only if the file turns out to be a symbolic link
+   * is a second call made to fetch the attributes of the link target.
+   *
    * @param path The input path
    *
    * @return A file item
@@ -87,51 +302,159 @@ public final class JWFileItems
 
   public static JWFileItem resolveFileItem(
     final Path path)
+  {
+    return resolveFileItem(path, JWFileChooserMetricsNone.get());
+  }
+
+  /**
+   * Resolve the given path into a file item, as with
+   * {@link #resolveFileItem(Path)}, reporting each attribute read (including
+   * reads that fail) to the given metrics receiver.
+   *
+   * @param path    The input path
+   * @param metrics The receiver of attribute reads
+   *
+   * @return A file item
+   */
+
+  public static JWFileItem resolveFileItem(
+    final Path path,
+    final JWFileChooserMetricsType metrics)
   {
     Objects.requireNonNull(path, "path");
+    Objects.requireNonNull(metrics, "metrics");
 
     try {
-      return JWFileItem.builder()
-        .setKind(fileKind(path))
-        .setModifiedTime(fileTime(path))
-        .setSize(fileSize(path))
-        .setPath(path)
-        .build();
+      return resolveFileItemChecked(path, metrics);
     } catch (final IOException e) {
       LOG.error("i/o exception during directory listing: ", e);
-      return JWFileItem.builder()
-        .setKind(JWFileKind.UNKNOWN)
-        .setModifiedTime(FileTime.fromMillis(0L))
-        .setSize(0L)
-        .setPath(path)
-        .build();
+      return unknownFileItem(path);
     }
   }
 
-  private static long fileSize(
-    final Path path)
+  /**
+   * Resolve the given path into a file item, as with
+   * {@link #resolveFileItem(Path, JWFileChooserMetricsType)}, unless the
+   * file does not exist.
+   *
+   * @param path    The input path
+   * @param metrics The receiver of attribute reads
+   *
+   * @return A file item, or nothing if the file does not exist
+   */
+
+  public static Optional<JWFileItem> resolveExistingFileItem(
+    final Path path,
+    final JWFileChooserMetricsType metrics)
+  {
+    Objects.requireNonNull(path, "path");
+    Objects.requireNonNull(metrics, "metrics");
+
+    try {
+      return Optional.of(resolveFileItemChecked(path, metrics));
+    } catch (final NoSuchFileException e) {
+      /*
+       * The target of a dangling symbolic link does not exist, but the
+       * link itself does.
+       */
+
+      metrics.onAttributesRead(1);
+      if (Files.isSymbolicLink(path)) {
+        return Optional.of(resolveFileItem(path, metrics));
+      }
+      return Optional.empty();
+    } catch (final IOException e) {
+      LOG.error("i/o exception during directory listing: ", e);
+      return Optional.of(unknownFileItem(path));
+    }
+  }
+
+  private static JWFileItem resolveFileItemChecked(
+    final Path path,
+    final JWFileChooserMetricsType metrics)
     throws IOException
   {
-    return Files.size(path);
+    metrics.onAttributesRead(1);
+    final var attributes =
+      Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+
+    if (attributes.isSymbolicLink()) {
+      return resolveSymbolicLink(path, metrics);
+    }
+
+    return JWFileItem.builder()
+      .setKind(fileKind(attributes))
+      .setModifiedTime(attributes.lastModifiedTime())
+      .setSize(attributes.size())
+      .setPath(path)
+      .build();
   }
 
-  private static FileTime fileTime(
-    final Path path)
+  /**
+   * Resolve a symbolic link. The size, modification time, and target kind
+   * of a link are taken from the target of the link.
+   */
+
+  private static JWFileItem resolveSymbolicLink(
+    final Path path,
+    final JWFileChooserMetricsType metrics)
     throws IOException
   {
-    return Files.getLastModifiedTime(path);
+    metrics.onAttributesRead(1);
+    final var attributes =
+      Files.readAttributes(path, BasicFileAttributes.class);
+
+    return JWFileItem.builder()
+      .setKind(JWFileKind.SYMBOLIC_LINK)
+      .setTargetKind(fileKind(attributes))
+      .setModifiedTime(attributes.lastModifiedTime())
+      .setSize(attributes.size())
+      .setPath(path)
+      .build();
   }
 
-  private static JWFileKind fileKind(
+  /**
+   * Produce a placeholder item for the given path, without reading any of
+   * the attributes of the file.
+   *
+   * @param path The input path
+   *
+   * @return A file item with pending attributes
+   */
+
+  public static JWFileItem pendingFileItem(
+    final Path path)
+  {
+    return JWFileItem.builder()
+      .setKind(JWFileKind.UNKNOWN)
+      .setModifiedTime(FileTime.fromMillis(0L))
+      .setSize(0L)
+      .setPath(path)
+      .setAttributesPending(true)
+      .build();
+  }
+
+  private static JWFileItem unknownFileItem(
     final Path path)
   {
-    if (Files.isSymbolicLink(path)) {
+    return JWFileItem.builder()
+      .setKind(JWFileKind.UNKNOWN)
+      .setModifiedTime(FileTime.fromMillis(0L))
+      .setSize(0L)
+      .setPath(path)
+      .build();
+  }
+
+  private static JWFileKind fileKind(
+    final BasicFileAttributes attributes)
+  {
+    if (attributes.isSymbolicLink()) {
       return JWFileKind.SYMBOLIC_LINK;
     }
-    if (Files.isDirectory(path)) {
+    if (attributes.isDirectory()) {
       return JWFileKind.DIRECTORY;
     }
-    if (Files.isRegularFile(path)) {
+    if (attributes.isRegularFile()) {
       return JWFileKind.REGULAR_FILE;
     }
     return JWFileKind.UNKNOWN;
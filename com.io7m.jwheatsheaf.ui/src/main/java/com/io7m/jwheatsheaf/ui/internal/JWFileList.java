@@ -17,27 +17,60 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
-import javafx.beans.property.ObjectProperty;
-import javafx.collections.FXCollections;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * A filtered file list.
+ *
+ * The items of the list are held by a {@link JWFileListStore}, which holds
+ * a listing of a directory in compact form (as the listing cache does) and
+ * materializes items only when they are read. The visible items are the
+ * rows of the store that pass two stages: the type filter, whose result for
+ * each row is cached, and the search. When a search query is extended such
+ * that the old query is contained within the new one, only the rows that
+ * matched the old query can match the new one, and so only those rows are
+ * re-examined. Neither stage materializes items for rows with pending
+ * attributes, and the search reads the names held by the store directly.
+ *
+ * Replacing the items, or changing the filter or search, updates the
+ * visible list with the minimal set of changes, so that rows that have not
+ * changed keep their position and selection in the table. Items whose
+ * attributes arrive after they were listed are replaced in place, and each
+ * batch of replacements is published as a single change.
+ *
+ * The visible rows are sorted by a {@link JWFileListSorted} view, which
+ * materializes the item at a position only when the table reads it. Sorting
+ * a large list is split into two steps so that the expensive step can be
+ * performed away from the FX application thread: a sort request captures a
+ * snapshot of the visible rows, the permutation of those rows is computed
+ * from their primitive sort keys on any thread, and the permutation is then
+ * applied to the view in a single change, provided that the set of visible
+ * rows has not changed in the meantime. Visible items that were replaced in
+ * place while the sort was running are moved to their positions after the
+ * permutation is applied, rather than causing the sort to be repeated.
  */
 
 public final class JWFileList
 {
-  private final ObservableList<JWFileItem> items;
-  private final FilteredList<JWFileItem> filtered;
-  private final SortedList<JWFileItem> sorted;
-  private volatile String search;
-  private volatile JWFileChooserFilterType filter;
+  private final JWFileListSorted sorted;
+  private final JWFileChooserMetricsType metrics;
+  private JWFileChooserFilterType filter;
+  private JWFileListStore store;
+  private BitSet allowed;
+  private BitSet visible;
+  private String search;
 
   /**
    * Construct a filtered file list.
@@ -47,31 +80,96 @@ public final class JWFileList
 
   public JWFileList(
     final JWFileChooserFilterType inFilter)
+  {
+    this(inFilter, JWFileChooserMetricsNone.get());
+  }
+
+  /**
+   * Construct a filtered file list.
+   *
+   * @param inFilter  The initial filter
+   * @param inMetrics The receiver of measurements of filtering and
+   *                  searching, and of updates to the list
+   */
+
+  public JWFileList(
+    final JWFileChooserFilterType inFilter,
+    final JWFileChooserMetricsType inMetrics)
   {
     this.filter =
       Objects.requireNonNull(inFilter, "inFilter");
-    this.items =
-      FXCollections.observableArrayList();
+    this.metrics =
+      Objects.requireNonNull(inMetrics, "inMetrics");
     this.search =
       "";
-    this.filtered =
-      this.items.filtered(this::isItemVisible);
+    this.store =
+      JWFileListStore.create();
+    this.allowed =
+      new BitSet();
+    this.visible =
+      new BitSet();
     this.sorted =
-      new SortedList<>(this.filtered);
+      new JWFileListSorted(this.store);
   }
 
-  private boolean isItemVisible(
+  /**
+   * Items with pending attributes are examined by path alone, and are
+   * examined again when their attributes arrive and they are replaced.
+   */
+
+  private boolean isAllowed(
     final JWFileItem item)
   {
-    final boolean allowed =
-      this.filter.isAllowed(item.path());
-    final boolean searched =
-      item.name().toUpperCase().contains(this.search.toUpperCase());
-    return allowed && searched;
+    if (item.attributesPending()) {
+      return this.filter.mayBeAllowed(item.path());
+    }
+    return this.filter.isAllowed(item);
+  }
+
+  private boolean isAllowed(
+    final JWFileListStore in,
+    final int row)
+  {
+    if (in.isPending(row)) {
+      return this.filter.mayBeAllowed(in.path(row));
+    }
+    return this.filter.isAllowed(in.get(row));
+  }
+
+  private BitSet searchWithin(
+    final BitSet candidates)
+  {
+    final var results = new BitSet(this.store.size());
+    for (int row = candidates.nextSetBit(0);
+         row >= 0;
+         row = candidates.nextSetBit(row + 1)) {
+      if (this.store.matches(row, this.search)) {
+        results.set(row);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Show the given rows of the current store.
+   */
+
+  private void updateVisible(
+    final BitSet newVisible)
+  {
+    this.visible = newVisible;
+    this.sorted.update(
+      this.store,
+      row -> row,
+      newVisible,
+      new BitSet(),
+      this.store::get
+    );
   }
 
   /**
-   * Set the items for the file list.
+   * Set the items for the file list. Items are matched to the existing
+   * items by path, and only the differences are applied.
    *
    * @param newItems The new items
    */
@@ -79,11 +177,252 @@ public final class JWFileList
   public void setItems(
     final List<JWFileItem> newItems)
   {
-    this.items.setAll(newItems);
+    Objects.requireNonNull(newItems, "newItems");
+    this.replaceStore(JWFileListStore.of(newItems));
+  }
+
+  /**
+   * Replace the store. The rows of the current store are matched to the
+   * rows of the new store by path, and the filter is evaluated only for
+   * rows whose items are new or changed.
+   */
+
+  private void replaceStore(
+    final JWFileListStore newStore)
+  {
+    final var oldStore = this.store;
+    final var oldSize = oldStore.size();
+    final var count = newStore.size();
+    final var newRowOf = new int[oldSize];
+    final var mapped = new BitSet(count);
+    final var changed = new BitSet(count);
+    final var newAllowed = new BitSet(count);
+
+    for (int row = 0; row < oldSize; ++row) {
+      final var newRow = newStore.rowOf(oldStore, row);
+      if (newRow < 0 || mapped.get(newRow)) {
+        newRowOf[row] = -1;
+        continue;
+      }
+      newRowOf[row] = newRow;
+      mapped.set(newRow);
+      if (newStore.sameItem(newRow, oldStore, row)) {
+        newAllowed.set(newRow, this.allowed.get(row));
+      } else {
+        changed.set(newRow);
+        newAllowed.set(newRow, this.isAllowed(newStore, newRow));
+      }
+    }
+    for (int row = mapped.nextClearBit(0); row < count; row = mapped.nextClearBit(row + 1)) {
+      newAllowed.set(row, this.isAllowed(newStore, row));
+    }
+
+    this.store = newStore;
+    this.allowed = newAllowed;
+    this.visible = this.searchWithin(newAllowed);
+    this.sorted.update(
+      newStore,
+      row -> newRowOf[row],
+      this.visible,
+      changed,
+      oldStore::get
+    );
+  }
+
+  /**
+   * Apply a set of changes observed in the directory. Changed items replace
+   * the existing items with the same paths, items that do not yet exist are
+   * added in path order after the existing items, and removed items are
+   * dropped.
+   *
+   * @param changed The created or modified items
+   * @param removed The paths of removed items
+   */
+
+  public void applyChanges(
+    final List<JWFileItem> changed,
+    final Set<Path> removed)
+  {
+    Objects.requireNonNull(changed, "changed");
+    Objects.requireNonNull(removed, "removed");
+
+    final var removedRows = new BitSet(this.store.size());
+    for (final var path : removed) {
+      final var row = this.store.rowOf(path);
+      if (row >= 0) {
+        removedRows.set(row);
+      }
+    }
+
+    final var updates = new HashMap<Integer, JWFileItem>(changed.size() * 2);
+    final var additions = new HashMap<Path, JWFileItem>();
+    for (final var item : changed) {
+      final var row = this.store.rowOf(item.path());
+      if (row >= 0) {
+        updates.put(Integer.valueOf(row), item);
+      } else {
+        additions.put(item.path(), item);
+      }
+    }
+
+    final var oldSize = this.store.size();
+    final var results =
+      this.store.emptyCopy(oldSize + additions.size());
+    for (int row = 0; row < oldSize; ++row) {
+      if (removedRows.get(row)) {
+        continue;
+      }
+      final var update = updates.get(Integer.valueOf(row));
+      if (update != null) {
+        results.add(update);
+      } else {
+        results.addRowOf(this.store, row);
+      }
+    }
+
+    final var added = new ArrayList<>(additions.values());
+    added.sort(Comparator.comparing(JWFileItem::path));
+    for (final var item : added) {
+      results.add(item);
+    }
+    this.replaceStore(results);
+  }
+
+  /**
+   * Replace existing items with items that have the same paths, leaving
+   * every item in its current position. Items with paths that are not in
+   * the list are ignored. This is used to fill in the attributes of items
+   * that were listed with pending attributes. The replacements are
+   * published as a single change to the visible items.
+   *
+   * @param replacements The replacement items
+   */
+
+  public void replaceItems(
+    final List<JWFileItem> replacements)
+  {
+    Objects.requireNonNull(replacements, "replacements");
+
+    final var oldItems = new HashMap<Integer, JWFileItem>();
+    final var changed = new BitSet(this.store.size());
+    var membershipChanged = false;
+    for (final var item : replacements) {
+      final var row = this.store.rowOf(item.path());
+      if (row < 0) {
+        continue;
+      }
+
+      final var wasVisible = this.visible.get(row);
+      if (wasVisible && !changed.get(row)) {
+        oldItems.put(Integer.valueOf(row), this.store.get(row));
+      }
+      this.store.set(row, item);
+      changed.set(row);
+
+      final var isAllowed = this.isAllowed(item);
+      this.allowed.set(row, isAllowed);
+      final var isVisible = isAllowed && this.store.matches(row, this.search);
+      if (wasVisible != isVisible) {
+        membershipChanged = true;
+        this.visible.set(row, isVisible);
+      }
+    }
+
+    if (membershipChanged) {
+      this.sorted.update(
+        this.store,
+        row -> row,
+        this.visible,
+        changed,
+        row -> {
+          final var old = oldItems.get(Integer.valueOf(row));
+          return old != null ? old : this.store.get(row);
+        }
+      );
+      return;
+    }
+
+    final var rows = new int[oldItems.size()];
+    final var items = new JWFileItem[oldItems.size()];
+    int index = 0;
+    for (final var entry : oldItems.entrySet()) {
+      rows[index] = entry.getKey().intValue();
+      items[index] = entry.getValue();
+      ++index;
+    }
+    this.sorted.replaceRows(rows, items, index);
+  }
+
+  /**
+   * @return The paths of all items whose attributes are pending
+   */
+
+  public List<Path> pendingPaths()
+  {
+    final var results = new ArrayList<Path>();
+    for (int row = 0; row < this.store.size(); ++row) {
+      if (this.store.isPending(row)) {
+        results.add(this.store.path(row));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Add items to the end of the file list.
+   *
+   * @param newItems The new items
+   */
+
+  public void addItems(
+    final List<JWFileItem> newItems)
+  {
+    Objects.requireNonNull(newItems, "newItems");
+    this.appendAll(newItems, false);
+  }
+
+  /**
+   * Add items to the end of the file list, ignoring items with paths that
+   * are already in the list.
+   *
+   * @param newItems The new items
+   */
+
+  public void addItemsIfAbsent(
+    final List<JWFileItem> newItems)
+  {
+    Objects.requireNonNull(newItems, "newItems");
+    this.appendAll(newItems, true);
+  }
+
+  private void appendAll(
+    final List<JWFileItem> newItems,
+    final boolean ifAbsent)
+  {
+    final var shown = new int[newItems.size()];
+    int count = 0;
+    for (final var item : newItems) {
+      if (ifAbsent && this.store.rowOf(item.path()) >= 0) {
+        continue;
+      }
+
+      final var row = this.store.size();
+      this.store.add(item);
+      if (this.isAllowed(item)) {
+        this.allowed.set(row);
+        if (this.store.matches(row, this.search)) {
+          this.visible.set(row);
+          shown[count] = row;
+          ++count;
+        }
+      }
+    }
+    this.sorted.append(shown, count);
   }
 
   /**
-   * Set the search filter.
+   * Set the search filter. If the new search text contains the current
+   * search text, only the items matching the current search are examined.
    *
    * @param searchText The filter
    */
@@ -91,8 +430,30 @@ public final class JWFileList
   public void setSearch(
     final String searchText)
   {
-    this.search = Objects.requireNonNull(searchText, "searchText");
-    this.items.setAll(List.copyOf(this.items));
+    Objects.requireNonNull(searchText, "searchText");
+
+    final var newSearch = JWSearchKeys.searchKeyOf(searchText);
+    final var oldSearch = this.search;
+    if (Objects.equals(newSearch, oldSearch)) {
+      return;
+    }
+
+    this.search = newSearch;
+
+    final var event = new JWFileListFilterEvent();
+    event.begin();
+    final var timeStarted = System.nanoTime();
+    final int examined;
+    if (newSearch.contains(oldSearch)) {
+      examined = this.sorted.size();
+      this.updateVisible(this.searchWithin(this.visible));
+    } else {
+      examined = this.allowed.cardinality();
+      this.updateVisible(this.searchWithin(this.allowed));
+    }
+    this.metrics.onSearchEvaluated(
+      examined, Duration.ofNanos(System.nanoTime() - timeStarted));
+    commitFilterEvent(event, "search", examined, this.sorted.size());
   }
 
   /**
@@ -104,8 +465,50 @@ public final class JWFileList
   public void setFilter(
     final JWFileChooserFilterType newFilter)
   {
-    this.filter = Objects.requireNonNull(newFilter, "filter");
-    this.items.setAll(List.copyOf(this.items));
+    Objects.requireNonNull(newFilter, "filter");
+
+    final var event = new JWFileListFilterEvent();
+    event.begin();
+    final var timeStarted = System.nanoTime();
+    this.filter = newFilter;
+
+    final var count = this.store.size();
+    final var newAllowed = new BitSet(count);
+    for (int row = 0; row < count; ++row) {
+      if (this.isAllowed(this.store, row)) {
+        newAllowed.set(row);
+      }
+    }
+    this.allowed = newAllowed;
+    this.updateVisible(this.searchWithin(newAllowed));
+
+    this.metrics.onFilterEvaluated(
+      count, Duration.ofNanos(System.nanoTime() - timeStarted));
+    commitFilterEvent(event, "filter", count, newAllowed.cardinality());
+  }
+
+  private static void commitFilterEvent(
+    final JWFileListFilterEvent event,
+    final String operation,
+    final int examined,
+    final int matched)
+  {
+    event.end();
+    if (event.shouldCommit()) {
+      event.setOperation(operation);
+      event.setExamined(examined);
+      event.setMatched(matched);
+      event.commit();
+    }
+  }
+
+  /**
+   * @return The receiver of measurements of operations on this list
+   */
+
+  JWFileChooserMetricsType metrics()
+  {
+    return this.metrics;
   }
 
   /**
@@ -118,11 +521,116 @@ public final class JWFileList
   }
 
   /**
-   * @return The comparator used for sorting
+   * @return The current sort order
    */
 
-  public ObjectProperty<Comparator<? super JWFileItem>> comparator()
+  public JWFileSortOrder sortOrder()
   {
-    return this.sorted.comparatorProperty();
+    return this.sorted.order();
+  }
+
+  /**
+   * Sort the visible items immediately, on the current thread.
+   *
+   * @param order The sort order
+   */
+
+  public void setSortOrder(
+    final JWFileSortOrder order)
+  {
+    final var request = this.sortRequest(order);
+    this.applySort(request, request.sort());
+  }
+
+  /**
+   * Capture a snapshot of the visible items so that they can be sorted on
+   * another thread.
+   *
+   * @param order The sort order
+   *
+   * @return A sort request
+   */
+
+  public SortRequest sortRequest(
+    final JWFileSortOrder order)
+  {
+    Objects.requireNonNull(order, "order");
+    return new SortRequest(
+      order,
+      this.snapshotVisible(),
+      this.sorted.version()
+    );
+  }
+
+  private JWFileListStore.Rows snapshotVisible()
+  {
+    final var rows = this.visible.stream().toArray();
+    return this.store.snapshot(rows, rows.length);
+  }
+
+  /**
+   * Apply the result of a sort request.
+   *
+   * @param request     The request
+   * @param permutation The result of {@link SortRequest#sort()}
+   *
+   * @return {@code false} if items have been added to, or removed from,
+   * the visible items since the request was made, in which case nothing is
+   * applied
+   */
+
+  public boolean applySort(
+    final SortRequest request,
+    final int[] permutation)
+  {
+    Objects.requireNonNull(request, "request");
+    Objects.requireNonNull(permutation, "permutation");
+
+    if (request.version() != this.sorted.version()) {
+      return false;
+    }
+    if (!(request.items() instanceof final JWFileListStore.Rows rows)) {
+      throw new IllegalArgumentException(
+        "Sort request was not made by this list");
+    }
+    this.sorted.setOrder(request.order(), permutation, rows);
+    return true;
+  }
+
+  /**
+   * A request to sort the visible items of a list.
+   *
+   * @param order   The sort order
+   * @param items   A snapshot of the visible items at the time of the request
+   * @param version The version of the visible items
+   */
+
+  public record SortRequest(
+    JWFileSortOrder order,
+    List<JWFileItem> items,
+    long version)
+  {
+    /**
+     * A request to sort the visible items of a list.
+     */
+
+    public SortRequest
+    {
+      Objects.requireNonNull(order, "order");
+      Objects.requireNonNull(items, "items");
+    }
+
+    /**
+     * Sort the items. This may be called on any thread.
+     *
+     * @return The permutation of the items in sorted order
+     *
+     * @see JWFileSortKeys#permutation()
+     */
+
+    public int[] sort()
+    {
+      return JWFileSortKeys.of(this.items, this.order).permutation();
+    }
   }
 }
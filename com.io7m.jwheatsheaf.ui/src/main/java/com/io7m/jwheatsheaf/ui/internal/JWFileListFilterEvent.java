@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event recording a single pass of a type filter or
+ * search over a file list.
+ */
+
+@Name("com.io7m.jwheatsheaf.FileListFilter")
+@Label("File List Filter")
+@Category("jwheatsheaf")
+@Description("The evaluation of a type filter or search over a file list")
+@StackTrace(false)
+final class JWFileListFilterEvent extends Event
+{
+  @Label("Operation")
+  @Description("The kind of pass: 'filter' or 'search'")
+  private String operation;
+
+  @Label("Examined")
+  @Description("The number of items examined")
+  private int examined;
+
+  @Label("Matched")
+  @Description("The number of items that matched")
+  private int matched;
+
+  JWFileListFilterEvent()
+  {
+
+  }
+
+  void setOperation(
+    final String inOperation)
+  {
+    this.operation = inOperation;
+  }
+
+  void setExamined(
+    final int inExamined)
+  {
+    this.examined = inExamined;
+  }
+
+  void setMatched(
+    final int inMatched)
+  {
+    this.matched = inMatched;
+  }
+}
@@ -0,0 +1,640 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A sorted view of the visible rows of a file list.
+ *
+ * The view holds the numbers of the visible rows of a
+ * {@link JWFileListStore} in display order, and materializes the item at a
+ * position only when the position is read; a table reads only the positions
+ * that it is displaying. Rows are compared using the attributes held by the
+ * store, without materializing items.
+ *
+ * Unlike {@link javafx.collections.transformation.SortedList}, the order of
+ * the view can be replaced with a permutation computed elsewhere (typically
+ * on a background thread by {@link JWFileSortKeys}), and replacing the order
+ * is published as a single permutation of the view. Other changes to the
+ * rows are applied incrementally using the current order, and each is
+ * published as a single change.
+ *
+ * The inverse mapping, from rows to view positions, is rebuilt on demand
+ * after structural changes. A row whose item is replaced (as happens when
+ * attributes arrive for items that were listed by name) is therefore found
+ * in constant time and moved to its new position with a binary search,
+ * rather than with a scan of the whole view.
+ */
+
+final class JWFileListSorted
+  extends ObservableListBase<JWFileItem>
+{
+  /**
+   * Additions larger than this are sorted and merged into the view, rather
+   * than being inserted one at a time.
+   */
+
+  private static final int MERGE_THRESHOLD = 32;
+
+  private JWFileListStore store;
+  private int[] rows;
+  private int size;
+  private int[] viewOfRow;
+  private boolean viewOfRowValid;
+  private JWFileSortOrder order;
+  private long version;
+
+  JWFileListSorted(
+    final JWFileListStore inStore)
+  {
+    this.store = Objects.requireNonNull(inStore, "inStore");
+    this.rows = new int[16];
+    this.viewOfRow = new int[0];
+    this.order = JWFileSortOrder.unsorted();
+  }
+
+  /**
+   * @return The current sort order
+   */
+
+  JWFileSortOrder order()
+  {
+    return this.order;
+  }
+
+  /**
+   * @return The version of the set of rows in the view, which changes
+   * whenever rows are added to or removed from the view, or are renumbered
+   */
+
+  long version()
+  {
+    return this.version;
+  }
+
+  /**
+   * Show rows that were appended to the store.
+   *
+   * @param added The rows, in ascending order
+   * @param count The number of rows
+   */
+
+  void append(
+    final int[] added,
+    final int count)
+  {
+    if (count == 0) {
+      return;
+    }
+
+    this.beginChange();
+    this.insert(added, count);
+    ++this.version;
+    this.endChange();
+  }
+
+  /**
+   * Publish the replacement of the items at the given rows, which were shown
+   * before the replacement and remain shown. Items that still fit at their
+   * positions are replaced in place, and the others are moved.
+   *
+   * @param replaced The rows
+   * @param oldItems The items that were shown at the rows
+   * @param count    The number of rows
+   */
+
+  void replaceRows(
+    final int[] replaced,
+    final JWFileItem[] oldItems,
+    final int count)
+  {
+    if (count == 0) {
+      return;
+    }
+
+    final var changed = new BitSet(this.size);
+    final var oldItemOfView = new HashMap<Integer, JWFileItem>(count * 2);
+    for (int index = 0; index < count; ++index) {
+      final var view = this.viewIndexOf(replaced[index]);
+      changed.set(view);
+      oldItemOfView.put(Integer.valueOf(view), oldItems[index]);
+    }
+    final IntFunction<JWFileItem> itemOfView =
+      view -> oldItemOfView.get(Integer.valueOf(view));
+
+    this.beginChange();
+    if (this.order.isUnsorted()) {
+      for (int view = changed.nextSetBit(0);
+           view >= 0;
+           view = changed.nextSetBit(view + 1)) {
+        this.nextSet(view, itemOfView.apply(view));
+      }
+    } else {
+      final var moving = this.repair(changed, itemOfView, true);
+      this.insert(moving, moving.length);
+    }
+    this.endChange();
+  }
+
+  /**
+   * Bring the view up to date with a new set of visible rows, possibly in a
+   * new store. Rows that are still visible keep their positions unless their
+   * items changed such that they no longer fit, rows that are no longer
+   * visible are removed, and newly visible rows are inserted. The whole
+   * update is published as a single change.
+   *
+   * @param newStore The store holding the rows
+   * @param newRowOf A function from each row of the current store to the
+   *                 row of the new store holding the item with the same
+   *                 path, or {@code -1} if there is no such row
+   * @param visible  The rows of the new store that are visible
+   * @param changed  The rows of the new store whose items differ from the
+   *                 items at the corresponding rows of the current store
+   * @param oldItems A function from each row of the current store to its item
+   */
+
+  void update(
+    final JWFileListStore newStore,
+    final IntUnaryOperator newRowOf,
+    final BitSet visible,
+    final BitSet changed,
+    final IntFunction<JWFileItem> oldItems)
+  {
+    Objects.requireNonNull(newStore, "newStore");
+
+    final var oldSize = this.size;
+    final var oldRows = Arrays.copyOf(this.rows, oldSize);
+    final var present = new BitSet(newStore.size());
+    final var removed = new BitSet(oldSize);
+    var renumbered = false;
+    for (int view = 0; view < oldSize; ++view) {
+      final var row = newRowOf.applyAsInt(oldRows[view]);
+      if (row < 0 || !visible.get(row) || present.get(row)) {
+        removed.set(view);
+        continue;
+      }
+      present.set(row);
+      renumbered |= row != oldRows[view];
+      this.rows[view] = row;
+    }
+
+    final var keptOld = new int[oldSize - removed.cardinality()];
+    int kept = 0;
+    for (int view = removed.nextClearBit(0);
+         view < oldSize;
+         view = removed.nextClearBit(view + 1)) {
+      keptOld[kept] = oldRows[view];
+      ++kept;
+    }
+
+    final var added =
+      visible.stream()
+        .filter(row -> !present.get(row))
+        .toArray();
+
+    this.beginChange();
+    this.removeViews(removed, view -> oldItems.apply(oldRows[view]));
+    this.store = newStore;
+    this.viewOfRowValid = false;
+    renumbered |= this.updateKept(
+      changed, visible, added, view -> oldItems.apply(keptOld[view]));
+
+    if (!removed.isEmpty() || added.length > 0 || renumbered) {
+      ++this.version;
+    }
+    this.endChange();
+  }
+
+  /**
+   * Publish the changes to the rows that remain in the view, and insert the
+   * added rows.
+   *
+   * @return {@code true} if the rows were all removed and inserted again
+   */
+
+  private boolean updateKept(
+    final BitSet changed,
+    final BitSet visible,
+    final int[] added,
+    final IntFunction<JWFileItem> itemOfView)
+  {
+    final var changedViews = new BitSet(this.size);
+    for (int view = 0; view < this.size; ++view) {
+      if (changed.get(this.rows[view])) {
+        changedViews.set(view);
+      }
+    }
+
+    if (!this.order.isUnsorted()) {
+      final var moving = this.repair(changedViews, itemOfView, true);
+      final var inserted = Arrays.copyOf(moving, moving.length + added.length);
+      System.arraycopy(added, 0, inserted, moving.length, added.length);
+      this.insert(inserted, inserted.length);
+      return false;
+    }
+
+    if (this.isAscending()) {
+      for (int view = changedViews.nextSetBit(0);
+           view >= 0;
+           view = changedViews.nextSetBit(view + 1)) {
+        this.nextSet(view, itemOfView.apply(view));
+      }
+      this.insert(added, added.length);
+      return false;
+    }
+
+    /*
+     * An unsorted view shows rows in ascending order. If the rows that
+     * remain are no longer in that order, the view is replaced.
+     */
+
+    final var all = new BitSet(this.size);
+    all.set(0, this.size);
+    this.removeViews(all, itemOfView);
+    final var shown = visible.stream().toArray();
+    this.insert(shown, shown.length);
+    return true;
+  }
+
+  private boolean isAscending()
+  {
+    for (int view = 1; view < this.size; ++view) {
+      if (this.rows[view - 1] >= this.rows[view]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sort the view in the given order, using the given permutation of the
+   * given rows. The rows must be the rows of the view, and the permutation
+   * was computed from their items at the time that the rows were captured.
+   * Rows whose items have been replaced since then are moved to their
+   * positions in the new order after the permutation is applied.
+   *
+   * @param newOrder    The sort order
+   * @param permutation An array {@code p} such that {@code p[i]} is the index
+   *                    in {@code sortedRows} of the row at position {@code i}
+   *                    in the sorted order
+   * @param sortedRows  The rows from which the permutation was computed
+   */
+
+  void setOrder(
+    final JWFileSortOrder newOrder,
+    final int[] permutation,
+    final JWFileListStore.Rows sortedRows)
+  {
+    Objects.requireNonNull(newOrder, "newOrder");
+    Objects.requireNonNull(permutation, "permutation");
+    Objects.requireNonNull(sortedRows, "sortedRows");
+
+    if (permutation.length != this.size
+      || sortedRows.size() != this.size) {
+      throw new IllegalArgumentException(
+        "Permutation size %d (of %d items) does not match list size %d"
+          .formatted(
+            Integer.valueOf(permutation.length),
+            Integer.valueOf(sortedRows.size()),
+            Integer.valueOf(this.size))
+      );
+    }
+
+    this.order = newOrder;
+
+    final var newRows = new int[this.rows.length];
+    for (int view = 0; view < this.size; ++view) {
+      newRows[view] = sortedRows.row(permutation[view]);
+    }
+
+    this.ensureViewOfRowCapacity();
+    for (int view = 0; view < this.size; ++view) {
+      this.viewOfRow[newRows[view]] = view;
+    }
+    final var moves = new int[this.size];
+    for (int view = 0; view < this.size; ++view) {
+      moves[view] = this.viewOfRow[this.rows[view]];
+    }
+    this.rows = newRows;
+    this.viewOfRowValid = true;
+
+    if (this.size > 0) {
+      this.beginChange();
+      this.nextPermutation(0, this.size, moves);
+      this.endChange();
+    }
+
+    this.replaceChangedSince(sortedRows.store());
+  }
+
+  /**
+   * Move the rows whose items differ from the items at the same rows of the
+   * given store to their positions in the current order.
+   */
+
+  private void replaceChangedSince(
+    final JWFileListStore sorted)
+  {
+    final var changed = new BitSet(this.size);
+    for (int view = 0; view < this.size; ++view) {
+      final var row = this.rows[view];
+      if (!this.store.sameItem(row, sorted, row)) {
+        changed.set(view);
+      }
+    }
+    if (changed.isEmpty()) {
+      return;
+    }
+
+    this.beginChange();
+    final var moving =
+      this.repair(changed, view -> this.store.get(this.rows[view]), false);
+    this.insert(moving, moving.length);
+    this.endChange();
+  }
+
+  /**
+   * Remove the changed positions that no longer fit in the current order.
+   * The rows that did not change are in order, and so is any changed row
+   * that still fits between the row kept before it and the next unchanged
+   * row; the remaining changed rows are removed from the view, so that they
+   * can be inserted at their new positions.
+   *
+   * @param changed     The changed positions
+   * @param itemOfView  The items that the listeners of the view hold at the
+   *                    changed positions
+   * @param publishSets {@code true} if the replacement of the items at the
+   *                    changed positions that are kept must be published
+   *
+   * @return The removed rows
+   */
+
+  private int[] repair(
+    final BitSet changed,
+    final IntFunction<JWFileItem> itemOfView,
+    final boolean publishSets)
+  {
+    final var moving = new BitSet(this.size);
+    int previousChanged = -1;
+    int previousKept = -1;
+    int upper = -1;
+    for (int view = changed.nextSetBit(0);
+         view >= 0;
+         view = changed.nextSetBit(view + 1)) {
+      final var kept = view - 1 > previousChanged ? view - 1 : previousKept;
+      if (upper <= view) {
+        upper = changed.nextClearBit(view + 1);
+      }
+
+      final var row = this.rows[view];
+      final var fits =
+        (kept < 0 || this.compareRows(this.rows[kept], row) <= 0)
+          && (upper >= this.size
+          || this.compareRows(row, this.rows[upper]) <= 0);
+
+      if (fits) {
+        previousKept = view;
+        if (publishSets) {
+          this.nextSet(view, itemOfView.apply(view));
+        }
+      } else {
+        moving.set(view);
+        previousKept = kept;
+      }
+      previousChanged = view;
+    }
+    return this.removeViews(moving, itemOfView);
+  }
+
+  /**
+   * Remove the given positions from the view. Runs of removed positions are
+   * published from the end of the view backwards, so that the position of
+   * each run is unaffected by the runs published before it.
+   *
+   * @return The removed rows
+   */
+
+  private int[] removeViews(
+    final BitSet views,
+    final IntFunction<JWFileItem> itemOfView)
+  {
+    final var removed = new int[views.cardinality()];
+    if (removed.length == 0) {
+      return removed;
+    }
+
+    int end = views.previousSetBit(this.size - 1);
+    while (end >= 0) {
+      final var start = views.previousClearBit(end) + 1;
+      final var run = new ArrayList<JWFileItem>(end - start + 1);
+      for (int view = start; view <= end; ++view) {
+        run.add(itemOfView.apply(view));
+      }
+      this.nextRemove(start, run);
+      end = views.previousSetBit(start - 1);
+    }
+
+    int output = 0;
+    int index = 0;
+    for (int view = 0; view < this.size; ++view) {
+      if (views.get(view)) {
+        removed[index] = this.rows[view];
+        ++index;
+      } else {
+        this.rows[output] = this.rows[view];
+        ++output;
+      }
+    }
+    this.size = output;
+    this.viewOfRowValid = false;
+    return removed;
+  }
+
+  /**
+   * Insert rows at their positions in the current order. Rows inserted
+   * into an unsorted view must be given in ascending order.
+   */
+
+  private void insert(
+    final int[] added,
+    final int count)
+  {
+    if (count == 0) {
+      return;
+    }
+
+    this.ensureCapacity(this.size + count);
+    this.viewOfRowValid = false;
+
+    if (this.order.isUnsorted()
+      && (this.size == 0 || this.rows[this.size - 1] < added[0])) {
+      System.arraycopy(added, 0, this.rows, this.size, count);
+      this.nextAdd(this.size, this.size + count);
+      this.size += count;
+      return;
+    }
+
+    if (count <= MERGE_THRESHOLD) {
+      for (int index = 0; index < count; ++index) {
+        final var row = added[index];
+        final var position = this.upperBound(row);
+        System.arraycopy(
+          this.rows, position,
+          this.rows, position + 1,
+          this.size - position);
+        this.rows[position] = row;
+        ++this.size;
+        this.nextAdd(position, position + 1);
+      }
+      return;
+    }
+
+    this.merge(this.sortRows(added, count), count);
+  }
+
+  private int[] sortRows(
+    final int[] added,
+    final int count)
+  {
+    if (this.order.isUnsorted()) {
+      return added;
+    }
+
+    final var permutation =
+      JWFileSortKeys.ofSource(this.store.rows(added, count), this.order)
+        .permutation();
+
+    final var result = new int[count];
+    for (int index = 0; index < count; ++index) {
+      result[index] = added[permutation[index]];
+    }
+    return result;
+  }
+
+  /**
+   * Merge the given sorted rows into the view in a single pass. Added rows
+   * are placed after any existing rows that compare as equal.
+   */
+
+  private void merge(
+    final int[] added,
+    final int count)
+  {
+    final var newSize = this.size + count;
+    final var newRows = new int[this.rows.length];
+
+    int existing = 0;
+    int incoming = 0;
+    for (int output = 0; output < newSize; ++output) {
+      final var takeExisting =
+        incoming >= count
+          || (existing < this.size
+          && this.compareRows(this.rows[existing], added[incoming]) <= 0);
+
+      if (takeExisting) {
+        newRows[output] = this.rows[existing];
+        ++existing;
+      } else {
+        newRows[output] = added[incoming];
+        ++incoming;
+        this.nextAdd(output, output + 1);
+      }
+    }
+
+    this.rows = newRows;
+    this.size = newSize;
+  }
+
+  private int upperBound(
+    final int row)
+  {
+    int low = 0;
+    int high = this.size;
+    while (low < high) {
+      final var middle = (low + high) >>> 1;
+      if (this.compareRows(this.rows[middle], row) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compareRows(
+    final int x,
+    final int y)
+  {
+    if (this.order.isUnsorted()) {
+      return Integer.compare(x, y);
+    }
+    return this.store.compare(this.order, x, y);
+  }
+
+  private void ensureCapacity(
+    final int capacity)
+  {
+    if (capacity > this.rows.length) {
+      this.rows = Arrays.copyOf(
+        this.rows, Math.max(capacity, this.rows.length * 2));
+    }
+  }
+
+  private void ensureViewOfRowCapacity()
+  {
+    if (this.viewOfRow.length < this.store.size()) {
+      this.viewOfRow = new int[Math.max(this.store.size(), 16)];
+    }
+  }
+
+  private int viewIndexOf(
+    final int row)
+  {
+    if (!this.viewOfRowValid) {
+      this.ensureViewOfRowCapacity();
+      for (int view = 0; view < this.size; ++view) {
+        this.viewOfRow[this.rows[view]] = view;
+      }
+      this.viewOfRowValid = true;
+    }
+    return this.viewOfRow[row];
+  }
+
+  @Override
+  public JWFileItem get(
+    final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    return this.store.get(this.rows[index]);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+}
@@ -0,0 +1,1319 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The items of a file list, held by row.
+ *
+ * A store holds a listing of a single directory in the same form as a
+ * {@link JWFileListingCompact}: the names of the items are packed into a
+ * single array of characters, the remaining attributes are held in parallel
+ * primitive arrays, and the listed directory is held once. Items are
+ * materialized on demand by {@link #get(int)}, and so a file list holds item
+ * objects only for the rows that the table is displaying. Filtering,
+ * searching, and sorting read the attributes of rows directly. Search keys
+ * are computed from the names when a search, or a sort by name, first needs
+ * them.
+ *
+ * A store that is given an item that cannot be held in this form (an item
+ * that is not an entry of the listed directory) converts itself to an array
+ * of items, and continues in that form.
+ *
+ * Rows are numbered in the order in which they were added, and a row keeps
+ * its number when its item is replaced with an item that has the same path.
+ * Rows are found by path using an index that is built on demand.
+ *
+ * A {@link #snapshot(int[], int)} of a set of rows can be read on any thread
+ * while the store continues to be modified on the FX application thread:
+ * rows are only ever appended after the rows that a snapshot can see, and
+ * the first replacement of an item after a snapshot is taken copies the
+ * arrays that the snapshot shares.
+ */
+
+final class JWFileListStore
+{
+  static final int ROLE_NONE = -1;
+  static final int ROLE_CHILD = 0;
+  static final int ROLE_SELF = 1;
+  static final int ROLE_PARENT = 2;
+
+  private static final JWFileKind[] KINDS = JWFileKind.values();
+  private static final int PENDING = 0x80;
+  private static final int MINIMUM_CAPACITY = 16;
+
+  private Path directory;
+  private JWFileItem[] items;
+  private int size;
+  private char[] names;
+  private int namesLength;
+  private int[] nameEnds;
+  private char[] keys;
+  private int keysLength;
+  private int[] keyEnds;
+  private int keyRows;
+  private long[] sizes;
+  private long[] modifiedSeconds;
+  private int[] modifiedNanos;
+  private byte[] kinds;
+  private int selfRow;
+  private int parentRow;
+  private boolean shared;
+  private int[] index;
+  private int indexedRows;
+  private boolean duplicates;
+  private JWFileSortOrder comparatorOrder;
+  private Comparator<JWFileItem> comparator;
+
+  private JWFileListStore(
+    final Path inDirectory,
+    final int capacity)
+  {
+    final var rows = Math.max(capacity, MINIMUM_CAPACITY);
+    this.directory = inDirectory;
+    this.names = new char[rows * 8];
+    this.nameEnds = new int[rows];
+    this.keys = new char[0];
+    this.keyEnds = new int[0];
+    this.sizes = new long[rows];
+    this.modifiedSeconds = new long[rows];
+    this.modifiedNanos = new int[rows];
+    this.kinds = new byte[rows];
+    this.selfRow = -1;
+    this.parentRow = -1;
+  }
+
+  /**
+   * A frozen copy of a store, sharing its arrays. The copy is never
+   * modified, and never builds an index or computes search keys.
+   */
+
+  private JWFileListStore(
+    final JWFileListStore other)
+  {
+    this.directory = other.directory;
+    this.items = other.items;
+    this.size = other.size;
+    this.names = other.names;
+    this.namesLength = other.namesLength;
+    this.nameEnds = other.nameEnds;
+    this.keys = other.keys;
+    this.keysLength = other.keysLength;
+    this.keyEnds = other.keyEnds;
+    this.keyRows = other.keyRows;
+    this.sizes = other.sizes;
+    this.modifiedSeconds = other.modifiedSeconds;
+    this.modifiedNanos = other.modifiedNanos;
+    this.kinds = other.kinds;
+    this.selfRow = other.selfRow;
+    this.parentRow = other.parentRow;
+  }
+
+  /**
+   * @return An empty store
+   */
+
+  static JWFileListStore create()
+  {
+    return new JWFileListStore(null, 0);
+  }
+
+  /**
+   * Create an empty store for a listing of the given directory.
+   *
+   * @param directory The listed directory
+   * @param capacity  The expected number of items
+   *
+   * @return An empty store
+   */
+
+  static JWFileListStore create(
+    final Path directory,
+    final int capacity)
+  {
+    return new JWFileListStore(
+      Objects.requireNonNull(directory, "directory"),
+      capacity
+    );
+  }
+
+  /**
+   * Create a store holding the given items. The rows of a compact listing
+   * are copied without being materialized.
+   *
+   * @param items The items
+   *
+   * @return A store
+   */
+
+  static JWFileListStore of(
+    final List<JWFileItem> items)
+  {
+    Objects.requireNonNull(items, "items");
+
+    if (items instanceof final JWFileListingCompact compact) {
+      final var store = create(compact.directory(), compact.size());
+      compact.appendTo(store);
+      return store;
+    }
+
+    final var store = new JWFileListStore(directoryOf(items), items.size());
+    for (final var item : items) {
+      store.add(item);
+    }
+    return store;
+  }
+
+  private static Path directoryOf(
+    final List<JWFileItem> items)
+  {
+    for (final var item : items) {
+      final var displayName = item.displayName();
+      if (displayName.isEmpty()) {
+        final var parent = item.path().getParent();
+        if (parent != null) {
+          return parent;
+        }
+      } else if (displayName.get().equals(".")) {
+        return item.path();
+      }
+    }
+    return null;
+  }
+
+  private static byte pack(
+    final JWFileKind kind,
+    final JWFileKind targetKind,
+    final boolean pending)
+  {
+    final var kinds = (kind.ordinal() << 3) | targetKind.ordinal();
+    return (byte) (pending ? kinds | PENDING : kinds);
+  }
+
+  private static JWFileKind kindOf(
+    final int packed)
+  {
+    return KINDS[(packed >>> 3) & 0x7];
+  }
+
+  private static JWFileKind targetKindOf(
+    final int packed)
+  {
+    return KINDS[packed & 0x7];
+  }
+
+  private static int hash(
+    final char[] text,
+    final int start,
+    final int end)
+  {
+    int hash = 0;
+    for (int position = start; position < end; ++position) {
+      hash = 31 * hash + text[position];
+    }
+    return spread(hash);
+  }
+
+  private static int spread(
+    final int hash)
+  {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean contains(
+    final char[] text,
+    final int start,
+    final int end,
+    final String key)
+  {
+    final var length = key.length();
+    final var first = key.charAt(0);
+    final var last = end - length;
+    for (int position = start; position <= last; ++position) {
+      if (fold(text[position]) != first) {
+        continue;
+      }
+      int matched = 1;
+      while (matched < length
+        && fold(text[position + matched]) == key.charAt(matched)) {
+        ++matched;
+      }
+      if (matched == length) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Fold an ASCII upper case letter to lower case. Search keys never contain
+   * ASCII upper case letters, and so folding a search key has no effect.
+   */
+
+  private static char fold(
+    final char c)
+  {
+    if (c >= 'A' && c <= 'Z') {
+      return (char) (c + ('a' - 'A'));
+    }
+    return c;
+  }
+
+  private static int compareFolded(
+    final char[] textX,
+    final int startX,
+    final int endX,
+    final char[] textY,
+    final int startY,
+    final int endY)
+  {
+    final var lengthX = endX - startX;
+    final var lengthY = endY - startY;
+    final var length = Math.min(lengthX, lengthY);
+    for (int index = 0; index < length; ++index) {
+      final var c =
+        Character.compare(fold(textX[startX + index]), fold(textY[startY + index]));
+      if (c != 0) {
+        return c;
+      }
+    }
+    return Integer.compare(lengthX, lengthY);
+  }
+
+  private static boolean isAscii(
+    final char[] text,
+    final int start,
+    final int end)
+  {
+    for (int position = start; position < end; ++position) {
+      if (text[position] >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int grow(
+    final int current,
+    final int required)
+  {
+    return Math.max(required, Math.max(current * 2, MINIMUM_CAPACITY));
+  }
+
+  /**
+   * @return The number of rows
+   */
+
+  int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * @return {@code true} if the rows are held in compact form, rather than
+   * as an array of items
+   */
+
+  boolean isCompact()
+  {
+    return this.items == null;
+  }
+
+  /**
+   * @param capacity The expected number of items
+   *
+   * @return An empty store for a listing of the same directory as this store
+   */
+
+  JWFileListStore emptyCopy(
+    final int capacity)
+  {
+    return new JWFileListStore(this.directory, capacity);
+  }
+
+  /**
+   * Add an item as a new row.
+   *
+   * @param item The item
+   */
+
+  void add(
+    final JWFileItem item)
+  {
+    Objects.requireNonNull(item, "item");
+
+    if (this.items == null) {
+      var role = this.roleOf(item);
+      if (role == ROLE_SELF && this.selfRow != -1
+        || role == ROLE_PARENT && this.parentRow != -1) {
+        role = ROLE_NONE;
+      }
+      if (role != ROLE_NONE) {
+        final var time = item.modifiedTime().toInstant();
+        this.addRow(
+          role,
+          item.name(),
+          item.kind(),
+          item.targetKind(),
+          item.attributesPending(),
+          item.size(),
+          time.getEpochSecond(),
+          time.getNano()
+        );
+        return;
+      }
+      this.convertToItems();
+    }
+
+    this.ensureCapacity(this.size + 1);
+    this.items[this.size] = item;
+    ++this.size;
+  }
+
+  /**
+   * Add a row to a compact store.
+   *
+   * @param role       The role of the row: {@link #ROLE_CHILD},
+   *                   {@link #ROLE_SELF}, or {@link #ROLE_PARENT}
+   * @param name       The name of the item
+   * @param kind       The kind of the item
+   * @param targetKind The kind of the item after following links
+   * @param pending    {@code true} if the attributes of the item are pending
+   * @param fileSize   The size of the item
+   * @param seconds    The seconds of the modification time of the item
+   * @param nanos      The nanoseconds of the modification time of the item
+   */
+
+  void addRow(
+    final int role,
+    final String name,
+    final JWFileKind kind,
+    final JWFileKind targetKind,
+    final boolean pending,
+    final long fileSize,
+    final long seconds,
+    final int nanos)
+  {
+    final var row = this.size;
+    this.ensureCapacity(row + 1);
+
+    final var length = name.length();
+    if (this.namesLength + length > this.names.length) {
+      this.names = Arrays.copyOf(
+        this.names, grow(this.names.length, this.namesLength + length));
+    }
+    name.getChars(0, length, this.names, this.namesLength);
+    this.namesLength += length;
+    this.nameEnds[row] = this.namesLength;
+
+    this.sizes[row] = fileSize;
+    this.modifiedSeconds[row] = seconds;
+    this.modifiedNanos[row] = nanos;
+    this.kinds[row] = pack(kind, targetKind, pending);
+    if (role == ROLE_SELF) {
+      this.selfRow = row;
+    } else if (role == ROLE_PARENT) {
+      this.parentRow = row;
+    }
+    ++this.size;
+  }
+
+  /**
+   * Copy a row of another store as a new row. Rows are copied without being
+   * materialized if both stores are compact listings of the same directory.
+   *
+   * @param other    The other store
+   * @param otherRow The row in the other store
+   */
+
+  void addRowOf(
+    final JWFileListStore other,
+    final int otherRow)
+  {
+    Objects.checkIndex(otherRow, other.size);
+
+    if (this.items != null
+      || other.items != null
+      || !Objects.equals(this.directory, other.directory)) {
+      this.add(other.get(otherRow));
+      return;
+    }
+
+    final var role = other.roleOfRow(otherRow);
+    final var packed = other.kinds[otherRow] & 0xff;
+    this.addRow(
+      role,
+      other.name(otherRow),
+      kindOf(packed),
+      targetKindOf(packed),
+      (packed & PENDING) != 0,
+      other.sizes[otherRow],
+      other.modifiedSeconds[otherRow],
+      other.modifiedNanos[otherRow]
+    );
+  }
+
+  /**
+   * Replace the item at the given row with an item that has the same path.
+   *
+   * @param row  The row
+   * @param item The new item
+   */
+
+  void set(
+    final int row,
+    final JWFileItem item)
+  {
+    Objects.checkIndex(row, this.size);
+    Objects.requireNonNull(item, "item");
+
+    if (this.items == null) {
+      if (this.roleOf(item) == this.roleOfRow(row)) {
+        this.unshare();
+        final var time = item.modifiedTime().toInstant();
+        this.sizes[row] = item.size();
+        this.modifiedSeconds[row] = time.getEpochSecond();
+        this.modifiedNanos[row] = time.getNano();
+        this.kinds[row] =
+          pack(item.kind(), item.targetKind(), item.attributesPending());
+        return;
+      }
+      this.convertToItems();
+    }
+
+    this.unshare();
+    this.items[row] = item;
+  }
+
+  /**
+   * Determine the role that an item could take in a compact listing of the
+   * directory of this store, choosing the directory if it is not yet known.
+   */
+
+  private int roleOf(
+    final JWFileItem item)
+  {
+    final var time = item.modifiedTime().toInstant();
+    if (time.equals(Instant.MIN) || time.equals(Instant.MAX)) {
+      return ROLE_NONE;
+    }
+
+    final var path = item.path();
+    final var displayName = item.displayName();
+    if (displayName.isPresent()) {
+      return this.roleOfNamed(path, displayName.get());
+    }
+
+    final var parent = path.getParent();
+    if (parent == null || path.getFileName() == null) {
+      return ROLE_NONE;
+    }
+    if (this.directory == null) {
+      this.directory = parent;
+    }
+    return this.directory.equals(parent) ? ROLE_CHILD : ROLE_NONE;
+  }
+
+  private int roleOfNamed(
+    final Path path,
+    final String name)
+  {
+    if (this.directory == null && ".".equals(name)) {
+      this.directory = path;
+    }
+    if (this.directory == null) {
+      return ROLE_NONE;
+    }
+    if (".".equals(name) && path.equals(this.directory)) {
+      return ROLE_SELF;
+    }
+    if ("..".equals(name) && path.equals(this.directory.getParent())) {
+      return ROLE_PARENT;
+    }
+    return ROLE_NONE;
+  }
+
+  private int roleOfRow(
+    final int row)
+  {
+    if (row == this.selfRow) {
+      return ROLE_SELF;
+    }
+    if (row == this.parentRow) {
+      return ROLE_PARENT;
+    }
+    return ROLE_CHILD;
+  }
+
+  private void unshare()
+  {
+    if (!this.shared) {
+      return;
+    }
+    if (this.items != null) {
+      this.items = this.items.clone();
+    } else {
+      this.sizes = this.sizes.clone();
+      this.modifiedSeconds = this.modifiedSeconds.clone();
+      this.modifiedNanos = this.modifiedNanos.clone();
+      this.kinds = this.kinds.clone();
+    }
+    this.shared = false;
+  }
+
+  private void convertToItems()
+  {
+    final var converted =
+      new JWFileItem[Math.max(this.kinds.length, MINIMUM_CAPACITY)];
+    for (int row = 0; row < this.size; ++row) {
+      converted[row] = this.get(row);
+    }
+
+    this.items = converted;
+    this.names = null;
+    this.namesLength = 0;
+    this.nameEnds = null;
+    this.keys = null;
+    this.keysLength = 0;
+    this.keyEnds = null;
+    this.keyRows = 0;
+    this.sizes = null;
+    this.modifiedSeconds = null;
+    this.modifiedNanos = null;
+    this.kinds = null;
+    this.selfRow = -1;
+    this.parentRow = -1;
+    this.shared = false;
+    this.index = null;
+    this.indexedRows = 0;
+    this.duplicates = false;
+  }
+
+  private void ensureCapacity(
+    final int capacity)
+  {
+    if (this.items != null) {
+      if (capacity > this.items.length) {
+        this.items = Arrays.copyOf(
+          this.items, grow(this.items.length, capacity));
+      }
+      return;
+    }
+
+    if (capacity > this.kinds.length) {
+      final var newCapacity = grow(this.kinds.length, capacity);
+      this.nameEnds = Arrays.copyOf(this.nameEnds, newCapacity);
+      this.sizes = Arrays.copyOf(this.sizes, newCapacity);
+      this.modifiedSeconds = Arrays.copyOf(this.modifiedSeconds, newCapacity);
+      this.modifiedNanos = Arrays.copyOf(this.modifiedNanos, newCapacity);
+      this.kinds = Arrays.copyOf(this.kinds, newCapacity);
+    }
+  }
+
+  /**
+   * Materialize the item at the given row.
+   *
+   * @param row The row
+   *
+   * @return The item
+   */
+
+  JWFileItem get(
+    final int row)
+  {
+    Objects.checkIndex(row, this.size);
+
+    if (this.items != null) {
+      return this.items[row];
+    }
+
+    final var name = this.name(row);
+    final var builder = JWFileItem.builder();
+    if (row == this.selfRow) {
+      builder.setPath(this.directory);
+      builder.setDisplayName(name);
+    } else if (row == this.parentRow) {
+      builder.setPath(this.directory.getParent());
+      builder.setDisplayName(name);
+    } else {
+      builder.setPath(this.directory.resolve(name));
+    }
+
+    final var packed = this.kinds[row] & 0xff;
+    return builder
+      .setKind(kindOf(packed))
+      .setTargetKind(targetKindOf(packed))
+      .setSize(this.sizes[row])
+      .setModifiedTime(
+        FileTime.from(
+          Instant.ofEpochSecond(
+            this.modifiedSeconds[row],
+            this.modifiedNanos[row]
+          )
+        )
+      )
+      .setAttributesPending((packed & PENDING) != 0)
+      .build();
+  }
+
+  /**
+   * @param row The row
+   *
+   * @return The path of the item at the given row
+   */
+
+  Path path(
+    final int row)
+  {
+    Objects.checkIndex(row, this.size);
+
+    if (this.items != null) {
+      return this.items[row].path();
+    }
+    if (row == this.selfRow) {
+      return this.directory;
+    }
+    if (row == this.parentRow) {
+      return this.directory.getParent();
+    }
+    return this.directory.resolve(this.name(row));
+  }
+
+  /**
+   * @param row The row
+   *
+   * @return The name of the item at the given row
+   *
+   * @see JWFileItem#name()
+   */
+
+  String name(
+    final int row)
+  {
+    if (this.items != null) {
+      return this.items[row].name();
+    }
+    final var start = this.nameStart(row);
+    return String.valueOf(this.names, start, this.nameEnds[row] - start);
+  }
+
+  /**
+   * @param row The row
+   *
+   * @return {@code true} if the attributes of the item at the given row are
+   * pending
+   */
+
+  boolean isPending(
+    final int row)
+  {
+    if (this.items != null) {
+      return this.items[row].attributesPending();
+    }
+    return (this.kinds[row] & PENDING) != 0;
+  }
+
+  private int nameStart(
+    final int row)
+  {
+    return row == 0 ? 0 : this.nameEnds[row - 1];
+  }
+
+  private int keyStart(
+    final int row)
+  {
+    return row == 0 ? 0 : this.keyEnds[row - 1];
+  }
+
+  /**
+   * Compute the search keys of any rows that do not yet have them. A key
+   * that is equal to the name of its item with ASCII letters folded to lower
+   * case takes no space, and this is always the case for names that consist
+   * only of ASCII characters.
+   */
+
+  private void ensureKeys()
+  {
+    if (this.keyRows == this.size) {
+      return;
+    }
+    if (this.keyEnds.length < this.size) {
+      this.keyEnds = Arrays.copyOf(this.keyEnds, this.kinds.length);
+    }
+
+    for (int row = this.keyRows; row < this.size; ++row) {
+      final var start = this.nameStart(row);
+      final var end = this.nameEnds[row];
+      if (isAscii(this.names, start, end)) {
+        this.keyEnds[row] = this.keysLength;
+        continue;
+      }
+
+      final var key = JWSearchKeys.searchKeyOf(this.name(row));
+      final var keyChars = key.toCharArray();
+      if (compareFolded(keyChars, 0, keyChars.length, this.names, start, end) != 0) {
+        final var length = key.length();
+        if (this.keysLength + length > this.keys.length) {
+          this.keys = Arrays.copyOf(
+            this.keys, grow(this.keys.length, this.keysLength + length));
+        }
+        key.getChars(0, length, this.keys, this.keysLength);
+        this.keysLength += length;
+      }
+      this.keyEnds[row] = this.keysLength;
+    }
+    this.keyRows = this.size;
+  }
+
+  /**
+   * @param row The row
+   *
+   * @return The search key of the item at the given row
+   *
+   * @see JWFileItem#searchKey()
+   */
+
+  String searchKey(
+    final int row)
+  {
+    if (this.items != null) {
+      return this.items[row].searchKey();
+    }
+    if (row < this.keyRows) {
+      final var start = this.keyStart(row);
+      final var end = this.keyEnds[row];
+      if (start != end) {
+        return String.valueOf(this.keys, start, end - start);
+      }
+      final var nameStart = this.nameStart(row);
+      final var key = new char[this.nameEnds[row] - nameStart];
+      for (int position = 0; position < key.length; ++position) {
+        key[position] = fold(this.names[nameStart + position]);
+      }
+      return String.valueOf(key);
+    }
+    return JWSearchKeys.searchKeyOf(this.name(row));
+  }
+
+  /**
+   * @param row    The row
+   * @param search A search key
+   *
+   * @return {@code true} if the search key of the item at the given row
+   * contains {@code search}
+   */
+
+  boolean matches(
+    final int row,
+    final String search)
+  {
+    if (search.isEmpty()) {
+      return true;
+    }
+    if (this.items != null) {
+      return this.items[row].searchKey().contains(search);
+    }
+
+    this.ensureKeys();
+    final var start = this.keyStart(row);
+    final var end = this.keyEnds[row];
+    if (start != end) {
+      return contains(this.keys, start, end, search);
+    }
+    return contains(this.names, this.nameStart(row), this.nameEnds[row], search);
+  }
+
+  int typeKey(
+    final int row)
+  {
+    if (this.items != null) {
+      return JWFileSortOrder.typeKey(this.items[row]);
+    }
+    final var packed = this.kinds[row] & 0xff;
+    return JWFileSortOrder.typeKey(kindOf(packed), targetKindOf(packed));
+  }
+
+  long sizeKey(
+    final int row)
+  {
+    if (this.items != null) {
+      return JWFileSortOrder.sizeKey(this.items[row]);
+    }
+    return JWFileSortOrder.sizeKey(this.isPending(row), this.sizes[row]);
+  }
+
+  long timeSecondsKey(
+    final int row)
+  {
+    if (this.items != null) {
+      return JWFileSortOrder.timeSecondsKey(this.items[row]);
+    }
+    return JWFileSortOrder.timeSecondsKey(
+      this.isPending(row), this.modifiedSeconds[row]);
+  }
+
+  int timeNanosKey(
+    final int row)
+  {
+    if (this.items != null) {
+      return JWFileSortOrder.timeNanosKey(this.items[row]);
+    }
+    return JWFileSortOrder.timeNanosKey(
+      this.isPending(row), this.modifiedNanos[row]);
+  }
+
+  /**
+   * Compare the items at two rows. The result is consistent with the
+   * comparator of the given order.
+   *
+   * @param order The sort order
+   * @param x     The first row
+   * @param y     The second row
+   *
+   * @return The result of comparing the items
+   *
+   * @see JWFileSortOrder#comparator()
+   */
+
+  int compare(
+    final JWFileSortOrder order,
+    final int x,
+    final int y)
+  {
+    if (this.items != null) {
+      if (!order.equals(this.comparatorOrder)) {
+        this.comparatorOrder = order;
+        this.comparator = order.comparator();
+      }
+      return this.comparator.compare(this.items[x], this.items[y]);
+    }
+
+    for (final var column : order.columns()) {
+      final var c = switch (column.field()) {
+        case TYPE -> Integer.compare(this.typeKey(x), this.typeKey(y));
+        case NAME -> this.compareNames(x, y);
+        case SIZE -> Long.compare(this.sizeKey(x), this.sizeKey(y));
+        case TIME -> this.compareTimes(x, y);
+      };
+      if (c != 0) {
+        return column.ascending() ? c : -c;
+      }
+    }
+    return 0;
+  }
+
+  private int compareNames(
+    final int x,
+    final int y)
+  {
+    this.ensureKeys();
+
+    final var c = this.compareKeys(x, y);
+    if (c != 0) {
+      return c;
+    }
+    return Arrays.compare(
+      this.names, this.nameStart(x), this.nameEnds[x],
+      this.names, this.nameStart(y), this.nameEnds[y]
+    );
+  }
+
+  private int compareKeys(
+    final int x,
+    final int y)
+  {
+    var textX = this.keys;
+    var startX = this.keyStart(x);
+    var endX = this.keyEnds[x];
+    if (startX == endX) {
+      textX = this.names;
+      startX = this.nameStart(x);
+      endX = this.nameEnds[x];
+    }
+
+    var textY = this.keys;
+    var startY = this.keyStart(y);
+    var endY = this.keyEnds[y];
+    if (startY == endY) {
+      textY = this.names;
+      startY = this.nameStart(y);
+      endY = this.nameEnds[y];
+    }
+    return compareFolded(textX, startX, endX, textY, startY, endY);
+  }
+
+  private int compareTimes(
+    final int x,
+    final int y)
+  {
+    final var c = Long.compare(this.timeSecondsKey(x), this.timeSecondsKey(y));
+    if (c != 0) {
+      return c;
+    }
+    return Integer.compare(this.timeNanosKey(x), this.timeNanosKey(y));
+  }
+
+  /**
+   * @param row      The row
+   * @param other    The other store
+   * @param otherRow The row in the other store
+   *
+   * @return {@code true} if the item at the given row is equal to the item
+   * at the given row of the other store
+   */
+
+  boolean sameItem(
+    final int row,
+    final JWFileListStore other,
+    final int otherRow)
+  {
+    if (this.items != null && other.items != null) {
+      final var item = this.items[row];
+      final var otherItem = other.items[otherRow];
+      return item == otherItem || item.equals(otherItem);
+    }
+
+    if (this.items != null
+      || other.items != null
+      || !Objects.equals(this.directory, other.directory)) {
+      return this.get(row).equals(other.get(otherRow));
+    }
+
+    final var sameAttributes =
+      this.kinds[row] == other.kinds[otherRow]
+        && this.sizes[row] == other.sizes[otherRow]
+        && this.modifiedSeconds[row] == other.modifiedSeconds[otherRow];
+
+    return sameAttributes
+      && this.modifiedNanos[row] == other.modifiedNanos[otherRow]
+      && this.roleOfRow(row) == other.roleOfRow(otherRow)
+      && Arrays.equals(
+      this.names, this.nameStart(row), this.nameEnds[row],
+      other.names, other.nameStart(otherRow), other.nameEnds[otherRow]);
+  }
+
+  /**
+   * @param path The path
+   *
+   * @return The first row holding an item with the given path, or
+   * {@code -1} if there is no such row
+   */
+
+  int rowOf(
+    final Path path)
+  {
+    Objects.requireNonNull(path, "path");
+
+    if (this.items != null) {
+      this.ensureIndex();
+      final var mask = this.index.length - 1;
+      for (int slot = spread(path.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+        final var entry = this.index[slot];
+        if (entry == 0) {
+          return -1;
+        }
+        if (this.items[entry - 1].path().equals(path)) {
+          return entry - 1;
+        }
+      }
+    }
+
+    if (this.directory == null) {
+      return -1;
+    }
+    if (path.equals(this.directory)) {
+      return this.selfRow;
+    }
+    if (path.equals(this.directory.getParent())) {
+      return this.parentRow;
+    }
+
+    final var fileName = path.getFileName();
+    if (fileName == null || !this.directory.equals(path.getParent())) {
+      return -1;
+    }
+    final var name = fileName.toString().toCharArray();
+    return this.findName(name, 0, name.length);
+  }
+
+  /**
+   * @param other    The other store
+   * @param otherRow The row in the other store
+   *
+   * @return The first row holding an item with the same path as the item at
+   * the given row of the other store, or {@code -1} if there is no such row
+   */
+
+  int rowOf(
+    final JWFileListStore other,
+    final int otherRow)
+  {
+    if (this.items != null
+      || other.items != null
+      || this.directory == null
+      || !this.directory.equals(other.directory)) {
+      return this.rowOf(other.path(otherRow));
+    }
+
+    return switch (other.roleOfRow(otherRow)) {
+      case ROLE_SELF -> this.selfRow;
+      case ROLE_PARENT -> this.parentRow;
+      default -> this.findName(
+        other.names,
+        other.nameStart(otherRow),
+        other.nameEnds[otherRow]
+      );
+    };
+  }
+
+  private int findName(
+    final char[] text,
+    final int start,
+    final int end)
+  {
+    this.ensureIndex();
+    final var mask = this.index.length - 1;
+    for (int slot = hash(text, start, end) & mask; ; slot = (slot + 1) & mask) {
+      final var entry = this.index[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      final var row = entry - 1;
+      if (Arrays.equals(
+        this.names, this.nameStart(row), this.nameEnds[row],
+        text, start, end)) {
+        return row;
+      }
+    }
+  }
+
+  /**
+   * @return {@code true} if more than one row holds an item with the same
+   * path
+   */
+
+  boolean hasDuplicates()
+  {
+    this.ensureIndex();
+    return this.duplicates;
+  }
+
+  /**
+   * Bring the index up to date with the rows. The index is an open
+   * addressing table of row numbers (plus one, so that zero marks an empty
+   * slot), and is rebuilt at four times the number of rows whenever it
+   * becomes half full. The "." and ".." rows of a compact store are found
+   * without the index.
+   */
+
+  private void ensureIndex()
+  {
+    if (this.index == null || this.size * 2 > this.index.length) {
+      var capacity = MINIMUM_CAPACITY;
+      while (capacity < this.size * 4) {
+        capacity <<= 1;
+      }
+      this.index = new int[capacity];
+      this.indexedRows = 0;
+      this.duplicates = false;
+    }
+
+    for (int row = this.indexedRows; row < this.size; ++row) {
+      this.indexRow(row);
+    }
+    this.indexedRows = this.size;
+  }
+
+  private void indexRow(
+    final int row)
+  {
+    if (this.items == null && (row == this.selfRow || row == this.parentRow)) {
+      return;
+    }
+
+    final var mask = this.index.length - 1;
+    int slot = this.hashOfRow(row) & mask;
+    while (this.index[slot] != 0) {
+      if (this.sameKey(this.index[slot] - 1, row)) {
+        this.duplicates = true;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    this.index[slot] = row + 1;
+  }
+
+  private int hashOfRow(
+    final int row)
+  {
+    if (this.items != null) {
+      return spread(this.items[row].path().hashCode());
+    }
+    return hash(this.names, this.nameStart(row), this.nameEnds[row]);
+  }
+
+  private boolean sameKey(
+    final int x,
+    final int y)
+  {
+    if (this.items != null) {
+      return this.items[x].path().equals(this.items[y].path());
+    }
+    return Arrays.equals(
+      this.names, this.nameStart(x), this.nameEnds[x],
+      this.names, this.nameStart(y), this.nameEnds[y]
+    );
+  }
+
+  /**
+   * @param rows  The rows
+   * @param count The number of rows
+   *
+   * @return A view of the given rows, valid while this store is unmodified
+   */
+
+  Rows rows(
+    final int[] rows,
+    final int count)
+  {
+    return new Rows(this, Arrays.copyOf(rows, count));
+  }
+
+  /**
+   * @param rows  The rows
+   * @param count The number of rows
+   *
+   * @return An immutable view of the given rows, readable on any thread
+   */
+
+  Rows snapshot(
+    final int[] rows,
+    final int count)
+  {
+    this.shared = true;
+    return new Rows(new JWFileListStore(this), Arrays.copyOf(rows, count));
+  }
+
+  /**
+   * A view of a sequence of rows of a store, as a list of items and as a
+   * source of sort keys.
+   */
+
+  static final class Rows
+    extends AbstractList<JWFileItem>
+    implements RandomAccess, JWFileSortKeys.SourceType
+  {
+    private final JWFileListStore store;
+    private final int[] rows;
+
+    private Rows(
+      final JWFileListStore inStore,
+      final int[] inRows)
+    {
+      this.store = inStore;
+      this.rows = inRows;
+    }
+
+    /**
+     * @return The store holding the rows
+     */
+
+    JWFileListStore store()
+    {
+      return this.store;
+    }
+
+    /**
+     * @param index The index
+     *
+     * @return The row at the given index
+     */
+
+    int row(
+      final int index)
+    {
+      return this.rows[index];
+    }
+
+    @Override
+    public JWFileItem get(
+      final int index)
+    {
+      return this.store.get(this.rows[index]);
+    }
+
+    @Override
+    public int size()
+    {
+      return this.rows.length;
+    }
+
+    @Override
+    public int typeKey(
+      final int index)
+    {
+      return this.store.typeKey(this.rows[index]);
+    }
+
+    @Override
+    public String searchKey(
+      final int index)
+    {
+      return this.store.searchKey(this.rows[index]);
+    }
+
+    @Override
+    public String name(
+      final int index)
+    {
+      return this.store.name(this.rows[index]);
+    }
+
+    @Override
+    public long sizeKey(
+      final int index)
+    {
+      return this.store.sizeKey(this.rows[index]);
+    }
+
+    @Override
+    public long timeSecondsKey(
+      final int index)
+    {
+      return this.store.timeSecondsKey(this.rows[index]);
+    }
+
+    @Override
+    public int timeNanosKey(
+      final int index)
+    {
+      return this.store.timeNanosKey(this.rows[index]);
+    }
+  }
+}
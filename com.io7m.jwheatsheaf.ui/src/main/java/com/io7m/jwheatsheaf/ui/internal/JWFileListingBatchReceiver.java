@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * A receiver of batches of items produced by a directory listing. The
+ * first batch replaces the contents of the file list, and subsequent
+ * batches are appended to it. Batches belonging to a listing that has been
+ * superseded are discarded.
+ *
+ * A receiver of entries that a listing skipped, and that were produced
+ * later, appends every batch, ignoring entries that are already in the
+ * file list because they have since been observed in the directory.
+ */
+
+final class JWFileListingBatchReceiver
+  implements Consumer<List<JWFileItem>>
+{
+  private final long generation;
+  private final LongPredicate isCurrent;
+  private final JWFileList listing;
+  private final Consumer<List<JWFileItem>> onListed;
+  private final boolean skippedEntries;
+  private boolean started;
+
+  /**
+   * Construct a receiver.
+   *
+   * @param inGeneration The generation of the listing
+   * @param inIsCurrent  A predicate that determines if a generation is the
+   *                     current listing
+   * @param inListing    The file list
+   * @param inOnListed   A function called on the FX application thread
+   *                     after each batch is added to the file list
+   */
+
+  JWFileListingBatchReceiver(
+    final long inGeneration,
+    final LongPredicate inIsCurrent,
+    final JWFileList inListing,
+    final Consumer<List<JWFileItem>> inOnListed)
+  {
+    this(inGeneration, inIsCurrent, inListing, inOnListed, false);
+  }
+
+  private JWFileListingBatchReceiver(
+    final long inGeneration,
+    final LongPredicate inIsCurrent,
+    final JWFileList inListing,
+    final Consumer<List<JWFileItem>> inOnListed,
+    final boolean inSkippedEntries)
+  {
+    this.generation = inGeneration;
+    this.isCurrent = Objects.requireNonNull(inIsCurrent, "isCurrent");
+    this.listing = Objects.requireNonNull(inListing, "listing");
+    this.onListed = Objects.requireNonNull(inOnListed, "onListed");
+    this.skippedEntries = inSkippedEntries;
+    this.started = inSkippedEntries;
+  }
+
+  /**
+   * Construct a receiver of entries skipped by a listing.
+   *
+   * @param generation The generation of the listing
+   * @param isCurrent  A predicate that determines if a generation is the
+   *                   current listing
+   * @param listing    The file list
+   * @param onListed   A function called on the FX application thread
+   *                   after each batch is added to the file list
+   *
+   * @return A receiver
+   */
+
+  static JWFileListingBatchReceiver skippedEntries(
+    final long generation,
+    final LongPredicate isCurrent,
+    final JWFileList listing,
+    final Consumer<List<JWFileItem>> onListed)
+  {
+    return new JWFileListingBatchReceiver(
+      generation, isCurrent, listing, onListed, true);
+  }
+
+  @Override
+  public void accept(
+    final List<JWFileItem> batch)
+  {
+    if (!this.isCurrent.test(this.generation)) {
+      return;
+    }
+
+    final var replace = !this.started;
+    this.started = true;
+
+    JWFXUpdates.runLater(this.listing.metrics(), "listingBatch", () -> {
+      if (!this.isCurrent.test(this.generation)) {
+        return;
+      }
+
+      if (replace) {
+        this.listing.setItems(batch);
+      } else if (this.skippedEntries) {
+        this.listing.addItemsIfAbsent(batch);
+      } else {
+        this.listing.addItems(batch);
+      }
+      this.onListed.accept(batch);
+    });
+  }
+}
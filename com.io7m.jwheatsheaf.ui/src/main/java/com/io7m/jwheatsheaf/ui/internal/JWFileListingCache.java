@@ -0,0 +1,397 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A cache of directory listings, shared by all of the file choosers created
+ * by a single provider.
+ *
+ * The cache is bounded by the total number of file items held across all
+ * listings, and the least recently used listings are evicted first. Each
+ * listing is stored along with a stamp of the directory taken before the
+ * listing began, so that callers can cheaply decide whether a cached listing
+ * is still current. Note that a directory's stamp does not change when an
+ * existing file within the directory is modified, and so the sizes and
+ * modification times of files in a cached listing may be out of date.
+ *
+ * Listings are held in memory as compact listings wherever possible. A
+ * cached listing that is shown is copied into the file list without its
+ * items being materialized, as the file list holds the shown listing in
+ * the same form. The maximum number of items is counted in items rather
+ * than bytes, and so the compact form lowers the memory held by a full
+ * cache without allowing it to hold more or larger listings.
+ *
+ * A cache may optionally be backed by a snapshot store, in which case every
+ * listing stored in the cache is also saved as a snapshot, and snapshots
+ * can be loaded for directories that are no longer held in memory.
+ * Listings are saved as snapshots even if they are too large to be held in
+ * memory, and so a cache with a maximum of zero items still maintains
+ * snapshots. Snapshots are saved in the background on a given executor, so
+ * that storing a listing does not wait for the snapshot to be written.
+ * Saves are performed one at a time, and if a directory is stored again
+ * before its snapshot has been written, only the most recent listing is
+ * saved.
+ */
+
+public final class JWFileListingCache
+{
+  /**
+   * The default maximum number of file items held by a cache.
+   */
+
+  public static final int DEFAULT_MAXIMUM_ITEMS = 100_000;
+
+  private final int maximumItems;
+  private final Optional<JWFileListingSnapshotStore> snapshots;
+  private final Executor saveExecutor;
+  private final LinkedHashMap<Key, Entry> entries;
+  private final LinkedHashMap<Key, Entry> unsaved;
+  private boolean saving;
+  private int itemCount;
+
+  private JWFileListingCache(
+    final int inMaximumItems,
+    final Optional<JWFileListingSnapshotStore> inSnapshots,
+    final Executor inSaveExecutor)
+  {
+    this.maximumItems = inMaximumItems;
+    this.snapshots = inSnapshots;
+    this.saveExecutor = inSaveExecutor;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.unsaved = new LinkedHashMap<>();
+  }
+
+  /**
+   * Create a new cache.
+   *
+   * @param maximumItems The maximum number of file items held by the cache
+   *
+   * @return A new cache
+   */
+
+  public static JWFileListingCache create(
+    final int maximumItems)
+  {
+    return createWithSnapshots(maximumItems, Optional.empty(), Runnable::run);
+  }
+
+  /**
+   * Create a new cache, optionally backed by a snapshot store.
+   *
+   * @param maximumItems The maximum number of file items held by the cache
+   * @param snapshots    The snapshot store, if any
+   * @param saveExecutor The executor on which snapshots are saved
+   *
+   * @return A new cache
+   */
+
+  public static JWFileListingCache createWithSnapshots(
+    final int maximumItems,
+    final Optional<JWFileListingSnapshotStore> snapshots,
+    final Executor saveExecutor)
+  {
+    Objects.requireNonNull(snapshots, "snapshots");
+    Objects.requireNonNull(saveExecutor, "saveExecutor");
+    Preconditions.checkPreconditionV(
+      maximumItems >= 0,
+      "Maximum items %d must be non-negative",
+      Integer.valueOf(maximumItems)
+    );
+    return new JWFileListingCache(maximumItems, snapshots, saveExecutor);
+  }
+
+  /**
+   * @return {@code true} if this cache is backed by a snapshot store
+   */
+
+  public boolean hasSnapshots()
+  {
+    return this.snapshots.isPresent();
+  }
+
+  /**
+   * Load the snapshot of the given directory from the snapshot store, if
+   * there is a store and it has a snapshot of the directory. A listing that
+   * is waiting to be saved as a snapshot is returned without performing any
+   * I/O. Otherwise, this method performs I/O. The snapshot is not validated
+   * against the directory.
+   *
+   * @param directory  The directory
+   * @param withParent {@code true} if the listing includes the parent
+   *                   directory entry
+   *
+   * @return The snapshot, if any
+   */
+
+  public Optional<Entry> findSnapshot(
+    final Path directory,
+    final boolean withParent)
+  {
+    if (this.snapshots.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var pending = this.findUnsaved(new Key(directory, withParent));
+    if (pending.isPresent()) {
+      return pending;
+    }
+    return this.snapshots.get().load(directory, withParent);
+  }
+
+  private synchronized Optional<Entry> findUnsaved(
+    final Key key)
+  {
+    return Optional.ofNullable(this.unsaved.get(key));
+  }
+
+  /**
+   * Find the cached listing of the given directory. The listing is not
+   * validated against the directory.
+   *
+   * @param directory  The directory
+   * @param withParent {@code true} if the listing includes the parent
+   *                   directory entry
+   *
+   * @return The cached listing, if any
+   */
+
+  public synchronized Optional<Entry> find(
+    final Path directory,
+    final boolean withParent)
+  {
+    return Optional.ofNullable(
+      this.entries.get(new Key(directory, withParent))
+    );
+  }
+
+  /**
+   * Store a listing of the given directory. Listings that are too large to
+   * be held by the cache are not stored in memory. Storing a listing may
+   * evict other, less recently used, listings. If the cache is backed by a
+   * snapshot store, the listing is also saved as a snapshot in the
+   * background.
+   *
+   * @param directory  The directory
+   * @param withParent {@code true} if the listing includes the parent
+   *                   directory entry
+   * @param stamp      A stamp of the directory taken before the listing began
+   * @param items      The listing
+   */
+
+  public void put(
+    final Path directory,
+    final boolean withParent,
+    final JWDirectoryStamp stamp,
+    final List<JWFileItem> items)
+  {
+    Objects.requireNonNull(stamp, "stamp");
+    Objects.requireNonNull(items, "items");
+
+    final var key =
+      new Key(directory, withParent);
+    final var entry =
+      new Entry(stamp, JWFileListingCompact.compactOrCopy(directory, items));
+
+    this.putInMemory(key, entry);
+    if (this.snapshots.isPresent()) {
+      this.saveLater(key, entry);
+    }
+  }
+
+  private synchronized void putInMemory(
+    final Key key,
+    final Entry entry)
+  {
+    this.remove(key);
+
+    final var size = entry.items().size();
+    if (size > this.maximumItems) {
+      return;
+    }
+
+    this.entries.put(key, entry);
+    this.itemCount += size;
+
+    final var iterator = this.entries.values().iterator();
+    while (this.itemCount > this.maximumItems) {
+      this.itemCount -= iterator.next().items().size();
+      iterator.remove();
+    }
+  }
+
+  private void saveLater(
+    final Key key,
+    final Entry entry)
+  {
+    synchronized (this) {
+      this.unsaved.remove(key);
+      this.unsaved.put(key, entry);
+      if (this.saving) {
+        return;
+      }
+      this.saving = true;
+    }
+
+    try {
+      this.saveExecutor.execute(this::saveAll);
+    } catch (final RejectedExecutionException e) {
+      /*
+       * The executor has been shut down, and so nothing more can be saved.
+       */
+
+      synchronized (this) {
+        this.unsaved.clear();
+        this.saving = false;
+      }
+    }
+  }
+
+  private synchronized Map.Entry<Key, Entry> nextUnsaved()
+  {
+    final var iterator = this.unsaved.entrySet().iterator();
+    if (!iterator.hasNext()) {
+      this.saving = false;
+      return null;
+    }
+
+    final var next = iterator.next();
+    return Map.entry(next.getKey(), next.getValue());
+  }
+
+  private synchronized void markSaved(
+    final Key key,
+    final Entry entry)
+  {
+    this.unsaved.remove(key, entry);
+  }
+
+  private void saveAll()
+  {
+    final var store = this.snapshots.orElseThrow();
+    try {
+      while (true) {
+        final var next = this.nextUnsaved();
+        if (next == null) {
+          return;
+        }
+
+        final var key = next.getKey();
+        final var entry = next.getValue();
+        try {
+          store.save(
+            key.directory(),
+            key.withParent(),
+            entry.stamp(),
+            entry.items()
+          );
+        } finally {
+          this.markSaved(key, entry);
+        }
+      }
+    } catch (final RuntimeException e) {
+      synchronized (this) {
+        this.saving = false;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Discard any listings of the given directory held in memory. Snapshots
+   * of the directory are retained.
+   *
+   * @param directory The directory
+   */
+
+  public synchronized void invalidate(
+    final Path directory)
+  {
+    this.remove(new Key(directory, false));
+    this.remove(new Key(directory, true));
+  }
+
+  private void remove(
+    final Key key)
+  {
+    final var existing = this.entries.remove(key);
+    if (existing != null) {
+      this.itemCount -= existing.items().size();
+    }
+  }
+
+  /**
+   * @return The number of cached listings
+   */
+
+  public synchronized int size()
+  {
+    return this.entries.size();
+  }
+
+  /**
+   * @return The total number of file items held across all cached listings
+   */
+
+  public synchronized int itemCount()
+  {
+    return this.itemCount;
+  }
+
+  /**
+   * A cached listing.
+   *
+   * @param stamp The stamp of the directory taken before the listing began
+   * @param items The listing
+   */
+
+  public record Entry(
+    JWDirectoryStamp stamp,
+    List<JWFileItem> items)
+  {
+    /**
+     * A cached listing.
+     */
+
+    public Entry
+    {
+      Objects.requireNonNull(stamp, "stamp");
+      Objects.requireNonNull(items, "items");
+    }
+  }
+
+  private record Key(
+    Path directory,
+    boolean withParent)
+  {
+    private Key
+    {
+      Objects.requireNonNull(directory, "directory");
+    }
+  }
+}
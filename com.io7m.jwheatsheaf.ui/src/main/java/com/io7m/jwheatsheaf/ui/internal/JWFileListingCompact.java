@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * A compact, immutable representation of a directory listing.
+ *
+ * A listing of {@code n} items held as a list of {@link JWFileItem} values
+ * costs {@code n} item objects, along with a path, a modification time, and
+ * a search key per item. A compact listing instead holds the attributes of
+ * its items in parallel primitive arrays: the names of all items are packed
+ * into a single string, the sizes and modification times are held in
+ * {@code long} and {@code int} arrays, and the kinds are packed into a
+ * {@code byte} array. The listed directory is held once, and is shared by
+ * the paths of all items.
+ *
+ * Items are materialized on demand by {@link #get(int)}, and are equal to
+ * the items from which the listing was created.
+ *
+ * Compact listings are the storage format of the listing cache and of
+ * listings waiting to be saved as snapshots. A listing that is shown is
+ * held in the same form by the row store of the {@link JWFileList}, which
+ * copies the rows of a compact listing without materializing them, and
+ * which materializes items only for the rows that the table displays.
+ *
+ * @see JWFileListingCache
+ */
+
+public final class JWFileListingCompact
+  extends AbstractList<JWFileItem>
+  implements RandomAccess
+{
+  private static final JWFileKind[] KINDS = JWFileKind.values();
+
+  private final Path directory;
+  private final String names;
+  private final int[] nameEnds;
+  private final long[] sizes;
+  private final long[] modifiedSeconds;
+  private final int[] modifiedNanos;
+  private final byte[] kinds;
+  private final int selfIndex;
+  private final int parentIndex;
+
+  private JWFileListingCompact(
+    final Path inDirectory,
+    final String inNames,
+    final int[] inNameEnds,
+    final long[] inSizes,
+    final long[] inModifiedSeconds,
+    final int[] inModifiedNanos,
+    final byte[] inKinds,
+    final int inSelfIndex,
+    final int inParentIndex)
+  {
+    this.directory = inDirectory;
+    this.names = inNames;
+    this.nameEnds = inNameEnds;
+    this.sizes = inSizes;
+    this.modifiedSeconds = inModifiedSeconds;
+    this.modifiedNanos = inModifiedNanos;
+    this.kinds = inKinds;
+    this.selfIndex = inSelfIndex;
+    this.parentIndex = inParentIndex;
+  }
+
+  /**
+   * Create a compact listing of the given directory. A listing can only be
+   * represented compactly if it consists of the immediate children of the
+   * directory, along with optional "." and ".." entries, and if none of its
+   * items have pending attributes.
+   *
+   * @param directory The listed directory
+   * @param items     The listing
+   *
+   * @return A compact listing, or nothing if the listing cannot be
+   * represented compactly
+   */
+
+  public static Optional<JWFileListingCompact> of(
+    final Path directory,
+    final List<JWFileItem> items)
+  {
+    Objects.requireNonNull(directory, "directory");
+    Objects.requireNonNull(items, "items");
+
+    if (items instanceof final JWFileListingCompact compact
+      && compact.directory.equals(directory)) {
+      return Optional.of(compact);
+    }
+
+    final var count = items.size();
+    final var names = new StringBuilder(count * 16);
+    final var nameEnds = new int[count];
+    final var sizes = new long[count];
+    final var modifiedSeconds = new long[count];
+    final var modifiedNanos = new int[count];
+    final var kinds = new byte[count];
+    final var parent = directory.getParent();
+
+    int selfIndex = -1;
+    int parentIndex = -1;
+    for (int index = 0; index < count; ++index) {
+      final var item = items.get(index);
+      if (item.attributesPending()) {
+        return Optional.empty();
+      }
+
+      final var path = item.path();
+      final var displayName = item.displayName();
+      if (displayName.isPresent()) {
+        if (selfIndex == -1
+          && path.equals(directory)
+          && displayName.get().equals(".")) {
+          selfIndex = index;
+        } else if (parentIndex == -1
+          && path.equals(parent)
+          && displayName.get().equals("..")) {
+          parentIndex = index;
+        } else {
+          return Optional.empty();
+        }
+      } else {
+        if (!directory.equals(path.getParent())) {
+          return Optional.empty();
+        }
+        names.append(path.getFileName().toString());
+      }
+
+      final var time = item.modifiedTime().toInstant();
+      nameEnds[index] = names.length();
+      sizes[index] = item.size();
+      modifiedSeconds[index] = time.getEpochSecond();
+      modifiedNanos[index] = time.getNano();
+      kinds[index] = packKinds(item.kind(), item.targetKind());
+    }
+
+    return Optional.of(
+      new JWFileListingCompact(
+        directory,
+        names.toString(),
+        nameEnds,
+        sizes,
+        modifiedSeconds,
+        modifiedNanos,
+        kinds,
+        selfIndex,
+        parentIndex
+      )
+    );
+  }
+
+  /**
+   * Create a compact listing of the given directory if possible, and
+   * otherwise an immutable copy of the listing.
+   *
+   * @param directory The listed directory
+   * @param items     The listing
+   *
+   * @return An immutable listing
+   *
+   * @see #of(Path, List)
+   */
+
+  public static List<JWFileItem> compactOrCopy(
+    final Path directory,
+    final List<JWFileItem> items)
+  {
+    return of(directory, items)
+      .<List<JWFileItem>>map(compact -> compact)
+      .orElseGet(() -> List.copyOf(items));
+  }
+
+  private static byte packKinds(
+    final JWFileKind kind,
+    final JWFileKind targetKind)
+  {
+    return (byte) ((kind.ordinal() << 4) | targetKind.ordinal());
+  }
+
+  /**
+   * @return The listed directory
+   */
+
+  public Path directory()
+  {
+    return this.directory;
+  }
+
+  /**
+   * @param index The item index
+   *
+   * @return The name of the item at {@code index}
+   */
+
+  public String name(
+    final int index)
+  {
+    Objects.checkIndex(index, this.nameEnds.length);
+    if (index == this.selfIndex) {
+      return ".";
+    }
+    if (index == this.parentIndex) {
+      return "..";
+    }
+    final var start = index == 0 ? 0 : this.nameEnds[index - 1];
+    return this.names.substring(start, this.nameEnds[index]);
+  }
+
+  /**
+   * @param index The item index
+   *
+   * @return The size of the item at {@code index}
+   */
+
+  public long fileSize(
+    final int index)
+  {
+    return this.sizes[index];
+  }
+
+  /**
+   * Append the rows of this listing to the given store, without
+   * materializing them.
+   *
+   * @param store A store for a listing of the same directory
+   */
+
+  void appendTo(
+    final JWFileListStore store)
+  {
+    for (int index = 0; index < this.nameEnds.length; ++index) {
+      final int role;
+      if (index == this.selfIndex) {
+        role = JWFileListStore.ROLE_SELF;
+      } else if (index == this.parentIndex) {
+        role = JWFileListStore.ROLE_PARENT;
+      } else {
+        role = JWFileListStore.ROLE_CHILD;
+      }
+
+      final var packed = this.kinds[index];
+      store.addRow(
+        role,
+        this.name(index),
+        KINDS[(packed >>> 4) & 0xf],
+        KINDS[packed & 0xf],
+        false,
+        this.sizes[index],
+        this.modifiedSeconds[index],
+        this.modifiedNanos[index]
+      );
+    }
+  }
+
+  @Override
+  public JWFileItem get(
+    final int index)
+  {
+    final var name = this.name(index);
+    final var builder = JWFileItem.builder();
+    if (index == this.selfIndex) {
+      builder.setPath(this.directory);
+      builder.setDisplayName(name);
+    } else if (index == this.parentIndex) {
+      builder.setPath(this.directory.getParent());
+      builder.setDisplayName(name);
+    } else {
+      builder.setPath(this.directory.resolve(name));
+    }
+
+    final var packed = this.kinds[index];
+    return builder
+      .setKind(KINDS[(packed >>> 4) & 0xf])
+      .setTargetKind(KINDS[packed & 0xf])
+      .setSize(this.sizes[index])
+      .setModifiedTime(
+        FileTime.from(
+          Instant.ofEpochSecond(
+            this.modifiedSeconds[index],
+            this.modifiedNanos[index]
+          )
+        )
+      )
+      .build();
+  }
+
+  @Override
+  public int size()
+  {
+    return this.nameEnds.length;
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsNone;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A retriever that lists the contents of a directory. Completed listings are
+ * stored in a listing cache, unless the retriever is listing names alone or
+ * skipped some of the entries in the directory. The paths of skipped entries
+ * are kept, so that they can be added to the listing later without listing
+ * the directory again. Each listing is recorded as a
+ * {@link JWDirectoryListingEvent} when flight recording is enabled.
+ */
+
+public final class JWFileListingDirectory implements JWFileListingRetrieverType
+{
+  private final Path directory;
+  private final boolean withParent;
+  private final JWFileListingCache cache;
+  private final boolean namesOnly;
+  private final Predicate<Path> candidates;
+  private final JWFileChooserMetricsType metrics;
+  private volatile boolean partial;
+  private volatile List<Path> skipped;
+
+  /**
+   * Construct a retriever.
+   *
+   * @param inDirectory  The directory
+   * @param inWithParent {@code true} if a parent directory should be shown
+   * @param inCache      The listing cache
+   */
+
+  public JWFileListingDirectory(
+    final Path inDirectory,
+    final boolean inWithParent,
+    final JWFileListingCache inCache)
+  {
+    this(inDirectory, inWithParent, inCache, false, path -> true);
+  }
+
+  /**
+   * Construct a retriever.
+   *
+   * @param inDirectory  The directory
+   * @param inWithParent {@code true} if a parent directory should be shown
+   * @param inCache      The listing cache
+   * @param inNamesOnly  {@code true} if entries should be listed by name
+   *                     alone, with pending attributes
+   * @param inCandidates The predicate that selects the entries to list
+   *
+   * @see JWFileItems#listDirectoryCandidatesIncrementally
+   */
+
+  public JWFileListingDirectory(
+    final Path inDirectory,
+    final boolean inWithParent,
+    final JWFileListingCache inCache,
+    final boolean inNamesOnly,
+    final Predicate<Path> inCandidates)
+  {
+    this(
+      inDirectory,
+      inWithParent,
+      inCache,
+      inNamesOnly,
+      inCandidates,
+      JWFileChooserMetricsNone.get()
+    );
+  }
+
+  /**
+   * Construct a retriever.
+   *
+   * @param inDirectory  The directory
+   * @param inWithParent {@code true} if a parent directory should be shown
+   * @param inCache      The listing cache
+   * @param inNamesOnly  {@code true} if entries should be listed by name
+   *                     alone, with pending attributes
+   * @param inCandidates The predicate that selects the entries to list
+   * @param inMetrics    The receiver of listing measurements
+   */
+
+  public JWFileListingDirectory(
+    final Path inDirectory,
+    final boolean inWithParent,
+    final JWFileListingCache inCache,
+    final boolean inNamesOnly,
+    final Predicate<Path> inCandidates,
+    final JWFileChooserMetricsType inMetrics)
+  {
+    this.directory =
+      Objects.requireNonNull(inDirectory, "directory");
+    this.withParent =
+      inWithParent;
+    this.cache =
+      Objects.requireNonNull(inCache, "cache");
+    this.namesOnly =
+      inNamesOnly;
+    this.candidates =
+      Objects.requireNonNull(inCandidates, "candidates");
+    this.metrics =
+      Objects.requireNonNull(inMetrics, "metrics");
+    this.skipped =
+      List.of();
+  }
+
+  /**
+   * @return {@code true} if the most recent listing skipped any entries
+   */
+
+  public boolean isPartial()
+  {
+    return this.partial;
+  }
+
+  /**
+   * @return The entries skipped by the most recent listing, if it completed
+   */
+
+  public List<Path> skippedPaths()
+  {
+    return this.skipped;
+  }
+
+  private boolean isCandidate(
+    final Path path,
+    final List<Path> skippedNow)
+  {
+    if (this.candidates.test(path)) {
+      return true;
+    }
+    this.partial = true;
+    skippedNow.add(path);
+    return false;
+  }
+
+  /**
+   * Produce items for entries that were skipped by an earlier listing of
+   * the directory, without listing the directory again. Entries are
+   * produced with pending attributes if the retriever lists names alone,
+   * and entries that no longer exist are omitted otherwise.
+   *
+   * @param paths The skipped entries
+   *
+   * @return The items
+   *
+   * @see #skippedPaths()
+   */
+
+  public List<JWFileItem> onSkippedItemsRequested(
+    final List<Path> paths)
+  {
+    Objects.requireNonNull(paths, "paths");
+
+    Preconditions.checkPreconditionV(
+      !Platform.isFxApplicationThread(),
+      "Must not be FX application thread");
+
+    if (this.namesOnly) {
+      return paths.stream()
+        .map(JWFileItems::pendingFileItem)
+        .toList();
+    }
+    return paths.stream()
+      .flatMap(path -> JWFileItems.resolveExistingFileItem(path, this.metrics).stream())
+      .toList();
+  }
+
+  @Override
+  public List<JWFileItem> onFileItemsRequested()
+    throws Exception
+  {
+    Preconditions.checkPreconditionV(
+      !Platform.isFxApplicationThread(),
+      "Must not be FX application thread");
+
+    return this.list(
+      Integer.MAX_VALUE,
+      Duration.ofNanos(Long.MAX_VALUE),
+      batch -> {
+
+      }
+    );
+  }
+
+  /**
+   * Load a stored snapshot of the directory, if there is one. The snapshot
+   * is not validated against the directory.
+   *
+   * @return The snapshot, if any
+   */
+
+  public Optional<JWFileListingCache.Entry> onSnapshotRequested()
+  {
+    Preconditions.checkPreconditionV(
+      !Platform.isFxApplicationThread(),
+      "Must not be FX application thread");
+
+    return this.cache.findSnapshot(this.directory, this.withParent);
+  }
+
+  /**
+   * Check whether the given cached listing of the directory is still
+   * current and, if it is not, list the directory again.
+   *
+   * @param cached The cached listing
+   *
+   * @return A new listing, or nothing if the cached listing is current
+   *
+   * @throws Exception On errors
+   */
+
+  public Optional<List<JWFileItem>> onFileItemsRevalidate(
+    final JWFileListingCache.Entry cached)
+    throws Exception
+  {
+    Objects.requireNonNull(cached, "cached");
+
+    Preconditions.checkPreconditionV(
+      !Platform.isFxApplicationThread(),
+      "Must not be FX application thread");
+
+    final var stamp = this.stamp();
+    if (stamp.isPresent() && cached.stamp().isUnchangedAt(stamp.get())) {
+      return Optional.empty();
+    }
+
+    this.cache.invalidate(this.directory);
+    return Optional.of(this.onFileItemsRequested());
+  }
+
+  /**
+   * Observe the directory. A directory that cannot be observed can still be
+   * listed, but the listing will not be cached.
+   */
+
+  private Optional<JWDirectoryStamp> stamp()
+  {
+    try {
+      return Optional.of(JWDirectoryStamp.of(this.directory, this.metrics));
+    } catch (final IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  private void store(
+    final Optional<JWDirectoryStamp> stamp,
+    final List<JWFileItem> items)
+  {
+    stamp.ifPresent(s -> {
+      this.cache.put(this.directory, this.withParent, s, items);
+    });
+  }
+
+  @Override
+  public List<JWFileItem> onFileItemsRequestedIncrementally(
+    final Consumer<List<JWFileItem>> receiver)
+    throws Exception
+  {
+    Preconditions.checkPreconditionV(
+      !Platform.isFxApplicationThread(),
+      "Must not be FX application thread");
+
+    final var timeStarted = System.nanoTime();
+    final var firstRows = new AtomicBoolean();
+    return this.list(
+      JWFileItems.DEFAULT_BATCH_SIZE,
+      JWFileItems.DEFAULT_BATCH_INTERVAL,
+      batch -> {
+        if (!batch.isEmpty() && firstRows.compareAndSet(false, true)) {
+          this.metrics.onListingFirstRows(
+            this.directory, Duration.ofNanos(System.nanoTime() - timeStarted));
+        }
+        receiver.accept(batch);
+      }
+    );
+  }
+
+  private List<JWFileItem> list(
+    final int batchSize,
+    final Duration batchInterval,
+    final Consumer<List<JWFileItem>> receiver)
+    throws IOException
+  {
+    final Function<Path, JWFileItem> resolver;
+    if (this.namesOnly) {
+      resolver = JWFileItems::pendingFileItem;
+    } else {
+      resolver = path -> JWFileItems.resolveFileItem(path, this.metrics);
+    }
+
+    this.partial = false;
+    this.skipped = List.of();
+    final var skippedNow = new ArrayList<Path>();
+    final var event =
+      new JWDirectoryListingEvent();
+    event.begin();
+
+    final var timeStarted =
+      System.nanoTime();
+    final var stamp =
+      this.stamp();
+    final List<JWFileItem> items;
+    try {
+      items = JWFileItems.listDirectoryCandidatesIncrementally(
+        this.directory,
+        this.withParent,
+        batchSize,
+        batchInterval,
+        path -> this.isCandidate(path, skippedNow),
+        resolver,
+        this.metrics,
+        receiver
+      );
+      event.setEntries(items.size());
+    } catch (final InterruptedIOException e) {
+      event.setCancelled(true);
+      throw e;
+    } catch (final IOException | RuntimeException e) {
+      event.setFailed(true);
+      throw e;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.setDirectory(this.directory.toString());
+        event.setNamesOnly(this.namesOnly);
+        event.commit();
+      }
+    }
+
+    this.skipped = List.copyOf(skippedNow);
+    this.metrics.onListingCompleted(
+      this.directory,
+      items.size(),
+      Duration.ofNanos(System.nanoTime() - timeStarted)
+    );
+
+    if (!this.namesOnly && !this.partial) {
+      this.store(stamp, items);
+    }
+    return items;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileChooserFilterType;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * The name-only parts of the filter and search that apply to a directory
+ * listing. A query is evaluated against the path of each entry as the
+ * directory is iterated, and entries that cannot possibly be visible are
+ * skipped without their attributes being read.
+ *
+ * @param filter    The selected filter
+ * @param searchKey The search key
+ *
+ * @see JWSearchKeys#searchKeyOf(String)
+ */
+
+public record JWFileListingQuery(
+  JWFileChooserFilterType filter,
+  String searchKey)
+{
+  /**
+   * The name-only parts of the filter and search that apply to a directory
+   * listing.
+   */
+
+  public JWFileListingQuery
+  {
+    Objects.requireNonNull(filter, "filter");
+    Objects.requireNonNull(searchKey, "searchKey");
+  }
+
+  /**
+   * Create a query.
+   *
+   * @param filter     The selected filter
+   * @param searchText The search text
+   *
+   * @return A query
+   */
+
+  public static JWFileListingQuery of(
+    final JWFileChooserFilterType filter,
+    final String searchText)
+  {
+    return new JWFileListingQuery(
+      filter,
+      JWSearchKeys.searchKeyOf(searchText)
+    );
+  }
+
+  /**
+   * @param path The path of a directory entry
+   *
+   * @return {@code false} if the entry cannot be visible under this query
+   */
+
+  public boolean mayContain(
+    final Path path)
+  {
+    if (!this.filter.mayBeAllowed(path)) {
+      return false;
+    }
+    if (this.searchKey.isEmpty()) {
+      return true;
+    }
+
+    final var name = path.getFileName();
+    final var text = name == null ? path.toString() : name.toString();
+    return JWSearchKeys.searchKeyOf(text).contains(this.searchKey);
+  }
+
+  /**
+   * Determine whether every entry that may be visible under this query may
+   * also have been visible under the given query. If so, a listing produced
+   * with the given query contains every entry that this query requires.
+   *
+   * @param other The other query
+   *
+   * @return {@code true} if this query is at least as narrow as {@code other}
+   */
+
+  public boolean isNarrowingOf(
+    final JWFileListingQuery other)
+  {
+    Objects.requireNonNull(other, "other");
+    return this.filter == other.filter
+      && this.searchKey.contains(other.searchKey);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The query, if any, that restricted the most recent directory listing.
+ * A listing that skipped entries lacks entries that may become visible if
+ * the query is later relaxed. The skipped entries of a completed listing
+ * are known, and so relaxing the query only requires producing items for
+ * the skipped entries that the new query admits; the directory is listed
+ * again only if the listing has not completed. A restricted listing that
+ * turned out not to skip any entries is complete.
+ *
+ * Instances are only accessed from the FX thread.
+ */
+
+final class JWFileListingRestriction
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWFileListingRestriction.class);
+
+  private Optional<JWFileListingQuery> listed;
+  private Optional<List<Path>> skipped;
+
+  JWFileListingRestriction()
+  {
+    this.listed = Optional.empty();
+    this.skipped = Optional.empty();
+  }
+
+  /**
+   * Indicate that the next listing is unrestricted.
+   *
+   * @return A predicate that admits every entry
+   */
+
+  Predicate<Path> unrestricted()
+  {
+    this.listed = Optional.empty();
+    this.skipped = Optional.empty();
+    return path -> true;
+  }
+
+  /**
+   * Indicate that the next listing is restricted by the given query.
+   *
+   * @param query The query
+   *
+   * @return A predicate that admits entries that may be visible
+   */
+
+  Predicate<Path> restrictTo(
+    final JWFileListingQuery query)
+  {
+    Objects.requireNonNull(query, "query");
+    this.listed = Optional.of(query);
+    this.skipped = Optional.empty();
+    return query::mayContain;
+  }
+
+  /**
+   * @param retriever The retriever performing a restricted listing
+   * @param andThen   The function to run when the listing completes
+   *
+   * @return A function that forgets the restriction if the listing
+   * turned out to be complete, or records the entries that the listing
+   * skipped, and then runs {@code andThen}
+   */
+
+  Runnable afterListing(
+    final JWFileListingDirectory retriever,
+    final Runnable andThen)
+  {
+    return () -> {
+      if (retriever.isPartial()) {
+        this.skipped = Optional.of(retriever.skippedPaths());
+      } else {
+        this.listed = Optional.empty();
+      }
+      andThen.run();
+    };
+  }
+
+  /**
+   * Relax the restriction to the given query. The skipped entries that may
+   * be visible under the query are produced by a retriever for the listed
+   * directory on the given executor, and passed to the given receiver.
+   *
+   * @param query     The new query
+   * @param retriever A supplier of a retriever for the listed directory
+   * @param executor  The executor on which entries are produced
+   * @param receiver  The receiver of the produced entries
+   *
+   * @return {@code false} if the most recent listing may lack entries that
+   * are visible under {@code query}, and the entries it skipped are not
+   * known, in which case the directory must be listed again
+   */
+
+  boolean relax(
+    final JWFileListingQuery query,
+    final Supplier<JWFileListingDirectory> retriever,
+    final Executor executor,
+    final Consumer<List<JWFileItem>> receiver)
+  {
+    Objects.requireNonNull(query, "query");
+    Objects.requireNonNull(retriever, "retriever");
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(receiver, "receiver");
+
+    if (this.listed.isEmpty() || query.isNarrowingOf(this.listed.get())) {
+      return true;
+    }
+    if (this.skipped.isEmpty()) {
+      return false;
+    }
+
+    final var admitted = new ArrayList<Path>();
+    final var remaining = new ArrayList<Path>();
+    for (final var path : this.skipped.get()) {
+      if (query.mayContain(path)) {
+        admitted.add(path);
+      } else {
+        remaining.add(path);
+      }
+    }
+
+    /*
+     * Every entry that is still skipped is rejected by the new query, and
+     * so the new query now describes the listing.
+     */
+
+    if (remaining.isEmpty()) {
+      this.listed = Optional.empty();
+      this.skipped = Optional.empty();
+    } else {
+      this.listed = Optional.of(query);
+      this.skipped = Optional.of(List.copyOf(remaining));
+    }
+
+    if (!admitted.isEmpty()) {
+      final var directory = retriever.get();
+      executor.execute(() -> {
+        try {
+          receiver.accept(directory.onSkippedItemsRequested(admitted));
+        } catch (final RuntimeException e) {
+          LOG.error("exception producing skipped entries: ", e);
+        }
+      });
+    }
+    return true;
+  }
+}
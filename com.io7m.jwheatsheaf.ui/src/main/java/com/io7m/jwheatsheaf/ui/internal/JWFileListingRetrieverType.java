@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * A function that, on evaluation, returns a list of file items.
@@ -32,4 +33,25 @@ public interface JWFileListingRetrieverType
 
   List<JWFileItem> onFileItemsRequested()
     throws Exception;
+
+  /**
+   * Retrieve file items, delivering them to {@code receiver} in batches as
+   * they become available. The default implementation delivers the result
+   * of {@link #onFileItemsRequested()} as a single batch.
+   *
+   * @param receiver The receiver of batches of items
+   *
+   * @return The complete list of file items
+   *
+   * @throws Exception On errors
+   */
+
+  default List<JWFileItem> onFileItemsRequestedIncrementally(
+    final Consumer<List<JWFileItem>> receiver)
+    throws Exception
+  {
+    final var items = this.onFileItemsRequested();
+    receiver.accept(items);
+    return items;
+  }
 }
@@ -0,0 +1,436 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jwheatsheaf.api.JWFileKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * An on-disk store of directory listing snapshots.
+ *
+ * The store holds the most recent listing of each of a bounded number of
+ * recently used directories, one file per directory, in a compact binary
+ * format. Snapshots allow a chooser to show the contents of a directory
+ * immediately on startup while the directory is listed again in the
+ * background. Snapshot files are written atomically, and snapshot files
+ * that cannot be read are treated as absent and deleted.
+ */
+
+public final class JWFileListingSnapshotStore
+{
+  /**
+   * The default maximum number of snapshots held by a store.
+   */
+
+  public static final int DEFAULT_MAXIMUM_SNAPSHOTS = 32;
+
+  private static final Logger LOG =
+    LoggerFactory.getLogger(JWFileListingSnapshotStore.class);
+
+  private static final int MAGIC = 0x4A575331;
+  private static final int VERSION = 1;
+  private static final String SUFFIX = ".jws";
+
+  private static final byte ORIGIN_SELF = 0;
+  private static final byte ORIGIN_PARENT = 1;
+  private static final byte ORIGIN_CHILD = 2;
+
+  private static final JWFileKind[] KINDS = JWFileKind.values();
+
+  private final Path directory;
+  private final int maximumSnapshots;
+
+  private JWFileListingSnapshotStore(
+    final Path inDirectory,
+    final int inMaximumSnapshots)
+  {
+    this.directory = inDirectory;
+    this.maximumSnapshots = inMaximumSnapshots;
+  }
+
+  /**
+   * Open a snapshot store in the given directory, creating the directory if
+   * necessary.
+   *
+   * @param directory        The directory
+   * @param maximumSnapshots The maximum number of snapshots retained
+   *
+   * @return A snapshot store
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JWFileListingSnapshotStore open(
+    final Path directory,
+    final int maximumSnapshots)
+    throws IOException
+  {
+    Objects.requireNonNull(directory, "directory");
+    Preconditions.checkPreconditionV(
+      maximumSnapshots > 0,
+      "Maximum snapshots %d must be positive",
+      Integer.valueOf(maximumSnapshots)
+    );
+
+    Files.createDirectories(directory);
+    return new JWFileListingSnapshotStore(
+      directory.toAbsolutePath(),
+      maximumSnapshots
+    );
+  }
+
+  private static String keyOf(
+    final Path listed,
+    final boolean withParent)
+  {
+    return "%s %s".formatted(Boolean.valueOf(withParent), listed.toUri());
+  }
+
+  private Path fileOf(
+    final String key)
+  {
+    try {
+      final var digest =
+        MessageDigest.getInstance("SHA-256")
+          .digest(key.getBytes(StandardCharsets.UTF_8));
+      return this.directory.resolve(
+        HexFormat.of().formatHex(digest) + SUFFIX);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Load the snapshot of the given directory, if one exists.
+   *
+   * @param listed     The listed directory
+   * @param withParent {@code true} if the listing includes the parent
+   *                   directory entry
+   *
+   * @return The snapshot, if any
+   */
+
+  public Optional<JWFileListingCache.Entry> load(
+    final Path listed,
+    final boolean withParent)
+  {
+    Objects.requireNonNull(listed, "listed");
+
+    final var key = keyOf(listed, withParent);
+    final var file = this.fileOf(key);
+    try (var stream = new DataInputStream(
+      new BufferedInputStream(Files.newInputStream(file)))) {
+      final var entry = readSnapshot(stream, key, listed);
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+      return Optional.of(entry);
+    } catch (final NoSuchFileException e) {
+      return Optional.empty();
+    } catch (final IOException | RuntimeException e) {
+      LOG.debug("unreadable listing snapshot {}: ", file, e);
+      deleteQuietly(file);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Save a snapshot of the given directory, replacing any existing snapshot
+   * of the directory. Listings containing items that are not the directory
+   * itself, its parent, or its immediate children are not saved. Saving a
+   * snapshot may delete the least recently used snapshots.
+   *
+   * @param listed     The listed directory
+   * @param withParent {@code true} if the listing includes the parent
+   *                   directory entry
+   * @param stamp      A stamp of the directory taken before the listing began
+   * @param items      The listing
+   */
+
+  public void save(
+    final Path listed,
+    final boolean withParent,
+    final JWDirectoryStamp stamp,
+    final List<JWFileItem> items)
+  {
+    Objects.requireNonNull(listed, "listed");
+    Objects.requireNonNull(stamp, "stamp");
+    Objects.requireNonNull(items, "items");
+
+    final var key = keyOf(listed, withParent);
+    final var file = this.fileOf(key);
+
+    try {
+      final var temporary =
+        Files.createTempFile(this.directory, "snapshot", ".tmp");
+
+      try {
+        try (var stream = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+          if (!writeSnapshot(stream, key, listed, stamp, items)) {
+            return;
+          }
+        }
+        moveReplacing(temporary, file);
+      } finally {
+        deleteQuietly(temporary);
+      }
+
+      this.prune();
+    } catch (final IOException e) {
+      LOG.warn("could not save listing snapshot {}: ", file, e);
+    }
+  }
+
+  private static void moveReplacing(
+    final Path source,
+    final Path target)
+    throws IOException
+  {
+    try {
+      Files.move(source, target, ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (final AtomicMoveNotSupportedException e) {
+      Files.move(source, target, REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Delete the least recently used snapshots beyond the maximum count.
+   */
+
+  private void prune()
+    throws IOException
+  {
+    final var files = new ArrayList<Path>();
+    try (var stream = Files.newDirectoryStream(this.directory, "*" + SUFFIX)) {
+      stream.forEach(files::add);
+    }
+
+    if (files.size() <= this.maximumSnapshots) {
+      return;
+    }
+
+    final var times = new ArrayList<TimedFile>(files.size());
+    for (final var file : files) {
+      try {
+        times.add(new TimedFile(file, Files.getLastModifiedTime(file)));
+      } catch (final NoSuchFileException e) {
+        // Removed by another store.
+      }
+    }
+
+    times.sort(Comparator.comparing(TimedFile::time).reversed());
+    for (final var old : times.subList(
+      Math.min(this.maximumSnapshots, times.size()), times.size())) {
+      deleteQuietly(old.file());
+    }
+  }
+
+  private static void deleteQuietly(
+    final Path file)
+  {
+    try {
+      Files.deleteIfExists(file);
+    } catch (final IOException e) {
+      LOG.debug("could not delete {}: ", file, e);
+    }
+  }
+
+  private static boolean writeSnapshot(
+    final DataOutputStream stream,
+    final String key,
+    final Path listed,
+    final JWDirectoryStamp stamp,
+    final List<JWFileItem> items)
+    throws IOException
+  {
+    stream.writeInt(MAGIC);
+    stream.writeInt(VERSION);
+    writeString(stream, key);
+    writeInstant(stream, stamp.modified().toInstant());
+    writeInstant(stream, stamp.observed());
+    stream.writeInt(items.size());
+
+    final var parent = listed.getParent();
+    for (final var item : items) {
+      final var path = item.path();
+      if (item.displayName().isPresent()) {
+        if (path.equals(listed)) {
+          stream.writeByte(ORIGIN_SELF);
+        } else if (path.equals(parent)) {
+          stream.writeByte(ORIGIN_PARENT);
+        } else {
+          return false;
+        }
+      } else {
+        if (!Objects.equals(path.getParent(), listed)) {
+          return false;
+        }
+        stream.writeByte(ORIGIN_CHILD);
+        writeString(stream, path.getFileName().toString());
+      }
+
+      stream.writeByte(item.kind().ordinal());
+      stream.writeByte(item.targetKind().ordinal());
+      stream.writeLong(item.size());
+      writeInstant(stream, item.modifiedTime().toInstant());
+    }
+    return true;
+  }
+
+  private static JWFileListingCache.Entry readSnapshot(
+    final DataInputStream stream,
+    final String key,
+    final Path listed)
+    throws IOException
+  {
+    if (stream.readInt() != MAGIC || stream.readInt() != VERSION) {
+      throw new IOException("Unrecognized snapshot format");
+    }
+    if (!Objects.equals(readString(stream), key)) {
+      throw new IOException("Snapshot is for a different directory");
+    }
+
+    final var stamp =
+      new JWDirectoryStamp(
+        FileTime.from(readInstant(stream)),
+        null,
+        readInstant(stream)
+      );
+
+    final var count = stream.readInt();
+    final var items = new ArrayList<JWFileItem>(Math.min(count, 1024));
+    for (int index = 0; index < count; ++index) {
+      items.add(readItem(stream, listed));
+    }
+    return new JWFileListingCache.Entry(stamp, List.copyOf(items));
+  }
+
+  private static JWFileItem readItem(
+    final DataInputStream stream,
+    final Path listed)
+    throws IOException
+  {
+    final var builder = JWFileItem.builder();
+    switch (stream.readByte()) {
+      case ORIGIN_SELF -> {
+        builder.setPath(listed);
+        builder.setDisplayName(".");
+      }
+      case ORIGIN_PARENT -> {
+        builder.setPath(Objects.requireNonNull(listed.getParent(), "parent"));
+        builder.setDisplayName("..");
+      }
+      case ORIGIN_CHILD -> {
+        builder.setPath(listed.resolve(readString(stream)));
+      }
+      default -> throw new IOException("Unrecognized item origin");
+    }
+
+    return builder
+      .setKind(readKind(stream))
+      .setTargetKind(readKind(stream))
+      .setSize(stream.readLong())
+      .setModifiedTime(FileTime.from(readInstant(stream)))
+      .build();
+  }
+
+  private static JWFileKind readKind(
+    final DataInputStream stream)
+    throws IOException
+  {
+    final var ordinal = stream.readUnsignedByte();
+    if (ordinal >= KINDS.length) {
+      throw new IOException("Unrecognized file kind");
+    }
+    return KINDS[ordinal];
+  }
+
+  private static void writeString(
+    final DataOutputStream stream,
+    final String text)
+    throws IOException
+  {
+    final var bytes = text.getBytes(StandardCharsets.UTF_8);
+    stream.writeInt(bytes.length);
+    stream.write(bytes);
+  }
+
+  private static String readString(
+    final DataInputStream stream)
+    throws IOException
+  {
+    final var length = stream.readInt();
+    if (length < 0 || length > 0x10000) {
+      throw new IOException("Unreasonable string length");
+    }
+    final var bytes = new byte[length];
+    stream.readFully(bytes);
+    return StandardCharsets.UTF_8.newDecoder()
+      .decode(ByteBuffer.wrap(bytes))
+      .toString();
+  }
+
+  private static void writeInstant(
+    final DataOutputStream stream,
+    final Instant time)
+    throws IOException
+  {
+    stream.writeLong(time.getEpochSecond());
+    stream.writeInt(time.getNano());
+  }
+
+  private static Instant readInstant(
+    final DataInputStream stream)
+    throws IOException
+  {
+    return Instant.ofEpochSecond(stream.readLong(), stream.readInt());
+  }
+
+  private record TimedFile(
+    Path file,
+    FileTime time)
+  {
+
+  }
+}
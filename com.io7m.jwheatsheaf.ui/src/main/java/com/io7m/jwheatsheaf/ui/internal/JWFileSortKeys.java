@@ -0,0 +1,412 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The sort keys of a list of items, extracted into primitive arrays.
+ *
+ * Extracting the keys once allows a list to be sorted by comparing array
+ * elements, rather than by repeatedly calling into (and boxing the values
+ * of) each item. The result of sorting is a permutation of the indices of
+ * the list, rather than a sorted list of items, and so the keys can be
+ * extracted and sorted on a background thread while the items remain
+ * visible in their current order.
+ */
+
+public final class JWFileSortKeys
+{
+  private final ColumnKeys[] columns;
+  private final int size;
+
+  private JWFileSortKeys(
+    final ColumnKeys[] inColumns,
+    final int inSize)
+  {
+    this.columns = inColumns;
+    this.size = inSize;
+  }
+
+  /**
+   * Extract the sort keys of the given items.
+   *
+   * @param items The items
+   * @param order The sort order
+   *
+   * @return The sort keys
+   */
+
+  public static JWFileSortKeys of(
+    final List<JWFileItem> items,
+    final JWFileSortOrder order)
+  {
+    Objects.requireNonNull(items, "items");
+
+    if (items instanceof final SourceType source) {
+      return ofSource(source, order);
+    }
+    return ofSource(new ItemSource(items), order);
+  }
+
+  /**
+   * Extract the sort keys of the items of the given source.
+   *
+   * @param source The source of keys
+   * @param order  The sort order
+   *
+   * @return The sort keys
+   */
+
+  static JWFileSortKeys ofSource(
+    final SourceType source,
+    final JWFileSortOrder order)
+  {
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(order, "order");
+
+    final var columnList = order.columns();
+    final var columns = new ColumnKeys[columnList.size()];
+    for (int index = 0; index < columns.length; ++index) {
+      columns[index] = ColumnKeys.of(source, columnList.get(index));
+    }
+    return new JWFileSortKeys(columns, source.size());
+  }
+
+  /**
+   * Sort the items. The sort is stable: items that compare as equal retain
+   * their relative order.
+   *
+   * @return An array {@code p} such that {@code p[i]} is the index of the
+   * item at position {@code i} in the sorted order
+   */
+
+  public int[] permutation()
+  {
+    var source = new int[this.size];
+    var target = new int[this.size];
+    for (int index = 0; index < this.size; ++index) {
+      source[index] = index;
+    }
+    if (this.columns.length == 0) {
+      return source;
+    }
+
+    /*
+     * A bottom-up merge sort of the indices.
+     */
+
+    for (int width = 1; width < this.size; width *= 2) {
+      for (int low = 0; low < this.size; low += 2 * width) {
+        final var middle = Math.min(low + width, this.size);
+        final var high = Math.min(low + 2 * width, this.size);
+        this.merge(source, target, low, middle, high);
+      }
+      final var swap = source;
+      source = target;
+      target = swap;
+    }
+    return source;
+  }
+
+  private void merge(
+    final int[] source,
+    final int[] target,
+    final int low,
+    final int middle,
+    final int high)
+  {
+    int left = low;
+    int right = middle;
+    for (int output = low; output < high; ++output) {
+      if (left < middle
+        && (right >= high || this.compare(source[left], source[right]) <= 0)) {
+        target[output] = source[left];
+        ++left;
+      } else {
+        target[output] = source[right];
+        ++right;
+      }
+    }
+  }
+
+  /**
+   * Compare the items at the given indices.
+   *
+   * @param x The index of the first item
+   * @param y The index of the second item
+   *
+   * @return A negative, zero, or positive value if the first item sorts
+   * before, with, or after the second item
+   */
+
+  public int compare(
+    final int x,
+    final int y)
+  {
+    for (final var column : this.columns) {
+      final var c = column.compare(x, y);
+      if (c != 0) {
+        return c;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * A source of the sort keys of a sequence of items. A list of items that
+   * implements this interface supplies its keys directly, rather than
+   * through its items.
+   */
+
+  interface SourceType
+  {
+    /**
+     * @return The number of items
+     */
+
+    int size();
+
+    /**
+     * @param index The item index
+     *
+     * @return The type key of the item
+     *
+     * @see JWFileSortOrder#typeKey(JWFileItem)
+     */
+
+    int typeKey(int index);
+
+    /**
+     * @param index The item index
+     *
+     * @return The search key of the item
+     */
+
+    String searchKey(int index);
+
+    /**
+     * @param index The item index
+     *
+     * @return The name of the item
+     */
+
+    String name(int index);
+
+    /**
+     * @param index The item index
+     *
+     * @return The size key of the item
+     *
+     * @see JWFileSortOrder#sizeKey(JWFileItem)
+     */
+
+    long sizeKey(int index);
+
+    /**
+     * @param index The item index
+     *
+     * @return The major part of the time key of the item
+     */
+
+    long timeSecondsKey(int index);
+
+    /**
+     * @param index The item index
+     *
+     * @return The minor part of the time key of the item
+     */
+
+    int timeNanosKey(int index);
+  }
+
+  private record ItemSource(
+    List<JWFileItem> items)
+    implements SourceType
+  {
+    @Override
+    public int size()
+    {
+      return this.items.size();
+    }
+
+    @Override
+    public int typeKey(
+      final int index)
+    {
+      return JWFileSortOrder.typeKey(this.items.get(index));
+    }
+
+    @Override
+    public String searchKey(
+      final int index)
+    {
+      return this.items.get(index).searchKey();
+    }
+
+    @Override
+    public String name(
+      final int index)
+    {
+      return this.items.get(index).name();
+    }
+
+    @Override
+    public long sizeKey(
+      final int index)
+    {
+      return JWFileSortOrder.sizeKey(this.items.get(index));
+    }
+
+    @Override
+    public long timeSecondsKey(
+      final int index)
+    {
+      return JWFileSortOrder.timeSecondsKey(this.items.get(index));
+    }
+
+    @Override
+    public int timeNanosKey(
+      final int index)
+    {
+      return JWFileSortOrder.timeNanosKey(this.items.get(index));
+    }
+  }
+
+  private abstract static class ColumnKeys
+  {
+    private final boolean ascending;
+
+    ColumnKeys(
+      final boolean inAscending)
+    {
+      this.ascending = inAscending;
+    }
+
+    static ColumnKeys of(
+      final SourceType source,
+      final JWFileSortOrder.Column column)
+    {
+      final var count = source.size();
+      final var ascending = column.ascending();
+      return switch (column.field()) {
+        case TYPE -> {
+          final var keys = new long[count];
+          for (int index = 0; index < count; ++index) {
+            keys[index] = source.typeKey(index);
+          }
+          yield new LongKeys(ascending, keys, null);
+        }
+        case NAME -> {
+          final var keys = new String[count];
+          final var names = new String[count];
+          for (int index = 0; index < count; ++index) {
+            keys[index] = source.searchKey(index);
+            names[index] = source.name(index);
+          }
+          yield new NameKeys(ascending, keys, names);
+        }
+        case SIZE -> {
+          final var keys = new long[count];
+          for (int index = 0; index < count; ++index) {
+            keys[index] = source.sizeKey(index);
+          }
+          yield new LongKeys(ascending, keys, null);
+        }
+        case TIME -> {
+          final var seconds = new long[count];
+          final var nanos = new int[count];
+          for (int index = 0; index < count; ++index) {
+            seconds[index] = source.timeSecondsKey(index);
+            nanos[index] = source.timeNanosKey(index);
+          }
+          yield new LongKeys(ascending, seconds, nanos);
+        }
+      };
+    }
+
+    final int compare(
+      final int x,
+      final int y)
+    {
+      final var c = this.compareAscending(x, y);
+      return this.ascending ? c : -c;
+    }
+
+    abstract int compareAscending(
+      int x,
+      int y);
+  }
+
+  private static final class LongKeys extends ColumnKeys
+  {
+    private final long[] major;
+    private final int[] minor;
+
+    LongKeys(
+      final boolean inAscending,
+      final long[] inMajor,
+      final int[] inMinor)
+    {
+      super(inAscending);
+      this.major = inMajor;
+      this.minor = inMinor;
+    }
+
+    @Override
+    int compareAscending(
+      final int x,
+      final int y)
+    {
+      final var c = Long.compare(this.major[x], this.major[y]);
+      if (c != 0 || this.minor == null) {
+        return c;
+      }
+      return Integer.compare(this.minor[x], this.minor[y]);
+    }
+  }
+
+  private static final class NameKeys extends ColumnKeys
+  {
+    private final String[] keys;
+    private final String[] names;
+
+    NameKeys(
+      final boolean inAscending,
+      final String[] inKeys,
+      final String[] inNames)
+    {
+      super(inAscending);
+      this.keys = inKeys;
+      this.names = inNames;
+    }
+
+    @Override
+    int compareAscending(
+      final int x,
+      final int y)
+    {
+      final var c = this.keys[x].compareTo(this.keys[y]);
+      if (c != 0) {
+        return c;
+      }
+      return this.names[x].compareTo(this.names[y]);
+    }
+  }
+}
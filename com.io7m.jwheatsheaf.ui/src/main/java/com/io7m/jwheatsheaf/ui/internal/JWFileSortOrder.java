@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import com.io7m.jwheatsheaf.api.JWFileKind;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The order in which the items of a file list are sorted: a sequence of
+ * fields, each sorted in ascending or descending order. Later fields break
+ * ties in earlier fields. An empty sequence leaves items in the order in
+ * which they were listed.
+ *
+ * Every field is compared using a primitive key, or a search key that each
+ * item computes once, so that comparisons do not allocate.
+ *
+ * @param columns The sort columns, most significant first
+ *
+ * @see JWFileSortKeys
+ */
+
+public record JWFileSortOrder(
+  List<Column> columns)
+{
+  private static final JWFileSortOrder UNSORTED =
+    new JWFileSortOrder(List.of());
+
+  /**
+   * The order in which the items of a file list are sorted.
+   */
+
+  public JWFileSortOrder
+  {
+    columns = List.copyOf(columns);
+  }
+
+  /**
+   * @return The order that leaves items in the order in which they were
+   * listed
+   */
+
+  public static JWFileSortOrder unsorted()
+  {
+    return UNSORTED;
+  }
+
+  /**
+   * @return {@code true} if this order has no columns
+   */
+
+  public boolean isUnsorted()
+  {
+    return this.columns.isEmpty();
+  }
+
+  /**
+   * @return A comparator that is consistent with the permutations produced
+   * by {@link JWFileSortKeys}
+   */
+
+  public Comparator<JWFileItem> comparator()
+  {
+    Comparator<JWFileItem> result = (x, y) -> 0;
+    for (final var column : this.columns) {
+      final var base = comparatorOf(column.field());
+      result = result.thenComparing(
+        column.ascending() ? base : base.reversed());
+    }
+    return result;
+  }
+
+  private static Comparator<JWFileItem> comparatorOf(
+    final Field field)
+  {
+    return switch (field) {
+      case TYPE -> Comparator.comparingInt(JWFileSortOrder::typeKey);
+      case NAME -> JWFileSortOrder::compareNames;
+      case SIZE -> Comparator.comparingLong(JWFileSortOrder::sizeKey);
+      case TIME -> JWFileSortOrder::compareTimes;
+    };
+  }
+
+  private static int compareNames(
+    final JWFileItem x,
+    final JWFileItem y)
+  {
+    final var c = x.searchKey().compareTo(y.searchKey());
+    if (c != 0) {
+      return c;
+    }
+    return x.name().compareTo(y.name());
+  }
+
+  private static int compareTimes(
+    final JWFileItem x,
+    final JWFileItem y)
+  {
+    final var c = Long.compare(timeSecondsKey(x), timeSecondsKey(y));
+    if (c != 0) {
+      return c;
+    }
+    return Integer.compare(timeNanosKey(x), timeNanosKey(y));
+  }
+
+  /**
+   * Directories sort before all other files, followed by each kind of
+   * file in turn.
+   *
+   * @param item The item
+   *
+   * @return The type sort key of the item
+   */
+
+  static int typeKey(
+    final JWFileItem item)
+  {
+    return typeKey(item.kind(), item.targetKind());
+  }
+
+  static int typeKey(
+    final JWFileKind kind,
+    final JWFileKind targetKind)
+  {
+    final var group = targetKind == JWFileKind.DIRECTORY ? 0 : 1;
+    return (group << 8) | kind.ordinal();
+  }
+
+  /**
+   * Items with pending attributes sort before all other items.
+   *
+   * @param item The item
+   *
+   * @return The size sort key of the item
+   */
+
+  static long sizeKey(
+    final JWFileItem item)
+  {
+    return sizeKey(item.attributesPending(), item.size());
+  }
+
+  static long sizeKey(
+    final boolean pending,
+    final long size)
+  {
+    return pending ? Long.MIN_VALUE : size;
+  }
+
+  static long timeSecondsKey(
+    final JWFileItem item)
+  {
+    if (item.attributesPending()) {
+      return Long.MIN_VALUE;
+    }
+    return item.modifiedTime().toInstant().getEpochSecond();
+  }
+
+  static long timeSecondsKey(
+    final boolean pending,
+    final long seconds)
+  {
+    return pending ? Long.MIN_VALUE : seconds;
+  }
+
+  static int timeNanosKey(
+    final JWFileItem item)
+  {
+    if (item.attributesPending()) {
+      return 0;
+    }
+    return item.modifiedTime().toInstant().getNano();
+  }
+
+  static int timeNanosKey(
+    final boolean pending,
+    final int nanos)
+  {
+    return pending ? 0 : nanos;
+  }
+
+  /**
+   * A field by which items can be sorted.
+   */
+
+  public enum Field
+  {
+    /**
+     * Sort by file type, with directories first.
+     */
+
+    TYPE,
+
+    /**
+     * Sort by name, ignoring case.
+     */
+
+    NAME,
+
+    /**
+     * Sort by size.
+     */
+
+    SIZE,
+
+    /**
+     * Sort by modification time.
+     */
+
+    TIME
+  }
+
+  /**
+   * A sort column.
+   *
+   * @param field     The field
+   * @param ascending {@code true} if the field is sorted in ascending order
+   */
+
+  public record Column(
+    Field field,
+    boolean ascending)
+  {
+    /**
+     * A sort column.
+     */
+
+    public Column
+    {
+      Objects.requireNonNull(field, "field");
+    }
+  }
+}
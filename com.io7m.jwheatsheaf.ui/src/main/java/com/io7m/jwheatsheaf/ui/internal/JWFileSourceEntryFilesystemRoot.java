@@ -25,6 +25,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * A source entry representing a filesystem root.
@@ -54,6 +55,7 @@ public final class JWFileSourceEntryFilesystemRoot
   @Override
   public void onListCell(
     final JWFileImageSetType images,
+    final JWImages imageCache,
     final JWStrings strings,
     final ListCell<JWFileSourceEntryType> cell)
   {
@@ -62,7 +64,7 @@ public final class JWFileSourceEntryFilesystemRoot
       "Must be FX application thread");
 
     cell.setText(this.root.toString());
-    cell.setGraphic(JWImages.imageView16x16Of(images.forFileSystem()));
+    imageCache.showImage(cell, images.forFileSystem());
   }
 
   @Override
@@ -81,4 +83,22 @@ public final class JWFileSourceEntryFilesystemRoot
 
     return JWFileItems.listDirectory(this.root, this.withParent);
   }
+
+  @Override
+  public List<JWFileItem> onFileItemsRequestedIncrementally(
+    final Consumer<List<JWFileItem>> receiver)
+    throws Exception
+  {
+    Preconditions.checkPreconditionV(
+      !Platform.isFxApplicationThread(),
+      "Must not be FX application thread");
+
+    return JWFileItems.listDirectoryIncrementally(
+      this.root,
+      this.withParent,
+      JWFileItems.DEFAULT_BATCH_SIZE,
+      JWFileItems.DEFAULT_BATCH_INTERVAL,
+      receiver
+    );
+  }
 }
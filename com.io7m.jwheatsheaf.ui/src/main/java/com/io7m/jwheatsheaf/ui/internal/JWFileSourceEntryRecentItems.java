@@ -18,6 +18,7 @@ package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.jaffirm.core.Preconditions;
 import com.io7m.jwheatsheaf.api.JWFileChooserConfiguration;
+import com.io7m.jwheatsheaf.api.JWFileChooserMetricsType;
 import com.io7m.jwheatsheaf.api.JWFileImageSetType;
 import javafx.application.Platform;
 import javafx.scene.control.ListCell;
@@ -36,23 +37,29 @@ import java.util.stream.Collectors;
 public final class JWFileSourceEntryRecentItems implements JWFileSourceEntryType
 {
   private final JWFileChooserConfiguration configuration;
+  private final JWFileChooserMetricsType metrics;
 
   /**
    * Construct a source entry.
    *
    * @param inConfiguration The file chooser configuration
+   * @param inMetrics       The receiver of attribute reads
    */
 
   public JWFileSourceEntryRecentItems(
-    final JWFileChooserConfiguration inConfiguration)
+    final JWFileChooserConfiguration inConfiguration,
+    final JWFileChooserMetricsType inMetrics)
   {
     this.configuration =
       Objects.requireNonNull(inConfiguration, "configuration");
+    this.metrics =
+      Objects.requireNonNull(inMetrics, "metrics");
   }
 
   @Override
   public void onListCell(
     final JWFileImageSetType images,
+    final JWImages imageCache,
     final JWStrings strings,
     final ListCell<JWFileSourceEntryType> cell)
   {
@@ -61,7 +68,7 @@ public final class JWFileSourceEntryRecentItems implements JWFileSourceEntryType
       "Must be FX application thread");
 
     cell.setText(strings.recentItems());
-    cell.setGraphic(JWImages.imageView16x16Of(images.forRecentItems()));
+    imageCache.showImage(cell, images.forRecentItems());
   }
 
   @Override
@@ -85,7 +92,7 @@ public final class JWFileSourceEntryRecentItems implements JWFileSourceEntryType
 
     final var items = new ArrayList<JWFileItem>(paths.size());
     for (final var path : paths) {
-      items.add(JWFileItems.resolveFileItem(path));
+      items.add(JWFileItems.resolveFileItem(path, this.metrics));
     }
     return items;
   }
@@ -31,13 +31,15 @@ public interface JWFileSourceEntryType extends JWFileListingRetrieverType
   /**
    * Configure the given list cell to show this item.
    *
-   * @param images  The image resolver
-   * @param strings The string resources
-   * @param cell    The list cell
+   * @param images     The image resolver
+   * @param imageCache The cache of decoded images
+   * @param strings    The string resources
+   * @param cell       The list cell
    */
 
   void onListCell(
     JWFileImageSetType images,
+    JWImages imageCache,
     JWStrings strings,
     ListCell<JWFileSourceEntryType> cell
   );
@@ -18,64 +18,130 @@ package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.jwheatsheaf.api.JWFileImageSetType;
 import com.io7m.jwheatsheaf.api.JWFileKind;
+import javafx.scene.control.Labeled;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
 import java.net.URL;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Functions to deal with images.
+ * A cache of decoded images.
+ *
+ * Images are keyed by the external form of their URL, and are decoded once
+ * at the 16x16 size at which they are displayed. A single cache is shared
+ * by every file chooser that uses the same image set, so table and list
+ * cells do not decode images as they are scrolled.
  */
 
 public final class JWImages
 {
+  private static final double SIZE = 16.0;
+
+  private final ConcurrentHashMap<String, Image> decoded;
+
   private JWImages()
   {
+    this.decoded = new ConcurrentHashMap<>();
+  }
 
+  /**
+   * Create a new, empty image cache.
+   *
+   * @return An image cache
+   */
+
+  public static JWImages create()
+  {
+    return new JWImages();
   }
 
   /**
-   * Construct a 16x16 image view for the given URL.
+   * Retrieve a 16x16 image for the given URL, decoding it if it has not
+   * already been decoded.
    *
    * @param url The URL
    *
-   * @return An image view
+   * @return An image
    */
 
-  public static ImageView imageView16x16Of(
+  public Image imageOf(
     final URL url)
   {
     Objects.requireNonNull(url, "url");
 
+    return this.decoded.computeIfAbsent(
+      url.toExternalForm(),
+      key -> new Image(key, SIZE, SIZE, true, true)
+    );
+  }
+
+  /**
+   * Construct a 16x16 image view for the given URL.
+   *
+   * @param url The URL
+   *
+   * @return An image view
+   */
+
+  public ImageView imageView16x16Of(
+    final URL url)
+  {
     final var imageView = new ImageView();
-    imageView.setFitWidth(16.0);
-    imageView.setFitHeight(16.0);
-    imageView.setImage(new Image(url.toString()));
+    imageView.setFitWidth(SIZE);
+    imageView.setFitHeight(SIZE);
+    imageView.setImage(this.imageOf(url));
     return imageView;
   }
 
   /**
-   * Load an image for the given file kind.
+   * Show the image for the given URL as the graphic of the given control.
+   * If the control already displays an image view, the view is reused.
    *
-   * @param images The image provider
-   * @param kind   The kind
+   * @param control The control
+   * @param url     The URL
+   */
+
+  public void showImage(
+    final Labeled control,
+    final URL url)
+  {
+    Objects.requireNonNull(control, "control");
+
+    final var image = this.imageOf(url);
+    if (control.getGraphic() instanceof final ImageView view) {
+      view.setImage(image);
+    } else {
+      final var view = new ImageView(image);
+      view.setFitWidth(SIZE);
+      view.setFitHeight(SIZE);
+      control.setGraphic(view);
+    }
+  }
+
+  /**
+   * Show the image for the given file kind as the graphic of the given
+   * control. The graphic is removed if the image set has no image for the
+   * kind.
    *
-   * @return An image
+   * @param control The control
+   * @param images  The image set
+   * @param kind    The kind
    */
 
-  public static ImageView imageOfKind(
+  public void showImageOfKind(
+    final Labeled control,
     final JWFileImageSetType images,
     final JWFileKind kind)
   {
-    final var imageOpt = images.forFileKind(kind);
-    if (imageOpt.isPresent()) {
-      final var imageView = new ImageView();
-      imageView.setFitWidth(16.0);
-      imageView.setFitHeight(16.0);
-      imageView.setImage(new Image(imageOpt.get().toString()));
-      return imageView;
-    }
-    return null;
+    Objects.requireNonNull(images, "images");
+    Objects.requireNonNull(kind, "kind");
+
+    images.forFileKind(kind)
+      .ifPresentOrElse(
+        url -> this.showImage(control, url),
+        () -> control.setGraphic(null)
+      );
   }
 }
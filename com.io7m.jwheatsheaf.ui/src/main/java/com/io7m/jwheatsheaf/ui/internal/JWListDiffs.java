@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import javafx.collections.ObservableList;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Functions to update observable lists with minimal changes.
+ */
+
+public final class JWListDiffs
+{
+  /**
+   * The maximum number of separate insertions that will be made to a list.
+   * Beyond this, replacing the contents of the list outright is cheaper than
+   * publishing many small changes.
+   */
+
+  private static final int MAXIMUM_INSERTIONS = 256;
+
+  private JWListDiffs()
+  {
+
+  }
+
+  /**
+   * Update {@code target} so that it is equal to {@code desired}, publishing
+   * as few changes as possible. Elements are matched by key; an element of
+   * {@code target} is retained if {@code desired} contains an element with
+   * the same key, and is otherwise removed. A retained element that is not
+   * equal to its counterpart in {@code desired} is updated in place with
+   * {@code set()}. All removals are published as a single change, followed
+   * by one change for each run of consecutive new elements, followed by the
+   * updates.
+   *
+   * If the retained elements do not appear in the same relative order in
+   * both lists, if keys are not unique, or if the lists have too little in
+   * common, the contents of {@code target} are simply replaced.
+   *
+   * @param target  The list to update
+   * @param desired The desired contents of the list
+   * @param key     A function that extracts a key from an element
+   * @param <T>     The type of elements
+   * @param <K>     The type of keys
+   */
+
+  public static <T, K> void update(
+    final ObservableList<T> target,
+    final List<? extends T> desired,
+    final Function<? super T, ? extends K> key)
+  {
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(desired, "desired");
+    Objects.requireNonNull(key, "key");
+
+    if (target.isEmpty() || desired.isEmpty()) {
+      target.setAll(desired);
+      return;
+    }
+
+    final var indices = new HashMap<K, Integer>(desired.size() * 2);
+    for (int index = 0; index < desired.size(); ++index) {
+      indices.put(key.apply(desired.get(index)), Integer.valueOf(index));
+    }
+    if (indices.size() != desired.size()) {
+      target.setAll(desired);
+      return;
+    }
+
+    final var retained = new BitSet(desired.size());
+    final Set<T> removals = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (!classify(target, key, indices, retained, removals)) {
+      target.setAll(desired);
+      return;
+    }
+
+    final var insertions = insertionsOf(retained, desired.size());
+    if (retained.isEmpty() || insertions > MAXIMUM_INSERTIONS) {
+      target.setAll(desired);
+      return;
+    }
+
+    if (!removals.isEmpty()) {
+      target.removeAll(removals);
+    }
+    insert(target, desired, retained);
+    updateInPlace(target, desired, retained);
+  }
+
+  /**
+   * Replace the retained elements that differ from the desired elements.
+   * Once all insertions are made, the position of each element in the
+   * target is its index in the desired list.
+   */
+
+  @SuppressWarnings("unchecked")
+  private static <T> void updateInPlace(
+    final ObservableList<T> target,
+    final List<? extends T> desired,
+    final BitSet retained)
+  {
+    final var updates = new TreeMap<Integer, T>();
+    for (int index = retained.nextSetBit(0);
+         index >= 0;
+         index = retained.nextSetBit(index + 1)) {
+      final var element = desired.get(index);
+      if (!Objects.equals(target.get(index), element)) {
+        updates.put(Integer.valueOf(index), element);
+      }
+    }
+
+    if (updates.isEmpty()) {
+      return;
+    }
+
+    if (target instanceof final JWObservableArrayList<?> list) {
+      ((JWObservableArrayList<T>) list).setEach(updates);
+      return;
+    }
+
+    for (final var entry : updates.entrySet()) {
+      target.set(entry.getKey().intValue(), entry.getValue());
+    }
+  }
+
+  /**
+   * Divide the elements of the target list into those that are retained
+   * and those that must be removed.
+   *
+   * @return {@code false} if the retained elements are not in order
+   */
+
+  private static <T, K> boolean classify(
+    final List<T> target,
+    final Function<? super T, ? extends K> key,
+    final HashMap<K, Integer> indices,
+    final BitSet retained,
+    final Set<T> removals)
+  {
+    int last = -1;
+    for (final var element : target) {
+      final var indexBoxed = indices.get(key.apply(element));
+      if (indexBoxed == null) {
+        removals.add(element);
+        continue;
+      }
+
+      final var index = indexBoxed.intValue();
+      if (retained.get(index)) {
+        removals.add(element);
+        continue;
+      }
+      if (index < last) {
+        return false;
+      }
+      retained.set(index);
+      last = index;
+    }
+    return true;
+  }
+
+  private static int insertionsOf(
+    final BitSet retained,
+    final int size)
+  {
+    int runs = 0;
+    int index = retained.nextClearBit(0);
+    while (index < size) {
+      runs += 1;
+      final var next = retained.nextSetBit(index);
+      if (next < 0) {
+        break;
+      }
+      index = retained.nextClearBit(next);
+    }
+    return runs;
+  }
+
+  private static <T> void insert(
+    final ObservableList<T> target,
+    final List<? extends T> desired,
+    final BitSet retained)
+  {
+    int position = 0;
+    int index = 0;
+    final var size = desired.size();
+    while (index < size) {
+      if (retained.get(index)) {
+        position += 1;
+        index += 1;
+        continue;
+      }
+
+      final var next = retained.nextSetBit(index);
+      final var end = next < 0 ? size : next;
+      target.addAll(position, desired.subList(index, end));
+      position += end - index;
+      index = end;
+    }
+  }
+}
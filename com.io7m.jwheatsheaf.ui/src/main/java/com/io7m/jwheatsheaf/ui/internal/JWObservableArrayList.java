@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.SortedMap;
+
+/**
+ * An observable list backed by an array list.
+ *
+ * Bulk operations are applied to the backing list directly and published
+ * as one change per contiguous range, in the manner of the lists returned
+ * by {@link javafx.collections.FXCollections#observableArrayList()}. In
+ * addition, a set of elements at arbitrary positions can be replaced in a
+ * single change, so that observers of the list see one change rather than
+ * one change per element.
+ *
+ * @param <E> The type of elements
+ */
+
+final class JWObservableArrayList<E>
+  extends ModifiableObservableListBase<E>
+{
+  private final ArrayList<E> elements;
+
+  JWObservableArrayList()
+  {
+    this.elements = new ArrayList<>();
+  }
+
+  /**
+   * Replace the elements at the given positions, publishing a single
+   * change.
+   *
+   * @param replacements The new elements, by position
+   */
+
+  void setEach(
+    final SortedMap<Integer, ? extends E> replacements)
+  {
+    Objects.requireNonNull(replacements, "replacements");
+
+    if (replacements.isEmpty()) {
+      return;
+    }
+
+    this.beginChange();
+    try {
+      for (final var entry : replacements.entrySet()) {
+        final var index = entry.getKey().intValue();
+        final var old = this.elements.set(index, entry.getValue());
+        this.nextSet(index, old);
+      }
+    } finally {
+      this.endChange();
+    }
+  }
+
+  @Override
+  public boolean setAll(
+    final Collection<? extends E> collection)
+  {
+    Objects.requireNonNull(collection, "collection");
+
+    this.beginChange();
+    try {
+      final var removed = new ArrayList<>(this.elements);
+      this.elements.clear();
+      this.elements.addAll(collection);
+      if (!removed.isEmpty() || !this.elements.isEmpty()) {
+        this.nextReplace(0, this.elements.size(), removed);
+      }
+    } finally {
+      this.endChange();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean addAll(
+    final Collection<? extends E> collection)
+  {
+    return this.addAll(this.elements.size(), collection);
+  }
+
+  @Override
+  public boolean addAll(
+    final int index,
+    final Collection<? extends E> collection)
+  {
+    Objects.checkIndex(index, this.elements.size() + 1);
+    Objects.requireNonNull(collection, "collection");
+
+    if (collection.isEmpty()) {
+      return false;
+    }
+
+    this.beginChange();
+    try {
+      this.elements.addAll(index, collection);
+      this.nextAdd(index, index + collection.size());
+    } finally {
+      this.endChange();
+    }
+    return true;
+  }
+
+  @Override
+  protected void removeRange(
+    final int fromIndex,
+    final int toIndex)
+  {
+    Objects.checkFromToIndex(fromIndex, toIndex, this.elements.size());
+
+    if (fromIndex == toIndex) {
+      return;
+    }
+
+    this.beginChange();
+    try {
+      final var range = this.elements.subList(fromIndex, toIndex);
+      final var removed = new ArrayList<>(range);
+      range.clear();
+      this.nextRemove(fromIndex, removed);
+    } finally {
+      this.endChange();
+    }
+  }
+
+  @Override
+  public boolean removeAll(
+    final Collection<?> collection)
+  {
+    Objects.requireNonNull(collection, "collection");
+    return this.removeMatching(collection, true);
+  }
+
+  @Override
+  public boolean retainAll(
+    final Collection<?> collection)
+  {
+    Objects.requireNonNull(collection, "collection");
+    return this.removeMatching(collection, false);
+  }
+
+  /**
+   * Remove elements in a single pass over the list. Runs of removed
+   * elements are published from the end of the list backwards, so that
+   * the index of each run is unaffected by the runs published before it.
+   */
+
+  private boolean removeMatching(
+    final Collection<?> collection,
+    final boolean contained)
+  {
+    final var size = this.elements.size();
+    final var removals = new BitSet(size);
+    for (int index = 0; index < size; ++index) {
+      if (collection.contains(this.elements.get(index)) == contained) {
+        removals.set(index);
+      }
+    }
+    if (removals.isEmpty()) {
+      return false;
+    }
+
+    this.beginChange();
+    try {
+      var end = size;
+      while (true) {
+        final var last = removals.previousSetBit(end - 1);
+        if (last < 0) {
+          break;
+        }
+        final var first = removals.previousClearBit(last) + 1;
+        this.nextRemove(
+          first, new ArrayList<>(this.elements.subList(first, last + 1)));
+        end = first;
+      }
+
+      var output = 0;
+      for (int index = 0; index < size; ++index) {
+        if (!removals.get(index)) {
+          this.elements.set(output, this.elements.get(index));
+          ++output;
+        }
+      }
+      this.elements.subList(output, size).clear();
+    } finally {
+      this.endChange();
+    }
+    return true;
+  }
+
+  @Override
+  public E get(
+    final int index)
+  {
+    return this.elements.get(index);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.elements.size();
+  }
+
+  @Override
+  protected void doAdd(
+    final int index,
+    final E element)
+  {
+    this.elements.add(index, element);
+  }
+
+  @Override
+  protected E doSet(
+    final int index,
+    final E element)
+  {
+    return this.elements.set(index, element);
+  }
+
+  @Override
+  protected E doRemove(
+    final int index)
+  {
+    return this.elements.remove(index);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2026 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jwheatsheaf.ui.internal;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Functions to produce keys for searching file names.
+ */
+
+public final class JWSearchKeys
+{
+  private JWSearchKeys()
+  {
+
+  }
+
+  /**
+   * Produce a search key for the given text. The text is normalized to
+   * Unicode compatibility composed form (NFKC) and then case-folded in a
+   * locale-independent manner, so that (for example) "FILE", "file", and
+   * "file" written with the U+FB01 ligature all produce the same key.
+   * A search matches a name if the key of the name contains the key of the
+   * search text.
+   *
+   * @param text The text
+   *
+   * @return The search key
+   */
+
+  public static String searchKeyOf(
+    final String text)
+  {
+    Objects.requireNonNull(text, "text");
+
+    final var normalized =
+      Normalizer.normalize(text, Normalizer.Form.NFKC);
+
+    /*
+     * Upper-casing first expands characters such as U+00DF into "SS", and
+     * maps the various forms of characters such as sigma onto a single
+     * upper case form, before everything is lower-cased.
+     */
+
+    return normalized.toUpperCase(Locale.ROOT)
+      .toLowerCase(Locale.ROOT);
+  }
+}
@@ -20,6 +20,7 @@ import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The default application string provider.
@@ -28,11 +29,13 @@ import java.util.ResourceBundle;
 public final class JWStrings
 {
   private final ResourceBundle resourceBundle;
+  private final ConcurrentHashMap<String, MessageFormat> formats;
 
   private JWStrings(
     final ResourceBundle inResourceBundle)
   {
     this.resourceBundle = inResourceBundle;
+    this.formats = new ConcurrentHashMap<>();
   }
 
   /**
@@ -80,7 +83,20 @@ public final class JWStrings
     final String idId,
     final Object... inArgs)
   {
-    return MessageFormat.format(this.resourceBundle.getString(idId), inArgs);
+    /*
+     * Each message format is compiled once. Message formats are not
+     * thread-safe, and so each is locked during formatting.
+     */
+
+    final var messageFormat =
+      this.formats.computeIfAbsent(
+        idId,
+        id -> new MessageFormat(this.resourceBundle.getString(id))
+      );
+
+    synchronized (messageFormat) {
+      return messageFormat.format(inArgs);
+    }
   }
 
   /**
@@ -17,6 +17,7 @@
 package com.io7m.jwheatsheaf.ui.internal;
 
 import com.io7m.junreachable.UnreachableCodeException;
+import javafx.scene.control.Cell;
 import javafx.scene.control.Tooltip;
 
 import java.util.Objects;
@@ -36,14 +37,14 @@ public final class JWToolTips
   }
 
   /**
-   * Create a tooltip for the given file item.
+   * Produce tooltip text for the given file item.
    *
    * @param item The item
    *
-   * @return A tooltip
+   * @return The tooltip text
    */
 
-  public Tooltip tooltipOf(
+  public String textOf(
     final JWFileItem item)
   {
     Objects.requireNonNull(item, "item");
@@ -52,10 +53,36 @@ public final class JWToolTips
       case REGULAR_FILE:
       case SYMBOLIC_LINK:
       case UNKNOWN:
-        return new Tooltip(this.strings.tooltipFile(item.path()));
+        return this.strings.tooltipFile(item.path());
       case DIRECTORY:
-        return new Tooltip(this.strings.tooltipDirectory(item.path()));
+        return this.strings.tooltipDirectory(item.path());
     }
     throw new UnreachableCodeException();
   }
+
+  /**
+   * Create a tooltip for the given cell. The tooltip is intended to be
+   * created once per cell and reused as the cell is updated; the text of the
+   * tooltip is produced from the cell's current item only when the tooltip
+   * is about to be shown.
+   *
+   * @param cell The cell
+   *
+   * @return A tooltip
+   */
+
+  public Tooltip tooltipFor(
+    final Cell<JWFileItem> cell)
+  {
+    Objects.requireNonNull(cell, "cell");
+
+    final var tooltip = new Tooltip();
+    tooltip.setOnShowing(event -> {
+      final var item = cell.getItem();
+      if (item != null) {
+        tooltip.setText(this.textOf(item));
+      }
+    });
+    return tooltip;
+  }
 }
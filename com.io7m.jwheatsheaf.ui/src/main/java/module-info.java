@@ -29,6 +29,7 @@ module com.io7m.jwheatsheaf.ui
   requires com.io7m.junreachable.core;
   requires javafx.controls;
   requires javafx.fxml;
+  requires jdk.jfr;
   requires org.slf4j;
 
   requires transitive com.io7m.jwheatsheaf.api;